@@ -9,15 +9,235 @@ CREATE TABLE IF NOT EXISTS devices (
     name        VARCHAR(100) NOT NULL,
     type        VARCHAR(50)  NOT NULL,
     status      VARCHAR(50)  NOT NULL DEFAULT 'ACTIVE',
-    ip_address  VARCHAR(45),
+    ip_address  INET,
     location    VARCHAR(100),
-    created_at  TIMESTAMP    NOT NULL DEFAULT NOW()
+    created_at  TIMESTAMP    NOT NULL DEFAULT NOW(),
+    version     INTEGER      NOT NULL DEFAULT 0
 );
 
--- Indexes for common query patterns
-CREATE INDEX IF NOT EXISTS idx_devices_type     ON devices(type);
-CREATE INDEX IF NOT EXISTS idx_devices_status   ON devices(status);
-CREATE INDEX IF NOT EXISTS idx_devices_name     ON devices(LOWER(name));
+-- Row version for optimistic concurrency: every UPDATE sets version = version + 1,
+-- and a write based on an older read adds "AND version = ?" so it matches no
+-- row instead of silently overwriting someone else's change.
+ALTER TABLE devices ADD COLUMN IF NOT EXISTS version INTEGER NOT NULL DEFAULT 0;
+
+-- Trigram indexes for substring search (name ILIKE '%rack%' etc.).
+-- pg_trgm is a "trusted" extension since PostgreSQL 13, so the database owner
+-- can install it without superuser rights. A plain B-tree such as the former
+-- LOWER(name) index cannot serve a leading-wildcard LIKE at all.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_devices_name_trgm     ON devices USING gin (name gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_devices_location_trgm ON devices USING gin (location gin_trgm_ops);
+DROP INDEX IF EXISTS idx_devices_name;
+
+-- IP addresses are stored as inet rather than text, so they are validated,
+-- compared numerically (10.0.0.9 < 10.0.0.10) and stored in one canonical form
+-- (010.0.0.1 and 10.0.0.1 are the same address). Existing text columns are
+-- converted in place; the conversion stops if any stored value is not an
+-- address, leaving the column untouched until those rows are fixed.
+-- host() drops the prefix length, so every stored value is a single host.
+-- pg_input_is_valid() needs PostgreSQL 16, so the check casts each value in a
+-- session-local function that catches the error instead.
+DROP INDEX IF EXISTS idx_devices_ip_trgm;
+CREATE OR REPLACE FUNCTION pg_temp.is_inet(value TEXT) RETURNS BOOLEAN AS $$
+BEGIN
+    PERFORM value::inet;
+    RETURN true;
+EXCEPTION WHEN invalid_text_representation THEN
+    RETURN false;
+END;
+$$ LANGUAGE plpgsql;
+DO $$
+DECLARE
+    invalid BIGINT;
+BEGIN
+    IF (SELECT data_type FROM information_schema.columns
+        WHERE table_name = 'devices' AND column_name = 'ip_address') <> 'inet' THEN
+        SELECT count(*) INTO invalid FROM devices
+        WHERE NULLIF(btrim(ip_address), '') IS NOT NULL
+          AND NOT pg_temp.is_inet(btrim(ip_address));
+        IF invalid > 0 THEN
+            RAISE EXCEPTION '% devices have an ip_address that is not an IP address', invalid
+                USING HINT = 'Correct or clear them, then run this script again.';
+        END IF;
+        ALTER TABLE devices ALTER COLUMN ip_address TYPE INET
+            USING host(NULLIF(btrim(ip_address), '')::inet)::inet;
+    END IF;
+END $$;
+
+-- Subnet lookups (ip_address <<= '10.0.0.0/16') descend a GiST tree over the
+-- address space instead of scanning; a B-tree cannot answer containment.
+-- Substring search matches the address text, so its trigram index is on host().
+CREATE INDEX IF NOT EXISTS idx_devices_ip_gist ON devices USING gist (ip_address inet_ops);
+CREATE INDEX IF NOT EXISTS idx_devices_ip_text_trgm ON devices USING gin (host(ip_address) gin_trgm_ops);
+
+-- Keyset pagination seeks on (name, id); the filtered variants lead with the
+-- equality column so "WHERE type = ? AND (name, id) > (?, ?)" is one range scan.
+-- They also serve plain type/status lookups, replacing the single-column indexes.
+CREATE INDEX IF NOT EXISTS idx_devices_name_id         ON devices(name, id);
+CREATE INDEX IF NOT EXISTS idx_devices_type_name_id    ON devices(type, name, id);
+CREATE INDEX IF NOT EXISTS idx_devices_status_name_id  ON devices(status, name, id);
+DROP INDEX IF EXISTS idx_devices_type;
+DROP INDEX IF EXISTS idx_devices_status;
+
+-- reconcile merges a sorted discovery file against all devices streamed in
+-- (name, IP address) order, compared as bytes whatever the database locale.
+-- Walking this index returns them in that order without sorting millions of rows.
+CREATE INDEX IF NOT EXISTS idx_devices_natural_key
+    ON devices ((name COLLATE "C"), (host(ip_address) COLLATE "C") NULLS FIRST, id);
+
+-- Per-location counts for the summary (GROUP BY location) can be answered from
+-- this index alone; per-type and per-status counts use the indexes above.
+CREATE INDEX IF NOT EXISTS idx_devices_location ON devices(location);
+
+-- Change notifications for client caches and "watch": every committed change
+-- is published on channel device_changes as "<op> <id> <version>", e.g.
+-- "UPDATE 0f8e…c1 3". Statement-level triggers with transition tables keep
+-- bulk writes cheap: a statement touching more than 1000 rows (an import, a
+-- bulk status change) sends a single "RELOAD" instead of one message per row.
+-- NOTIFY is transactional, so listeners only hear about committed changes.
+CREATE OR REPLACE FUNCTION notify_device_changes() RETURNS trigger AS $$
+DECLARE
+    changed BIGINT;
+BEGIN
+    IF TG_OP = 'TRUNCATE' THEN
+        PERFORM pg_notify('device_changes', 'RELOAD');
+        RETURN NULL;
+    ELSIF TG_OP = 'DELETE' THEN
+        SELECT count(*) INTO changed FROM old_rows;
+    ELSE
+        SELECT count(*) INTO changed FROM new_rows;
+    END IF;
+
+    IF changed > 1000 THEN
+        PERFORM pg_notify('device_changes', 'RELOAD');
+    ELSIF TG_OP = 'DELETE' THEN
+        PERFORM pg_notify('device_changes', 'DELETE ' || id || ' ' || version) FROM old_rows;
+    ELSE
+        PERFORM pg_notify('device_changes', TG_OP || ' ' || id || ' ' || version) FROM new_rows;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS devices_notify_insert   ON devices;
+DROP TRIGGER IF EXISTS devices_notify_update   ON devices;
+DROP TRIGGER IF EXISTS devices_notify_delete   ON devices;
+DROP TRIGGER IF EXISTS devices_notify_truncate ON devices;
+CREATE TRIGGER devices_notify_insert AFTER INSERT ON devices
+    REFERENCING NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION notify_device_changes();
+CREATE TRIGGER devices_notify_update AFTER UPDATE ON devices
+    REFERENCING NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION notify_device_changes();
+CREATE TRIGGER devices_notify_delete AFTER DELETE ON devices
+    REFERENCING OLD TABLE AS old_rows FOR EACH STATEMENT EXECUTE FUNCTION notify_device_changes();
+CREATE TRIGGER devices_notify_truncate AFTER TRUNCATE ON devices
+    FOR EACH STATEMENT EXECUTE FUNCTION notify_device_changes();
+
+-- Delta refresh for binary snapshots ("snapshot load --refresh"): inserts and
+-- updates stamp the row with the id of their transaction, and deletes leave a
+-- tombstone stamped the same way. A snapshot records as its watermark the
+-- oldest transaction still running when it was read (pg_snapshot_xmin): every
+-- change it cannot contain has an id at least that large, so the rows and
+-- tombstones stamped at or after the watermark are a complete delta (perhaps
+-- repeating a few changes the snapshot already has). changed_xid is left
+-- unindexed so updates stay HOT; the delta query scans the table, which is
+-- still far cheaper than shipping every row. Existing rows get 0.
+ALTER TABLE devices ADD COLUMN IF NOT EXISTS changed_xid xid8 NOT NULL DEFAULT '0';
+ALTER TABLE devices ALTER COLUMN changed_xid SET DEFAULT pg_current_xact_id();
+
+-- A TRUNCATE is recorded as the nil UUID, i.e. "everything before is gone".
+--
+-- Tombstones are kept for device_inventory.tombstone_retention (default 30
+-- days; e.g. ALTER DATABASE devicedb SET device_inventory.tombstone_retention
+-- = '7 days'). Pruning moves the nil UUID up to the newest pruned tombstone,
+-- so a watermark from before the retention horizon gets a full delta instead
+-- of missing deletes. A DELETE only prunes once the oldest tombstone is a
+-- tenth of the retention past the horizon (one index probe otherwise), so
+-- the work is batched rather than paid by every DELETE; to prune on a
+-- schedule as well, run SELECT prune_device_tombstones(<retention>) from cron.
+CREATE TABLE IF NOT EXISTS device_tombstones (
+    id          UUID      PRIMARY KEY,
+    deleted_xid xid8      NOT NULL DEFAULT pg_current_xact_id(),
+    deleted_at  TIMESTAMP NOT NULL DEFAULT NOW()
+);
+ALTER TABLE device_tombstones ADD COLUMN IF NOT EXISTS deleted_at TIMESTAMP NOT NULL DEFAULT NOW();
+CREATE INDEX IF NOT EXISTS idx_device_tombstones_xid ON device_tombstones (deleted_xid);
+CREATE INDEX IF NOT EXISTS idx_device_tombstones_deleted_at ON device_tombstones (deleted_at);
+
+CREATE OR REPLACE FUNCTION prune_device_tombstones(retention INTERVAL) RETURNS BIGINT AS $$
+DECLARE
+    horizon xid8;
+    pruned  BIGINT;
+BEGIN
+    WITH gone AS (
+        DELETE FROM device_tombstones
+        WHERE deleted_at < NOW() - retention AND id <> '00000000-0000-0000-0000-000000000000'
+        RETURNING deleted_xid
+    )
+    SELECT max(deleted_xid::text::bigint)::text::xid8, count(*) INTO horizon, pruned FROM gone;
+    IF horizon IS NOT NULL THEN
+        INSERT INTO device_tombstones (id, deleted_xid) VALUES ('00000000-0000-0000-0000-000000000000', horizon)
+        ON CONFLICT (id) DO UPDATE SET deleted_xid = GREATEST(device_tombstones.deleted_xid, EXCLUDED.deleted_xid);
+    END IF;
+    RETURN pruned;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION stamp_device_change() RETURNS trigger AS $$
+BEGIN
+    NEW.changed_xid := pg_current_xact_id();
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION record_device_tombstones() RETURNS trigger AS $$
+DECLARE
+    retention INTERVAL := COALESCE(
+            NULLIF(current_setting('device_inventory.tombstone_retention', true), ''), '30 days')::interval;
+BEGIN
+    IF TG_OP = 'TRUNCATE' THEN
+        INSERT INTO device_tombstones (id) VALUES ('00000000-0000-0000-0000-000000000000')
+        ON CONFLICT (id) DO UPDATE SET deleted_xid = EXCLUDED.deleted_xid, deleted_at = EXCLUDED.deleted_at;
+    ELSE
+        INSERT INTO device_tombstones (id) SELECT id FROM old_rows
+        ON CONFLICT (id) DO UPDATE SET deleted_xid = EXCLUDED.deleted_xid, deleted_at = EXCLUDED.deleted_at;
+    END IF;
+    IF (SELECT min(deleted_at) FROM device_tombstones
+        WHERE id <> '00000000-0000-0000-0000-000000000000') < NOW() - retention * 1.1 THEN
+        PERFORM prune_device_tombstones(retention);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS devices_stamp_update       ON devices;
+DROP TRIGGER IF EXISTS devices_tombstone_delete   ON devices;
+DROP TRIGGER IF EXISTS devices_tombstone_truncate ON devices;
+CREATE TRIGGER devices_stamp_update BEFORE UPDATE ON devices
+    FOR EACH ROW EXECUTE FUNCTION stamp_device_change();
+CREATE TRIGGER devices_tombstone_delete AFTER DELETE ON devices
+    REFERENCING OLD TABLE AS old_rows FOR EACH STATEMENT EXECUTE FUNCTION record_device_tombstones();
+CREATE TRIGGER devices_tombstone_truncate AFTER TRUNCATE ON devices
+    FOR EACH STATEMENT EXECUTE FUNCTION record_device_tombstones();
+
+-- Offline write journals replayed by JournalingDeviceDAO: the last entry
+-- applied from each journal, advanced in the same transaction as the writes,
+-- so a batch retried after a crash or timeout is skipped instead of applied twice.
+CREATE TABLE IF NOT EXISTS device_journals (
+    journal_id UUID      PRIMARY KEY,
+    last_seq   BIGINT    NOT NULL DEFAULT -1,
+    synced_at  TIMESTAMP
+);
+
+-- Entries of the latest batches that were rejected (stale version, missing
+-- device), so a retried batch reports them again instead of as applied.
+-- Rows are deleted once a batch starts past them.
+CREATE TABLE IF NOT EXISTS device_journal_rejects (
+    journal_id UUID   NOT NULL REFERENCES device_journals ON DELETE CASCADE,
+    seq        BIGINT NOT NULL,
+    reason     TEXT   NOT NULL,
+    PRIMARY KEY (journal_id, seq)
+);
 
 -- Sample data for quick testing
 INSERT INTO devices (name, type, status, ip_address, location) VALUES
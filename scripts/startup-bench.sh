@@ -0,0 +1,61 @@
+#!/usr/bin/env bash
+#
+# Startup-time benchmark for one-shot commands.
+#
+# Runs the same command RUNS times per JVM configuration and prints the median
+# wall-clock time and the median time to command completion reported by the
+# CLI (-Dstartup.timing=true: milliseconds from JVM start until the command
+# has finished, connecting, querying and printing included; unlike the wall
+# time, JVM shutdown is not counted).
+#
+#   mvn -P cds -DskipTests package           # fat JAR + AppCDS archive
+#   scripts/startup-bench.sh                 # get <nil uuid>, 10 runs each
+#   RUNS=20 scripts/startup-bench.sh list --type router
+#
+# Needs db.properties in the working directory and a reachable database.
+# Configurations whose archive does not exist are skipped.
+
+set -euo pipefail
+cd "$(dirname "$0")/.."
+
+JAR=${JAR:-target/device-inventory-cli-1.0.0-jar-with-dependencies.jar}
+JSA=${JSA:-target/device-inventory-cli.jsa}
+RUNS=${RUNS:-10}
+
+if [ $# -eq 0 ]; then
+    set -- get 00000000-0000-0000-0000-000000000000
+fi
+CMD=("$@")
+
+median() {
+    sort -n | awk '{ v[NR] = $1 } END { if (NR) print (NR % 2 ? v[(NR + 1) / 2] : int((v[NR / 2] + v[NR / 2 + 1]) / 2)) }'
+}
+
+bench() {
+    local label=$1
+    shift
+    local wall=() completed=() start end timing
+
+    java "$@" -jar "$JAR" "${CMD[@]}" > /dev/null 2>&1 || true    # warm the page cache
+    for _ in $(seq "$RUNS"); do
+        start=$(date +%s%N)
+        timing=$(java "$@" -Dstartup.timing=true -jar "$JAR" "${CMD[@]}" 2>&1 > /dev/null \
+                 | grep '^startup.timing' || true)
+        end=$(date +%s%N)
+        wall+=($(( (end - start) / 1000000 )))
+        completed+=("$(sed -n 's/.*command-done=\([0-9]*\).*/\1/p' <<< "$timing")")
+    done
+
+    printf '%-26s wall %5s ms   time to command completion %5s ms   (median of %d)\n' "$label" \
+        "$(printf '%s\n' "${wall[@]}" | median)" "$(printf '%s\n' "${completed[@]}" | median)" "$RUNS"
+}
+
+echo "Command: ${CMD[*]}"
+bench "no CDS"                      -Xshare:off
+bench "JDK CDS (default)"           -Xshare:auto
+if [ -f "$JSA" ]; then
+    bench "AppCDS"                  -XX:SharedArchiveFile="$JSA"
+    bench "AppCDS + C1 only"        -XX:SharedArchiveFile="$JSA" -XX:TieredStopAtLevel=1
+else
+    echo "(no $JSA — build it with: mvn -P cds -DskipTests package)"
+fi
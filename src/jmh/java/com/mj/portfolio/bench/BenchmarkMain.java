@@ -0,0 +1,59 @@
+package com.mj.portfolio.bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+
+/**
+ * Entry point of {@code target/benchmarks.jar}.
+ *
+ * <p>Accepts the usual JMH command line (benchmark regex, {@code -f},
+ * {@code -wi}, {@code -p rows=…}, …) and adds two defaults on top:
+ * <ul>
+ *   <li>the GC profiler, so every run reports {@code gc.alloc.rate.norm}
+ *       (bytes allocated per operation) next to the timing;</li>
+ *   <li>JSON results in {@code jmh-result.json} unless {@code -rf}/{@code -rff}
+ *       are given, so runs of two releases can be diffed.</li>
+ * </ul>
+ * </p>
+ */
+public final class BenchmarkMain {
+
+    private BenchmarkMain() {}
+
+    public static void main(String[] args) throws RunnerException, IOException {
+        CommandLineOptions cmd;
+        try {
+            cmd = new CommandLineOptions(args);
+        } catch (CommandLineOptionException e) {
+            System.err.println("Error parsing command line: " + e.getMessage());
+            System.exit(2);
+            return;
+        }
+        if (cmd.shouldHelp()) {
+            cmd.showHelp();
+            return;
+        }
+        if (cmd.shouldList()) {
+            new Runner(cmd).list();
+            return;
+        }
+
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(cmd);
+        if (cmd.getProfilers().stream().noneMatch(p -> p.getKlass().equals("gc")
+                || p.getKlass().equals(GCProfiler.class.getName()))) {
+            options.addProfiler(GCProfiler.class);
+        }
+        if (!cmd.getResultFormat().hasValue() && !cmd.getResult().hasValue()) {
+            options.resultFormat(ResultFormatType.JSON).result("jmh-result.json");
+        }
+        new Runner(options.build()).run();
+    }
+}
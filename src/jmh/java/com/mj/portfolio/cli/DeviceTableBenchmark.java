@@ -0,0 +1,69 @@
+package com.mj.portfolio.cli;
+
+import com.mj.portfolio.model.Device;
+import com.mj.portfolio.model.DeviceStatus;
+import com.mj.portfolio.model.DeviceType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rendering one page of the interactive table ({@link DeviceTable}) into an
+ * in-memory stream, i.e. formatting and encoding without terminal I/O.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DeviceTableBenchmark {
+
+    @Param({"20"})
+    int rows;
+
+    private List<Device>          devices;
+    private ByteArrayOutputStream buffer;
+    private PrintStream           out;
+
+    @Setup
+    public void setUp() {
+        devices = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            devices.add(new Device(UUID.randomUUID(),
+                    "workstation-with-a-long-name-" + i,
+                    DeviceType.values()[i % DeviceType.values().length],
+                    DeviceStatus.values()[i % DeviceStatus.values().length],
+                    i % 4 == 0 ? null : "192.168.1." + i,
+                    "Building A, Floor " + (i % 5),
+                    LocalDateTime.of(2024, 3, 1, 8, 0).plusHours(i)));
+        }
+        buffer = new ByteArrayOutputStream(64 * 1024);
+        out    = new PrintStream(buffer, false, StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public int printPage() {
+        buffer.reset();
+        DeviceTable.print(out, devices);
+        out.flush();
+        return buffer.size();
+    }
+}
@@ -0,0 +1,150 @@
+package com.mj.portfolio.dao;
+
+import com.mj.portfolio.model.Device;
+import com.mj.portfolio.model.DeviceStatus;
+import com.mj.portfolio.model.DeviceType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Throughput of {@code callers} concurrent {@code findById} lookups: blocking
+ * DAO calls from one platform thread per caller, against
+ * {@link AsyncDeviceDAO} on a {@link BoundedExecutor}.
+ *
+ * <p>No database is involved: {@link PooledLatencyDAO} models a pool of
+ * {@code poolSize} connections, each lookup holding one for
+ * {@code latencyMicros}. The pool caps both variants at the same rate, so
+ * the scores show what the threading model costs on top — thread stacks,
+ * context switches and contention on the pool — rather than a faster
+ * database. Run on Java 21 to measure virtual threads; on 17 the async
+ * variant falls back to a platform pool of {@code poolSize} threads.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AsyncDeviceDAOBenchmark {
+
+    @Param({"1000"})
+    int callers;
+
+    @Param({"10"})
+    int poolSize;
+
+    @Param({"200"})
+    int latencyMicros;
+
+    private ExecutorService platformThreads;
+    private BoundedExecutor bounded;
+    private DeviceDAO       dao;
+    private AsyncDeviceDAO  async;
+    private UUID[]          ids;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dao             = new PooledLatencyDAO(poolSize, latencyMicros);
+        platformThreads = Executors.newFixedThreadPool(callers);
+        bounded         = new BoundedExecutor(poolSize);
+        async           = new AsyncDeviceDAO(dao, bounded);
+        ids             = new UUID[callers];
+        for (int i = 0; i < callers; i++) {
+            ids[i] = UUID.randomUUID();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        platformThreads.shutdownNow();
+        bounded.close();
+    }
+
+    /** One op = every caller's lookup answered; callers block in the DAO. */
+    @Benchmark
+    public int blocking() throws Exception {
+        Future<?>[] pending = new Future<?>[callers];
+        for (int i = 0; i < callers; i++) {
+            UUID id = ids[i];
+            pending[i] = platformThreads.submit(() -> dao.findById(id));
+        }
+        int found = 0;
+        for (Future<?> f : pending) {
+            found += ((Optional<?>) f.get()).isPresent() ? 1 : 0;
+        }
+        return found;
+    }
+
+    /** One op = every caller's lookup answered; callers compose futures. */
+    @Benchmark
+    public int async() {
+        List<CompletableFuture<Optional<Device>>> pending = new ArrayList<>(callers);
+        for (UUID id : ids) {
+            pending.add(async.findById(id));
+        }
+        int found = 0;
+        for (CompletableFuture<Optional<Device>> f : pending) {
+            found += f.join().isPresent() ? 1 : 0;
+        }
+        return found;
+    }
+
+    /**
+     * Stand-in for a database behind a connection pool of {@code poolSize}:
+     * a lookup waits for a "connection", then holds it for the query latency.
+     */
+    static final class PooledLatencyDAO implements DeviceDAO {
+        private final Semaphore connections;
+        private final long      latencyNanos;
+        private final Device    device = new Device(UUID.randomUUID(), "core-sw-01",
+                DeviceType.NETWORK_SWITCH, DeviceStatus.ACTIVE, "10.0.0.1", "DC1", null);
+
+        PooledLatencyDAO(int poolSize, int latencyMicros) {
+            this.connections  = new Semaphore(poolSize);
+            this.latencyNanos = TimeUnit.MICROSECONDS.toNanos(latencyMicros);
+        }
+
+        @Override
+        public Optional<Device> findById(UUID id) {
+            connections.acquireUninterruptibly();
+            try {
+                LockSupport.parkNanos(latencyNanos);   // network + query time
+                return Optional.of(device);
+            } finally {
+                connections.release();
+            }
+        }
+
+        // Only findById is exercised here.
+        @Override public List<Device> findAll()                    { return List.of(); }
+        @Override public List<Device> findByType(DeviceType type)  { return List.of(); }
+        @Override public List<Device> findByStatus(DeviceStatus s) { return List.of(); }
+        @Override public List<Device> search(String keyword)       { return List.of(); }
+        @Override public Device save(Device device)                { throw new UnsupportedOperationException(); }
+        @Override public Device update(Device device)              { throw new UnsupportedOperationException(); }
+        @Override public boolean delete(UUID id)                   { throw new UnsupportedOperationException(); }
+    }
+}
@@ -0,0 +1,111 @@
+package com.mj.portfolio.dao;
+
+import com.mj.portfolio.model.Device;
+import com.mj.portfolio.model.DeviceStatus;
+import com.mj.portfolio.model.DeviceType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read paths of {@link FileDeviceDAO} over a file of {@code devices} devices,
+ * a fifth of which have been updated once (so a scan also skips superseded
+ * records, as it would in a file that has not been compacted lately).
+ *
+ * <ul>
+ *   <li>{@code findById} — point lookup: hash index, then one record decoded
+ *       from the memory-mapped file;</li>
+ *   <li>{@code findByType} — sequential scan decoding every live record,
+ *       keeping one type in six;</li>
+ *   <li>{@code findAll} — the same scan keeping everything, plus the sort
+ *       by name.</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FileDeviceDAOBenchmark {
+
+    @Param({"100000"})
+    int devices;
+
+    private Path             file;
+    private FileDeviceDAO    dao;
+    private UUID[]           ids;
+    private SplittableRandom random;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = Files.createTempFile("devices-bench", ".db");
+        Files.delete(file);
+        dao  = new FileDeviceDAO(file, false);
+
+        DeviceType[]   types    = DeviceType.values();
+        DeviceStatus[] statuses = DeviceStatus.values();
+        List<Device>   batch    = new ArrayList<>();
+        ids = new UUID[devices];
+        for (int i = 0; i < devices; i++) {
+            batch.add(new Device(String.format("device-%06d", i), types[i % types.length],
+                    statuses[i % statuses.length], "10." + (i >> 16 & 255) + "." + (i >> 8 & 255) + "." + (i & 255),
+                    "Site " + (i % 50)));
+            if (batch.size() == 10_000 || i == devices - 1) {
+                dao.saveAll(batch);
+                int first = i - batch.size() + 1;
+                for (int j = 0; j < batch.size(); j++) {
+                    ids[first + j] = batch.get(j).getId();
+                }
+                batch.clear();
+            }
+        }
+        for (int i = 0; i < devices; i += 5) {
+            dao.updateStatus(List.of(ids[i]), DeviceStatus.MAINTENANCE);
+        }
+        random = new SplittableRandom(42);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        dao.close();
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Optional<Device> findById() {
+        return dao.findById(ids[random.nextInt(devices)]);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<Device> findByType() {
+        return dao.findByType(DeviceType.SERVER);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<Device> findAll() {
+        return dao.findAll();
+    }
+}
@@ -0,0 +1,85 @@
+package com.mj.portfolio.dao;
+
+import com.mj.portfolio.model.Device;
+import com.mj.portfolio.model.DeviceStatus;
+import com.mj.portfolio.model.DeviceType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of turning result rows into {@link Device} objects with
+ * {@link DeviceRowMapper}, per row and for a whole result set, against a
+ * {@link SyntheticResultSet} shaped like the {@code devices} table.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RowMappingBenchmark {
+
+    static final List<String> COLUMNS =
+            List.of("id", "name", "type", "status", "ip_address", "location", "created_at", "version");
+
+    @Param({"1000"})
+    int rows;
+
+    private ResultSet single;
+    private ResultSet many;
+
+    @Setup
+    public void setUp() throws SQLException {
+        single = SyntheticResultSet.of(COLUMNS, generate(1));
+        single.next();
+        many = SyntheticResultSet.of(COLUMNS, generate(rows));
+    }
+
+    @Benchmark
+    public Device mapRow() throws SQLException {
+        return DeviceRowMapper.map(single);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<Device> collectRows() throws SQLException {
+        SyntheticResultSet.rewind(many);
+        return DeviceRowMapper.collect(many);
+    }
+
+    static Object[][] generate(int count) {
+        DeviceType[]   types    = DeviceType.values();
+        DeviceStatus[] statuses = DeviceStatus.values();
+        LocalDateTime  base     = LocalDateTime.of(2024, 1, 1, 9, 0);
+        Object[][] data = new Object[count][];
+        for (int i = 0; i < count; i++) {
+            data[i] = new Object[] {
+                    UUID.randomUUID(),
+                    "device-" + i,
+                    types[i % types.length].name(),
+                    statuses[i % statuses.length].name(),
+                    i % 5 == 0 ? null : "10.0." + (i / 250 % 256) + "." + (i % 250),
+                    i % 3 == 0 ? null : "Rack " + (i % 40),
+                    base.plusMinutes(i),
+                    i % 7
+            };
+        }
+        return data;
+    }
+}
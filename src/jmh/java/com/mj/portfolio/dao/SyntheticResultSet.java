@@ -0,0 +1,102 @@
+package com.mj.portfolio.dao;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * In-memory {@link ResultSet} over pre-built rows, so row mapping can be
+ * measured without a database or driver in the way.
+ *
+ * <p>Implements the getters the DAO actually uses — {@code getString},
+ * {@code getInt}, {@code getObject} (with and without a target class) and
+ * {@code getTimestamp} — by column index and by label, like the driver does.
+ * Values are held as the driver would hand them out; timestamps are stored
+ * as {@link LocalDateTime} and converted on access. Call {@link #rewind()}
+ * to iterate again.</p>
+ */
+final class SyntheticResultSet implements InvocationHandler {
+
+    private final List<String> labels;
+    private final Object[][]   rows;
+    private int                cursor = -1;
+
+    private SyntheticResultSet(List<String> labels, Object[][] rows) {
+        this.labels = labels;
+        this.rows   = rows;
+    }
+
+    /** A ResultSet whose columns are {@code labels}, positioned before the first row. */
+    static ResultSet of(List<String> labels, Object[][] rows) {
+        return (ResultSet) Proxy.newProxyInstance(
+                SyntheticResultSet.class.getClassLoader(),
+                new Class<?>[] { ResultSet.class },
+                new SyntheticResultSet(labels, rows));
+    }
+
+    /** Positions {@code rs} (created by {@link #of}) before the first row again. */
+    static void rewind(ResultSet rs) {
+        ((SyntheticResultSet) Proxy.getInvocationHandler(rs)).cursor = -1;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws SQLException {
+        switch (method.getName()) {
+            case "next":
+                return ++cursor < rows.length;
+            case "close":
+                return null;
+            case "isClosed":
+                return false;
+            case "findColumn":
+                return column(args[0]);
+            case "getString":
+                Object value = value(args[0]);
+                return value == null ? null : value.toString();
+            case "getInt":
+                Object number = value(args[0]);
+                return number == null ? 0 : ((Number) number).intValue();
+            case "getObject":
+                return args.length == 1 ? value(args[0]) : convert(value(args[0]), (Class<?>) args[1]);
+            case "getTimestamp":
+                return convert(value(args[0]), Timestamp.class);
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "equals":
+                return proxy == args[0];
+            default:
+                throw new SQLException("Not supported by SyntheticResultSet: " + method.getName());
+        }
+    }
+
+    private Object value(Object column) throws SQLException {
+        return rows[cursor][column(column) - 1];
+    }
+
+    private int column(Object column) throws SQLException {
+        if (column instanceof Integer index) {
+            return index;
+        }
+        int index = labels.indexOf(((String) column).toLowerCase(Locale.ROOT));
+        if (index < 0) {
+            throw new SQLException("No such column: " + column);
+        }
+        return index + 1;
+    }
+
+    private static Object convert(Object value, Class<?> type) throws SQLException {
+        if (value == null || type.isInstance(value)) {
+            return value;
+        }
+        if (type == Timestamp.class && value instanceof LocalDateTime ldt) {
+            return Timestamp.valueOf(ldt);
+        }
+        throw new SQLException("Cannot convert " + value.getClass().getName() + " to " + type.getName());
+    }
+}
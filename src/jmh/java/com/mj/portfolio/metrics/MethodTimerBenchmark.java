@@ -0,0 +1,47 @@
+package com.mj.portfolio.metrics;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What timing a DAO call costs: {@code untimed} is the bare call, {@code timed}
+ * the same call through a {@link MethodTimer} shared by all threads, as in
+ * {@code InstrumentedDeviceDAO}. Run with {@code -t 4} to see the cost under
+ * contention on one histogram.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(1)
+public class MethodTimerBenchmark {
+
+    private final MethodTimer timer = new MethodTimer("bench");
+    private final String      value = "device";
+
+    @Benchmark
+    public String untimed() {
+        return call();
+    }
+
+    @Benchmark
+    public String timed() {
+        return timer.time(this::call);
+    }
+
+    private String call() {
+        return value;
+    }
+}
@@ -0,0 +1,49 @@
+package com.mj.portfolio.model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-call cost of the model helpers hit for every imported row
+ * ({@code fromInput}) and every displayed row ({@code getFormattedCreatedAt}).
+ * Inputs use the last enum constants and display-name spelling, the slowest
+ * path through the lookup loops.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ModelBenchmark {
+
+    private String typeInput   = " network switch ";
+    private String statusInput = " maintenance ";
+    private Device device      = new Device(null, "bench", DeviceType.SERVER, DeviceStatus.ACTIVE,
+            null, null, LocalDateTime.of(2024, 6, 1, 12, 30));
+
+    @Benchmark
+    public DeviceType typeFromInput() {
+        return DeviceType.fromInput(typeInput);
+    }
+
+    @Benchmark
+    public DeviceStatus statusFromInput() {
+        return DeviceStatus.fromInput(statusInput);
+    }
+
+    @Benchmark
+    public String formattedCreatedAt() {
+        return device.getFormattedCreatedAt();
+    }
+}
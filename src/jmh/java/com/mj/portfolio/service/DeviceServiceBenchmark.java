@@ -0,0 +1,47 @@
+package com.mj.portfolio.service;
+
+import com.mj.portfolio.model.Device;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validation cost per row on the import path: {@link DeviceService#parseDevice}
+ * for a valid row, and for a rejected one (which pays for the exception).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DeviceServiceBenchmark {
+
+    // parseDevice never touches the DAO.
+    private final DeviceService service = new DeviceService(null);
+
+    private String[] valid   = { " core-sw-01 ", "Network Switch", "active", " 10.0.0.1 ", "DC1 / Rack 4" };
+    private String[] invalid = { " ", "Server", "active", "10.0.0.2", "DC1" };
+
+    @Benchmark
+    public Device parseValid() {
+        return service.parseDevice(valid);
+    }
+
+    @Benchmark
+    public Object parseInvalid() {
+        try {
+            return service.parseDevice(invalid);
+        } catch (IllegalArgumentException e) {
+            return e;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.mj.portfolio.cache;
+
+/**
+ * Point-in-time counters of an {@link LruCache}.
+ *
+ * @param hits      lookups answered from the cache
+ * @param misses    lookups that had to go to the backing store
+ * @param evictions entries dropped because the cache was full or the entry expired
+ * @param size      entries currently held
+ */
+public record CacheStats(long hits, long misses, long evictions, int size) {
+
+    /** Fraction of lookups served from the cache, 0 when there were none. */
+    public double hitRate() {
+        long total = hits + misses;
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%,d hits, %,d misses (%.0f%% hit rate), %,d evictions, %,d entries",
+                hits, misses, hitRate() * 100, evictions, size);
+    }
+}
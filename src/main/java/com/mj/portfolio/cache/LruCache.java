@@ -0,0 +1,114 @@
+package com.mj.portfolio.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Small thread-safe cache with LRU eviction and a time-to-live per entry.
+ *
+ * <p>Backed by an access-ordered {@link LinkedHashMap}, which moves an entry
+ * to the tail on every read so the head is always the least recently used —
+ * exactly the one {@link LinkedHashMap#removeEldestEntry} drops once the
+ * cache is full.</p>
+ *
+ * <p>{@link #get(Object, Function)} loads missing values <em>outside</em> the
+ * lock. To stop a slow load from re-inserting a value that was invalidated
+ * while it ran, every invalidation bumps a generation counter and a loaded
+ * value is only stored if the generation is unchanged.</p>
+ */
+public class LruCache<K, V> {
+
+    private record Entry<V>(V value, long expiresAt) {}
+
+    private final int  maxEntries;
+    private final long ttlNanos;
+    private final Map<K, Entry<V>> map;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long generation;
+
+    /**
+     * @param maxEntries maximum number of entries before the LRU one is evicted
+     * @param ttlMillis  how long an entry stays valid; {@code 0} disables expiry
+     */
+    public LruCache(int maxEntries, long ttlMillis) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("Cache size must be positive: " + maxEntries);
+        }
+        this.maxEntries = maxEntries;
+        this.ttlNanos   = ttlMillis * 1_000_000L;
+        this.map = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > LruCache.this.maxEntries) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /** Returns the cached value, or {@code null} on a miss (counted as such). */
+    public synchronized V getIfPresent(K key) {
+        Entry<V> entry = map.get(key);
+        if (entry != null && ttlNanos > 0 && System.nanoTime() - entry.expiresAt() > 0) {
+            map.remove(key);
+            evictions++;
+            entry = null;
+        }
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.value();
+    }
+
+    /**
+     * Returns the cached value or computes it with {@code loader}. A
+     * {@code null} result is returned but not cached.
+     */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        long startGeneration;
+        synchronized (this) {
+            V cached = getIfPresent(key);
+            if (cached != null) {
+                return cached;
+            }
+            startGeneration = generation;
+        }
+        V loaded = loader.apply(key);
+        if (loaded != null) {
+            synchronized (this) {
+                if (generation == startGeneration) {
+                    map.put(key, new Entry<>(loaded, System.nanoTime() + ttlNanos));
+                }
+            }
+        }
+        return loaded;
+    }
+
+    /** Returns the cached value without touching hit/miss counters or TTL. */
+    public synchronized V peek(K key) {
+        Entry<V> entry = map.get(key);
+        return entry == null ? null : entry.value();
+    }
+
+    public synchronized void invalidate(K key) {
+        generation++;
+        map.remove(key);
+    }
+
+    public synchronized void invalidateAll() {
+        generation++;
+        map.clear();
+    }
+
+    public synchronized CacheStats stats() {
+        return new CacheStats(hits, misses, evictions, map.size());
+    }
+}
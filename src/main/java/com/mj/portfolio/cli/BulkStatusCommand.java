@@ -0,0 +1,109 @@
+package com.mj.portfolio.cli;
+
+import com.mj.portfolio.dao.DeviceFilter;
+import com.mj.portfolio.model.DeviceStatus;
+import com.mj.portfolio.model.DeviceType;
+import com.mj.portfolio.service.DeviceService;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@code bulk-status <status>} — moves many devices to a new status with a
+ * single UPDATE, e.g. a whole rack to MAINTENANCE.
+ *
+ * <p>The devices are picked either by id or by filter:
+ * <pre>
+ *   bulk-status maintenance --ids rack4.txt          one UUID per line, "-" for stdin
+ *   bulk-status maintenance --search "Rack 4" [--type server] [--status active]
+ *   bulk-status inactive --all
+ * </pre>
+ * A filter needs at least one of {@code --search}, {@code --type} and
+ * {@code --status}; changing every device requires {@code --all}. Devices
+ * already in the target status are not counted.</p>
+ */
+class BulkStatusCommand {
+
+    private final DeviceService service;
+
+    BulkStatusCommand(DeviceService service) {
+        this.service = service;
+    }
+
+    int run(CommandArgs args) throws IOException {
+        DeviceStatus target = DeviceStatus.fromInput(
+                args.required(0, "target status (usage: bulk-status <status> --ids <file> | --search <text>)"));
+
+        long start = System.nanoTime();
+        int changed;
+        String selection;
+        if (args.has("ids")) {
+            List<String> ids = readIds(args.option("ids", null));
+            changed   = service.changeStatus(ids, target);
+            selection = String.format("%,d listed device(s)", ids.size());
+        } else {
+            DeviceFilter filter = filter(args);
+            changed   = service.changeStatusWhere(filter, target);
+            selection = describe(filter);
+        }
+        double millis = (System.nanoTime() - start) / 1e6;
+
+        System.out.printf("  ✔ %,d device(s) set to %s (%s) in %.0f ms%n",
+                changed, target.getDisplayName(), selection, millis);
+        return 0;
+    }
+
+    private static DeviceFilter filter(CommandArgs args) {
+        DeviceFilter filter = DeviceFilter.all();
+        if (args.has("search")) {
+            filter = filter.withKeyword(args.option("search", null));
+        }
+        if (args.has("type")) {
+            filter = filter.withType(DeviceType.fromInput(args.option("type", null)));
+        }
+        if (args.has("status")) {
+            filter = filter.withStatus(DeviceStatus.fromInput(args.option("status", null)));
+        }
+        boolean unfiltered = filter.getType() == null && filter.getStatus() == null
+                && filter.getKeyword() == null;
+        if (unfiltered && !args.flag("all")) {
+            throw new IllegalArgumentException(
+                    "Select devices with --ids, --search, --type or --status (or --all for every device).");
+        }
+        return filter;
+    }
+
+    private static String describe(DeviceFilter filter) {
+        List<String> parts = new ArrayList<>();
+        if (filter.getKeyword() != null) parts.add("matching '" + filter.getKeyword() + "'");
+        if (filter.getType()    != null) parts.add("type " + filter.getType().getDisplayName());
+        if (filter.getStatus()  != null) parts.add("status " + filter.getStatus().getDisplayName());
+        return parts.isEmpty() ? "all devices" : String.join(", ", parts);
+    }
+
+    /** Non-blank lines of {@code source} ("-" = stdin), skipping {@code #} comments. */
+    private static List<String> readIds(String source) throws IOException {
+        List<String> ids = new ArrayList<>();
+        try (BufferedReader in = source.equals("-")
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+                : Files.newBufferedReader(Path.of(source), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                line = line.strip();
+                if (!line.isEmpty() && !line.startsWith("#")) {
+                    ids.add(line);
+                }
+            }
+        }
+        if (ids.isEmpty()) {
+            throw new IllegalArgumentException("No device IDs in " + source + ".");
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,89 @@
+package com.mj.portfolio.cli;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Minimal parser for non-interactive command lines such as
+ * {@code import devices.csv --rejects bad.csv}.
+ *
+ * <p>Supports {@code --key value} options, boolean {@code --flag}s (which must
+ * be declared up front so the parser knows they take no value) and positional
+ * arguments, in any order.</p>
+ */
+class CommandArgs {
+
+    private final List<String>        positional = new ArrayList<>();
+    private final Map<String, String> options    = new HashMap<>();
+
+    private CommandArgs() {}
+
+    /**
+     * Parses {@code args[start..]}.
+     *
+     * @param flags option names (without leading dashes) that take no value
+     */
+    static CommandArgs parse(String[] args, int start, String... flags) {
+        Set<String> flagNames = Set.of(flags);
+        CommandArgs parsed = new CommandArgs();
+
+        for (int i = start; i < args.length; i++) {
+            String arg = args[i];
+            if (!arg.startsWith("--") || arg.length() == 2) {
+                parsed.positional.add(arg);
+                continue;
+            }
+            String name = arg.substring(2);
+            int eq = name.indexOf('=');
+            if (eq >= 0) {
+                parsed.options.put(name.substring(0, eq), name.substring(eq + 1));
+            } else if (flagNames.contains(name)) {
+                parsed.options.put(name, "true");
+            } else if (i + 1 < args.length) {
+                parsed.options.put(name, args[++i]);
+            } else {
+                throw new IllegalArgumentException("Option --" + name + " requires a value.");
+            }
+        }
+        return parsed;
+    }
+
+    /** Positional argument at {@code index}, or an error naming {@code what} if missing. */
+    String required(int index, String what) {
+        if (index >= positional.size()) {
+            throw new IllegalArgumentException("Missing " + what + ".");
+        }
+        return positional.get(index);
+    }
+
+    List<String> positional() {
+        return positional;
+    }
+
+    String option(String name, String defaultValue) {
+        return options.getOrDefault(name, defaultValue);
+    }
+
+    int intOption(String name, int defaultValue) {
+        String value = options.get(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("--" + name + " must be a number, got '" + value + "'.");
+        }
+    }
+
+    boolean flag(String name) {
+        return Boolean.parseBoolean(options.get(name));
+    }
+
+    boolean has(String name) {
+        return options.containsKey(name);
+    }
+}
@@ -1,17 +1,42 @@
 package com.mj.portfolio.cli;
 
+import com.mj.portfolio.dao.CachingDeviceDAO;
+import com.mj.portfolio.dao.DeviceChange;
+import com.mj.portfolio.dao.DeviceChangeListener;
+import com.mj.portfolio.dao.DeviceDAO;
 import com.mj.portfolio.dao.DeviceDAOImpl;
+import com.mj.portfolio.dao.DeviceFilter;
+import com.mj.portfolio.dao.DeviceSnapshot;
+import com.mj.portfolio.dao.FileDeviceDAO;
+import com.mj.portfolio.dao.GroupingKey;
+import com.mj.portfolio.dao.InMemoryDeviceDAO;
+import com.mj.portfolio.dao.InstrumentedDeviceDAO;
+import com.mj.portfolio.dao.JournalingDeviceDAO;
+import com.mj.portfolio.dao.Page;
+import com.mj.portfolio.dao.ReplicaRoutingDeviceDAO;
 import com.mj.portfolio.db.DatabaseConfig;
 import com.mj.portfolio.exception.DAOException;
+import com.mj.portfolio.exception.StaleDeviceException;
+import com.mj.portfolio.jfr.CommandEvent;
+import com.mj.portfolio.metrics.MetricsDumper;
+import com.mj.portfolio.metrics.MetricsReport;
 import com.mj.portfolio.model.Device;
 import com.mj.portfolio.model.DeviceStatus;
 import com.mj.portfolio.model.DeviceType;
 import com.mj.portfolio.service.DeviceService;
 
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Scanner;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
@@ -31,10 +56,22 @@ import java.util.stream.Collectors;
  */
 public class DeviceInventoryCLI {
 
-    // ── Table column widths ──────────────────────────────────────────────────
-    private static final String ROW_FMT =
-            "  %-36s  %-22s  %-14s  %-13s  %-17s  %-20s  %s%n";
-    private static final String DIVIDER = "─".repeat(140);
+    private static final int PAGE_SIZE    = 20;   // rows per page when listing/filtering
+    private static final int SEARCH_LIMIT = 50;   // best matches shown per search
+
+    /** The offline write journal, if enabled; closed (and synced) on shutdown before the pool. */
+    private static volatile JournalingDeviceDAO journal;
+
+    /** Routes reads to {@code db.replica.urls}, if any; told about other clients' changes first. */
+    private static volatile ReplicaRoutingDeviceDAO replicas;
+
+    /** Times every call to the storage DAO, unless {@code metrics.enabled=false}. */
+    private static volatile InstrumentedDeviceDAO instrumented;
+
+    /** The read-through cache, if enabled; its hit rates are shown by menu option [s]. */
+    private static volatile CachingDeviceDAO      cache;
+    private static volatile MetricsDumper         metricsDump;
+    private static final    LocalDateTime         STARTED = LocalDateTime.now();
 
     private final DeviceService service;
     private final Scanner       scanner;
@@ -47,18 +84,278 @@ public class DeviceInventoryCLI {
     // ── Main ─────────────────────────────────────────────────────────────────
 
     public static void main(String[] args) {
+        long mainStarted = System.currentTimeMillis();
+        boolean interactive = args.length == 0;
+
         // Register shutdown hook so the connection pool closes cleanly on Ctrl+C
         Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            if (journal != null) {
+                journal.close();
+            }
+            if (metricsDump != null) {
+                metricsDump.close();
+            }
             DatabaseConfig.close();
-            System.out.println("\nConnection pool closed. Goodbye!");
+            if (interactive) {
+                System.out.println("\nConnection pool closed. Goodbye!");
+            }
         }));
 
-        DeviceService service = new DeviceService(
-                new DeviceDAOImpl(DatabaseConfig.getDataSource()));
+        DeviceService service = new DeviceService(createDAO(interactive ? Mode.INTERACTIVE
+                : args[0].equals("script") || args[0].equals("--script") ? Mode.SCRIPT
+                : Mode.ONE_SHOT));
 
+        if (!interactive) {
+            int exitCode = runCommand(service, args);
+            if (Boolean.getBoolean("startup.timing")) {
+                reportStartup(mainStarted);
+            }
+            System.exit(exitCode);
+        }
         new DeviceInventoryCLI(service).run();
     }
 
+    /** How the process was started; decides how much DAO infrastructure is worth building. */
+    private enum Mode { INTERACTIVE, SCRIPT, ONE_SHOT }
+
+    /**
+     * Builds the DAO chain from {@code db.properties}: the JDBC implementation
+     * (or a {@link FileDeviceDAO} with {@code db.backend=file}), reading from
+     * replicas through a {@link ReplicaRoutingDeviceDAO} when
+     * {@code db.replica.urls} lists any, timed by an
+     * {@link InstrumentedDeviceDAO} unless {@code metrics.enabled=false}, behind a
+     * {@link JournalingDeviceDAO} when {@code journal.enabled=true},
+     * optionally served from an {@link InMemoryDeviceDAO} snapshot when
+     * {@code inmemory.enabled=true} (warm-started from the
+     * {@link DeviceSnapshot} file at {@code inmemory.snapshot.path} if set), or wrapped in a {@link CachingDeviceDAO}
+     * when {@code cache.enabled=true}. The snapshot already answers every
+     * read, so the cache is skipped on top of it.
+     *
+     * <p>With {@code notify.enabled=true} the snapshot or cache also follows
+     * changes committed by other processes, through a
+     * {@link DeviceChangeListener}.</p>
+     *
+     * <p>Nothing connects until the first query. Non-interactive runs use a
+     * single connection instead of the pool, and a one-shot command skips the
+     * snapshot and cache, which cannot pay off within a single query.</p>
+     */
+    private static DeviceDAO createDAO(Mode mode) {
+        boolean   file = DatabaseConfig.getBackend().equals("file");
+        DeviceDAO dao;
+        if (file) {
+            FileDeviceDAO store = new FileDeviceDAO(DatabaseConfig.getFilePath(),
+                    Boolean.parseBoolean(DatabaseConfig.getProperty("db.file.sync", "true")));
+            Runtime.getRuntime().addShutdownHook(new Thread(store::close));
+            dao = store;
+        } else {
+            int batchSize = DatabaseConfig.getIntProperty("db.batch.size", DeviceDAOImpl.DEFAULT_BATCH_SIZE);
+            dao = new DeviceDAOImpl(DatabaseConfig.getLazyDataSource(mode != Mode.INTERACTIVE), batchSize);
+            List<DeviceDAOImpl> readers = DatabaseConfig.getLazyReplicaDataSources(mode != Mode.INTERACTIVE)
+                    .stream()
+                    .map(ds -> new DeviceDAOImpl(ds, batchSize))
+                    .toList();
+            if (!readers.isEmpty()) {
+                replicas = new ReplicaRoutingDeviceDAO(dao, readers,
+                        ReplicaRoutingDeviceDAO.Selection.fromInput(
+                                DatabaseConfig.getProperty("db.replica.selection", "round-robin")),
+                        DatabaseConfig.getIntProperty("db.replica.sticky.ms", 5000));
+                dao = replicas;
+            }
+        }
+        if (Boolean.parseBoolean(DatabaseConfig.getProperty("metrics.enabled", "true"))) {
+            instrumented = new InstrumentedDeviceDAO(dao);
+            dao = instrumented;
+            Path dumpPath = metricsDumpPath();
+            if (dumpPath != null && mode != Mode.ONE_SHOT) {
+                metricsDump = new MetricsDumper(dumpPath,
+                        DatabaseConfig.getIntProperty("metrics.dump.interval.seconds", 60),
+                        DeviceInventoryCLI::metricsReport);
+            }
+        }
+        if (!file && Boolean.parseBoolean(DatabaseConfig.getProperty("journal.enabled", "false"))) {
+            journal = new JournalingDeviceDAO(dao,
+                    Path.of(DatabaseConfig.getProperty("journal.path", "devices.journal").trim()),
+                    DatabaseConfig.getIntProperty("journal.batch.size", 500),
+                    DatabaseConfig.getIntProperty("journal.sync.interval.ms", 1000),
+                    DatabaseConfig.getIntProperty("journal.close.timeout.ms",
+                            (int) JournalingDeviceDAO.DEFAULT_CLOSE_TIMEOUT_MILLIS));
+            dao = journal;
+        }
+        if (mode == Mode.ONE_SHOT) {
+            return dao;
+        }
+
+        if (Boolean.parseBoolean(DatabaseConfig.getProperty("inmemory.enabled", "false"))) {
+            String snapshotPath = DatabaseConfig.getProperty("inmemory.snapshot.path", "").trim();
+            InMemoryDeviceDAO snapshot = snapshotPath.isEmpty()
+                    ? new InMemoryDeviceDAO(dao)
+                    : new InMemoryDeviceDAO(dao, DeviceSnapshot.warmStart(Path.of(snapshotPath), dao).devices());
+            if (!file) {
+                listenForChanges(snapshot::onChange);
+            }
+            return snapshot;
+        }
+        if (Boolean.parseBoolean(DatabaseConfig.getProperty("cache.enabled", "false"))) {
+            cache = new CachingDeviceDAO(dao,
+                    DatabaseConfig.getIntProperty("cache.max.entries", 10_000),
+                    DatabaseConfig.getIntProperty("cache.ttl.seconds", 60) * 1000L);
+            if (!file) {
+                listenForChanges(cache::onChange);
+            }
+            dao = cache;
+        }
+        return dao;
+    }
+
+    /** What this process has measured so far: DAO call latencies and, if there is one, the pool. */
+    private static MetricsReport metricsReport() {
+        return new MetricsReport(STARTED, LocalDateTime.now(), instrumented.getStats(),
+                DatabaseConfig.getPoolMetrics().snapshot());
+    }
+
+    /** {@code metrics.dump.path}, or {@code null} if metrics are not dumped. */
+    private static Path metricsDumpPath() {
+        String path = DatabaseConfig.getProperty("metrics.dump.path", "").trim();
+        return path.isEmpty() ? null : Path.of(path);
+    }
+
+    /**
+     * Starts a {@link DeviceChangeListener} feeding {@code consumer} if
+     * {@code notify.enabled=true}. Without it (or if listening fails) changes
+     * made by other processes show up only after the cache TTL, or never for
+     * the snapshot.
+     */
+    private static void listenForChanges(Consumer<DeviceChange> consumer) {
+        if (!Boolean.parseBoolean(DatabaseConfig.getProperty("notify.enabled", "false"))) {
+            return;
+        }
+        ReplicaRoutingDeviceDAO router = replicas;
+        try {
+            DeviceChangeListener listener = new DeviceChangeListener(DatabaseConfig::openConnection)
+                    .onChange(router == null ? consumer : change -> {
+                        router.onChange(change);   // re-read the change from the primary
+                        consumer.accept(change);
+                    })
+                    .start();
+            Runtime.getRuntime().addShutdownHook(new Thread(listener::close));
+        } catch (SQLException e) {
+            System.err.printf("  ! Not listening for device changes: %s%n", e.getMessage());
+        }
+    }
+
+    /**
+     * Prints {@code -Dstartup.timing=true} measurements for
+     * {@code scripts/startup-bench.sh}: milliseconds from JVM start to
+     * {@code main}, and to the end of the command (connecting, the query or
+     * queries and printing the result included).
+     */
+    private static void reportStartup(long mainStarted) {
+        long commandDone = System.currentTimeMillis();
+        long jvmStarted  = ManagementFactory.getRuntimeMXBean().getStartTime();
+        System.err.printf("startup.timing: main=%d command-done=%d ms since JVM start%n",
+                mainStarted - jvmStarted, commandDone - jvmStarted);
+    }
+
+    /**
+     * Runs a single non-interactive command (e.g. {@code import devices.csv})
+     * and returns the process exit code: 0 on success, 1 on failure, 2 on
+     * invalid usage.
+     */
+    static int runCommand(DeviceService service, String[] args) {
+        CommandEvent event = CommandEvent.begin(args[0], Arrays.asList(args).subList(1, args.length));
+        try {
+            return event.exitCode(dispatch(service, args));
+        } finally {
+            event.finish();
+        }
+    }
+
+    private static int dispatch(DeviceService service, String[] args) {
+        try {
+            return switch (args[0]) {
+                case "import" -> new ImportCommand(service).run(CommandArgs.parse(args, 1, "unique-ip"));
+                case "export" -> new ExportCommand(service).run(CommandArgs.parse(args, 1, "gzip"));
+                case "bulk-status" -> new BulkStatusCommand(service).run(CommandArgs.parse(args, 1, "all"));
+                case "summary" -> new SummaryCommand(service).run(CommandArgs.parse(args, 1));
+                case "subnet" -> new SubnetCommand(service).run(CommandArgs.parse(args, 1));
+                case "ip-conflicts" -> new IpConflictsCommand(service).run(CommandArgs.parse(args, 1));
+                case "ip-audit" -> new IpAuditCommand(service).run(CommandArgs.parse(args, 1));
+                case "reconcile" -> new ReconcileCommand(service).run(CommandArgs.parse(args, 1, "apply", "summary"));
+                case "snapshot" -> new SnapshotCommand(service).run(CommandArgs.parse(args, 1, "refresh", "compare"));
+                case "watch" -> new WatchCommand(service).run(CommandArgs.parse(args, 1));
+                case "journal" -> new JournalCommand(journal).run(CommandArgs.parse(args, 1));
+                case "stats" -> new StatsCommand(instrumented == null ? null : DeviceInventoryCLI::metricsReport,
+                        metricsDumpPath()).run(CommandArgs.parse(args, 1));
+                case "script", "--script" -> new ScriptCommand(service).runScript(CommandArgs.parse(args, 1));
+                case "add", "update", "delete", "get", "list", "search" -> new ScriptCommand(service).runOne(args);
+                case "help", "--help", "-h" -> {
+                    printUsage();
+                    yield 0;
+                }
+                default -> {
+                    System.err.printf("  ✗ Unknown command '%s'.%n", args[0]);
+                    printUsage();
+                    yield 2;
+                }
+            };
+        } catch (IllegalArgumentException e) {
+            System.err.printf("  ✗ %s%n", e.getMessage());
+            return 2;
+        } catch (DAOException e) {
+            System.err.printf("  ✗ Database error: %s%n", e.getMessage());
+            return 1;
+        } catch (IOException e) {
+            System.err.printf("  ✗ I/O error: %s%n", e.getMessage());
+            return 1;
+        }
+    }
+
+    private static void printUsage() {
+        System.err.println("""
+          Usage:
+            java -jar device-inventory-cli.jar                  interactive menu
+            java -jar device-inventory-cli.jar import <file>    bulk-load a CSV/TSV file
+                [--format csv|tsv] [--rejects <file>]
+                [--unique-ip]                                   also reject addresses already in use
+            java -jar device-inventory-cli.jar export           stream all devices to stdout or a file
+                [--format csv|jsonl] [--gzip] [--output <file>]
+            java -jar device-inventory-cli.jar add --name <n>   add a device (JSON Lines output)
+                [--type t] [--status s] [--ip a] [--location l]
+            java -jar device-inventory-cli.jar update <id>      change the given fields
+                [--name n] [--type t] [--status s] [--ip a] [--location l]
+            java -jar device-inventory-cli.jar delete|get <id>
+            java -jar device-inventory-cli.jar list             [--type t] [--status s]
+            java -jar device-inventory-cli.jar search <query>   [--limit n]
+            java -jar device-inventory-cli.jar bulk-status <s>  set the status of many devices at once
+                --ids <file|-> | [--search text] [--type t] [--status s] | --all
+            java -jar device-inventory-cli.jar summary          device counts per type, status, location
+                [--by type,status,location] [--top n]
+            java -jar device-inventory-cli.jar subnet <cidr>    devices with an IP address in a network,
+                                                                e.g. 10.0.0.0/16 or 2001:db8::/32
+            java -jar device-inventory-cli.jar ip-conflicts     IP addresses used by more than one device
+                                                                (exit code 1 if there are any)
+            java -jar device-inventory-cli.jar ip-audit         load all addresses into memory and report
+                [--check <file> [--format f]]                   conflicts, an import file's reused addresses,
+                [--subnets <cidr,cidr,...>]                     or device counts per subnet
+            java -jar device-inventory-cli.jar reconcile <file> make the inventory match a full export sorted
+                [--format f] [--apply] [--batch n]              by name, then IP address (dry run unless --apply)
+                [--summary]
+            java -jar device-inventory-cli.jar snapshot save <file>
+                                                                write all devices to a binary snapshot
+            java -jar device-inventory-cli.jar snapshot load <file>
+                [--refresh] [--compare]                         read one back (memory-mapped); apply the
+                                                                changes since it was saved, or time JDBC
+            java -jar device-inventory-cli.jar watch            print changes by any client as they commit
+                [--format text|jsonl]
+            java -jar device-inventory-cli.jar journal          offline write journal: pending writes,
+                [status|sync|conflicts]                         sync them now, or list rejected ones
+            java -jar device-inventory-cli.jar stats            DAO latencies and pool metrics, from the
+                [--file <metrics dump>]                         metrics dump of a running process
+            java -jar device-inventory-cli.jar script [file]    run one command per line from a file or
+                                                                stdin; consecutive writes share a transaction
+        """);
+    }
+
     // ── Main loop ────────────────────────────────────────────────────────────
 
     public void run() {
@@ -70,12 +367,18 @@ public class DeviceInventoryCLI {
             String choice = prompt("> ").trim();
             System.out.println();
 
+            CommandEvent event = CommandEvent.begin("menu", choice);
             try {
                 running = handleChoice(choice);
-            } catch (IllegalArgumentException e) {
+                event.exitCode(0);
+            } catch (IllegalArgumentException | StaleDeviceException e) {
                 printError(e.getMessage());
+                event.exitCode(e instanceof StaleDeviceException ? 1 : 2);
             } catch (DAOException e) {
                 printError("Database error: " + e.getMessage());
+                event.exitCode(1);
+            } finally {
+                event.finish();
             }
         }
     }
@@ -92,8 +395,10 @@ public class DeviceInventoryCLI {
             case "6" -> searchDevices();
             case "7" -> filterByType();
             case "8" -> filterByStatus();
+            case "9" -> showSummary();
+            case "s", "S" -> showStats();
             case "0" -> { return false; }
-            default  -> printError("Unknown option '" + choice + "'. Enter 0–8.");
+            default  -> printError("Unknown option '" + choice + "'. Enter 0–9 or s.");
         }
         return true;
     }
@@ -101,12 +406,7 @@ public class DeviceInventoryCLI {
     // ── Menu actions ─────────────────────────────────────────────────────────
 
     private void listAll() {
-        List<Device> devices = service.getAllDevices();
-        if (devices.isEmpty()) {
-            System.out.println("  No devices found.\n");
-            return;
-        }
-        printTable(devices);
+        browse(DeviceFilter.all(), "  No devices found.\n");
     }
 
     private void addDevice() {
@@ -166,7 +466,10 @@ public class DeviceInventoryCLI {
         String       newIp     = ip.isEmpty()       ? null : ip;
         String       newLoc    = location.isEmpty() ? null : location;
 
-        service.updateDevice(id, newName, newType, newStatus, newIp, newLoc);
+        // Only the changed fields are written, and only if nobody else has
+        // updated the device while the prompts were open.
+        service.updateDevice(id, service.newPatch(newName, newType, newStatus, newIp, newLoc)
+                .expectingVersion(current.getVersion()));
         System.out.println("\n  ✔ Device updated.\n");
     }
 
@@ -183,7 +486,7 @@ public class DeviceInventoryCLI {
         String confirm = scanner.nextLine().trim();
 
         if ("yes".equalsIgnoreCase(confirm)) {
-            boolean deleted = service.removeDevice(id);
+            boolean deleted = service.removeDevice(id, found.get().getVersion());
             System.out.println(deleted
                     ? "  ✔ Device deleted.\n"
                     : "  Device not found (may have been already deleted).\n");
@@ -193,13 +496,16 @@ public class DeviceInventoryCLI {
     }
 
     private void searchDevices() {
-        String keyword = promptRequired("  Search keyword: ");
-        List<Device> results = service.search(keyword);
+        System.out.println("  Tip: narrow with name:, ip:, location:, type: or status: "
+                + "(e.g. location:\"rack 4\" type:server)");
+        String keyword = promptRequired("  Search: ");
+        List<Device> results = service.search(keyword, SEARCH_LIMIT);
 
         if (results.isEmpty()) {
             System.out.printf("  No devices match '%s'.%n%n", keyword);
         } else {
-            System.out.printf("  %d result(s) for '%s':%n", results.size(), keyword);
+            System.out.printf("  %d best match(es) for '%s'%s:%n", results.size(), keyword,
+                    results.size() == SEARCH_LIMIT ? " (refine the query to see others)" : "");
             printTable(results);
         }
     }
@@ -208,25 +514,70 @@ public class DeviceInventoryCLI {
         System.out.println("  Available types: " + typeOptions());
         String input = promptRequired("  Type: ");
         DeviceType type = DeviceType.fromInput(input);
-        List<Device> results = service.filterByType(type);
-
-        if (results.isEmpty()) {
-            System.out.printf("  No devices of type '%s' found.%n%n", type.getDisplayName());
-        } else {
-            printTable(results);
-        }
+        browse(DeviceFilter.byType(type),
+                String.format("  No devices of type '%s' found.%n", type.getDisplayName()));
     }
 
     private void filterByStatus() {
         System.out.println("  Available statuses: " + statusOptions());
         String input = promptRequired("  Status: ");
         DeviceStatus status = DeviceStatus.fromInput(input);
-        List<Device> results = service.filterByStatus(status);
+        browse(DeviceFilter.byStatus(status),
+                String.format("  No devices with status '%s' found.%n", status.getDisplayName()));
+    }
 
-        if (results.isEmpty()) {
-            System.out.printf("  No devices with status '%s' found.%n%n", status.getDisplayName());
-        } else {
-            printTable(results);
+    private void showSummary() {
+        Set<GroupingKey> keys = EnumSet.allOf(GroupingKey.class);
+        SummaryCommand.print(System.out, service.summarize(), keys, SummaryCommand.DEFAULT_TOP);
+    }
+
+    private void showStats() {
+        if (instrumented == null && cache == null) {
+            printError("Metrics are disabled; set metrics.enabled=true in db.properties.");
+            return;
+        }
+        if (instrumented != null) {
+            metricsReport().print(System.out);
+        }
+        if (cache != null) {
+            System.out.println("  Device cache (by id): " + cache.getIdStats());
+            System.out.println("  Device cache (lists): " + cache.getListStats());
+        }
+        System.out.println();
+    }
+
+    /**
+     * Shows matching devices one page at a time, letting the user move
+     * forward and backward until they return to the menu.
+     */
+    private void browse(DeviceFilter filter, String emptyMessage) {
+        String token = null;
+        int pageNo = 1;
+        while (true) {
+            Page<Device> page = service.findPage(filter, token, PAGE_SIZE);
+            if (page.items().isEmpty()) {
+                System.out.println(pageNo == 1 ? emptyMessage : "  No more devices.\n");
+                return;
+            }
+            printTable(page.items());
+            if (!page.hasNext() && !page.hasPrevious()) {
+                return;
+            }
+
+            System.out.printf("  Page %d  %s%s[Enter] menu: ", pageNo,
+                    page.hasPrevious() ? "[p] previous  " : "",
+                    page.hasNext()     ? "[n] next  "     : "");
+            String nav = scanner.nextLine().trim().toLowerCase();
+            if (nav.equals("n") && page.hasNext()) {
+                token = page.nextToken();
+                pageNo++;
+            } else if (nav.equals("p") && page.hasPrevious()) {
+                token = page.previousToken();
+                pageNo--;
+            } else {
+                System.out.println();
+                return;
+            }
         }
     }
 
@@ -252,27 +603,14 @@ public class DeviceInventoryCLI {
           │  [6] Search devices             │
           │  [7] Filter by type             │
           │  [8] Filter by status           │
+          │  [9] Inventory summary          │
+          │  [s] Performance stats          │
           │  [0] Exit                       │
           └─────────────────────────────────┘""");
     }
 
     private void printTable(List<Device> devices) {
-        System.out.println();
-        System.out.printf(ROW_FMT,
-                "ID", "Name", "Type", "Status", "IP Address", "Location", "Created");
-        System.out.println("  " + DIVIDER);
-
-        for (Device d : devices) {
-            System.out.printf(ROW_FMT,
-                    d.getId(),
-                    truncate(d.getName(), 22),
-                    d.getType().getDisplayName(),
-                    d.getStatus().getDisplayName(),
-                    orDash(d.getIpAddress()),
-                    orDash(d.getLocation()),
-                    d.getFormattedCreatedAt());
-        }
-        System.out.println();
+        DeviceTable.print(System.out, devices);
     }
 
     private void printError(String message) {
@@ -333,12 +671,7 @@ public class DeviceInventoryCLI {
                 .collect(Collectors.joining(", "));
     }
 
-    private String truncate(String s, int max) {
-        if (s == null) return "—";
-        return s.length() <= max ? s : s.substring(0, max - 1) + "…";
-    }
-
     private String orDash(String s) {
-        return (s == null || s.isBlank()) ? "—" : s;
+        return DeviceTable.orDash(s);
     }
 }
@@ -0,0 +1,51 @@
+package com.mj.portfolio.cli;
+
+import com.mj.portfolio.model.Device;
+
+import java.io.PrintStream;
+import java.util.List;
+
+/**
+ * Renders devices as the fixed-width table shown by the interactive menu.
+ *
+ * <p>Kept separate from {@link DeviceInventoryCLI} so it can be written to
+ * any stream — and benchmarked — without a terminal.</p>
+ */
+final class DeviceTable {
+
+    // ── Table column widths ──────────────────────────────────────────────────
+    private static final String ROW_FMT =
+            "  %-36s  %-22s  %-14s  %-13s  %-17s  %-20s  %s%n";
+    private static final String DIVIDER = "─".repeat(140);
+
+    private DeviceTable() {}
+
+    /** Writes a header, a divider and one row per device to {@code out}. */
+    static void print(PrintStream out, List<Device> devices) {
+        out.println();
+        out.printf(ROW_FMT,
+                "ID", "Name", "Type", "Status", "IP Address", "Location", "Created");
+        out.println("  " + DIVIDER);
+
+        for (Device d : devices) {
+            out.printf(ROW_FMT,
+                    d.getId(),
+                    truncate(d.getName(), 22),
+                    d.getType().getDisplayName(),
+                    d.getStatus().getDisplayName(),
+                    orDash(d.getIpAddress()),
+                    orDash(d.getLocation()),
+                    d.getFormattedCreatedAt());
+        }
+        out.println();
+    }
+
+    static String truncate(String s, int max) {
+        if (s == null) return "—";
+        return s.length() <= max ? s : s.substring(0, max - 1) + "…";
+    }
+
+    static String orDash(String s) {
+        return (s == null || s.isBlank()) ? "—" : s;
+    }
+}
@@ -0,0 +1,153 @@
+package com.mj.portfolio.cli;
+
+import com.mj.portfolio.io.DelimitedReader;
+import com.mj.portfolio.io.DelimitedWriter;
+import com.mj.portfolio.service.DeviceService;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+
+/**
+ * {@code import <file>} — bulk-loads a CSV/TSV inventory dump.
+ *
+ * <p>Expected columns: {@code name, type, status, ip_address, location}
+ * (a header row starting with {@code name} is skipped automatically).
+ * The file is streamed row by row into {@link DeviceService#importDevices},
+ * which validates each row and feeds the valid ones to PostgreSQL's COPY;
+ * rejected rows are written to a reject file together with the reason.</p>
+ *
+ * <pre>
+ *   import devices.csv [--format csv|tsv] [--rejects devices.rejects.csv] [--unique-ip]
+ * </pre>
+ * With {@code --unique-ip} the addresses in use are first loaded into an
+ * {@link com.mj.portfolio.service.IpAddressAudit}, and rows whose address is
+ * already used, by the inventory or by an earlier row, are rejected too.
+ */
+class ImportCommand {
+
+    private final DeviceService service;
+
+    ImportCommand(DeviceService service) {
+        this.service = service;
+    }
+
+    int run(CommandArgs args) throws IOException {
+        Path input = Path.of(args.required(0, "input file (usage: import <file>)"));
+        if (!Files.isReadable(input)) {
+            throw new IllegalArgumentException("Cannot read file: " + input);
+        }
+        DelimitedReader.Format format = args.has("format")
+                ? DelimitedReader.Format.fromInput(args.option("format", null))
+                : DelimitedReader.Format.forFileName(input.getFileName().toString());
+        Path rejectsPath = Path.of(args.option("rejects",
+                input + ".rejects." + format.name().toLowerCase()));
+
+        long start = System.nanoTime();
+        if (args.flag("unique-ip")) {
+            service.addValidator(service.auditIpAddresses().validator());
+        }
+        RejectLog rejects = new RejectLog(rejectsPath, format);
+        long loaded;
+        try (DelimitedReader reader = new DelimitedReader(
+                     Files.newBufferedReader(input, StandardCharsets.UTF_8), format);
+             rejects) {
+
+            // Skip an optional header row
+            PeekingReader rows = new PeekingReader(reader);
+            if (rows.hasNext() && "name".equalsIgnoreCase(rows.peek()[0].trim())) {
+                rows.next();
+            }
+            loaded = service.importDevices(rows,
+                    (fields, reason) -> rejects.write(reader.getRecordLine(), fields, reason));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("  ✔ Imported %,d device(s) in %.2f s (%,.0f rows/s)%n",
+                loaded, seconds, (loaded + rejects.count()) / Math.max(seconds, 1e-9));
+        if (rejects.count() > 0) {
+            System.out.printf("  ✗ %,d row(s) rejected — see %s%n", rejects.count(), rejectsPath);
+        }
+        return rejects.count() > 0 ? 1 : 0;
+    }
+
+    // ── Helpers ──────────────────────────────────────────────────────────────
+
+    /** Iterator wrapper that allows looking at the first record without consuming it. */
+    static final class PeekingReader implements Iterator<String[]> {
+        private final DelimitedReader reader;
+        private String[] peeked;
+
+        PeekingReader(DelimitedReader reader) {
+            this.reader = reader;
+        }
+
+        String[] peek() {
+            if (peeked == null) peeked = reader.next();
+            return peeked;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return peeked != null || reader.hasNext();
+        }
+
+        @Override
+        public String[] next() {
+            if (peeked != null) {
+                String[] r = peeked;
+                peeked = null;
+                return r;
+            }
+            return reader.next();
+        }
+    }
+
+    /** Reject file, created lazily so a clean import leaves nothing behind. */
+    private static final class RejectLog implements AutoCloseable {
+        private final Path                   path;
+        private final DelimitedReader.Format format;
+        private DelimitedWriter writer;
+        private long            count;
+
+        RejectLog(Path path, DelimitedReader.Format format) {
+            this.path   = path;
+            this.format = format;
+        }
+
+        void write(long line, String[] fields, String reason) {
+            try {
+                if (writer == null) {
+                    writer = new DelimitedWriter(
+                            Files.newBufferedWriter(path, StandardCharsets.UTF_8), format);
+                    writer.writeRecord("line", "error", "name", "type", "status",
+                            "ip_address", "location");
+                }
+                String[] record = new String[fields.length + 2];
+                record[0] = Long.toString(line);
+                record[1] = reason;
+                System.arraycopy(fields, 0, record, 2, fields.length);
+                writer.writeRecord(record);
+                count++;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        long count() {
+            return count;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (writer != null) {
+                writer.close();
+            }
+        }
+    }
+}
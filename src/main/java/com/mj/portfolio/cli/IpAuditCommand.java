@@ -0,0 +1,115 @@
+package com.mj.portfolio.cli;
+
+import com.mj.portfolio.dao.IpConflict;
+import com.mj.portfolio.io.DelimitedReader;
+import com.mj.portfolio.service.DeviceService;
+import com.mj.portfolio.service.IpAddressAudit;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@code ip-audit} — loads every device's IP address into an in-memory
+ * prefix trie with one scan, then answers from it without further queries:
+ *
+ * <pre>
+ *   ip-audit                                  addresses in use, and those shared by several devices
+ *   ip-audit --check new.csv [--format tsv]   would importing this file reuse an address?
+ *   ip-audit --subnets 10.0.0.0/8,10.1.0.0/16 devices per subnet, most specific match
+ * </pre>
+ * {@code --check} validates every row of an import file exactly as
+ * {@code import --unique-ip} would, against the inventory and the rows before
+ * it, and reports the rejects without writing anything. Exits with 1 if
+ * there are shared addresses or rejected rows.
+ */
+class IpAuditCommand {
+
+    private final DeviceService service;
+
+    IpAuditCommand(DeviceService service) {
+        this.service = service;
+    }
+
+    int run(CommandArgs args) throws IOException {
+        long start = System.nanoTime();
+        IpAddressAudit audit = service.auditIpAddresses();
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("  Scanned %,d device(s) with an IP address in %.2f s: %,d address(es) in use%n",
+                audit.devices(), seconds, audit.addresses());
+        if (audit.unparsable() > 0) {
+            System.out.printf("  %,d stored address(es) are not valid IP addresses and were skipped%n",
+                    audit.unparsable());
+        }
+
+        if (args.has("check")) {
+            return check(audit, args);
+        }
+        if (args.has("subnets")) {
+            printSubnets(audit.countBySubnet(Arrays.asList(args.option("subnets", "").split(","))));
+            return 0;
+        }
+        List<IpConflict> conflicts = audit.conflicts();
+        if (conflicts.isEmpty()) {
+            System.out.println("  ✔ No IP address is used by more than one device");
+            return 0;
+        }
+        int devices = IpConflictsCommand.print(System.out, conflicts);
+        System.out.printf("%n  ✗ %,d address(es) shared by %,d device(s)%n", conflicts.size(), devices);
+        return 1;
+    }
+
+    private int check(IpAddressAudit audit, CommandArgs args) throws IOException {
+        Path input = Path.of(args.option("check", null));
+        if (!Files.isReadable(input)) {
+            throw new IllegalArgumentException("Cannot read file: " + input);
+        }
+        DelimitedReader.Format format = args.has("format")
+                ? DelimitedReader.Format.fromInput(args.option("format", null))
+                : DelimitedReader.Format.forFileName(input.getFileName().toString());
+        service.addValidator(audit.validator());
+
+        long rows     = 0;
+        long rejected = 0;
+        try (DelimitedReader reader = new DelimitedReader(
+                Files.newBufferedReader(input, StandardCharsets.UTF_8), format)) {
+            boolean first = true;
+            while (reader.hasNext()) {
+                String[] fields = reader.next();
+                if (first && "name".equalsIgnoreCase(fields[0].trim())) {
+                    first = false;
+                    continue;   // header row
+                }
+                first = false;
+                rows++;
+                try {
+                    service.parseDevice(fields);
+                } catch (IllegalArgumentException e) {
+                    rejected++;
+                    System.out.printf("  line %,d: %s%n", reader.getRecordLine(), e.getMessage());
+                }
+            }
+        }
+        if (rejected == 0) {
+            System.out.printf("  ✔ All %,d row(s) of %s can be imported with unique IP addresses%n", rows, input);
+            return 0;
+        }
+        System.out.printf("  ✗ %,d of %,d row(s) would be rejected%n", rejected, rows);
+        return 1;
+    }
+
+    private static void printSubnets(Map<String, Long> counts) {
+        System.out.printf("%n  Devices by subnet%n");
+        counts.forEach((subnet, count) -> {
+            if (subnet != null || count > 0) {
+                System.out.printf("    %-43s %,8d%n", subnet == null ? "(in none of these)" : subnet, count);
+            }
+        });
+        System.out.println();
+    }
+}
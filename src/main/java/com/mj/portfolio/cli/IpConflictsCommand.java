@@ -0,0 +1,60 @@
+package com.mj.portfolio.cli;
+
+import com.mj.portfolio.dao.IpConflict;
+import com.mj.portfolio.model.Device;
+import com.mj.portfolio.service.DeviceService;
+
+import java.io.PrintStream;
+import java.util.List;
+
+/**
+ * {@code ip-conflicts} — lists every IP address recorded for more than one
+ * device, with the devices sharing it:
+ *
+ * <pre>
+ *   10.0.0.10  (2 devices)
+ *     3f2a…  Production Server   Server     Active
+ *     91c0…  Dev Server          Server     Maintenance
+ * </pre>
+ * Exits with 1 if there are conflicts, so a scheduled check can alert on it.
+ */
+class IpConflictsCommand {
+
+    private final DeviceService service;
+
+    IpConflictsCommand(DeviceService service) {
+        this.service = service;
+    }
+
+    int run(CommandArgs args) {
+        long start = System.nanoTime();
+        List<IpConflict> conflicts = service.findIpConflicts();
+        double millis = (System.nanoTime() - start) / 1e6;
+
+        if (conflicts.isEmpty()) {
+            System.out.printf("  ✔ No IP address is used by more than one device (%.0f ms)%n", millis);
+            return 0;
+        }
+        int devices = print(System.out, conflicts);
+        System.out.printf("%n  ✗ %,d address(es) shared by %,d device(s) (%.0f ms)%n",
+                conflicts.size(), devices, millis);
+        return 1;
+    }
+
+    /** Writes each shared address and its devices to {@code out}; returns the number of devices. */
+    static int print(PrintStream out, List<IpConflict> conflicts) {
+        int devices = 0;
+        for (IpConflict conflict : conflicts) {
+            out.printf("%n  %s  (%d devices)%n", conflict.ipAddress(), conflict.devices().size());
+            for (Device d : conflict.devices()) {
+                out.printf("    %-36s  %-22s  %-14s  %s%n",
+                        d.getId(),
+                        DeviceTable.truncate(d.getName(), 22),
+                        d.getType().getDisplayName(),
+                        d.getStatus().getDisplayName());
+            }
+            devices += conflict.devices().size();
+        }
+        return devices;
+    }
+}
@@ -0,0 +1,78 @@
+package com.mj.portfolio.cli;
+
+import com.mj.portfolio.dao.JournalingDeviceDAO;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * {@code journal} — inspects the offline write journal
+ * ({@code journal.enabled=true}).
+ *
+ * <pre>
+ *   journal [status]     pending writes, last sync, last error
+ *   journal sync         apply every pending write now
+ *   journal conflicts    writes the database rejected on replay
+ * </pre>
+ */
+class JournalCommand {
+
+    private final JournalingDeviceDAO journal;
+
+    /** @param journal the journaling DAO, or {@code null} if the journal is disabled */
+    JournalCommand(JournalingDeviceDAO journal) {
+        this.journal = journal;
+    }
+
+    int run(CommandArgs args) throws IOException {
+        if (journal == null) {
+            System.err.println("  ✗ The write journal is disabled; set journal.enabled=true in db.properties.");
+            return 1;
+        }
+        List<String> positional = args.positional();
+        String action = positional.isEmpty() ? "status" : positional.get(0);
+        switch (action) {
+            case "status" -> {
+                printStatus();
+                return 0;
+            }
+            case "sync" -> {
+                long start  = System.nanoTime();
+                int  synced = journal.syncNow();
+                System.out.printf("  ✓ Synced %,d journaled write(s) in %.0f ms.%n",
+                        synced, (System.nanoTime() - start) / 1e6);
+                return 0;
+            }
+            case "conflicts" -> {
+                return printConflicts();
+            }
+            default -> throw new IllegalArgumentException(
+                    "journal takes status, sync or conflicts, got '" + action + "'.");
+        }
+    }
+
+    private void printStatus() {
+        System.out.printf("  Journal %s%n", journal.getJournalId());
+        System.out.printf("  Pending writes: %,d%n", journal.getPendingCount());
+        System.out.printf("  Last sync:      %s%n", journal.getLastSync() == null ? "not yet" : journal.getLastSync());
+        if (journal.getLastError() != null) {
+            System.out.printf("  Last error:     %s%n", journal.getLastError());
+        }
+    }
+
+    private int printConflicts() throws IOException {
+        Path log = journal.getConflictLog();
+        if (!Files.exists(log)) {
+            System.out.println("  No conflicts.");
+            return 0;
+        }
+        List<String> lines = Files.readAllLines(log);
+        for (String line : lines) {
+            System.out.println("  " + line.replace('\t', ' '));
+        }
+        System.out.printf("  %,d conflict(s), recorded in %s%n", lines.size(), log);
+        return 0;
+    }
+}
@@ -0,0 +1,148 @@
+package com.mj.portfolio.cli;
+
+import com.mj.portfolio.dao.DevicePatch;
+import com.mj.portfolio.dao.DeviceWrite;
+import com.mj.portfolio.io.DelimitedReader;
+import com.mj.portfolio.model.Device;
+import com.mj.portfolio.service.DeviceService;
+import com.mj.portfolio.service.Reconciliation;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@code reconcile <file>} — makes the inventory match a full export, such
+ * as a discovery scan: devices missing from the inventory are inserted,
+ * devices missing from the file are deleted, and type, status and location
+ * are updated where they differ. Devices are matched by name and IP address.
+ *
+ * <pre>
+ *   reconcile scan.csv [--format csv|tsv]               dry run: print the planned changes
+ *   reconcile scan.csv --apply [--batch 1000]           apply them, one transaction per batch
+ *   reconcile scan.csv --summary                        counts only
+ * </pre>
+ * The file has the columns of {@code import} and must be sorted by name,
+ * then IP address, byte by byte:
+ * {@code LC_ALL=C sort -t, -k1,1 -k4,4 scan.csv}. It is merged against the
+ * inventory streamed in the same order (see {@link Reconciliation}), so
+ * memory use does not depend on the size of either. Exits with 1 if any row
+ * was rejected or any write failed.
+ */
+class ReconcileCommand {
+
+    private static final int DEFAULT_BATCH = 1000;
+
+    private final DeviceService service;
+
+    ReconcileCommand(DeviceService service) {
+        this.service = service;
+    }
+
+    int run(CommandArgs args) throws IOException {
+        Path input = Path.of(args.required(0, "input file (usage: reconcile <file>)"));
+        if (!Files.isReadable(input)) {
+            throw new IllegalArgumentException("Cannot read file: " + input);
+        }
+        DelimitedReader.Format format = args.has("format")
+                ? DelimitedReader.Format.fromInput(args.option("format", null))
+                : DelimitedReader.Format.forFileName(input.getFileName().toString());
+        boolean apply   = args.flag("apply");
+        boolean summary = args.flag("summary");
+        int batchSize   = args.intOption("batch", DEFAULT_BATCH);
+
+        long start = System.nanoTime();
+        Reconciliation result;
+        try (DelimitedReader reader = new DelimitedReader(
+                Files.newBufferedReader(input, StandardCharsets.UTF_8), format)) {
+
+            ImportCommand.PeekingReader rows = new ImportCommand.PeekingReader(reader);
+            if (rows.hasNext() && "name".equalsIgnoreCase(rows.peek()[0].trim())) {
+                rows.next();
+            }
+            try {
+                result = service.reconcile(rows, batchSize, apply, new Reporter(reader, summary));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("line " + reader.getRecordLine() + ": " + e.getMessage()
+                        + (apply ? " Earlier batches have been applied." : ""), e);
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("%n  %s in %.2f s: %,d insert(s), %,d update(s), %,d delete(s), %,d unchanged%n",
+                apply ? "Reconciled" : "Dry run", seconds,
+                result.inserts(), result.updates(), result.deletes(), result.unchanged());
+        if (result.rejected() > 0) {
+            System.out.printf("  ✗ %,d row(s) rejected; %,d device(s) with the same name and address left as they are%n",
+                    result.rejected(), result.kept());
+        }
+        if (apply) {
+            System.out.printf("  %s %,d write(s) applied", result.writesFailed() == 0 ? "✔" : "✗",
+                    result.writesApplied());
+            System.out.printf(result.writesFailed() == 0 ? "%n" : ", %,d failed%n", result.writesFailed());
+        } else {
+            System.out.println("  Nothing was written; run again with --apply to make these changes.");
+        }
+        return result.rejected() > 0 || result.writesFailed() > 0 ? 1 : 0;
+    }
+
+    /** Prints planned writes to stdout and problems to stderr, as they happen. */
+    private static final class Reporter implements Reconciliation.Listener {
+        private final DelimitedReader reader;
+        private final boolean         summary;
+
+        Reporter(DelimitedReader reader, boolean summary) {
+            this.reader  = reader;
+            this.summary = summary;
+        }
+
+        @Override
+        public void rejected(String[] fields, String reason) {
+            System.err.printf("  ✗ line %,d: %s%n", reader.getRecordLine(), reason);
+        }
+
+        @Override
+        public void planned(DeviceWrite write, Device stored) {
+            if (summary) {
+                return;
+            }
+            if (write instanceof DeviceWrite.Insert insert) {
+                System.out.printf("  + %s%n", describe(insert.device()));
+            } else if (write instanceof DeviceWrite.Patch patch) {
+                System.out.printf("  ~ %s  %s%n", describe(stored), changes(stored, patch.patch()));
+            } else {
+                System.out.printf("  - %s  (%s)%n", describe(stored), stored.getId());
+            }
+        }
+
+        @Override
+        public void failed(DeviceWrite write, String error) {
+            System.err.printf("  ✗ %s%n", error);
+        }
+
+        private static String describe(Device device) {
+            return device.getIpAddress() == null ? device.getName() : device.getName() + " " + device.getIpAddress();
+        }
+
+        private static String changes(Device stored, DevicePatch patch) {
+            List<String> changes = new ArrayList<>(3);
+            if (patch.getType() != null) {
+                changes.add("type " + stored.getType() + " → " + patch.getType());
+            }
+            if (patch.getStatus() != null) {
+                changes.add("status " + stored.getStatus() + " → " + patch.getStatus());
+            }
+            if (patch.getLocation() != null) {
+                changes.add("location '" + (stored.getLocation() == null ? "" : stored.getLocation())
+                        + "' → '" + patch.getLocation() + "'");
+            }
+            return String.join(", ", changes);
+        }
+    }
+}
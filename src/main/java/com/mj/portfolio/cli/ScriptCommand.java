@@ -0,0 +1,310 @@
+package com.mj.portfolio.cli;
+
+import com.mj.portfolio.dao.DeviceFilter;
+import com.mj.portfolio.dao.DeviceWrite;
+import com.mj.portfolio.dao.Page;
+import com.mj.portfolio.exception.DAOException;
+import com.mj.portfolio.io.JsonWriter;
+import com.mj.portfolio.model.Device;
+import com.mj.portfolio.model.DeviceStatus;
+import com.mj.portfolio.model.DeviceType;
+import com.mj.portfolio.service.DeviceService;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Scriptable device commands with JSON Lines output, for automation.
+ *
+ * <p>Runs either a single command given on the process command line, or a
+ * whole script of them in one process:
+ * <pre>
+ *   add --name web-01 --type server [--status active] [--ip 10.0.0.1] [--location "Rack 4"]
+ *   update &lt;id&gt; [--name …] [--type …] [--status …] [--ip …] [--location …]
+ *   delete &lt;id&gt;
+ *   get &lt;id&gt;
+ *   list [--type server] [--status active]
+ *   search &lt;query&gt; [--limit 50]
+ *
+ *   script [file]          one command per line, stdin if no file or "-"
+ * </pre>
+ * Script lines are split on whitespace; single or double quotes group words
+ * and {@code #} starts a comment line. An update only changes the options it
+ * is given, in one statement without reading the device first;
+ * {@code --ip ""} or {@code --location ""} clears that field.</p>
+ *
+ * <p>Consecutive write commands (add, update, delete) are queued and applied
+ * as one group through {@link DeviceService#applyWrites} — one transaction,
+ * batched statements — when a read command comes along, when
+ * {@value #MAX_GROUP} writes are queued, or when no further input is
+ * available yet (so a process piping commands in interactively still gets
+ * prompt answers). A rejected write only fails its own line.</p>
+ *
+ * <p>Every command answers with one JSON object per line, tagged with the
+ * script line number ({@code "line"}, script mode only) and command
+ * ({@code "op"}); {@code "ok":false} lines carry an {@code "error"}. List and
+ * search write one line per device followed by a {@code "count"} line.
+ * Output stays in input order. The exit code is 1 if any command failed.
+ * An update accepted without the device being known, e.g. journaled while
+ * the database is unreachable, answers with its id and {@code "queued":true}.</p>
+ */
+class ScriptCommand {
+
+    /** Upper bound on writes applied as one group. */
+    static final int MAX_GROUP = 1_000;
+
+    private static final int LIST_PAGE_SIZE = 1_000;
+    private static final int SEARCH_LIMIT   = 50;
+
+    /** A queued command: either a prepared write or a rejection to report in order. */
+    private record Pending(int line, String op, DeviceWrite write, String error) {}
+
+    private final DeviceService service;
+    private final Writer        out;
+    private final JsonWriter    json;
+    private final List<Pending> pending = new ArrayList<>();
+    private int                 failures;
+
+    ScriptCommand(DeviceService service) {
+        this(service, new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8)));
+    }
+
+    ScriptCommand(DeviceService service, Writer out) {
+        this.service = service;
+        this.out     = out;
+        this.json    = new JsonWriter(out);
+    }
+
+    /** Runs one command from the process arguments, e.g. {@code add --name x}. */
+    int runOne(String[] args) throws IOException {
+        execute(0, args);
+        flush();
+        return failures == 0 ? 0 : 1;
+    }
+
+    /** {@code script [file]} — runs every command in the file, or stdin. */
+    int runScript(CommandArgs args) throws IOException {
+        String file = args.positional().isEmpty() ? "-" : args.positional().get(0);
+        try (BufferedReader in = file.equals("-")
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+                : Files.newBufferedReader(Path.of(file), StandardCharsets.UTF_8)) {
+
+            String line;
+            int lineNo = 0;
+            while ((line = in.readLine()) != null) {
+                lineNo++;
+                String command = line.strip();
+                if (!command.isEmpty() && !command.startsWith("#")) {
+                    try {
+                        execute(lineNo, tokenize(command));
+                    } catch (IllegalArgumentException e) {
+                        pending.add(new Pending(lineNo, command.split("\\s+", 2)[0], null, e.getMessage()));
+                    }
+                }
+                if (pending.size() >= MAX_GROUP || !in.ready()) {
+                    flush();
+                }
+            }
+        }
+        flush();
+        return failures == 0 ? 0 : 1;
+    }
+
+    // ── Dispatch ─────────────────────────────────────────────────────────────
+
+    private void execute(int line, String[] tokens) throws IOException {
+        String op = tokens[0];
+        try {
+            CommandArgs args = CommandArgs.parse(tokens, 1);
+            switch (op) {
+                case "add" -> pending.add(new Pending(line, op, service.prepareAdd(new String[] {
+                        args.option("name", null), args.option("type", null), args.option("status", null),
+                        args.option("ip", null), args.option("location", null) }), null));
+                case "update" -> pending.add(new Pending(line, op, service.prepareUpdate(
+                        args.required(0, "device ID"),
+                        args.option("name", null),
+                        args.has("type") ? DeviceType.fromInput(args.option("type", null)) : null,
+                        args.has("status") ? DeviceStatus.fromInput(args.option("status", null)) : null,
+                        args.option("ip", null),
+                        args.option("location", null)), null));
+                case "delete" -> pending.add(new Pending(line, op,
+                        service.prepareRemove(args.required(0, "device ID")), null));
+                case "get", "list", "search" -> {
+                    flush();
+                    read(line, op, args);
+                }
+                default -> throw new IllegalArgumentException("Unknown command '" + op + "'.");
+            }
+        } catch (IllegalArgumentException | DAOException e) {
+            pending.add(new Pending(line, op, null, e.getMessage()));
+        }
+    }
+
+    private void read(int line, String op, CommandArgs args) throws IOException {
+        switch (op) {
+            case "get" -> {
+                Device device = service.findById(args.required(0, "device ID")).orElse(null);
+                begin(line, op, true).field("found", device != null);
+                if (device != null) {
+                    ExportCommand.writeFields(json, device);
+                }
+                json.endObject();
+            }
+            case "list" -> {
+                DeviceFilter filter = DeviceFilter.all();
+                if (args.has("type")) {
+                    filter = filter.withType(DeviceType.fromInput(args.option("type", null)));
+                }
+                if (args.has("status")) {
+                    filter = filter.withStatus(DeviceStatus.fromInput(args.option("status", null)));
+                }
+                long count = 0;
+                String token = null;
+                do {
+                    Page<Device> page = service.findPage(filter, token, LIST_PAGE_SIZE);
+                    for (Device device : page.items()) {
+                        writeDevice(line, op, device);
+                    }
+                    count += page.items().size();
+                    token = page.nextToken();
+                } while (token != null);
+                begin(line, op, true).field("count", count).endObject();
+            }
+            default -> {
+                List<Device> results = service.search(
+                        String.join(" ", args.positional()), args.intOption("limit", SEARCH_LIMIT));
+                for (Device device : results) {
+                    writeDevice(line, op, device);
+                }
+                begin(line, op, true).field("count", results.size()).endObject();
+            }
+        }
+    }
+
+    // ── Grouped writes ───────────────────────────────────────────────────────
+
+    /** Applies the queued writes as one group and reports every queued line. */
+    private void flush() throws IOException {
+        if (!pending.isEmpty()) {
+            List<DeviceWrite> writes = new ArrayList<>(pending.size());
+            for (Pending p : pending) {
+                if (p.write() != null) {
+                    writes.add(p.write());
+                }
+            }
+
+            List<DeviceWrite.Outcome> outcomes;
+            try {
+                outcomes = service.applyWrites(writes);
+            } catch (DAOException e) {
+                outcomes = Collections.nCopies(writes.size(),
+                        DeviceWrite.Outcome.failed("Database error: " + e.getMessage()));
+            }
+
+            Iterator<DeviceWrite.Outcome> it = outcomes.iterator();
+            for (Pending p : pending) {
+                if (p.write() == null) {
+                    writeError(p.line(), p.op(), p.error());
+                } else {
+                    writeOutcome(p, it.next());
+                }
+            }
+            pending.clear();
+        }
+        out.flush();
+    }
+
+    // ── Output ───────────────────────────────────────────────────────────────
+
+    private void writeOutcome(Pending p, DeviceWrite.Outcome outcome) throws IOException {
+        if (outcome.error() != null) {
+            writeError(p.line(), p.op(), outcome.error());
+        } else if (p.write() instanceof DeviceWrite.Delete delete) {
+            begin(p.line(), p.op(), true)
+                    .field("id", delete.id())
+                    .field("deleted", outcome.applied())
+                    .endObject();
+        } else if (outcome.device() == null && p.write() instanceof DeviceWrite.Patch patch) {
+            begin(p.line(), p.op(), true)
+                    .field("id", patch.id())
+                    .field("queued", true)
+                    .endObject();
+        } else {
+            writeDevice(p.line(), p.op(), outcome.device());
+        }
+    }
+
+    private void writeDevice(int line, String op, Device device) throws IOException {
+        ExportCommand.writeFields(begin(line, op, true), device).endObject();
+    }
+
+    private void writeError(int line, String op, String message) throws IOException {
+        failures++;
+        begin(line, op, false).field("error", message).endObject();
+    }
+
+    private JsonWriter begin(int line, String op, boolean ok) throws IOException {
+        json.beginObject();
+        if (line > 0) {
+            json.field("line", line);
+        }
+        return json.field("op", op).field("ok", ok);
+    }
+
+    // ── Parsing ──────────────────────────────────────────────────────────────
+
+    /**
+     * Splits a script line into arguments on whitespace. Single or double
+     * quotes group words; inside double quotes a backslash escapes the next
+     * character.
+     */
+    static String[] tokenize(String line) {
+        List<String>  tokens  = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean inToken = false;
+        char    quote   = 0;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                } else if (c == '\\' && quote == '"' && i + 1 < line.length()) {
+                    current.append(line.charAt(++i));
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"' || c == '\'') {
+                quote   = c;
+                inToken = true;
+            } else if (Character.isWhitespace(c)) {
+                if (inToken) {
+                    tokens.add(current.toString());
+                    current.setLength(0);
+                    inToken = false;
+                }
+            } else {
+                current.append(c);
+                inToken = true;
+            }
+        }
+        if (quote != 0) {
+            throw new IllegalArgumentException("Unterminated " + quote + " quote.");
+        }
+        if (inToken) {
+            tokens.add(current.toString());
+        }
+        return tokens.toArray(new String[0]);
+    }
+}
@@ -0,0 +1,95 @@
+package com.mj.portfolio.cli;
+
+import com.mj.portfolio.dao.DeviceDelta;
+import com.mj.portfolio.dao.DeviceSnapshot;
+import com.mj.portfolio.service.DeviceService;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * {@code snapshot} — saves the whole inventory to a compact binary file and
+ * reads it back through a memory mapping (see {@link DeviceSnapshot}).
+ *
+ * <pre>
+ *   snapshot save devices.snap                 every device, plus the change watermark
+ *   snapshot load devices.snap [--refresh]     read it; --refresh also applies the changes
+ *                                              made since it was saved and rewrites it
+ *   snapshot load devices.snap --compare       also time reading every device over JDBC
+ * </pre>
+ * A client started with {@code inmemory.snapshot.path} does the same as
+ * {@code load --refresh} instead of reading every row.
+ */
+class SnapshotCommand {
+
+    private final DeviceService service;
+
+    SnapshotCommand(DeviceService service) {
+        this.service = service;
+    }
+
+    int run(CommandArgs args) throws IOException {
+        List<String> positional = args.positional();
+        String action = positional.isEmpty() ? "" : positional.get(0);
+        Path   file   = Path.of(args.required(1, "snapshot file (usage: snapshot save|load <file>)"));
+        switch (action) {
+            case "save" -> {
+                long start = System.nanoTime();
+                long count = service.saveSnapshot(file);
+                System.out.printf("  ✔ Saved %,d device(s) to %s in %.0f ms (%s)%n",
+                        count, file, millisSince(start), size(file));
+                return 0;
+            }
+            case "load" -> {
+                return load(file, args.flag("refresh"), args.flag("compare"));
+            }
+            default -> throw new IllegalArgumentException(
+                    "snapshot takes save or load, got '" + action + "'.");
+        }
+    }
+
+    private int load(Path file, boolean refresh, boolean compare) throws IOException {
+        if (!Files.isReadable(file)) {
+            throw new IllegalArgumentException("Cannot read file: " + file);
+        }
+        long start = System.nanoTime();
+        DeviceSnapshot snapshot = DeviceSnapshot.read(file);
+        double loadMillis = millisSince(start);
+        System.out.printf("  ✔ Loaded %,d device(s) from %s in %.0f ms (%s, taken %s)%n",
+                snapshot.devices().size(), file, loadMillis, size(file), snapshot.takenAt());
+
+        if (refresh) {
+            start = System.nanoTime();
+            DeviceDelta delta = service.changesSince(snapshot);
+            snapshot = snapshot.withChanges(delta);
+            snapshot.save(file);
+            if (delta.full()) {
+                System.out.printf("  ✔ Reloaded all %,d device(s) in %.0f ms: changes since the snapshot are not known%n",
+                        snapshot.devices().size(), millisSince(start));
+            } else {
+                System.out.printf("  ✔ Applied %,d changed and %,d deleted device(s) in %.0f ms; now %,d device(s)%n",
+                        delta.changed().size(), delta.deleted().size(), millisSince(start),
+                        snapshot.devices().size());
+            }
+        }
+
+        if (compare) {
+            start = System.nanoTime();
+            int count = service.getAllDevices().size();
+            double jdbcMillis = millisSince(start);
+            System.out.printf("  Reading all %,d device(s) over JDBC took %.0f ms, %.1f× the snapshot%n",
+                    count, jdbcMillis, jdbcMillis / Math.max(loadMillis, 1e-3));
+        }
+        return 0;
+    }
+
+    private static double millisSince(long start) {
+        return (System.nanoTime() - start) / 1e6;
+    }
+
+    private static String size(Path file) throws IOException {
+        return String.format("%,.1f MB", Files.size(file) / 1e6);
+    }
+}
@@ -0,0 +1,71 @@
+package com.mj.portfolio.cli;
+
+import com.mj.portfolio.metrics.MetricsReport;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * {@code stats} — DAO call latencies (p50/p95/p99/max per method) and
+ * connection pool metrics.
+ *
+ * <pre>
+ *   stats [--file metrics.log]
+ * </pre>
+ * A one-shot command has measured next to nothing itself, so by default
+ * this prints the latest report a long-running process appended to its
+ * metrics dump ({@code metrics.dump.path}, or {@code --file}). Without a
+ * dump it reports on the current process, which is what the interactive
+ * menu shows.
+ */
+class StatsCommand {
+
+    private final Supplier<MetricsReport> current;
+    private final Path                    dump;
+
+    /**
+     * @param current report on this process, or {@code null} if metrics are disabled
+     * @param dump    the configured metrics dump, or {@code null}
+     */
+    StatsCommand(Supplier<MetricsReport> current, Path dump) {
+        this.current = current;
+        this.dump    = dump;
+    }
+
+    int run(CommandArgs args) throws IOException {
+        Path file = args.has("file") ? Path.of(args.option("file", null)) : dump;
+        if (file != null && Files.exists(file)) {
+            return printLatest(file);
+        }
+        if (args.has("file")) {
+            System.err.printf("  ✗ No metrics dump at %s.%n", file);
+            return 1;
+        }
+        if (current == null) {
+            System.err.println("  ✗ Metrics are disabled; set metrics.enabled=true in db.properties.");
+            return 1;
+        }
+        current.get().print(System.out);
+        return 0;
+    }
+
+    private static int printLatest(Path file) throws IOException {
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        int start = -1;
+        for (int i = lines.size() - 1; i >= 0 && start < 0; i--) {
+            if (lines.get(i).startsWith(MetricsReport.HEADER)) {
+                start = i;
+            }
+        }
+        if (start < 0) {
+            System.err.printf("  ✗ %s contains no metrics report.%n", file);
+            return 1;
+        }
+        lines.subList(start, lines.size()).forEach(System.out::println);
+        return 0;
+    }
+}
@@ -0,0 +1,42 @@
+package com.mj.portfolio.cli;
+
+import com.mj.portfolio.model.Device;
+import com.mj.portfolio.service.DeviceService;
+
+import java.util.List;
+
+/**
+ * {@code subnet <cidr>} — lists the devices whose IP address lies in a
+ * network, ordered by address, e.g. everything in a rack's /24:
+ *
+ * <pre>
+ *   subnet 10.20.4.0/24
+ *   subnet 2001:db8:4::/48
+ * </pre>
+ * Answered from the GiST index on {@code ip_address}, so a small subnet is
+ * found without scanning the inventory.
+ */
+class SubnetCommand {
+
+    private final DeviceService service;
+
+    SubnetCommand(DeviceService service) {
+        this.service = service;
+    }
+
+    int run(CommandArgs args) {
+        String subnet = args.required(0, "subnet (usage: subnet <cidr>, e.g. 10.0.0.0/16)");
+
+        long start = System.nanoTime();
+        List<Device> devices = service.findBySubnet(subnet);
+        double millis = (System.nanoTime() - start) / 1e6;
+
+        if (devices.isEmpty()) {
+            System.out.printf("  No devices in %s.%n", subnet.trim());
+            return 0;
+        }
+        DeviceTable.print(System.out, devices);
+        System.out.printf("  %,d device(s) in %s (%.0f ms)%n", devices.size(), subnet.trim(), millis);
+        return 0;
+    }
+}
@@ -0,0 +1,92 @@
+package com.mj.portfolio.cli;
+
+import com.mj.portfolio.dao.DeviceCounts;
+import com.mj.portfolio.dao.GroupingKey;
+import com.mj.portfolio.service.DeviceService;
+
+import java.io.PrintStream;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * {@code summary} — inventory dashboard: device counts per type, status and
+ * location, computed by the database in one aggregate query.
+ *
+ * <pre>
+ *   summary [--by type,status,location] [--top 10]
+ * </pre>
+ * {@code --top} limits how many values are listed per group (the rest are
+ * folded into one line); it matters mostly for locations.
+ */
+class SummaryCommand {
+
+    static final int DEFAULT_TOP = 10;
+
+    private static final int BAR_WIDTH = 24;
+
+    private final DeviceService service;
+
+    SummaryCommand(DeviceService service) {
+        this.service = service;
+    }
+
+    int run(CommandArgs args) {
+        Set<GroupingKey> keys = new LinkedHashSet<>();
+        for (String key : args.option("by", "type,status,location").split(",")) {
+            if (!key.isBlank()) {
+                keys.add(GroupingKey.fromInput(key));
+            }
+        }
+        int top = args.intOption("top", DEFAULT_TOP);
+        if (top < 1) {
+            throw new IllegalArgumentException("--top must be at least 1.");
+        }
+
+        long start = System.nanoTime();
+        DeviceCounts counts = service.summarize(keys.toArray(new GroupingKey[0]));
+        double millis = (System.nanoTime() - start) / 1e6;
+
+        print(System.out, counts, keys, top);
+        System.out.printf("  (%.0f ms)%n", millis);
+        return 0;
+    }
+
+    /** Renders {@code counts}, one section per key in {@code keys}, at most {@code top} rows each. */
+    static void print(PrintStream out, DeviceCounts counts, Set<GroupingKey> keys, int top) {
+        out.printf("%n  Inventory summary — %,d device(s)%n", counts.getTotal());
+        for (GroupingKey key : keys) {
+            Map<String, Long> group = counts.get(key);
+            out.printf("%n  By %s%n", key.name().toLowerCase());
+            if (group.isEmpty()) {
+                out.println("    —");
+                continue;
+            }
+
+            long largest = group.values().iterator().next();
+            int  shown   = 0;
+            long rest    = 0;
+            for (Map.Entry<String, Long> entry : group.entrySet()) {
+                if (shown == top) {
+                    rest += entry.getValue();
+                    continue;
+                }
+                out.printf("    %-24s %,8d  %5.1f%%  %s%n",
+                        DeviceTable.truncate(key.label(entry.getKey()), 24),
+                        entry.getValue(),
+                        percent(entry.getValue(), counts.getTotal()),
+                        "█".repeat((int) Math.max(1, entry.getValue() * BAR_WIDTH / largest)));
+                shown++;
+            }
+            if (rest > 0) {
+                out.printf("    %-24s %,8d  %5.1f%%%n",
+                        "… " + (group.size() - top) + " more", rest, percent(rest, counts.getTotal()));
+            }
+        }
+        out.println();
+    }
+
+    private static double percent(long part, long total) {
+        return total == 0 ? 0 : 100.0 * part / total;
+    }
+}
@@ -0,0 +1,114 @@
+package com.mj.portfolio.cli;
+
+import com.mj.portfolio.dao.DeviceChange;
+import com.mj.portfolio.dao.DeviceChangeListener;
+import com.mj.portfolio.db.DatabaseConfig;
+import com.mj.portfolio.io.JsonWriter;
+import com.mj.portfolio.model.Device;
+import com.mj.portfolio.service.DeviceService;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * {@code watch} — prints every change to the inventory as it is committed,
+ * by any client, until interrupted with Ctrl+C.
+ *
+ * <pre>
+ *   watch [--format text|jsonl]
+ * </pre>
+ * Changes come from the database's {@code device_changes} notifications, so
+ * watching costs one idle connection and no polling. Inserts and updates are
+ * shown with the device's current fields, which takes one lookup each.
+ */
+class WatchCommand {
+
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("HH:mm:ss.SSS");
+
+    private final DeviceService service;
+    private final Writer        out;
+    private final JsonWriter    json;
+
+    WatchCommand(DeviceService service) {
+        this.service = service;
+        this.out     = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+        this.json    = new JsonWriter(out);
+    }
+
+    int run(CommandArgs args) throws IOException {
+        String format = args.option("format", "text").trim().toLowerCase();
+        if (!format.equals("text") && !format.equals("jsonl")) {
+            throw new IllegalArgumentException("--format must be text or jsonl, got '" + format + "'.");
+        }
+
+        BlockingQueue<DeviceChange> changes = new LinkedBlockingQueue<>();
+        try (DeviceChangeListener listener = new DeviceChangeListener(DatabaseConfig::openConnection)
+                .onChange(changes::add)
+                .start()) {
+            System.err.println("  Watching for device changes — press Ctrl+C to stop.");
+            while (true) {
+                DeviceChange change = changes.take();
+                if (format.equals("jsonl")) {
+                    writeJson(change);
+                } else {
+                    writeText(change);
+                }
+                out.flush();
+            }
+        } catch (SQLException e) {
+            System.err.printf("  ✗ Cannot listen for changes: %s%n", e.getMessage());
+            return 1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 0;
+        }
+    }
+
+    private void writeText(DeviceChange change) throws IOException {
+        String time = LocalTime.now().format(TIME);
+        switch (change.op()) {
+            case RELOAD -> out.write(time + "  ↻ many devices changed at once\n");
+            case DELETE -> out.write(time + "  - " + change.id() + "  (deleted at version " + change.version() + ")\n");
+            default -> {
+                String sign = change.op() == DeviceChange.Op.INSERT ? "+" : "~";
+                Optional<Device> device = lookUp(change);
+                out.write(time + "  " + sign + " " + change.id() + "  v" + change.version() + "  "
+                        + device.map(d -> d.getName() + " · " + d.getType().getDisplayName()
+                                + " · " + d.getStatus().getDisplayName())
+                                .orElse("(deleted since)")
+                        + "\n");
+            }
+        }
+    }
+
+    private void writeJson(DeviceChange change) throws IOException {
+        json.beginObject()
+                .field("at", LocalTime.now().format(TIME))
+                .field("op", change.op().name().toLowerCase());
+        if (change.op() == DeviceChange.Op.RELOAD) {
+            json.endObject();
+            return;
+        }
+        json.field("version", change.version());
+        Optional<Device> device = change.op() == DeviceChange.Op.DELETE ? Optional.empty() : lookUp(change);
+        if (device.isPresent()) {
+            ExportCommand.writeFields(json, device.get());
+        } else {
+            json.field("id", change.id());
+        }
+        json.endObject();
+    }
+
+    private Optional<Device> lookUp(DeviceChange change) {
+        return service.findById(change.id().toString());
+    }
+}
@@ -0,0 +1,102 @@
+package com.mj.portfolio.dao;
+
+import com.mj.portfolio.model.Device;
+import com.mj.portfolio.model.DeviceStatus;
+import com.mj.portfolio.model.DeviceType;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking view of a {@link DeviceDAO}: every method runs the blocking
+ * call on a {@link BoundedExecutor} and returns a {@link CompletableFuture}.
+ *
+ * <p>Meant for embedding in highly concurrent callers — a collector firing
+ * thousands of lookups at once submits them all and composes the futures,
+ * while the executor keeps no more calls in flight than there are pooled
+ * connections. Semantics (ordering, exceptions, {@code null} handling) are
+ * exactly those of the wrapped DAO's methods; a failure completes the
+ * future exceptionally instead of being thrown.</p>
+ *
+ * <pre>
+ *   try (BoundedExecutor executor = new BoundedExecutor(DatabaseConfig.getPoolSize())) {
+ *       AsyncDeviceDAO async = new AsyncDeviceDAO(dao, executor);
+ *       List&lt;CompletableFuture&lt;Optional&lt;Device&gt;&gt;&gt; lookups = ids.stream().map(async::findById).toList();
+ *       ...
+ *   }
+ * </pre>
+ */
+public class AsyncDeviceDAO {
+
+    private final DeviceDAO       dao;
+    private final BoundedExecutor executor;
+
+    public AsyncDeviceDAO(DeviceDAO dao, BoundedExecutor executor) {
+        this.dao      = dao;
+        this.executor = executor;
+    }
+
+    /** The wrapped blocking DAO. */
+    public DeviceDAO blocking() {
+        return dao;
+    }
+
+    // ── Reads ────────────────────────────────────────────────────────────────
+
+    public CompletableFuture<List<Device>> findAll() {
+        return executor.submit(dao::findAll);
+    }
+
+    public CompletableFuture<Page<Device>> findPage(DeviceFilter filter, String pageToken, int pageSize) {
+        return executor.submit(() -> dao.findPage(filter, pageToken, pageSize));
+    }
+
+    public CompletableFuture<Optional<Device>> findById(UUID id) {
+        return executor.submit(() -> dao.findById(id));
+    }
+
+    public CompletableFuture<List<Device>> findByType(DeviceType type) {
+        return executor.submit(() -> dao.findByType(type));
+    }
+
+    public CompletableFuture<List<Device>> findByStatus(DeviceStatus status) {
+        return executor.submit(() -> dao.findByStatus(status));
+    }
+
+    public CompletableFuture<List<Device>> search(SearchQuery query, int limit) {
+        return executor.submit(() -> dao.search(query, limit));
+    }
+
+    // ── Writes ───────────────────────────────────────────────────────────────
+
+    public CompletableFuture<Device> save(Device device) {
+        return executor.submit(() -> dao.save(device));
+    }
+
+    public CompletableFuture<BatchResult> saveAll(Collection<Device> devices) {
+        return executor.submit(() -> dao.saveAll(devices));
+    }
+
+    public CompletableFuture<List<DeviceWrite.Outcome>> applyWrites(List<DeviceWrite> writes) {
+        return executor.submit(() -> dao.applyWrites(writes));
+    }
+
+    public CompletableFuture<Device> update(Device device) {
+        return executor.submit(() -> dao.update(device));
+    }
+
+    public CompletableFuture<Optional<Device>> patch(UUID id, DevicePatch patch) {
+        return executor.submit(() -> dao.patch(id, patch));
+    }
+
+    public CompletableFuture<Integer> updateStatus(Collection<UUID> ids, DeviceStatus status) {
+        return executor.submit(() -> dao.updateStatus(ids, status));
+    }
+
+    public CompletableFuture<Boolean> delete(UUID id) {
+        return executor.submit(() -> dao.delete(id));
+    }
+}
@@ -0,0 +1,64 @@
+package com.mj.portfolio.dao;
+
+import com.mj.portfolio.model.Device;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Outcome of a bulk write such as {@link DeviceDAO#saveAll}.
+ *
+ * <p>Bulk operations report per-row results instead of failing as a whole:
+ * one bad row (a name that is too long, a constraint violation, …) must not
+ * throw away the thousands of good rows submitted alongside it. Each failure
+ * carries the row's position in the submitted collection so the caller can
+ * point the user at the offending input line.</p>
+ */
+public class BatchResult {
+
+    /** A single rejected row: its index in the input, the row itself and the reason. */
+    public record Failure(int index, Device device, String message) {}
+
+    private final List<Device>  saved    = new ArrayList<>();
+    private final List<Failure> failures = new ArrayList<>();
+
+    public void recordSaved(Device device) {
+        saved.add(device);
+    }
+
+    public void recordFailure(int index, Device device, String message) {
+        failures.add(new Failure(index, device, message));
+    }
+
+    /**
+     * Copies another result into this one, shifting failure indexes through
+     * {@code indexMapping} (position in {@code other}'s input → position in ours).
+     */
+    public void merge(BatchResult other, List<Integer> indexMapping) {
+        saved.addAll(other.saved);
+        for (Failure f : other.failures) {
+            failures.add(new Failure(indexMapping.get(f.index()), f.device(), f.message()));
+        }
+        failures.sort(Comparator.comparingInt(Failure::index));
+    }
+
+    /** Devices that were persisted, with id and createdAt populated. */
+    public List<Device> getSaved() {
+        return Collections.unmodifiableList(saved);
+    }
+
+    /** Rejected rows, ordered by input index. */
+    public List<Failure> getFailures() {
+        return Collections.unmodifiableList(failures);
+    }
+
+    public int getSavedCount() {
+        return saved.size();
+    }
+
+    public boolean hasFailures() {
+        return !failures.isEmpty();
+    }
+}
@@ -0,0 +1,121 @@
+package com.mj.portfolio.dao;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs blocking DAO calls in the background, at most {@code maxConcurrency}
+ * at a time.
+ *
+ * <p>Every call gets its own thread: a virtual thread when the runtime has
+ * them (Java 21+), otherwise a thread from a fixed pool of
+ * {@code maxConcurrency} platform threads. The project still compiles for
+ * Java 17, so the virtual-thread executor is looked up reflectively and the
+ * same build uses it wherever it exists.</p>
+ *
+ * <p>With virtual threads the thread count is no limit at all, so a
+ * {@link Semaphore} sized to the connection pool bounds how many calls run
+ * at once. A thousand callers then queue on the semaphore — each parked
+ * virtual thread costs a few hundred bytes — instead of piling up inside
+ * HikariCP, where a waiter times out after {@code connectionTimeout} and
+ * holds a platform thread while it waits. pgjdbc 42.6+ guards its I/O with
+ * locks rather than {@code synchronized}, so a virtual thread blocked on the
+ * database does not pin its carrier thread.</p>
+ */
+public final class BoundedExecutor implements AutoCloseable {
+
+    private final ExecutorService executor;
+    private final Semaphore       permits;
+    private final int             maxConcurrency;
+    private final boolean         virtualThreads;
+
+    /**
+     * @param maxConcurrency calls allowed to run at once; normally the
+     *                       connection pool size ({@code db.pool.size})
+     */
+    public BoundedExecutor(int maxConcurrency) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("maxConcurrency must be at least 1, got " + maxConcurrency);
+        }
+        ExecutorService virtual = newVirtualThreadPerTaskExecutor();
+        this.executor       = virtual != null ? virtual
+                : Executors.newFixedThreadPool(maxConcurrency, daemonThreads());
+        this.permits        = new Semaphore(maxConcurrency, true);
+        this.maxConcurrency = maxConcurrency;
+        this.virtualThreads = virtual != null;
+    }
+
+    /**
+     * Runs {@code task} once a permit is free. An exception thrown by the task
+     * completes the future exceptionally (wrapped in a
+     * {@link java.util.concurrent.CompletionException} on {@code join()}).
+     *
+     * @throws java.util.concurrent.RejectedExecutionException after {@link #close()}
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException("Interrupted while waiting for a database connection");
+            }
+            try {
+                return task.get();
+            } finally {
+                permits.release();
+            }
+        }, executor);
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /** Whether calls run on virtual threads (Java 21+) rather than a platform thread pool. */
+    public boolean usesVirtualThreads() {
+        return virtualThreads;
+    }
+
+    /** Stops accepting calls and waits up to 30 s for the running ones to finish. */
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** {@code Executors.newVirtualThreadPerTaskExecutor()}, or {@code null} before Java 21. */
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor")
+                    .invoke(null);
+        } catch (ReflectiveOperationException e) {
+            // Absent on 17, preview-only (throws) on 19/20.
+            return null;
+        }
+    }
+
+    private static ThreadFactory daemonThreads() {
+        AtomicInteger count = new AtomicInteger();
+        return task -> {
+            Thread thread = new Thread(task, "device-dao-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
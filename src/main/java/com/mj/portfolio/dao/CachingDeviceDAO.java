@@ -0,0 +1,248 @@
+package com.mj.portfolio.dao;
+
+import com.mj.portfolio.cache.CacheStats;
+import com.mj.portfolio.cache.LruCache;
+import com.mj.portfolio.model.Device;
+import com.mj.portfolio.model.DeviceStatus;
+import com.mj.portfolio.model.DeviceType;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Read-through caching decorator for any {@link DeviceDAO}.
+ *
+ * <p>Caches {@link #findById} results and the per-type / per-status lists in
+ * bounded LRU caches with a time-to-live. Writes go straight to the wrapped
+ * DAO and then invalidate exactly the keys they can affect:
+ * <ul>
+ *   <li>{@code save} — the list for the new device's type and status</li>
+ *   <li>{@code update} / {@code delete} — the device's id entry plus the
+ *       lists for its old and new type/status. If the old values are not
+ *       cached, the lists are dropped wholesale (there are only a handful).</li>
+ *   <li>{@code applyWrites} — the same, for each write in the group</li>
+ *   <li>bulk status changes — the affected ids (all of them for a filter)
+ *       and every list</li>
+ * </ul>
+ * Other queries (findAll, search, paging) are not cached and pass through.</p>
+ *
+ * <p>{@link Device} is mutable, so the cache only ever hands out copies;
+ * a caller changing a returned device cannot corrupt the cached one.</p>
+ *
+ * <p>The TTL bounds how stale an entry can get when <em>other</em> processes
+ * write to the same table. Feeding {@link #onChange} from a
+ * {@link DeviceChangeListener} removes that staleness almost entirely.</p>
+ */
+public class CachingDeviceDAO extends ForwardingDeviceDAO {
+
+    private final LruCache<UUID, Device>         byId;
+    private final LruCache<Object, List<Device>> lists;   // keyed by DeviceType or DeviceStatus
+
+    /**
+     * @param maxEntries capacity of the id cache; the list cache holds at most
+     *                   one entry per type and status
+     * @param ttlMillis  entry lifetime, {@code 0} for no expiry
+     */
+    public CachingDeviceDAO(DeviceDAO delegate, int maxEntries, long ttlMillis) {
+        super(delegate);
+        this.byId  = new LruCache<>(maxEntries, ttlMillis);
+        this.lists = new LruCache<>(DeviceType.values().length + DeviceStatus.values().length, ttlMillis);
+    }
+
+    // ── Cached queries ───────────────────────────────────────────────────────
+
+    @Override
+    public Optional<Device> findById(UUID id) {
+        Device cached = byId.get(id, key -> delegate.findById(key).orElse(null));
+        return Optional.ofNullable(cached).map(Device::new);
+    }
+
+    @Override
+    public List<Device> findByType(DeviceType type) {
+        return copies(lists.get(type, key -> List.copyOf(delegate.findByType(type))));
+    }
+
+    @Override
+    public List<Device> findByStatus(DeviceStatus status) {
+        return copies(lists.get(status, key -> List.copyOf(delegate.findByStatus(status))));
+    }
+
+    // ── Invalidating writes ──────────────────────────────────────────────────
+
+    @Override
+    public Device save(Device device) {
+        Device saved = delegate.save(device);
+        invalidateLists(saved);
+        return saved;
+    }
+
+    @Override
+    public BatchResult saveAll(Collection<Device> devices) {
+        BatchResult result = delegate.saveAll(devices);
+        result.getSaved().forEach(this::invalidateLists);
+        return result;
+    }
+
+    @Override
+    public long bulkLoad(Iterator<Device> devices) {
+        try {
+            return delegate.bulkLoad(devices);
+        } finally {
+            lists.invalidateAll();
+        }
+    }
+
+    @Override
+    public Device update(Device device) {
+        try {
+            return delegate.update(device);
+        } finally {
+            invalidate(device.getId());
+            invalidateLists(device);
+        }
+    }
+
+    @Override
+    public Optional<Device> patch(UUID id, DevicePatch patch) {
+        Optional<Device> patched = Optional.empty();
+        try {
+            patched = delegate.patch(id, patch);
+            return patched;
+        } finally {
+            invalidate(id);
+            patched.ifPresent(this::invalidateLists);
+        }
+    }
+
+    @Override
+    public boolean delete(UUID id) {
+        try {
+            return delegate.delete(id);
+        } finally {
+            invalidate(id);
+        }
+    }
+
+    @Override
+    public boolean delete(UUID id, int expectedVersion) {
+        try {
+            return delegate.delete(id, expectedVersion);
+        } finally {
+            invalidate(id);
+        }
+    }
+
+    /** Invalidates per write exactly as {@link #save}, {@link #update} and {@link #delete} do. */
+    @Override
+    public List<DeviceWrite.Outcome> applyWrites(List<DeviceWrite> writes) {
+        try {
+            return delegate.applyWrites(writes);
+        } finally {
+            for (DeviceWrite write : writes) {
+                if (write instanceof DeviceWrite.Insert insert) {
+                    invalidateLists(insert.device());
+                } else if (write instanceof DeviceWrite.Update update) {
+                    invalidate(update.device().getId());
+                    invalidateLists(update.device());
+                } else if (write instanceof DeviceWrite.Patch patch) {
+                    invalidate(patch.id());
+                    if (patch.patch().getType() != null || patch.patch().getStatus() != null) {
+                        lists.invalidateAll();
+                    }
+                } else if (write instanceof DeviceWrite.Delete delete) {
+                    invalidate(delete.id());
+                }
+            }
+        }
+    }
+
+    /** Replayed batches are large and mostly unseen by this cache, so everything is dropped. */
+    @Override
+    public List<DeviceWrite.Outcome> applyJournal(UUID journalId, long firstSeq, List<DeviceWrite> writes) {
+        try {
+            return delegate.applyJournal(journalId, firstSeq, writes);
+        } finally {
+            byId.invalidateAll();
+            lists.invalidateAll();
+        }
+    }
+
+    @Override
+    public int updateStatus(Collection<UUID> ids, DeviceStatus status) {
+        try {
+            return delegate.updateStatus(ids, status);
+        } finally {
+            ids.forEach(byId::invalidate);
+            lists.invalidateAll();
+        }
+    }
+
+    /** Which devices matched is unknown here, so both caches are dropped. */
+    @Override
+    public int updateStatusWhere(DeviceFilter filter, DeviceStatus status) {
+        try {
+            return delegate.updateStatusWhere(filter, status);
+        } finally {
+            byId.invalidateAll();
+            lists.invalidateAll();
+        }
+    }
+
+    // ── Remote changes ───────────────────────────────────────────────────────
+
+    /**
+     * Applies a change committed by any process, e.g. from a
+     * {@link DeviceChangeListener}: drops the device's entry and every list,
+     * since its new type and status are unknown here. {@code RELOAD} drops
+     * everything. Safe to call from the listener thread.
+     */
+    public void onChange(DeviceChange change) {
+        if (change.op() == DeviceChange.Op.RELOAD) {
+            byId.invalidateAll();
+            lists.invalidateAll();
+        } else {
+            byId.invalidate(change.id());
+            lists.invalidateAll();
+        }
+    }
+
+    // ── Statistics ───────────────────────────────────────────────────────────
+
+    /** Counters of the findById cache. */
+    public CacheStats getIdStats() {
+        return byId.stats();
+    }
+
+    /** Counters of the per-type/per-status list cache. */
+    public CacheStats getListStats() {
+        return lists.stats();
+    }
+
+    // ── Helpers ──────────────────────────────────────────────────────────────
+
+    /**
+     * Drops the id entry and the lists the <em>previous</em> state of the
+     * device belonged to, or all lists if that state is unknown.
+     */
+    private void invalidate(UUID id) {
+        Device previous = byId.peek(id);
+        byId.invalidate(id);
+        if (previous != null) {
+            invalidateLists(previous);
+        } else {
+            lists.invalidateAll();
+        }
+    }
+
+    private void invalidateLists(Device device) {
+        lists.invalidate(device.getType());
+        lists.invalidate(device.getStatus());
+    }
+
+    private static List<Device> copies(List<Device> devices) {
+        return devices.stream().map(Device::new).toList();
+    }
+}
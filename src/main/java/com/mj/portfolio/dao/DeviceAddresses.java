@@ -0,0 +1,58 @@
+package com.mj.portfolio.dao;
+
+import com.mj.portfolio.model.Device;
+import com.mj.portfolio.net.Cidr;
+import com.mj.portfolio.net.IpAddress;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * In-memory subnet and conflict queries, for DAOs without an {@code inet}
+ * index: the {@link DeviceDAO} defaults and the in-memory snapshot. Stored
+ * addresses that do not parse (written before addresses were validated)
+ * match no subnet and conflict with nothing.
+ */
+final class DeviceAddresses {
+
+    private DeviceAddresses() {}
+
+    /** Ordered like {@code ORDER BY ip_address, name, id} on an {@code inet} column. */
+    static List<Device> inSubnet(Stream<Device> devices, String cidr) {
+        Cidr network = Cidr.parse(cidr);
+        Map<IpAddress, List<Device>> byAddress = new TreeMap<>();
+        devices.forEach(d -> {
+            IpAddress address = IpAddress.tryParse(d.getIpAddress());
+            if (address != null && network.contains(address)) {
+                byAddress.computeIfAbsent(address, a -> new ArrayList<>()).add(d);
+            }
+        });
+        List<Device> matches = new ArrayList<>();
+        byAddress.values().forEach(users -> {
+            users.sort(PageCursor.ORDER);
+            matches.addAll(users);
+        });
+        return matches;
+    }
+
+    static List<IpConflict> conflicts(Stream<Device> devices) {
+        Map<IpAddress, List<Device>> byAddress = new TreeMap<>();
+        devices.forEach(d -> {
+            IpAddress address = IpAddress.tryParse(d.getIpAddress());
+            if (address != null) {
+                byAddress.computeIfAbsent(address, a -> new ArrayList<>()).add(d);
+            }
+        });
+        List<IpConflict> conflicts = new ArrayList<>();
+        byAddress.forEach((address, users) -> {
+            if (users.size() > 1) {
+                users.sort(PageCursor.ORDER);
+                conflicts.add(new IpConflict(address.toString(), users));
+            }
+        });
+        return conflicts;
+    }
+}
@@ -0,0 +1,44 @@
+package com.mj.portfolio.dao;
+
+import java.util.UUID;
+
+/**
+ * One committed change to the {@code devices} table, as published by the
+ * {@code notify_device_changes} trigger (see {@code db/schema.sql}).
+ *
+ * @param op      what happened
+ * @param id      the device, or {@code null} for {@link Op#RELOAD}
+ * @param version the device's version after an insert or update, before a
+ *                delete; 0 for {@link Op#RELOAD}
+ */
+public record DeviceChange(Op op, UUID id, int version) {
+
+    public enum Op {
+        INSERT, UPDATE, DELETE,
+        /**
+         * Too much changed to list (a bulk write or TRUNCATE), or notifications
+         * may have been missed (the listener reconnected): reload everything.
+         */
+        RELOAD
+    }
+
+    public static final DeviceChange RELOAD = new DeviceChange(Op.RELOAD, null, 0);
+
+    /**
+     * Parses a notification payload: {@code "<op> <id> <version>"} or {@code "RELOAD"}.
+     *
+     * @throws IllegalArgumentException if the payload is malformed
+     */
+    public static DeviceChange parse(String payload) {
+        String[] parts = payload.trim().split(" ");
+        try {
+            Op op = Op.valueOf(parts[0]);
+            if (op == Op.RELOAD) {
+                return RELOAD;
+            }
+            return new DeviceChange(op, UUID.fromString(parts[1]), Integer.parseInt(parts[2]));
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Malformed device change notification: '" + payload + "'", e);
+        }
+    }
+}
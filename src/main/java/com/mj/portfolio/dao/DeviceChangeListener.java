@@ -0,0 +1,168 @@
+package com.mj.portfolio.dao;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Receives the {@code device_changes} notifications published by the
+ * database trigger and hands each {@link DeviceChange} to the registered
+ * consumers, typically a cache's {@code onChange} method.
+ *
+ * <p>The listener keeps one dedicated connection in {@code LISTEN} mode —
+ * never a pooled one, which it would hold forever — and a daemon thread
+ * that waits in {@link PGConnection#getNotifications(int)}. Changes arrive
+ * within milliseconds of their transaction committing, with no polling
+ * queries at all.</p>
+ *
+ * <p>If the connection breaks, the thread reconnects with a growing delay
+ * and then delivers {@link DeviceChange#RELOAD}: whatever was committed in
+ * between was not heard, so consumers must resynchronise.</p>
+ *
+ * <p>Consumers run on the listener thread, one change at a time and in
+ * commit order; a slow consumer delays the following changes but never
+ * loses them (the server queues them). An exception from a consumer is
+ * logged and does not stop the listener.</p>
+ */
+public class DeviceChangeListener implements AutoCloseable {
+
+    /** Channel the trigger notifies on. */
+    public static final String CHANNEL = "device_changes";
+
+    /** Opens a new, unpooled connection. */
+    @FunctionalInterface
+    public interface ConnectionSource {
+        Connection open() throws SQLException;
+    }
+
+    private static final Logger LOG = Logger.getLogger(DeviceChangeListener.class.getName());
+
+    private static final int  POLL_MILLIS       = 500;
+    private static final long MAX_BACKOFF_MILLIS = 30_000;
+
+    private final ConnectionSource                 source;
+    private final List<Consumer<DeviceChange>>     consumers = new CopyOnWriteArrayList<>();
+    private final Thread                           thread;
+    private volatile boolean                       running;
+    private volatile Connection                    connection;
+
+    public DeviceChangeListener(ConnectionSource source) {
+        this.source = source;
+        this.thread = new Thread(this::run, "device-change-listener");
+        this.thread.setDaemon(true);
+    }
+
+    /** Registers a consumer; may be called before or after {@link #start()}. */
+    public DeviceChangeListener onChange(Consumer<DeviceChange> consumer) {
+        consumers.add(consumer);
+        return this;
+    }
+
+    /**
+     * Connects, issues {@code LISTEN} and starts the listener thread. Changes
+     * committed from this point on are delivered.
+     *
+     * @throws SQLException if the first connection attempt fails
+     */
+    public DeviceChangeListener start() throws SQLException {
+        connection = listen();
+        running = true;
+        thread.start();
+        return this;
+    }
+
+    /** Stops the listener thread and closes its connection. */
+    @Override
+    public void close() {
+        running = false;
+        thread.interrupt();
+        try {
+            thread.join(POLL_MILLIS * 2L);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        closeQuietly(connection);
+    }
+
+    private void run() {
+        long backoff = 100;
+        while (running) {
+            try {
+                if (connection == null) {
+                    connection = listen();
+                    backoff = 100;
+                    deliver(DeviceChange.RELOAD);   // changes may have been missed meanwhile
+                }
+                PGNotification[] notifications = connection.unwrap(PGConnection.class)
+                        .getNotifications(POLL_MILLIS);
+                if (notifications != null) {
+                    for (PGNotification n : notifications) {
+                        deliver(parse(n.getParameter()));
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    break;
+                }
+                LOG.log(Level.WARNING, "Device change listener lost its connection; retrying in "
+                        + backoff + " ms", e);
+                closeQuietly(connection);
+                connection = null;
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException ie) {
+                    break;
+                }
+                backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+            }
+        }
+    }
+
+    private Connection listen() throws SQLException {
+        Connection conn = source.open();
+        try (Statement st = conn.createStatement()) {
+            st.execute("LISTEN " + CHANNEL);
+        } catch (SQLException e) {
+            closeQuietly(conn);
+            throw e;
+        }
+        return conn;
+    }
+
+    private static DeviceChange parse(String payload) {
+        try {
+            return DeviceChange.parse(payload);
+        } catch (IllegalArgumentException e) {
+            LOG.warning(e.getMessage() + "; treating it as a reload");
+            return DeviceChange.RELOAD;
+        }
+    }
+
+    private void deliver(DeviceChange change) {
+        for (Consumer<DeviceChange> consumer : consumers) {
+            try {
+                consumer.accept(change);
+            } catch (RuntimeException e) {
+                LOG.log(Level.WARNING, "Device change consumer failed on " + change, e);
+            }
+        }
+    }
+
+    private static void closeQuietly(Connection conn) {
+        if (conn != null) {
+            try {
+                conn.close();
+            } catch (SQLException ignored) {
+                // already broken or closed
+            }
+        }
+    }
+}
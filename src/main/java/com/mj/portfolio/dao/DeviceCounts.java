@@ -0,0 +1,69 @@
+package com.mj.portfolio.dao;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Result of {@link DeviceDAO#countBy}: the total number of devices and, for
+ * each requested {@link GroupingKey}, the number of devices per value.
+ *
+ * <p>Each per-key map is ordered largest count first (ties by value, with
+ * {@code null} last) and only contains values that occur.</p>
+ */
+public final class DeviceCounts {
+
+    private static final Comparator<Map.Entry<String, Long>> LARGEST_FIRST =
+            Map.Entry.<String, Long>comparingByValue().reversed()
+                    .thenComparing(Map.Entry::getKey, Comparator.nullsLast(Comparator.naturalOrder()));
+
+    private final long                               total;
+    private final Map<GroupingKey, Map<String, Long>> groups = new EnumMap<>(GroupingKey.class);
+
+    /**
+     * @param total  number of devices
+     * @param groups counts per value for each key, in any order
+     */
+    public DeviceCounts(long total, Map<GroupingKey, ? extends Map<String, Long>> groups) {
+        this.total = total;
+        groups.forEach((key, counts) -> {
+            Map<String, Long> sorted = new LinkedHashMap<>();
+            counts.entrySet().stream()
+                    .sorted(LARGEST_FIRST)
+                    .forEach(e -> sorted.put(e.getKey(), e.getValue()));
+            this.groups.put(key, Collections.unmodifiableMap(sorted));
+        });
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    /** The keys that were counted. */
+    public Set<GroupingKey> getKeys() {
+        return Collections.unmodifiableSet(groups.keySet());
+    }
+
+    /** Devices per value of {@code key}, largest first; empty if {@code key} was not counted. */
+    public Map<String, Long> get(GroupingKey key) {
+        return groups.getOrDefault(key, Map.of());
+    }
+
+    /** Mutable, empty per-value maps for each distinct key; filled in by implementations. */
+    static Map<GroupingKey, Map<String, Long>> emptyGroups(GroupingKey... keys) {
+        Map<GroupingKey, Map<String, Long>> groups = new EnumMap<>(GroupingKey.class);
+        for (GroupingKey key : keys) {
+            groups.put(key, new HashMap<>());
+        }
+        return groups;
+    }
+
+    @Override
+    public String toString() {
+        return "DeviceCounts{total=" + total + ", groups=" + groups + "}";
+    }
+}
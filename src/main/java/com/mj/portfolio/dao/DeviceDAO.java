@@ -1,12 +1,21 @@
 package com.mj.portfolio.dao;
 
+import com.mj.portfolio.exception.DAOException;
+import com.mj.portfolio.exception.StaleDeviceException;
 import com.mj.portfolio.model.Device;
 import com.mj.portfolio.model.DeviceStatus;
 import com.mj.portfolio.model.DeviceType;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
  * Data Access Object interface for {@link Device} persistence.
@@ -21,6 +30,92 @@ public interface DeviceDAO {
     /** Returns all devices ordered by name. */
     List<Device> findAll();
 
+    /**
+     * Streams all devices ordered by name without materialising them.
+     *
+     * <p>The returned stream holds database resources and <b>must be closed</b>,
+     * ideally with try-with-resources:
+     * <pre>
+     *   try (Stream&lt;Device&gt; devices = dao.streamAll()) {
+     *       devices.forEach(out::write);
+     *   }
+     * </pre>
+     * The default implementation streams over {@link #findAll()}; the
+     * PostgreSQL implementation reads through a server-side cursor so heap
+     * use stays flat regardless of table size.</p>
+     */
+    default Stream<Device> streamAll() {
+        return findAll().stream();
+    }
+
+    /**
+     * Streams all devices in {@link NaturalKey#ORDER} (name, then IP address,
+     * both in code point order), for merging against an input sorted the
+     * same way. Must be closed, like {@link #streamAll()}.
+     *
+     * <p>The default implementation sorts {@link #findAll()}; the PostgreSQL
+     * implementation walks an index in that order through a server-side
+     * cursor.</p>
+     */
+    default Stream<Device> streamByNaturalKey() {
+        return findAll().stream().sorted(NaturalKey.ORDER);
+    }
+
+    /**
+     * A watermark to pass to {@link #changesSince} later. Read it
+     * <em>before</em> reading the devices it is to describe: every change
+     * those reads can miss is then after it.
+     *
+     * @return {@link DeviceDelta#NO_WATERMARK} by default, i.e. changes are
+     *         not tracked
+     */
+    default long changeWatermark() {
+        return DeviceDelta.NO_WATERMARK;
+    }
+
+    /**
+     * The devices inserted, updated or deleted after {@code watermark}, for
+     * bringing a copy of the inventory (e.g. a snapshot file) up to date
+     * without reading all of it.
+     *
+     * <p>The default implementation returns every device as a
+     * {@link DeviceDelta#full full} delta; the PostgreSQL implementation
+     * reads only the rows and tombstones stamped since the watermark.</p>
+     */
+    default DeviceDelta changesSince(long watermark) {
+        long next = changeWatermark();
+        return new DeviceDelta(next, true, findAll(), List.of());
+    }
+
+    /**
+     * Returns one page of the devices matching {@code filter}, ordered by
+     * {@code (name, id)}.
+     *
+     * <p>Pagination is keyset-based: the page token records the last (or
+     * first) row seen, and the next page is fetched by seeking past it. Every
+     * page therefore costs the same no matter how deep the caller pages, and
+     * rows inserted or deleted meanwhile never cause skipped or repeated
+     * entries as they would with {@code OFFSET}.</p>
+     *
+     * @param filter    criteria to apply; {@link DeviceFilter#all()} for everything
+     * @param pageToken {@code null} for the first page, otherwise a token from a
+     *                  previous {@link Page} of the same filter
+     * @param pageSize  maximum number of devices per page
+     */
+    default Page<Device> findPage(DeviceFilter filter, String pageToken, int pageSize) {
+        PageCursor.checkPageSize(pageSize);
+        PageCursor cursor = PageCursor.decode(pageToken);
+        Comparator<Device> order = cursor == null || cursor.forward()
+                ? PageCursor.ORDER : PageCursor.ORDER.reversed();
+        List<Device> fetched = findAll().stream()
+                .filter(filter::matches)
+                .filter(d -> cursor == null || cursor.admits(d))
+                .sorted(order)
+                .limit(pageSize + 1L)
+                .toList();
+        return PageCursor.toPage(fetched, cursor, pageSize);
+    }
+
     /** Returns the device with the given UUID, or empty if not found. */
     Optional<Device> findById(UUID id);
 
@@ -30,12 +125,86 @@ public interface DeviceDAO {
     /** Returns all devices with a given status, ordered by name. */
     List<Device> findByStatus(DeviceStatus status);
 
+    /**
+     * Returns all devices with the given type <em>and</em> status, ordered by name.
+     * The default implementation filters {@link #findByType} in memory.
+     */
+    default List<Device> findByTypeAndStatus(DeviceType type, DeviceStatus status) {
+        return findByType(type).stream()
+                .filter(d -> d.getStatus() == status)
+                .toList();
+    }
+
+    /**
+     * Counts devices in total and per value of each of {@code keys}, e.g.
+     * {@code countBy(TYPE, STATUS)} for devices per type and per status.
+     *
+     * <p>The default implementation streams every device through
+     * {@link #streamAll()}; the PostgreSQL implementation answers with one
+     * {@code GROUP BY GROUPING SETS} query, so only the counts cross the wire.</p>
+     */
+    default DeviceCounts countBy(GroupingKey... keys) {
+        Map<GroupingKey, Map<String, Long>> groups = DeviceCounts.emptyGroups(keys);
+        long total = 0;
+        try (Stream<Device> devices = streamAll()) {
+            for (Iterator<Device> it = devices.iterator(); it.hasNext(); total++) {
+                Device device = it.next();
+                groups.forEach((key, counts) -> counts.merge(key.valueOf(device), 1L, Long::sum));
+            }
+        }
+        return new DeviceCounts(total, groups);
+    }
+
+    /**
+     * Devices whose IP address lies in {@code cidr}, a network such as
+     * {@code 10.0.0.0/16} (see {@link com.mj.portfolio.net.Cidr}), ordered by
+     * address, then name.
+     *
+     * <p>The default implementation tests every device's address; the
+     * PostgreSQL implementation answers {@code ip_address <<= cidr} from a
+     * GiST index on the {@code inet} column.</p>
+     */
+    default List<Device> findBySubnet(String cidr) {
+        return DeviceAddresses.inSubnet(findAll().stream(), cidr);
+    }
+
+    /**
+     * Every IP address recorded for more than one device, ordered by
+     * address, with the devices sharing it.
+     *
+     * <p>The default implementation groups all devices in memory; the
+     * PostgreSQL implementation groups in the database and only returns the
+     * conflicting rows.</p>
+     */
+    default List<IpConflict> findIpConflicts() {
+        try (Stream<Device> devices = streamAll()) {
+            return DeviceAddresses.conflicts(devices);
+        }
+    }
+
     /**
      * Full-text search across name, ip_address, and location.
      * The search is case-insensitive and uses a substring match.
      */
     List<Device> search(String keyword);
 
+    /**
+     * Ranked search: returns at most {@code limit} devices matching
+     * {@code query}, best matches first (ties broken by name).
+     *
+     * <p>The default implementation filters {@link #findAll()} in memory and
+     * ranks with {@link SearchQuery#score}; the PostgreSQL implementation
+     * uses trigram indexes and {@code word_similarity}.</p>
+     */
+    default List<Device> search(SearchQuery query, int limit) {
+        return findAll().stream()
+                .filter(query::matches)
+                .sorted(Comparator.comparingDouble(query::score).reversed()
+                        .thenComparing(PageCursor.ORDER))
+                .limit(limit)
+                .toList();
+    }
+
     /**
      * Inserts a new device and returns it with id and createdAt populated.
      *
@@ -44,17 +213,219 @@ public interface DeviceDAO {
      */
     Device save(Device device);
 
+    /**
+     * Inserts many devices in one go.
+     *
+     * <p>Rows that fail are reported in the returned {@link BatchResult}
+     * instead of aborting the whole call; every successfully saved Device has
+     * its id and createdAt populated, exactly as with {@link #save}.</p>
+     *
+     * <p>The default implementation simply calls {@link #save} per device;
+     * database-backed implementations override it to use a single
+     * connection, transaction and chunked multi-row statements.</p>
+     *
+     * @param devices devices to insert, in input order
+     * @return saved devices plus per-row failures (indexes refer to {@code devices})
+     */
+    default BatchResult saveAll(Collection<Device> devices) {
+        BatchResult result = new BatchResult();
+        int index = 0;
+        for (Device device : devices) {
+            try {
+                result.recordSaved(save(device));
+            } catch (RuntimeException e) {
+                result.recordFailure(index, device, e.getMessage());
+            }
+            index++;
+        }
+        return result;
+    }
+
+    /**
+     * Loads a (potentially huge) stream of already-validated devices.
+     *
+     * <p>Devices are pulled from the iterator one at a time, so callers can
+     * feed rows straight from a file without holding them in memory. Unlike
+     * {@link #saveAll}, the loaded Device objects are not given their ids.</p>
+     *
+     * <p>The default implementation saves in chunks through {@link #saveAll}
+     * and stops at the first chunk containing a failed row; the PostgreSQL
+     * implementation streams everything through {@code COPY} in a single
+     * transaction instead.</p>
+     *
+     * @return number of devices inserted
+     */
+    default long bulkLoad(Iterator<Device> devices) {
+        final int chunkSize = 500;
+        List<Device> chunk = new ArrayList<>(chunkSize);
+        long loaded = 0;
+        while (devices.hasNext()) {
+            chunk.add(devices.next());
+            if (chunk.size() == chunkSize || !devices.hasNext()) {
+                BatchResult result = saveAll(chunk);
+                loaded += result.getSavedCount();
+                if (result.hasFailures()) {
+                    BatchResult.Failure first = result.getFailures().get(0);
+                    throw new DAOException("Bulk load stopped after " + loaded + " rows: "
+                            + first.device().getName() + ": " + first.message());
+                }
+                chunk.clear();
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Applies a sequence of inserts, updates and deletes, in order, as one
+     * unit of work.
+     *
+     * <p>Like {@link #saveAll}, a rejected write does not abort the others:
+     * its {@link DeviceWrite.Outcome} carries the error and the rest still go
+     * through. An exception is only thrown if the whole group fails (e.g. the
+     * database is unreachable), in which case nothing has been written.</p>
+     *
+     * <p>The default implementation applies each write on its own; the
+     * PostgreSQL implementation runs the group in a single transaction and
+     * batches consecutive writes of the same kind.</p>
+     *
+     * @return one outcome per write, in input order
+     */
+    default List<DeviceWrite.Outcome> applyWrites(List<DeviceWrite> writes) {
+        List<DeviceWrite.Outcome> outcomes = new ArrayList<>(writes.size());
+        for (DeviceWrite write : writes) {
+            try {
+                outcomes.add(write.applyTo(this));
+            } catch (RuntimeException e) {
+                outcomes.add(DeviceWrite.Outcome.failed(e.getMessage()));
+            }
+        }
+        return outcomes;
+    }
+
+    /**
+     * Applies writes replayed from a write journal (see
+     * {@link JournalingDeviceDAO}) exactly once: {@code writes.get(i)} is
+     * entry {@code firstSeq + i} of journal {@code journalId}, and entries
+     * already applied for that journal are skipped, so a batch can be retried
+     * after a failure or crash without applying anything twice.
+     *
+     * <p>The PostgreSQL implementation records the last applied entry per
+     * journal in {@code device_journals}, and the entries it rejected, in the
+     * same transaction as the writes. The default implementation has nowhere
+     * to keep them and simply calls {@link #applyWrites}.</p>
+     *
+     * @return one outcome per write, in input order; a skipped write reports
+     *         the error it was rejected with, else counts as applied
+     */
+    default List<DeviceWrite.Outcome> applyJournal(UUID journalId, long firstSeq, List<DeviceWrite> writes) {
+        return applyWrites(writes);
+    }
+
     /**
      * Updates all mutable fields of an existing device.
      *
+     * <p>Implementations that keep row versions only apply the update if the
+     * stored device is still at {@code device.getVersion()}, throwing a
+     * {@link StaleDeviceException} otherwise, and increment the version on
+     * the passed Device when they do.</p>
+     *
      * @return the updated Device
      */
     Device update(Device device);
 
+    /**
+     * Changes only the fields set in {@code patch} and returns the device as
+     * stored afterwards.
+     *
+     * <p>The PostgreSQL implementation does this in a single
+     * {@code UPDATE ... RETURNING} — no read beforehand — so fields another
+     * client changed meanwhile are kept. If the patch carries an expected
+     * version, the row is only touched at that version. An
+     * {@link DevicePatch#isEmpty() empty} patch writes nothing and leaves the
+     * version as it is. The default implementation reads, patches and
+     * {@link #update}s the device.</p>
+     *
+     * @return the patched device, or empty if there is no device with {@code id}
+     * @throws StaleDeviceException if the device is no longer at
+     *                              {@link DevicePatch#getExpectedVersion()}
+     */
+    default Optional<Device> patch(UUID id, DevicePatch patch) {
+        Optional<Device> device = findById(id);
+        if (device.isPresent()) {
+            checkVersion(device.get(), patch.getExpectedVersion());
+            if (!patch.isEmpty()) {
+                update(patch.applyTo(device.get()));
+            }
+        }
+        return device;
+    }
+
+    /**
+     * Sets the status of every device in {@code ids}.
+     *
+     * <p>Devices that already have {@code status} are left untouched and not
+     * counted; unknown ids are ignored. The default implementation reads and
+     * updates each device; the PostgreSQL implementation runs a single
+     * {@code UPDATE ... WHERE id = ANY(?)}.</p>
+     *
+     * @return number of devices whose status changed
+     */
+    default int updateStatus(Collection<UUID> ids, DeviceStatus status) {
+        int changed = 0;
+        for (UUID id : new LinkedHashSet<>(ids)) {
+            Optional<Device> device = findById(id);
+            if (device.isPresent() && device.get().getStatus() != status) {
+                device.get().setStatus(status);
+                update(device.get());
+                changed++;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Sets the status of every device matching {@code filter}, with the same
+     * semantics as {@link #updateStatus(Collection, DeviceStatus)}. The
+     * PostgreSQL implementation runs a single {@code UPDATE ... WHERE <filter>}.
+     *
+     * @return number of devices whose status changed
+     */
+    default int updateStatusWhere(DeviceFilter filter, DeviceStatus status) {
+        List<UUID> ids = findAll().stream()
+                .filter(filter::matches)
+                .map(Device::getId)
+                .toList();
+        return updateStatus(ids, status);
+    }
+
     /**
      * Deletes the device with the given UUID.
      *
      * @return {@code true} if a row was deleted, {@code false} if not found
      */
     boolean delete(UUID id);
+
+    /**
+     * Deletes the device with the given UUID only if it is still at
+     * {@code expectedVersion}, e.g. the version shown when the user
+     * confirmed the deletion. The PostgreSQL implementation adds the version
+     * to the {@code DELETE}'s condition.
+     *
+     * @return {@code true} if a row was deleted, {@code false} if not found
+     * @throws StaleDeviceException if the device has been changed since
+     */
+    default boolean delete(UUID id, int expectedVersion) {
+        Optional<Device> device = findById(id);
+        if (device.isEmpty()) {
+            return false;
+        }
+        checkVersion(device.get(), expectedVersion);
+        return delete(id);
+    }
+
+    private static void checkVersion(Device device, Integer expectedVersion) {
+        if (expectedVersion != null && device.getVersion() != expectedVersion) {
+            throw new StaleDeviceException(device.getId(), expectedVersion, device.getVersion());
+        }
+    }
 }
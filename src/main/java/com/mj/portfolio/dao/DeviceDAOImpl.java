@@ -1,16 +1,35 @@
 package com.mj.portfolio.dao;
 
 import com.mj.portfolio.exception.DAOException;
+import com.mj.portfolio.exception.StaleDeviceException;
+import com.mj.portfolio.jfr.QueryEvent;
 import com.mj.portfolio.model.Device;
 import com.mj.portfolio.model.DeviceStatus;
 import com.mj.portfolio.model.DeviceType;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
 
 import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
 import java.sql.*;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * PostgreSQL implementation of {@link DeviceDAO} using plain JDBC.
@@ -30,98 +49,568 @@ import java.util.UUID;
  */
 public class DeviceDAOImpl implements DeviceDAO {
 
+    /** Rows per multi-row INSERT in {@link #saveAll} unless configured otherwise. */
+    public static final int DEFAULT_BATCH_SIZE = 500;
+
+    /** Columns bound per row by {@link #saveAll}. */
+    private static final int INSERT_COLUMNS = 6;
+
+    /** Rows fetched per round trip when streaming through a server-side cursor. */
+    private static final int STREAM_FETCH_SIZE = 1_000;
+
+    /** PostgreSQL's wire protocol allows at most 65535 bind parameters per statement. */
+    private static final int MAX_BATCH_SIZE = 65_535 / INSERT_COLUMNS;
+
+    /** Multi-row insert used by {@link #saveAll}, followed by one {@code (?, ...)} group per row. */
+    private static final String INSERT_ROWS_SQL =
+            "INSERT INTO devices (id, name, type, status, ip_address, location) VALUES ";
+    private static final String INSERT_ROW = "(?, ?, ?, ?, ?::inet, ?)";
+
+    /**
+     * The address as text for substring search: {@code host()} prints it
+     * without a prefix length, and the trigram index is on this expression.
+     */
+    private static final String IP_TEXT = "host(ip_address)";
+
+    /**
+     * The oldest transaction the current snapshot still sees as running: the
+     * change watermark, see the {@code changed_xid} comment in {@code db/schema.sql}.
+     */
+    private static final String WATERMARK = "pg_snapshot_xmin(pg_current_snapshot())::text::bigint";
+
+    /** Tombstone id recorded by a {@code TRUNCATE}. */
+    private static final UUID TRUNCATED = new UUID(0, 0);
+
+    /** Full-row update used by {@link #update} and batched updates; see {@link #bindUpdate}. */
+    private static final String UPDATE_SQL = """
+            UPDATE devices
+            SET name = ?, type = ?, status = ?, ip_address = ?::inet, location = ?,
+                version = version + 1
+            WHERE id = ? AND version = ?
+            """;
+
+    /** Single-statement partial update; see {@link #patch}. */
+    private static final String PATCH_SQL = """
+            UPDATE devices
+            SET name       = COALESCE(?, name),
+                type       = COALESCE(?, type),
+                status     = COALESCE(?, status),
+                ip_address = CASE WHEN ?::text IS NULL THEN ip_address ELSE NULLIF(?, '')::inet END,
+                location   = NULLIF(COALESCE(?, location), ''),
+                version    = version + 1
+            WHERE id = ? AND version = COALESCE(?, version)
+            """ + "RETURNING " + DeviceRowMapper.COLUMNS;
+
     private final DataSource dataSource;
+    private final int        batchSize;
 
     public DeviceDAOImpl(DataSource dataSource) {
+        this(dataSource, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * @param batchSize rows per multi-row INSERT used by {@link #saveAll}
+     */
+    public DeviceDAOImpl(DataSource dataSource, int batchSize) {
+        if (batchSize < 1 || batchSize > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException(
+                    "Batch size must be between 1 and " + MAX_BATCH_SIZE + ": " + batchSize);
+        }
         this.dataSource = dataSource;
+        this.batchSize  = batchSize;
     }
 
     // ── Queries ──────────────────────────────────────────────────────────────
 
     @Override
     public List<Device> findAll() {
-        String sql = "SELECT * FROM devices ORDER BY name";
+        String sql = DeviceRowMapper.SELECT + " ORDER BY name";
+        QueryEvent event = QueryEvent.begin("findAll", sql);
         try (Connection conn = dataSource.getConnection();
              PreparedStatement ps = conn.prepareStatement(sql);
              ResultSet rs = ps.executeQuery()) {
 
-            return collectRows(rs);
+            return event.rows(DeviceRowMapper.collect(rs));
 
         } catch (SQLException e) {
             throw new DAOException("Failed to fetch all devices", e);
+        } finally {
+            event.finish(null);
+        }
+    }
+
+    /**
+     * {@code COLLATE "C"} compares bytes, i.e. code points, whatever the
+     * database locale, and {@code idx_devices_natural_key} is on the same
+     * expressions, so the cursor walks the index instead of sorting.
+     */
+    @Override
+    public Stream<Device> streamByNaturalKey() {
+        return streamQuery("streamByNaturalKey", DeviceRowMapper.SELECT
+                        + " ORDER BY name COLLATE \"C\", " + IP_TEXT + " COLLATE \"C\" NULLS FIRST, id",
+                "Failed to stream devices by name and IP address");
+    }
+
+    /**
+     * Streams all devices through a server-side cursor.
+     *
+     * <p>pgjdbc only uses a cursor when autocommit is off and a fetch size is
+     * set; otherwise it buffers the complete result in memory. The borrowed
+     * connection stays checked out until the stream is closed.</p>
+     */
+    @Override
+    public Stream<Device> streamAll() {
+        return streamQuery("streamAll", DeviceRowMapper.SELECT + " ORDER BY name, id",
+                "Failed to stream devices");
+    }
+
+    /**
+     * Keyset (seek) pagination on {@code (name, id)}.
+     *
+     * <p>The row-value comparison {@code (name, id) > (?, ?)} together with
+     * {@code ORDER BY name, id LIMIT n} is answered by walking the
+     * {@code (name, id)} index (or {@code (type|status, name, id)} when
+     * filtering) from the seek position, so a page deep into the table costs
+     * the same as the first one. One extra row is fetched to tell whether a
+     * further page exists.</p>
+     */
+    @Override
+    public Page<Device> findPage(DeviceFilter filter, String pageToken, int pageSize) {
+        PageCursor.checkPageSize(pageSize);
+        PageCursor cursor  = PageCursor.decode(pageToken);
+        boolean    forward = cursor == null || cursor.forward();
+
+        List<Object> params     = new ArrayList<>();
+        List<String> conditions = filterConditions(filter, params);
+        if (cursor != null) {
+            conditions.add(forward ? "(name, id) > (?, ?)" : "(name, id) < (?, ?)");
+            params.add(cursor.name());
+            params.add(cursor.id());
+        }
+
+        String sql = DeviceRowMapper.SELECT
+                + (conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions))
+                + (forward ? " ORDER BY name, id" : " ORDER BY name DESC, id DESC")
+                + " LIMIT ?";
+        params.add(pageSize + 1);
+
+        QueryEvent event = QueryEvent.begin("findPage", sql);
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            bind(ps, params);
+            try (ResultSet rs = ps.executeQuery()) {
+                return PageCursor.toPage(event.rows(DeviceRowMapper.collect(rs)), cursor, pageSize);
+            }
+
+        } catch (SQLException e) {
+            throw new DAOException("Failed to fetch page for " + filter, e);
+        } finally {
+            event.finish(params);
         }
     }
 
     @Override
     public Optional<Device> findById(UUID id) {
-        String sql = "SELECT * FROM devices WHERE id = ?";
+        String sql = DeviceRowMapper.SELECT + " WHERE id = ?";
+        QueryEvent event = QueryEvent.begin("findById", sql);
         try (Connection conn = dataSource.getConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
 
             ps.setObject(1, id);
             try (ResultSet rs = ps.executeQuery()) {
-                return rs.next() ? Optional.of(mapRow(rs)) : Optional.empty();
+                boolean found = rs.next();
+                event.rows(found ? 1 : 0);
+                return found ? Optional.of(DeviceRowMapper.map(rs)) : Optional.empty();
             }
 
         } catch (SQLException e) {
             throw new DAOException("Failed to find device by id: " + id, e);
+        } finally {
+            event.finish(id);
         }
     }
 
     @Override
     public List<Device> findByType(DeviceType type) {
-        String sql = "SELECT * FROM devices WHERE type = ? ORDER BY name";
+        String sql = DeviceRowMapper.SELECT + " WHERE type = ? ORDER BY name";
+        QueryEvent event = QueryEvent.begin("findByType", sql);
         try (Connection conn = dataSource.getConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
 
             ps.setString(1, type.name());
             try (ResultSet rs = ps.executeQuery()) {
-                return collectRows(rs);
+                return event.rows(DeviceRowMapper.collect(rs));
             }
 
         } catch (SQLException e) {
             throw new DAOException("Failed to filter by type: " + type, e);
+        } finally {
+            event.finish(type);
         }
     }
 
     @Override
     public List<Device> findByStatus(DeviceStatus status) {
-        String sql = "SELECT * FROM devices WHERE status = ? ORDER BY name";
+        String sql = DeviceRowMapper.SELECT + " WHERE status = ? ORDER BY name";
+        QueryEvent event = QueryEvent.begin("findByStatus", sql);
         try (Connection conn = dataSource.getConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
 
             ps.setString(1, status.name());
             try (ResultSet rs = ps.executeQuery()) {
-                return collectRows(rs);
+                return event.rows(DeviceRowMapper.collect(rs));
             }
 
         } catch (SQLException e) {
             throw new DAOException("Failed to filter by status: " + status, e);
+        } finally {
+            event.finish(status);
         }
     }
 
+    @Override
+    public List<Device> findByTypeAndStatus(DeviceType type, DeviceStatus status) {
+        String sql = DeviceRowMapper.SELECT + " WHERE type = ? AND status = ? ORDER BY name";
+        QueryEvent event = QueryEvent.begin("findByTypeAndStatus", sql);
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            ps.setString(1, type.name());
+            ps.setString(2, status.name());
+            try (ResultSet rs = ps.executeQuery()) {
+                return event.rows(DeviceRowMapper.collect(rs));
+            }
+
+        } catch (SQLException e) {
+            throw new DAOException("Failed to filter by type " + type + " and status " + status, e);
+        } finally {
+            event.finish(List.of(type, status));
+        }
+    }
+
+    /**
+     * Substring search on name, IP address and location.
+     *
+     * <p>Uses {@code ILIKE '%…%'}, which the {@code pg_trgm} GIN indexes from
+     * {@code schema.sql} can answer without a sequential scan (for keywords of
+     * three or more characters; shorter ones have no trigrams to look up).</p>
+     */
     @Override
     public List<Device> search(String keyword) {
-        String like = "%" + keyword.toLowerCase() + "%";
-        String sql = """
-                SELECT * FROM devices
-                WHERE LOWER(name)       LIKE ?
-                   OR LOWER(ip_address) LIKE ?
-                   OR LOWER(location)   LIKE ?
-                ORDER BY name
-                """;
+        List<Object> params = new ArrayList<>();
+        String sql = DeviceRowMapper.SELECT + " WHERE "
+                + String.join(" AND ", filterConditions(DeviceFilter.search(keyword), params))
+                + " ORDER BY name";
+        QueryEvent event = QueryEvent.begin("search", sql);
         try (Connection conn = dataSource.getConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
 
-            ps.setString(1, like);
-            ps.setString(2, like);
-            ps.setString(3, like);
+            bind(ps, params);
             try (ResultSet rs = ps.executeQuery()) {
-                return collectRows(rs);
+                return event.rows(DeviceRowMapper.collect(rs));
             }
 
         } catch (SQLException e) {
             throw new DAOException("Search failed for keyword: " + keyword, e);
+        } finally {
+            event.finish(params);
+        }
+    }
+
+    /**
+     * Ranked, index-backed search.
+     *
+     * <p>Each term becomes an {@code ILIKE} predicate on its column(s), served
+     * by the trigram GIN indexes (PostgreSQL combines them with a BitmapOr for
+     * unscoped terms). Matches are ranked by the sum over all terms of
+     * {@code word_similarity(term, column)}, so "rack" ranks "Rack 4" above
+     * "Backrack Storage"; only the top {@code limit} rows are returned.</p>
+     */
+    @Override
+    public List<Device> search(SearchQuery query, int limit) {
+        if (limit < 1 || limit > 10_000) {
+            throw new IllegalArgumentException("Search limit must be between 1 and 10000: " + limit);
+        }
+        List<Object> scoreParams = new ArrayList<>();
+        List<Object> whereParams = new ArrayList<>();
+        List<String> scores      = new ArrayList<>();
+        List<String> conditions  = new ArrayList<>();
+
+        for (SearchQuery.Term term : query.getTerms()) {
+            String like = likePattern(term.text());
+            switch (term.field()) {
+                case ANY -> {
+                    conditions.add("(name ILIKE ? OR " + IP_TEXT + " ILIKE ? OR location ILIKE ?)");
+                    whereParams.addAll(List.of(like, like, like));
+                    scores.add("GREATEST(word_similarity(?, name), "
+                            + "word_similarity(?, " + IP_TEXT + "), word_similarity(?, location))");
+                    scoreParams.addAll(List.of(term.text(), term.text(), term.text()));
+                }
+                case NAME     -> addScopedTerm("name", term.text(), like,
+                                     conditions, whereParams, scores, scoreParams);
+                case IP       -> addScopedTerm(IP_TEXT, term.text(), like,
+                                     conditions, whereParams, scores, scoreParams);
+                case LOCATION -> addScopedTerm("location", term.text(), like,
+                                     conditions, whereParams, scores, scoreParams);
+            }
+        }
+        if (query.getType() != null) {
+            conditions.add("type = ?");
+            whereParams.add(query.getType().name());
+        }
+        if (query.getStatus() != null) {
+            conditions.add("status = ?");
+            whereParams.add(query.getStatus().name());
+        }
+
+        String score = scores.isEmpty() ? "0" : String.join(" + ", scores);
+        String sql = "SELECT " + DeviceRowMapper.COLUMNS + ", " + score + " AS score"
+                + " FROM devices WHERE " + String.join(" AND ", conditions)
+                + " ORDER BY score DESC, name, id LIMIT ?";
+        List<Object> params = new ArrayList<>(scoreParams);
+        params.addAll(whereParams);
+        params.add(limit);
+
+        QueryEvent event = QueryEvent.begin("search(query)", sql);
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            bind(ps, params);
+            try (ResultSet rs = ps.executeQuery()) {
+                return event.rows(DeviceRowMapper.collect(rs));
+            }
+
+        } catch (SQLException e) {
+            throw new DAOException("Search failed for query: " + query, e);
+        } finally {
+            event.finish(params);
+        }
+    }
+
+    /**
+     * One aggregate query, e.g. for type and status:
+     * <pre>
+     *   SELECT type, status, COUNT(*), GROUPING(type, status) FROM devices
+     *   GROUP BY GROUPING SETS ((type), (status), ())
+     * </pre>
+     * The {@code GROUPING} bitmask tells which set a row belongs to (and a
+     * real NULL location from a rolled-up one); the empty set is the total.
+     * With a single key PostgreSQL can answer from the B-tree leading with
+     * that column in an index-only scan; several keys share one scan of the
+     * table. Either way only the counts are sent back.
+     */
+    @Override
+    public DeviceCounts countBy(GroupingKey... keys) {
+        Map<GroupingKey, Map<String, Long>> groups = DeviceCounts.emptyGroups(keys);
+        List<GroupingKey> distinct = List.copyOf(groups.keySet());
+        if (distinct.isEmpty()) {
+            return new DeviceCounts(count(), groups);
+        }
+
+        StringBuilder columns = new StringBuilder();
+        StringBuilder sets    = new StringBuilder();
+        for (GroupingKey key : distinct) {
+            columns.append(columns.length() == 0 ? "" : ", ").append(key.column());
+            sets.append('(').append(key.column()).append("), ");
+        }
+        String sql = "SELECT " + columns + ", COUNT(*), GROUPING(" + columns + ") FROM devices"
+                + " GROUP BY GROUPING SETS (" + sets + "())";
+
+        int n    = distinct.size();
+        int none = (1 << n) - 1;   // every key rolled up: the grand total
+        long total = 0;
+        QueryEvent event = QueryEvent.begin("countBy", sql);
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+
+            int rows = 0;
+            while (rs.next()) {
+                rows++;
+                long count = rs.getLong(n + 1);
+                int  mask  = rs.getInt(n + 2);
+                if (mask == none) {
+                    total = count;
+                    continue;
+                }
+                for (int i = 0; i < n; i++) {
+                    // GROUPING() puts the first column in the highest bit.
+                    if (mask == (none ^ (1 << (n - 1 - i)))) {
+                        groups.get(distinct.get(i)).put(rs.getString(i + 1), count);
+                    }
+                }
+            }
+            event.rows(rows);
+            return new DeviceCounts(total, groups);
+
+        } catch (SQLException e) {
+            throw new DAOException("Failed to count devices by " + distinct, e);
+        } finally {
+            event.finish(null);
+        }
+    }
+
+    private long count() {
+        String sql = "SELECT COUNT(*) FROM devices";
+        QueryEvent event = QueryEvent.begin("countBy", sql);
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+            rs.next();
+            event.rows(1);
+            return rs.getLong(1);
+        } catch (SQLException e) {
+            throw new DAOException("Failed to count devices", e);
+        } finally {
+            event.finish(null);
+        }
+    }
+
+    /**
+     * {@code <<=} is "contained in or equal to", which the GiST
+     * {@code inet_ops} index answers by descending only into the part of the
+     * address space under the network.
+     */
+    @Override
+    public List<Device> findBySubnet(String cidr) {
+        String sql = DeviceRowMapper.SELECT + " WHERE ip_address <<= ?::cidr ORDER BY ip_address, name, id";
+        QueryEvent event = QueryEvent.begin("findBySubnet", sql);
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            ps.setString(1, cidr);
+            try (ResultSet rs = ps.executeQuery()) {
+                return event.rows(DeviceRowMapper.collect(rs));
+            }
+
+        } catch (SQLException e) {
+            throw new DAOException("Failed to find devices in subnet " + cidr, e);
+        } finally {
+            event.finish(cidr);
+        }
+    }
+
+    /**
+     * Finds the duplicated addresses with one {@code GROUP BY ... HAVING} and
+     * fetches only the devices using them, sorted so that each address's
+     * devices are consecutive.
+     */
+    @Override
+    public List<IpConflict> findIpConflicts() {
+        String sql = DeviceRowMapper.SELECT
+                + " WHERE ip_address IN (SELECT ip_address FROM devices WHERE ip_address IS NOT NULL"
+                + " GROUP BY ip_address HAVING COUNT(*) > 1)"
+                + " ORDER BY ip_address, name, id";
+        QueryEvent event = QueryEvent.begin("findIpConflicts", sql);
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+
+            List<Device> devices = event.rows(DeviceRowMapper.collect(rs));
+            List<IpConflict> conflicts = new ArrayList<>();
+            for (int from = 0; from < devices.size(); ) {
+                String address = devices.get(from).getIpAddress();
+                int to = from + 1;
+                while (to < devices.size() && address.equals(devices.get(to).getIpAddress())) {
+                    to++;
+                }
+                conflicts.add(new IpConflict(address, devices.subList(from, to)));
+                from = to;
+            }
+            return conflicts;
+
+        } catch (SQLException e) {
+            throw new DAOException("Failed to find IP address conflicts", e);
+        } finally {
+            event.finish(null);
+        }
+    }
+
+    @Override
+    public long changeWatermark() {
+        String sql = "SELECT " + WATERMARK;
+        QueryEvent event = QueryEvent.begin("changeWatermark", sql);
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+            rs.next();
+            event.rows(1);
+            return rs.getLong(1);
+        } catch (SQLException e) {
+            throw new DAOException("Failed to read the change watermark", e);
+        } finally {
+            event.finish(null);
+        }
+    }
+
+    /**
+     * Reads the next watermark, the rows stamped since {@code watermark} and
+     * the tombstones in one repeatable-read transaction, so they all describe
+     * the same moment. A watermark of {@link DeviceDelta#NO_WATERMARK}, or a
+     * {@code TRUNCATE} since, makes the delta full, and so does a watermark
+     * from before the tombstone retention horizon: pruning moves the nil-UUID
+     * marker a {@code TRUNCATE} leaves up to the newest pruned tombstone.
+     */
+    @Override
+    public DeviceDelta changesSince(long watermark) {
+        String sql = DeviceRowMapper.SELECT + " WHERE changed_xid >= ?::text::xid8";
+        QueryEvent event = QueryEvent.begin("changesSince", sql);
+        try (Connection conn = dataSource.getConnection()) {
+            boolean autoCommit = conn.getAutoCommit();
+            int     isolation  = conn.getTransactionIsolation();
+            conn.setAutoCommit(false);
+            conn.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+            try {
+                long    next;
+                boolean full = watermark < 0;
+                try (PreparedStatement ps = conn.prepareStatement("SELECT " + WATERMARK + ", EXISTS ("
+                        + "SELECT 1 FROM device_tombstones WHERE id = ? AND deleted_xid >= ?::text::xid8)")) {
+                    ps.setObject(1, TRUNCATED);
+                    ps.setLong(2, Math.max(watermark, 0));
+                    try (ResultSet rs = ps.executeQuery()) {
+                        rs.next();
+                        next = rs.getLong(1);
+                        full |= rs.getBoolean(2);
+                    }
+                }
+
+                List<Device> changed;
+                try (PreparedStatement ps = conn.prepareStatement(full ? DeviceRowMapper.SELECT : sql)) {
+                    if (!full) {
+                        ps.setLong(1, watermark);
+                    }
+                    try (ResultSet rs = ps.executeQuery()) {
+                        changed = DeviceRowMapper.collect(rs);
+                    }
+                }
+
+                List<UUID> deleted = new ArrayList<>();
+                if (!full) {
+                    try (PreparedStatement ps = conn.prepareStatement(
+                            "SELECT id FROM device_tombstones WHERE deleted_xid >= ?::text::xid8")) {
+                        ps.setLong(1, watermark);
+                        try (ResultSet rs = ps.executeQuery()) {
+                            while (rs.next()) {
+                                deleted.add(rs.getObject(1, UUID.class));
+                            }
+                        }
+                    }
+                }
+                conn.commit();
+                event.rows(changed.size() + deleted.size());
+                return new DeviceDelta(next, full, changed, deleted);
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setTransactionIsolation(isolation);
+                conn.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            throw new DAOException("Failed to read changes since watermark " + watermark, e);
+        } finally {
+            event.finish(watermark);
         }
     }
 
@@ -129,102 +618,931 @@ public class DeviceDAOImpl implements DeviceDAO {
 
     @Override
     public Device save(Device device) {
-        // gen_random_uuid() is PostgreSQL 13+ built-in — no extension required.
+        // gen_random_uuid() is PostgreSQL 13+ built-in — no extension required;
+        // it only fills in the id if the device does not bring its own.
         // RETURNING lets us get DB-generated values without a second SELECT.
         String sql = """
-                INSERT INTO devices (name, type, status, ip_address, location)
-                VALUES (?, ?, ?, ?, ?)
+                INSERT INTO devices (id, name, type, status, ip_address, location)
+                VALUES (COALESCE(?::uuid, gen_random_uuid()), ?, ?, ?, ?::inet, ?)
                 RETURNING id, created_at
                 """;
+        QueryEvent event = QueryEvent.begin("save", sql);
         try (Connection conn = dataSource.getConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
 
-            ps.setString(1, device.getName());
-            ps.setString(2, device.getType().name());
-            ps.setString(3, device.getStatus().name());
-            ps.setString(4, device.getIpAddress());
-            ps.setString(5, device.getLocation());
+            ps.setObject(1, device.getId());
+            ps.setString(2, device.getName());
+            ps.setString(3, device.getType().name());
+            ps.setString(4, device.getStatus().name());
+            ps.setString(5, device.getIpAddress());
+            ps.setString(6, device.getLocation());
 
             try (ResultSet rs = ps.executeQuery()) {
                 if (rs.next()) {
-                    device.setId((UUID) rs.getObject("id"));
-                    device.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
+                    device.setId(rs.getObject(1, UUID.class));
+                    device.setCreatedAt(rs.getObject(2, LocalDateTime.class));
+                    event.rows(1);
                 }
             }
             return device;
 
         } catch (SQLException e) {
             throw new DAOException("Failed to save device: " + device.getName(), e);
+        } finally {
+            event.finish(device);
         }
     }
 
+    /**
+     * Inserts all devices on one pooled connection inside one transaction.
+     *
+     * <p>Rows are sent in chunks of {@code batchSize} as a single
+     * {@code INSERT ... VALUES (...), (...), ... RETURNING id, created_at}.
+     * Ids are generated client-side so every returned row can be matched to
+     * its Device regardless of the order PostgreSQL returns them in.</p>
+     *
+     * <p>Each chunk runs under a savepoint. If a chunk fails, it is rolled back
+     * to the savepoint and replayed row by row, so only the offending rows
+     * end up in {@link BatchResult#getFailures()} and everything else is
+     * committed. createdAt is only filled in once the transaction has
+     * committed; rows that were not persisted get their generated id cleared.</p>
+     */
     @Override
-    public Device update(Device device) {
-        String sql = """
-                UPDATE devices
-                SET name       = ?,
-                    type       = ?,
-                    status     = ?,
-                    ip_address = ?,
-                    location   = ?
-                WHERE id = ?
+    public BatchResult saveAll(Collection<Device> devices) {
+        BatchResult result = new BatchResult();
+        if (devices.isEmpty()) {
+            return result;
+        }
+
+        List<Device> rows = new ArrayList<>(devices);
+        BitSet generatedIds = new BitSet(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            if (rows.get(i).getId() == null) {
+                rows.get(i).setId(UUID.randomUUID());
+                generatedIds.set(i);
+            }
+        }
+
+        Map<UUID, LocalDateTime> created = new HashMap<>();
+        BitSet failed = new BitSet(rows.size());
+        QueryEvent event = QueryEvent.begin("saveAll",
+                INSERT_ROWS_SQL + INSERT_ROW + ", … RETURNING id, created_at");
+        try (Connection conn = dataSource.getConnection()) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try {
+                for (int from = 0; from < rows.size(); from += batchSize) {
+                    int to = Math.min(from + batchSize, rows.size());
+                    insertChunk(conn, rows, from, to, created, failed, result);
+                }
+                conn.commit();
+                event.rows(rows.size() - failed.cardinality());
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                created.clear();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            throw new DAOException("Failed to save " + rows.size() + " devices", e);
+        } finally {
+            for (int i = 0; i < rows.size(); i++) {
+                Device device = rows.get(i);
+                if (!failed.get(i) && created.containsKey(device.getId())) {
+                    device.setCreatedAt(created.get(device.getId()));
+                    result.recordSaved(device);
+                } else if (generatedIds.get(i)) {
+                    device.setId(null);
+                }
+            }
+            event.finish(rows.size() + " devices");
+        }
+        return result;
+    }
+
+    /**
+     * Streams devices into PostgreSQL with {@code COPY ... FROM STDIN}.
+     *
+     * <p>Rows are encoded in COPY text format into a fixed 64 KiB buffer that
+     * is flushed to the server whenever it fills up, so memory use is
+     * constant however many rows the iterator yields. They land in a
+     * temporary staging table first and are moved into {@code devices} with a
+     * single {@code INSERT ... SELECT}; the whole load is one transaction, so
+     * an import either appears completely or not at all.</p>
+     */
+    @Override
+    public long bulkLoad(Iterator<Device> devices) {
+        String createStaging = """
+                CREATE TEMP TABLE devices_import (
+                    name       TEXT,
+                    type       TEXT,
+                    status     TEXT,
+                    ip_address TEXT,
+                    location   TEXT
+                ) ON COMMIT DROP
                 """;
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
+        String copy    = "COPY devices_import (name, type, status, ip_address, location) FROM STDIN";
+        String publish = """
+                INSERT INTO devices (name, type, status, ip_address, location)
+                SELECT name, type, status, ip_address::inet, location FROM devices_import
+                """;
+
+        QueryEvent event = QueryEvent.begin("bulkLoad", copy);
+        try (Connection conn = dataSource.getConnection()) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try (Statement st = conn.createStatement()) {
+                st.execute(createStaging);
 
-            ps.setString(1, device.getName());
-            ps.setString(2, device.getType().name());
-            ps.setString(3, device.getStatus().name());
-            ps.setString(4, device.getIpAddress());
-            ps.setString(5, device.getLocation());
-            ps.setObject(6, device.getId());
+                CopyIn copyIn = conn.unwrap(PGConnection.class).getCopyAPI().copyIn(copy);
+                try {
+                    CopyEncoder encoder = new CopyEncoder(copyIn);
+                    while (devices.hasNext()) {
+                        encoder.writeRow(devices.next());
+                    }
+                    encoder.flush();
+                    copyIn.endCopy();
+                } finally {
+                    if (copyIn.isActive()) {
+                        copyIn.cancelCopy();
+                    }
+                }
 
-            int rows = ps.executeUpdate();
-            if (rows == 0) {
-                throw new DAOException("No device found with id: " + device.getId());
+                long inserted = st.executeUpdate(publish);
+                conn.commit();
+                return event.rows(inserted);
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
             }
+        } catch (SQLException e) {
+            throw new DAOException("Bulk load failed", e);
+        } finally {
+            event.finish(null);
+        }
+    }
+
+    /**
+     * Applies the group on one connection in one transaction, splitting it
+     * into runs of consecutive writes of the same kind:
+     * <ul>
+     *   <li>inserts go through the multi-row INSERT path of {@link #saveAll};</li>
+     *   <li>updates are sent as one JDBC batch (a single round trip);</li>
+     *   <li>patches run one {@code UPDATE ... RETURNING} each, as they must
+     *       return the stored row;</li>
+     *   <li>deletes become one {@code DELETE ... USING unnest(ids, versions)
+     *       RETURNING id}, checking the version of those that carry one.</li>
+     * </ul>
+     * Inserts and update batches run under savepoints and are replayed row by
+     * row if rejected, so only the offending writes fail. Runs are applied in
+     * input order, so a delete after an insert of the same device sees it.
+     */
+    @Override
+    public List<DeviceWrite.Outcome> applyWrites(List<DeviceWrite> writes) {
+        DeviceWrite.Outcome[] outcomes = new DeviceWrite.Outcome[writes.size()];
+        List<Device> generated = new ArrayList<>();
+        QueryEvent event = QueryEvent.begin("applyWrites", null);
+        try (Connection conn = dataSource.getConnection()) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try {
+                applyRuns(conn, writes, 0, outcomes, generated);
+                conn.commit();
+                event.rows(writes.size());
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                generated.forEach(d -> d.setId(null));
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            throw new DAOException("Failed to apply " + writes.size() + " writes", e);
+        } finally {
+            event.finish(writes.size() + " writes");
+        }
+        return List.of(outcomes);
+    }
+
+    /**
+     * Applies the writes not yet recorded in {@code device_journals} for
+     * {@code journalId} exactly as {@link #applyWrites} would, and advances
+     * the journal's row in the same transaction. The row is locked
+     * ({@code FOR UPDATE}), so two syncers of the same journal cannot
+     * interleave.
+     *
+     * <p>Rejected entries are kept in {@code device_journal_rejects} until a
+     * later batch starts past them, so a batch retried after its commit
+     * reply was lost reports the same rejections again.</p>
+     */
+    @Override
+    public List<DeviceWrite.Outcome> applyJournal(UUID journalId, long firstSeq, List<DeviceWrite> writes) {
+        DeviceWrite.Outcome[] outcomes = new DeviceWrite.Outcome[writes.size()];
+        long lastSeq = firstSeq + writes.size() - 1;
+        QueryEvent event = QueryEvent.begin("applyJournal", null);
+        try (Connection conn = dataSource.getConnection()) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try {
+                long applied;
+                try (PreparedStatement ps = conn.prepareStatement("""
+                        INSERT INTO device_journals (journal_id) VALUES (?)
+                        ON CONFLICT (journal_id) DO UPDATE SET journal_id = EXCLUDED.journal_id
+                        RETURNING last_seq
+                        """)) {
+                    ps.setObject(1, journalId);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        rs.next();
+                        applied = rs.getLong(1);
+                    }
+                }
+
+                try (PreparedStatement ps = conn.prepareStatement(
+                        "DELETE FROM device_journal_rejects WHERE journal_id = ? AND seq < ?")) {
+                    ps.setObject(1, journalId);
+                    ps.setLong(2, firstSeq);   // entries before this batch were acknowledged
+                    ps.executeUpdate();
+                }
+
+                int skip = (int) Math.max(0, Math.min(writes.size(), applied - firstSeq + 1));
+                Arrays.fill(outcomes, 0, skip, DeviceWrite.Outcome.applied(null));
+                if (skip > 0) {
+                    try (PreparedStatement ps = conn.prepareStatement("""
+                            SELECT seq, reason FROM device_journal_rejects
+                            WHERE journal_id = ? AND seq BETWEEN ? AND ?
+                            """)) {
+                        ps.setObject(1, journalId);
+                        ps.setLong(2, firstSeq);
+                        ps.setLong(3, firstSeq + skip - 1);
+                        try (ResultSet rs = ps.executeQuery()) {
+                            while (rs.next()) {
+                                outcomes[(int) (rs.getLong(1) - firstSeq)] = DeviceWrite.Outcome.failed(rs.getString(2));
+                            }
+                        }
+                    }
+                }
+                if (skip < writes.size()) {
+                    applyRuns(conn, writes.subList(skip, writes.size()), skip, outcomes, new ArrayList<>());
+                    try (PreparedStatement ps = conn.prepareStatement(
+                            "INSERT INTO device_journal_rejects (journal_id, seq, reason) VALUES (?, ?, ?)")) {
+                        for (int i = skip; i < writes.size(); i++) {
+                            if (outcomes[i].error() != null) {
+                                ps.setObject(1, journalId);
+                                ps.setLong(2, firstSeq + i);
+                                ps.setString(3, outcomes[i].error());
+                                ps.addBatch();
+                            }
+                        }
+                        ps.executeBatch();
+                    }
+                    try (PreparedStatement ps = conn.prepareStatement(
+                            "UPDATE device_journals SET last_seq = ?, synced_at = NOW() WHERE journal_id = ?")) {
+                        ps.setLong(1, lastSeq);
+                        ps.setObject(2, journalId);
+                        ps.executeUpdate();
+                    }
+                }
+                conn.commit();
+                event.rows(writes.size() - skip);
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            throw new DAOException("Failed to replay journal " + journalId + " entries "
+                    + firstSeq + "–" + lastSeq, e);
+        } finally {
+            event.finish(List.of(journalId, firstSeq + "–" + lastSeq));
+        }
+        return List.of(outcomes);
+    }
+
+    /**
+     * Rewrites the row only if it is still at {@code device.getVersion()};
+     * when no row matches, a follow-up read tells a stale write from a
+     * missing device.
+     */
+    @Override
+    public Device update(Device device) {
+        QueryEvent event = QueryEvent.begin("update", UPDATE_SQL);
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(UPDATE_SQL)) {
+
+            bindUpdate(ps, device);
+            if (ps.executeUpdate() == 0) {
+                StaleDeviceException stale = staleCheck(conn, device.getId(), device.getVersion());
+                throw stale != null ? stale
+                        : new DAOException("No device found with id: " + device.getId());
+            }
+            device.setVersion(device.getVersion() + 1);
+            event.rows(1);
             return device;
 
         } catch (SQLException e) {
             throw new DAOException("Failed to update device: " + device.getId(), e);
+        } finally {
+            event.finish(device);
+        }
+    }
+
+    /**
+     * One {@code UPDATE ... SET col = COALESCE(?, col) ... RETURNING}: unset
+     * patch fields bind as NULL and keep the stored value, and {@code NULLIF}
+     * turns a {@code ""} patch into a cleared column. The statement text is
+     * the same for every patch, so the driver reuses one prepared statement.
+     * An empty patch only reads the row, so its version is not bumped.
+     */
+    @Override
+    public Optional<Device> patch(UUID id, DevicePatch patch) {
+        QueryEvent event = QueryEvent.begin("patch", PATCH_SQL);
+        try (Connection conn = dataSource.getConnection()) {
+            Optional<Device> patched = patchRow(conn, id, patch);
+            event.rows(patched.isPresent() ? 1 : 0);
+            return patched;
+        } catch (SQLException e) {
+            throw new DAOException("Failed to patch device: " + id, e);
+        } finally {
+            event.finish(List.of(id, patch));
+        }
+    }
+
+    /**
+     * One {@code UPDATE ... WHERE id = ANY(?)} with all ids bound as a single
+     * {@code uuid[]} parameter, however many there are. Rows already in the
+     * target status are excluded so they are neither rewritten nor counted.
+     */
+    @Override
+    public int updateStatus(Collection<UUID> ids, DeviceStatus status) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        String sql = "UPDATE devices SET status = ?, version = version + 1 WHERE id = ANY(?) AND status <> ?";
+        QueryEvent event = QueryEvent.begin("updateStatus", sql);
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            ps.setString(1, status.name());
+            ps.setArray(2, conn.createArrayOf("uuid", ids.toArray()));
+            ps.setString(3, status.name());
+            return event.rows(ps.executeUpdate());
+
+        } catch (SQLException e) {
+            throw new DAOException("Failed to set status " + status + " on " + ids.size() + " devices", e);
+        } finally {
+            event.finish(List.of(status, ids.size() + " ids"));
+        }
+    }
+
+    /** One {@code UPDATE} with the filter's conditions; see {@link #updateStatus}. */
+    @Override
+    public int updateStatusWhere(DeviceFilter filter, DeviceStatus status) {
+        List<Object> params = new ArrayList<>();
+        params.add(status.name());
+        List<String> conditions = filterConditions(filter, params);
+        conditions.add("status <> ?");
+        params.add(status.name());
+
+        String sql = "UPDATE devices SET status = ?, version = version + 1 WHERE "
+                + String.join(" AND ", conditions);
+        QueryEvent event = QueryEvent.begin("updateStatusWhere", sql);
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            bind(ps, params);
+            return event.rows(ps.executeUpdate());
+
+        } catch (SQLException e) {
+            throw new DAOException("Failed to set status " + status + " for " + filter, e);
+        } finally {
+            event.finish(params);
         }
     }
 
     @Override
     public boolean delete(UUID id) {
         String sql = "DELETE FROM devices WHERE id = ?";
+        QueryEvent event = QueryEvent.begin("delete", sql);
         try (Connection conn = dataSource.getConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
 
             ps.setObject(1, id);
-            return ps.executeUpdate() > 0;
+            return event.rows(ps.executeUpdate()) > 0;
 
         } catch (SQLException e) {
             throw new DAOException("Failed to delete device: " + id, e);
+        } finally {
+            event.finish(id);
+        }
+    }
+
+    @Override
+    public boolean delete(UUID id, int expectedVersion) {
+        String sql = "DELETE FROM devices WHERE id = ? AND version = ?";
+        QueryEvent event = QueryEvent.begin("delete(version)", sql);
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            ps.setObject(1, id);
+            ps.setInt(2, expectedVersion);
+            if (event.rows(ps.executeUpdate()) > 0) {
+                return true;
+            }
+            StaleDeviceException stale = staleCheck(conn, id, expectedVersion);
+            if (stale != null) {
+                throw stale;
+            }
+            return false;
+
+        } catch (SQLException e) {
+            throw new DAOException("Failed to delete device: " + id, e);
+        } finally {
+            event.finish(List.of(id, expectedVersion));
         }
     }
 
     // ── Helpers ──────────────────────────────────────────────────────────────
 
-    /** Maps the current row of a ResultSet to a Device object. */
-    private Device mapRow(ResultSet rs) throws SQLException {
-        return new Device(
-                (UUID) rs.getObject("id"),
-                rs.getString("name"),
-                DeviceType.valueOf(rs.getString("type")),
-                DeviceStatus.valueOf(rs.getString("status")),
-                rs.getString("ip_address"),
-                rs.getString("location"),
-                rs.getTimestamp("created_at").toLocalDateTime()
-        );
-    }
-
-    /** Collects all rows from a ResultSet into a List. */
-    private List<Device> collectRows(ResultSet rs) throws SQLException {
-        List<Device> list = new ArrayList<>();
-        while (rs.next()) {
-            list.add(mapRow(rs));
-        }
-        return list;
+    /**
+     * Translates a {@link DeviceFilter} into SQL conditions (to be joined with
+     * AND), appending the matching bind values to {@code params}.
+     */
+    private static List<String> filterConditions(DeviceFilter filter, List<Object> params) {
+        List<String> conditions = new ArrayList<>();
+        if (filter.getType() != null) {
+            conditions.add("type = ?");
+            params.add(filter.getType().name());
+        }
+        if (filter.getStatus() != null) {
+            conditions.add("status = ?");
+            params.add(filter.getStatus().name());
+        }
+        if (filter.getKeyword() != null) {
+            String like = likePattern(filter.getKeyword());
+            conditions.add("(name ILIKE ? OR " + IP_TEXT + " ILIKE ? OR location ILIKE ?)");
+            params.add(like);
+            params.add(like);
+            params.add(like);
+        }
+        return conditions;
+    }
+
+    private static void addScopedTerm(String column, String text, String like,
+                                      List<String> conditions, List<Object> whereParams,
+                                      List<String> scores, List<Object> scoreParams) {
+        conditions.add(column + " ILIKE ?");
+        whereParams.add(like);
+        scores.add("word_similarity(?, " + column + ")");
+        scoreParams.add(text);
+    }
+
+    /** {@code %text%} with LIKE wildcards in {@code text} escaped so they match literally. */
+    private static String likePattern(String text) {
+        return "%" + text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+    }
+
+    private static void bind(PreparedStatement ps, List<Object> params) throws SQLException {
+        for (int i = 0; i < params.size(); i++) {
+            ps.setObject(i + 1, params.get(i));
+        }
+    }
+
+    /**
+     * Opens a forward-only cursor for {@code sql} and exposes it as a lazy
+     * Stream. Closing the stream ends the read transaction and returns the
+     * connection to the pool, and ends the {@link QueryEvent} with the number
+     * of rows read.
+     */
+    private Stream<Device> streamQuery(String method, String sql, String errorMessage) {
+        QueryEvent        event = QueryEvent.begin(method, sql);
+        long[]            read  = new long[1];
+        Connection        conn  = null;
+        PreparedStatement ps    = null;
+        try {
+            conn = dataSource.getConnection();
+            conn.setAutoCommit(false);
+            ps = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(STREAM_FETCH_SIZE);
+            ResultSet rs = ps.executeQuery();
+
+            Spliterator<Device> rows = new Spliterators.AbstractSpliterator<>(
+                    Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+                @Override
+                public boolean tryAdvance(Consumer<? super Device> action) {
+                    try {
+                        if (!rs.next()) {
+                            return false;
+                        }
+                        read[0]++;
+                        action.accept(DeviceRowMapper.map(rs));
+                        return true;
+                    } catch (SQLException e) {
+                        throw new DAOException(errorMessage, e);
+                    }
+                }
+            };
+
+            Connection        c = conn;
+            PreparedStatement s = ps;
+            return StreamSupport.stream(rows, false)
+                    .onClose(() -> {
+                        event.rows(read[0]);
+                        try {
+                            closeCursor(c, s, rs, errorMessage);
+                        } finally {
+                            event.finish(null);
+                        }
+                    });
+
+        } catch (SQLException e) {
+            try {
+                closeCursor(conn, ps, null, errorMessage);
+            } finally {
+                event.finish(null);
+            }
+            throw new DAOException(errorMessage, e);
+        }
+    }
+
+    /** Releases everything opened by {@link #streamQuery}. */
+    private static void closeCursor(Connection conn, Statement ps, ResultSet rs, String errorMessage) {
+        try (conn; ps; rs) {
+            if (conn != null && !conn.getAutoCommit()) {
+                conn.rollback();   // read-only transaction, nothing to keep
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            throw new DAOException(errorMessage, e);
+        }
+    }
+
+    /**
+     * Inserts {@code rows[from, to)} as one statement under a savepoint, falling
+     * back to row-by-row inserts to isolate failures if the chunk is rejected.
+     */
+    private void insertChunk(Connection conn, List<Device> rows, int from, int to,
+                             Map<UUID, LocalDateTime> created, BitSet failed,
+                             BatchResult result)
+            throws SQLException {
+        Savepoint chunk = conn.setSavepoint();
+        try {
+            insertRows(conn, rows.subList(from, to), created);
+            conn.releaseSavepoint(chunk);
+            return;
+        } catch (SQLException e) {
+            conn.rollback(chunk);
+        }
+
+        for (int i = from; i < to; i++) {
+            Device device = rows.get(i);
+            Savepoint single = conn.setSavepoint();
+            try {
+                insertRows(conn, List.of(device), created);
+                conn.releaseSavepoint(single);
+            } catch (SQLException e) {
+                conn.rollback(single);
+                failed.set(i);
+                result.recordFailure(i, device, e.getMessage());
+            }
+        }
+    }
+
+    /** Runs one multi-row INSERT for {@code chunk} and records the returned created_at per id. */
+    private void insertRows(Connection conn, List<Device> chunk,
+                            Map<UUID, LocalDateTime> created) throws SQLException {
+        StringBuilder sql = new StringBuilder(INSERT_ROWS_SQL);
+        for (int i = 0; i < chunk.size(); i++) {
+            sql.append(i == 0 ? "" : ", ").append(INSERT_ROW);
+        }
+        sql.append(" RETURNING id, created_at");
+
+        try (PreparedStatement ps = conn.prepareStatement(sql.toString())) {
+            int p = 1;
+            for (Device device : chunk) {
+                ps.setObject(p++, device.getId());
+                ps.setString(p++, device.getName());
+                ps.setString(p++, device.getType().name());
+                ps.setString(p++, device.getStatus().name());
+                ps.setString(p++, device.getIpAddress());
+                ps.setString(p++, device.getLocation());
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    created.put(rs.getObject(1, UUID.class), rs.getObject(2, LocalDateTime.class));
+                }
+            }
+        }
+    }
+
+    /** Splits {@code writes} into runs of one kind and applies each; outcomes start at {@code offset}. */
+    private void applyRuns(Connection conn, List<DeviceWrite> writes, int offset,
+                           DeviceWrite.Outcome[] outcomes, List<Device> generated) throws SQLException {
+        int from = 0;
+        while (from < writes.size()) {
+            Class<?> kind = writes.get(from).getClass();
+            int to = from + 1;
+            while (to < writes.size() && writes.get(to).getClass() == kind) {
+                to++;
+            }
+            List<DeviceWrite> run = writes.subList(from, to);
+            if (kind == DeviceWrite.Insert.class) {
+                applyInserts(conn, run, offset + from, outcomes, generated);
+            } else if (kind == DeviceWrite.Update.class) {
+                applyUpdates(conn, run, offset + from, outcomes);
+            } else if (kind == DeviceWrite.Patch.class) {
+                applyPatches(conn, run, offset + from, outcomes);
+            } else {
+                applyDeletes(conn, run, offset + from, outcomes);
+            }
+            from = to;
+        }
+    }
+
+    private void applyInserts(Connection conn, List<DeviceWrite> run, int offset,
+                              DeviceWrite.Outcome[] outcomes, List<Device> generated)
+            throws SQLException {
+        List<Device> rows = new ArrayList<>(run.size());
+        for (DeviceWrite write : run) {
+            Device device = ((DeviceWrite.Insert) write).device();
+            if (device.getId() == null) {
+                device.setId(UUID.randomUUID());
+                generated.add(device);
+            }
+            rows.add(device);
+        }
+
+        Map<UUID, LocalDateTime> created = new HashMap<>();
+        BitSet failed = new BitSet(rows.size());
+        BatchResult result = new BatchResult();
+        for (int from = 0; from < rows.size(); from += batchSize) {
+            insertChunk(conn, rows, from, Math.min(from + batchSize, rows.size()), created, failed, result);
+        }
+        for (BatchResult.Failure f : result.getFailures()) {
+            outcomes[offset + f.index()] = DeviceWrite.Outcome.failed(f.message());
+        }
+        for (int i = 0; i < rows.size(); i++) {
+            Device device = rows.get(i);
+            if (!failed.get(i)) {
+                device.setCreatedAt(created.get(device.getId()));
+                outcomes[offset + i] = DeviceWrite.Outcome.applied(device);
+            } else if (generated.remove(device)) {
+                device.setId(null);
+            }
+        }
+    }
+
+    private void applyUpdates(Connection conn, List<DeviceWrite> run, int offset,
+                              DeviceWrite.Outcome[] outcomes) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(UPDATE_SQL)) {
+            Savepoint batch = conn.setSavepoint();
+            try {
+                for (DeviceWrite write : run) {
+                    bindUpdate(ps, ((DeviceWrite.Update) write).device());
+                    ps.addBatch();
+                }
+                int[] counts = ps.executeBatch();
+                conn.releaseSavepoint(batch);
+                for (int i = 0; i < run.size(); i++) {
+                    outcomes[offset + i] = updateOutcome(conn, ((DeviceWrite.Update) run.get(i)).device(), counts[i]);
+                }
+                return;
+            } catch (SQLException e) {
+                conn.rollback(batch);
+                ps.clearBatch();
+            }
+
+            for (int i = 0; i < run.size(); i++) {
+                Device device = ((DeviceWrite.Update) run.get(i)).device();
+                Savepoint single = conn.setSavepoint();
+                try {
+                    bindUpdate(ps, device);
+                    outcomes[offset + i] = updateOutcome(conn, device, ps.executeUpdate());
+                    conn.releaseSavepoint(single);
+                } catch (SQLException e) {
+                    conn.rollback(single);
+                    outcomes[offset + i] = DeviceWrite.Outcome.failed(e.getMessage());
+                }
+            }
+        }
+    }
+
+    private static void bindUpdate(PreparedStatement ps, Device device) throws SQLException {
+        ps.setString(1, device.getName());
+        ps.setString(2, device.getType().name());
+        ps.setString(3, device.getStatus().name());
+        ps.setString(4, device.getIpAddress());
+        ps.setString(5, device.getLocation());
+        ps.setObject(6, device.getId());
+        ps.setInt(7, device.getVersion());
+    }
+
+    private static DeviceWrite.Outcome updateOutcome(Connection conn, Device device, int count)
+            throws SQLException {
+        if (count > 0) {
+            device.setVersion(device.getVersion() + 1);
+            return DeviceWrite.Outcome.applied(device);
+        }
+        StaleDeviceException stale = staleCheck(conn, device.getId(), device.getVersion());
+        return DeviceWrite.Outcome.failed(stale != null
+                ? stale.getMessage() : "No device found with id: " + device.getId());
+    }
+
+    /** Runs each patch under its own savepoint so a rejected one fails alone. */
+    private void applyPatches(Connection conn, List<DeviceWrite> run, int offset,
+                              DeviceWrite.Outcome[] outcomes) throws SQLException {
+        for (int i = 0; i < run.size(); i++) {
+            DeviceWrite.Patch write = (DeviceWrite.Patch) run.get(i);
+            Savepoint single = conn.setSavepoint();
+            try {
+                outcomes[offset + i] = patchRow(conn, write.id(), write.patch())
+                        .map(DeviceWrite.Outcome::applied)
+                        .orElseGet(() -> DeviceWrite.Outcome.failed("No device found with id: " + write.id()));
+                conn.releaseSavepoint(single);
+            } catch (SQLException e) {
+                conn.rollback(single);
+                outcomes[offset + i] = DeviceWrite.Outcome.failed(e.getMessage());
+            } catch (StaleDeviceException e) {
+                conn.releaseSavepoint(single);
+                outcomes[offset + i] = DeviceWrite.Outcome.failed(e.getMessage());
+            }
+        }
+    }
+
+    private static Optional<Device> patchRow(Connection conn, UUID id, DevicePatch patch)
+            throws SQLException {
+        if (patch.isEmpty()) {
+            return unpatched(conn, id, patch.getExpectedVersion());
+        }
+        try (PreparedStatement ps = conn.prepareStatement(PATCH_SQL)) {
+            ps.setString(1, patch.getName());
+            ps.setString(2, patch.getType() == null ? null : patch.getType().name());
+            ps.setString(3, patch.getStatus() == null ? null : patch.getStatus().name());
+            ps.setString(4, patch.getIpAddress());
+            ps.setString(5, patch.getIpAddress());
+            ps.setString(6, patch.getLocation());
+            ps.setObject(7, id);
+            if (patch.getExpectedVersion() == null) {
+                ps.setNull(8, Types.INTEGER);
+            } else {
+                ps.setInt(8, patch.getExpectedVersion());
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return Optional.of(DeviceRowMapper.map(rs));
+                }
+            }
+        }
+        if (patch.getExpectedVersion() != null) {
+            StaleDeviceException stale = staleCheck(conn, id, patch.getExpectedVersion());
+            if (stale != null) {
+                throw stale;
+            }
+        }
+        return Optional.empty();
+    }
+
+    /** What an empty patch returns: the row as stored, after the version check. */
+    private static Optional<Device> unpatched(Connection conn, UUID id, Integer expectedVersion)
+            throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(DeviceRowMapper.SELECT + " WHERE id = ?")) {
+            ps.setObject(1, id);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) {
+                    return Optional.empty();
+                }
+                Device device = DeviceRowMapper.map(rs);
+                if (expectedVersion != null && expectedVersion != device.getVersion()) {
+                    throw new StaleDeviceException(id, expectedVersion, device.getVersion());
+                }
+                return Optional.of(device);
+            }
+        }
+    }
+
+    /**
+     * Called after a versioned write matched no row: returns the exception to
+     * report if the device still exists (at another version), or {@code null}
+     * if it is gone. Only this failure path pays for the extra read.
+     */
+    private static StaleDeviceException staleCheck(Connection conn, UUID id, int expectedVersion)
+            throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("SELECT version FROM devices WHERE id = ?")) {
+            ps.setObject(1, id);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? new StaleDeviceException(id, expectedVersion, rs.getInt(1)) : null;
+            }
+        }
+    }
+
+    private void applyDeletes(Connection conn, List<DeviceWrite> run, int offset,
+                              DeviceWrite.Outcome[] outcomes) throws SQLException {
+        UUID[]    ids      = new UUID[run.size()];
+        Integer[] versions = new Integer[run.size()];
+        for (int i = 0; i < ids.length; i++) {
+            DeviceWrite.Delete delete = (DeviceWrite.Delete) run.get(i);
+            ids[i]      = delete.id();
+            versions[i] = delete.expectedVersion();
+        }
+        Set<UUID> deleted = new HashSet<>();
+        try (PreparedStatement ps = conn.prepareStatement("""
+                DELETE FROM devices d
+                USING unnest(?::uuid[], ?::int[]) AS w(id, version)
+                WHERE d.id = w.id AND d.version = COALESCE(w.version, d.version)
+                RETURNING d.id
+                """)) {
+            ps.setArray(1, conn.createArrayOf("uuid", ids));
+            ps.setArray(2, conn.createArrayOf("int4", versions));
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    deleted.add(rs.getObject(1, UUID.class));
+                }
+            }
+        }
+        // Set.remove: a repeated id counts as deleted only the first time.
+        for (int i = 0; i < ids.length; i++) {
+            if (deleted.remove(ids[i])) {
+                outcomes[offset + i] = DeviceWrite.Outcome.applied(null);
+                continue;
+            }
+            StaleDeviceException stale = versions[i] == null ? null : staleCheck(conn, ids[i], versions[i]);
+            outcomes[offset + i] = stale != null
+                    ? DeviceWrite.Outcome.failed(stale.getMessage())
+                    : DeviceWrite.Outcome.NOT_FOUND;
+        }
+    }
+
+    /**
+     * Encodes devices in PostgreSQL's COPY text format (tab-separated,
+     * {@code \N} for NULL, backslash escapes) into a reusable byte buffer.
+     */
+    private static final class CopyEncoder {
+
+        private final CopyIn copyIn;
+        private final byte[] buffer = new byte[64 * 1024];
+        private int          length;
+
+        CopyEncoder(CopyIn copyIn) {
+            this.copyIn = copyIn;
+        }
+
+        void writeRow(Device d) throws SQLException {
+            writeField(d.getName());
+            writeByte('\t');
+            writeField(d.getType().name());
+            writeByte('\t');
+            writeField(d.getStatus().name());
+            writeByte('\t');
+            writeField(d.getIpAddress());
+            writeByte('\t');
+            writeField(d.getLocation());
+            writeByte('\n');
+        }
+
+        void flush() throws SQLException {
+            if (length > 0) {
+                copyIn.writeToCopy(buffer, 0, length);
+                length = 0;
+            }
+        }
+
+        private void writeField(String value) throws SQLException {
+            if (value == null) {
+                writeByte('\\');
+                writeByte('N');
+                return;
+            }
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                switch (c) {
+                    case '\\'  -> { writeByte('\\'); writeByte('\\'); }
+                    case '\t'  -> { writeByte('\\'); writeByte('t'); }
+                    case '\n'  -> { writeByte('\\'); writeByte('n'); }
+                    case '\r'  -> { writeByte('\\'); writeByte('r'); }
+                    default -> {
+                        if (c < 0x80) {
+                            writeByte(c);
+                        } else {
+                            int end = i + 1;
+                            while (end < value.length() && value.charAt(end) >= 0x80) end++;
+                            for (byte b : value.substring(i, end).getBytes(StandardCharsets.UTF_8)) {
+                                writeByte(b);
+                            }
+                            i = end - 1;
+                        }
+                    }
+                }
+            }
+        }
+
+        private void writeByte(int b) throws SQLException {
+            if (length == buffer.length) {
+                flush();
+            }
+            buffer[length++] = (byte) b;
+        }
     }
 }
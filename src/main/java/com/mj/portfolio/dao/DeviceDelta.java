@@ -0,0 +1,32 @@
+package com.mj.portfolio.dao;
+
+import com.mj.portfolio.model.Device;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * What changed in the inventory after a watermark; see
+ * {@link DeviceDAO#changesSince}.
+ *
+ * <p>Apply {@code deleted} first, then {@code changed}: an id can be in both
+ * if it was deleted and saved again. Either may repeat changes already seen,
+ * so applying a delta twice is harmless.</p>
+ *
+ * @param watermark the watermark to ask for the next delta with
+ * @param full      {@code changed} is the whole inventory and replaces
+ *                  everything held before, e.g. because this DAO does not
+ *                  track changes or the table was truncated
+ * @param changed   devices inserted or updated, as they are now
+ * @param deleted   ids of deleted devices
+ */
+public record DeviceDelta(long watermark, boolean full, List<Device> changed, List<UUID> deleted) {
+
+    /** Watermark of a DAO that does not track changes: every delta is {@link #full}. */
+    public static final long NO_WATERMARK = -1;
+
+    public DeviceDelta {
+        changed = List.copyOf(changed);
+        deleted = List.copyOf(deleted);
+    }
+}
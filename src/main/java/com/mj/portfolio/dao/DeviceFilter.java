@@ -0,0 +1,80 @@
+package com.mj.portfolio.dao;
+
+import com.mj.portfolio.model.Device;
+import com.mj.portfolio.model.DeviceStatus;
+import com.mj.portfolio.model.DeviceType;
+
+/**
+ * Immutable set of optional criteria shared by paged and bulk queries.
+ *
+ * <p>Each criterion that is {@code null} is ignored; the rest are combined
+ * with AND. {@link #all()} matches every device.</p>
+ */
+public final class DeviceFilter {
+
+    private static final DeviceFilter ALL = new DeviceFilter(null, null, null);
+
+    private final DeviceType   type;
+    private final DeviceStatus status;
+    private final String       keyword;
+
+    private DeviceFilter(DeviceType type, DeviceStatus status, String keyword) {
+        this.type    = type;
+        this.status  = status;
+        this.keyword = keyword;
+    }
+
+    public static DeviceFilter all() {
+        return ALL;
+    }
+
+    public static DeviceFilter byType(DeviceType type) {
+        return ALL.withType(type);
+    }
+
+    public static DeviceFilter byStatus(DeviceStatus status) {
+        return ALL.withStatus(status);
+    }
+
+    /** Case-insensitive substring match on name, IP address or location. */
+    public static DeviceFilter search(String keyword) {
+        return ALL.withKeyword(keyword);
+    }
+
+    public DeviceFilter withType(DeviceType type) {
+        return new DeviceFilter(type, status, keyword);
+    }
+
+    public DeviceFilter withStatus(DeviceStatus status) {
+        return new DeviceFilter(type, status, keyword);
+    }
+
+    public DeviceFilter withKeyword(String keyword) {
+        if (keyword != null && keyword.isBlank()) {
+            throw new IllegalArgumentException("Search keyword must not be empty.");
+        }
+        return new DeviceFilter(type, status, keyword == null ? null : keyword.trim());
+    }
+
+    public DeviceType   getType()    { return type; }
+    public DeviceStatus getStatus()  { return status; }
+    public String       getKeyword() { return keyword; }
+
+    /** In-memory equivalent of the SQL predicate, used by non-SQL implementations. */
+    public boolean matches(Device d) {
+        if (type != null && d.getType() != type) return false;
+        if (status != null && d.getStatus() != status) return false;
+        if (keyword == null) return true;
+        String k = keyword.toLowerCase();
+        return contains(d.getName(), k) || contains(d.getIpAddress(), k) || contains(d.getLocation(), k);
+    }
+
+    private static boolean contains(String value, String lowerKeyword) {
+        return value != null && value.toLowerCase().contains(lowerKeyword);
+    }
+
+    @Override
+    public String toString() {
+        return "DeviceFilter{type=" + type + ", status=" + status + ", keyword='" + keyword + "'}";
+    }
+}
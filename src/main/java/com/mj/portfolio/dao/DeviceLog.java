@@ -0,0 +1,491 @@
+package com.mj.portfolio.dao;
+
+import com.mj.portfolio.model.Device;
+import com.mj.portfolio.model.DeviceStatus;
+import com.mj.portfolio.model.DeviceType;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * The append-only file behind {@link FileDeviceDAO}.
+ *
+ * <pre>
+ *   file   := "DEVLOG01" record*
+ *   record := length:int32 crc32:int32 body[length]
+ *   body   := PUT id:uuid version:int32 created_at:int64 name type status ip_address location
+ *           | DELETE id:uuid
+ *   string := length:int16 (-1 for null) utf8[length]
+ * </pre>
+ * Numbers are big-endian; {@code created_at} is in microseconds since the
+ * epoch (UTC), {@code Long.MIN_VALUE} for none; type and status are stored
+ * by name so reordering the enums cannot corrupt a file.
+ *
+ * <p>Records are only ever appended, through the {@link FileChannel}, and
+ * read through a read-only {@link MappedByteBuffer} of the file. The mapping
+ * is renewed once more than {@value #REMAP_SLACK} bytes were appended past
+ * it; records in that tail are read from the channel instead.</p>
+ *
+ * <p>Crash safety rests on the checksums: {@link #open} replays the file
+ * and cuts it off at the first record that is incomplete or fails its CRC,
+ * which is where a crash interrupted the last append. {@link #compact}
+ * writes the live records to a new file and renames it over the old one,
+ * so a crash leaves either file intact.</p>
+ *
+ * <p>Not thread-safe: {@link FileDeviceDAO} calls {@link #append} and
+ * {@link #compact} under its write lock and everything else under its read
+ * lock. A file lock keeps other processes out.</p>
+ */
+final class DeviceLog implements Closeable {
+
+    static final byte PUT    = 1;
+    static final byte DELETE = 2;
+
+    /** Where a record is in the file; {@code size} includes the 8-byte record header. */
+    record Slot(long offset, int size) {}
+
+    /** Receives records in file order; {@code body} is positioned after the id. */
+    @FunctionalInterface
+    interface Visitor {
+        void record(long offset, int size, byte op, UUID id, ByteBuffer body);
+    }
+
+    private static final Logger LOG = Logger.getLogger(DeviceLog.class.getName());
+
+    private static final byte[] MAGIC         = "DEVLOG01".getBytes(StandardCharsets.US_ASCII);
+    private static final int    RECORD_HEADER = 8;
+    private static final int    MIN_BODY      = 1 + 16;
+    private static final int    REMAP_SLACK   = 1 << 20;
+    private static final int    COPY_BUFFER   = 1 << 20;
+
+    private final Path    path;
+    private final boolean sync;
+
+    private FileChannel      channel;
+    private FileLock         fileLock;
+    private MappedByteBuffer map;
+    private long             mappedEnd;
+    private long             end;
+
+    private DeviceLog(Path path, boolean sync) {
+        this.path = path;
+        this.sync = sync;
+    }
+
+    /**
+     * Opens (or creates) the log at {@code path}, replays every intact record
+     * into {@code recovered} and truncates whatever follows the last one.
+     *
+     * @param sync {@code true} to force every append to disk before returning
+     * @throws IOException if the file cannot be opened, is locked by another
+     *                     process or is not a device log
+     */
+    static DeviceLog open(Path path, boolean sync, Visitor recovered) throws IOException {
+        DeviceLog log = new DeviceLog(path, sync);
+        log.openChannel();
+        try {
+            Files.deleteIfExists(compactionPath(path));   // left over from an interrupted compaction
+            log.recover(recovered);
+        } catch (IOException | RuntimeException e) {
+            log.close();
+            throw e;
+        }
+        return log;
+    }
+
+    /** Bytes in the file, header included. */
+    long size() {
+        return end;
+    }
+
+    /**
+     * Appends {@code batch} with a single write (and, with {@code sync}, a
+     * single {@code fsync}) and returns the file offset of its first record.
+     * If the write fails, the file is cut back to where it was.
+     */
+    long append(Batch batch) throws IOException {
+        ByteBuffer bytes = ByteBuffer.wrap(batch.bytes.toByteArray());
+        long start = end;
+        try {
+            while (bytes.hasRemaining()) {
+                channel.write(bytes, start + bytes.position());
+            }
+            if (sync) {
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            try {
+                channel.truncate(start);
+            } catch (IOException ignored) {
+                // recovery cuts the partial record off on the next open
+            }
+            throw e;
+        }
+        end = start + bytes.limit();
+        if (end - mappedEnd > REMAP_SLACK) {
+            remap();
+        }
+        return start;
+    }
+
+    /** Decodes the device stored in the {@link #PUT} record at {@code slot}. */
+    Device readDevice(Slot slot) throws IOException {
+        ByteBuffer record = record(slot.offset(), slot.size());
+        record.position(RECORD_HEADER + 1);
+        return decodeDevice(new UUID(record.getLong(), record.getLong()), record);
+    }
+
+    /** Visits every record in file order, live or superseded. */
+    void scan(Visitor visitor) throws IOException {
+        visit(map.slice(MAGIC.length, (int) mappedEnd - MAGIC.length), MAGIC.length, visitor);
+        if (end > mappedEnd) {
+            visit(read(mappedEnd, (int) (end - mappedEnd)), mappedEnd, visitor);
+        }
+    }
+
+    /**
+     * Rewrites the file with only the records in {@code live}, in their
+     * current order, and updates their slots to the new offsets. The new
+     * file is written, forced, locked and mapped under a temporary name,
+     * then renamed over the old one, whose lock is only released after
+     * that: another process finds one file or the other locked throughout.
+     * If anything fails before the rename (including the rename itself, on
+     * platforms that cannot replace an open file), the log and
+     * {@code live} are left as they were.
+     */
+    void compact(Map<UUID, Slot> live) throws IOException {
+        List<Map.Entry<UUID, Slot>> entries = new ArrayList<>(live.entrySet());
+        entries.sort(Comparator.comparingLong(e -> e.getValue().offset()));
+
+        Path temp = compactionPath(path);
+        Map<UUID, Slot> moved = new HashMap<>(live.size() * 2);
+        long newEnd = MAGIC.length;
+        FileChannel      out = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        FileLock         outLock;
+        MappedByteBuffer outMap;
+        try {
+            outLock = out.tryLock();
+            if (outLock == null) {
+                throw new IOException(temp + " is in use by another process");
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(COPY_BUFFER);
+            buffer.put(MAGIC);
+            for (Map.Entry<UUID, Slot> entry : entries) {
+                Slot slot = entry.getValue();
+                if (buffer.remaining() < slot.size()) {
+                    flush(out, buffer);
+                }
+                buffer.put(record(slot.offset(), slot.size()));   // records are far smaller than the buffer
+                moved.put(entry.getKey(), new Slot(newEnd, slot.size()));
+                newEnd += slot.size();
+            }
+            flush(out, buffer);
+            out.force(true);
+            outMap = out.map(FileChannel.MapMode.READ_ONLY, 0, newEnd);
+            Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | RuntimeException e) {
+            out.close();
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        syncDirectory();
+
+        FileChannel old = channel;
+        FileLock    oldLock = fileLock;
+        channel   = out;
+        fileLock  = outLock;
+        map       = outMap;
+        mappedEnd = newEnd;
+        end       = newEnd;
+        live.putAll(moved);
+        try {
+            oldLock.release();
+            old.close();
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Failed to close the replaced file of " + path, e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        closeChannel();
+    }
+
+    // ── Records ──────────────────────────────────────────────────────────────
+
+    /**
+     * Records encoded for one {@link #append}. Offsets of the entries are
+     * relative to the start of the batch.
+     */
+    static final class Batch {
+
+        record Entry(byte op, UUID id, int offset, int size) {}
+
+        private final ByteArrayOutputStream bytes   = new ByteArrayOutputStream();
+        private final List<Entry>           entries = new ArrayList<>();
+        private final CRC32                 crc     = new CRC32();
+
+        Batch put(Device device) {
+            ByteBuffer body = begin(PUT, device.getId(), MIN_BODY + encodedSize(device));
+            encodeDevice(body, device);
+            return finish(PUT, device.getId(), body);
+        }
+
+        Batch delete(UUID id) {
+            return finish(DELETE, id, begin(DELETE, id, MIN_BODY));
+        }
+
+        List<Entry> entries() {
+            return entries;
+        }
+
+        boolean isEmpty() {
+            return entries.isEmpty();
+        }
+
+        private static ByteBuffer begin(byte op, UUID id, int bodyLength) {
+            return ByteBuffer.allocate(RECORD_HEADER + bodyLength)
+                    .putInt(bodyLength)
+                    .putInt(0)   // CRC, filled in by finish()
+                    .put(op)
+                    .putLong(id.getMostSignificantBits())
+                    .putLong(id.getLeastSignificantBits());
+        }
+
+        private Batch finish(byte op, UUID id, ByteBuffer record) {
+            crc.reset();
+            crc.update(record.array(), RECORD_HEADER, record.capacity() - RECORD_HEADER);
+            record.putInt(4, (int) crc.getValue());
+            entries.add(new Entry(op, id, bytes.size(), record.capacity()));
+            bytes.writeBytes(record.array());
+            return this;
+        }
+    }
+
+    // ── Field encoding (shared with WriteJournal) ────────────────────────────
+
+    /** Bytes {@link #encodeDevice} writes for {@code device}. */
+    static int encodedSize(Device device) {
+        return 4 + 8 + stringSize(device.getName()) + stringSize(device.getType().name())
+                + stringSize(device.getStatus().name()) + stringSize(device.getIpAddress())
+                + stringSize(device.getLocation());
+    }
+
+    /** Writes every field but the id: version, created_at, name, type, status, ip_address, location. */
+    static void encodeDevice(ByteBuffer out, Device device) {
+        out.putInt(device.getVersion());
+        out.putLong(device.getCreatedAt() == null ? Long.MIN_VALUE : toMicros(device.getCreatedAt()));
+        putString(out, device.getName());
+        putString(out, device.getType().name());
+        putString(out, device.getStatus().name());
+        putString(out, device.getIpAddress());
+        putString(out, device.getLocation());
+    }
+
+    /** Reads what {@link #encodeDevice} wrote, e.g. the rest of a {@link #PUT} body after the id. */
+    static Device decodeDevice(UUID id, ByteBuffer body) {
+        int  version = body.getInt();
+        long micros  = body.getLong();
+        Device device = new Device(id, getString(body), DeviceType.valueOf(getString(body)),
+                DeviceStatus.valueOf(getString(body)), getString(body), getString(body),
+                micros == Long.MIN_VALUE ? null : fromMicros(micros));
+        device.setVersion(version);
+        return device;
+    }
+
+    static int stringSize(String s) {
+        return 2 + (s == null ? 0 : s.getBytes(StandardCharsets.UTF_8).length);
+    }
+
+    static void putString(ByteBuffer out, String s) {
+        if (s == null) {
+            out.putShort((short) -1);
+        } else {
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            out.putShort((short) bytes.length).put(bytes);
+        }
+    }
+
+    static String getString(ByteBuffer in) {
+        short length = in.getShort();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // ── Private helpers ──────────────────────────────────────────────────────
+
+    private void recover(Visitor recovered) throws IOException {
+        long fileSize = channel.size();
+        if (fileSize == 0) {
+            writeFully(channel, ByteBuffer.wrap(MAGIC));
+            channel.force(true);
+            end = MAGIC.length;
+            remap();
+            return;
+        }
+        if (fileSize > Integer.MAX_VALUE) {
+            throw new IOException(path + " is larger than 2 GiB; it cannot be mapped");
+        }
+
+        ByteBuffer file  = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+        byte[]     magic = new byte[MAGIC.length];
+        if (fileSize >= MAGIC.length) {
+            file.get(magic);
+        }
+        if (!Arrays.equals(magic, MAGIC)) {
+            throw new IOException(path + " is not a device log");
+        }
+
+        CRC32 crc = new CRC32();
+        long valid = MAGIC.length;
+        while (file.remaining() >= RECORD_HEADER) {
+            int length   = file.getInt(file.position());
+            int checksum = file.getInt(file.position() + 4);
+            if (length < MIN_BODY || length > file.remaining() - RECORD_HEADER) {
+                break;
+            }
+            ByteBuffer body = file.slice(file.position() + RECORD_HEADER, length);
+            crc.reset();
+            crc.update(body.duplicate());
+            if ((int) crc.getValue() != checksum) {
+                break;
+            }
+            byte op = body.get();
+            if (op != PUT && op != DELETE) {
+                break;
+            }
+            recovered.record(valid, RECORD_HEADER + length, op, new UUID(body.getLong(), body.getLong()), body);
+            valid += RECORD_HEADER + length;
+            file.position((int) valid);
+        }
+
+        if (valid < fileSize) {
+            LOG.warning(path + ": discarding " + (fileSize - valid) + " byte(s) after offset " + valid
+                    + " (incomplete or corrupt record, e.g. from a crash during a write)");
+            channel.truncate(valid);
+            channel.force(true);
+        }
+        end = valid;
+        remap();
+    }
+
+    private void visit(ByteBuffer region, long baseOffset, Visitor visitor) {
+        int position = 0;
+        while (position < region.limit()) {
+            int length = region.getInt(position);
+            ByteBuffer body = region.slice(position + RECORD_HEADER, length);
+            byte op = body.get();
+            visitor.record(baseOffset + position, RECORD_HEADER + length, op,
+                    new UUID(body.getLong(), body.getLong()), body);
+            position += RECORD_HEADER + length;
+        }
+    }
+
+    /** The whole record at {@code offset}, header included, from the mapping or the channel. */
+    private ByteBuffer record(long offset, int size) throws IOException {
+        return offset + size <= mappedEnd ? map.slice((int) offset, size) : read(offset, size);
+    }
+
+    private ByteBuffer read(long offset, int size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, offset + buffer.position()) < 0) {
+                throw new IOException(path + ": unexpected end of file at " + (offset + buffer.position()));
+            }
+        }
+        return buffer.flip();
+    }
+
+    private void remap() throws IOException {
+        if (end > Integer.MAX_VALUE) {
+            throw new IOException(path + " has grown beyond 2 GiB; it cannot be mapped");
+        }
+        map       = channel.map(FileChannel.MapMode.READ_ONLY, 0, end);
+        mappedEnd = end;
+    }
+
+    private void openChannel() throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            fileLock = channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            fileLock = null;   // held by this JVM already
+        }
+        if (fileLock == null) {
+            channel.close();
+            throw new IOException(path + " is in use by another process");
+        }
+    }
+
+    private void closeChannel() throws IOException {
+        map = null;
+        if (channel != null && channel.isOpen()) {
+            fileLock.release();
+            channel.close();
+        }
+    }
+
+    /** Makes the rename of a compaction durable; not supported (nor needed) on every platform. */
+    private void syncDirectory() {
+        Path dir = path.toAbsolutePath().getParent();
+        try (FileChannel directory = FileChannel.open(dir, StandardOpenOption.READ)) {
+            directory.force(true);
+        } catch (IOException ignored) {
+            // e.g. Windows, where directories cannot be opened as channels
+        }
+    }
+
+    private static void flush(FileChannel out, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        writeFully(out, buffer);
+        buffer.clear();
+    }
+
+    private static void writeFully(FileChannel out, ByteBuffer bytes) throws IOException {
+        while (bytes.hasRemaining()) {
+            out.write(bytes);
+        }
+    }
+
+    private static Path compactionPath(Path path) {
+        return path.resolveSibling(path.getFileName() + ".compact");
+    }
+
+    static long toMicros(LocalDateTime t) {
+        return t.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + t.getNano() / 1_000;
+    }
+
+    static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000),
+                (int) Math.floorMod(micros, 1_000_000) * 1_000, ZoneOffset.UTC);
+    }
+}
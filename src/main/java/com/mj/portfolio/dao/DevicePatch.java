@@ -0,0 +1,104 @@
+package com.mj.portfolio.dao;
+
+import com.mj.portfolio.model.Device;
+import com.mj.portfolio.model.DeviceStatus;
+import com.mj.portfolio.model.DeviceType;
+
+/**
+ * Immutable partial update for {@link DeviceDAO#patch}.
+ *
+ * <p>Each field that is {@code null} is left unchanged. The optional fields
+ * IP address and location are cleared by patching them to {@code ""}.
+ * {@link #expectingVersion} makes the patch conditional: it is rejected
+ * with a {@link com.mj.portfolio.exception.StaleDeviceException} if the
+ * device has been updated since that version was read.</p>
+ */
+public final class DevicePatch {
+
+    private static final DevicePatch EMPTY = new DevicePatch(null, null, null, null, null, null);
+
+    private final String       name;
+    private final DeviceType   type;
+    private final DeviceStatus status;
+    private final String       ipAddress;
+    private final String       location;
+    private final Integer      expectedVersion;
+
+    private DevicePatch(String name, DeviceType type, DeviceStatus status,
+                        String ipAddress, String location, Integer expectedVersion) {
+        this.name            = name;
+        this.type            = type;
+        this.status          = status;
+        this.ipAddress       = ipAddress;
+        this.location        = location;
+        this.expectedVersion = expectedVersion;
+    }
+
+    /** A patch that changes nothing; add fields with the {@code with…} methods. */
+    public static DevicePatch empty() {
+        return EMPTY;
+    }
+
+    public DevicePatch withName(String name) {
+        if (name != null && name.isEmpty()) {
+            throw new IllegalArgumentException("Device name must not be empty.");
+        }
+        return new DevicePatch(name, type, status, ipAddress, location, expectedVersion);
+    }
+
+    public DevicePatch withType(DeviceType type) {
+        return new DevicePatch(name, type, status, ipAddress, location, expectedVersion);
+    }
+
+    public DevicePatch withStatus(DeviceStatus status) {
+        return new DevicePatch(name, type, status, ipAddress, location, expectedVersion);
+    }
+
+    /** {@code ""} clears the IP address. */
+    public DevicePatch withIpAddress(String ipAddress) {
+        return new DevicePatch(name, type, status, ipAddress, location, expectedVersion);
+    }
+
+    /** {@code ""} clears the location. */
+    public DevicePatch withLocation(String location) {
+        return new DevicePatch(name, type, status, ipAddress, location, expectedVersion);
+    }
+
+    /** Only apply if the device is still at {@code version} (see {@link Device#getVersion()}). */
+    public DevicePatch expectingVersion(int version) {
+        return new DevicePatch(name, type, status, ipAddress, location, version);
+    }
+
+    public String       getName()            { return name; }
+    public DeviceType   getType()            { return type; }
+    public DeviceStatus getStatus()          { return status; }
+    public String       getIpAddress()       { return ipAddress; }
+    public String       getLocation()        { return location; }
+    public Integer      getExpectedVersion() { return expectedVersion; }
+
+    /** Whether no field is set, so applying the patch changes nothing (and bumps no version). */
+    public boolean isEmpty() {
+        return name == null && type == null && status == null && ipAddress == null && location == null;
+    }
+
+    /**
+     * Sets the patched fields on {@code device}; used by implementations
+     * without a single-statement patch. Neither checks nor bumps the version,
+     * which is left to {@link DeviceDAO#update}.
+     */
+    public Device applyTo(Device device) {
+        if (name      != null) device.setName(name);
+        if (type      != null) device.setType(type);
+        if (status    != null) device.setStatus(status);
+        if (ipAddress != null) device.setIpAddress(ipAddress.isEmpty() ? null : ipAddress);
+        if (location  != null) device.setLocation(location.isEmpty() ? null : location);
+        return device;
+    }
+
+    @Override
+    public String toString() {
+        return "DevicePatch{name='" + name + "', type=" + type + ", status=" + status
+                + ", ip='" + ipAddress + "', location='" + location
+                + "', expectedVersion=" + expectedVersion + "}";
+    }
+}
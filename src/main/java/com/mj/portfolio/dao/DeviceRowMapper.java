@@ -0,0 +1,88 @@
+package com.mj.portfolio.dao;
+
+import com.mj.portfolio.model.Device;
+import com.mj.portfolio.model.DeviceStatus;
+import com.mj.portfolio.model.DeviceType;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Maps rows of the {@code devices} table to {@link Device} objects; shared by
+ * every finder in {@link DeviceDAOImpl}.
+ *
+ * <p>Queries select the fixed column list {@link #COLUMNS} (never
+ * {@code SELECT *}), so each value is read by position instead of by label —
+ * no per-row label lookup in the driver, and new table columns are not
+ * fetched until the mapper uses them. Extra columns (e.g. a search score) go
+ * after the device columns.</p>
+ *
+ * <p>{@code created_at} is read straight into a {@link LocalDateTime} rather
+ * than via {@code java.sql.Timestamp}, and type/status strings are decoded
+ * against cached constant tables instead of {@code Enum.valueOf}.</p>
+ */
+final class DeviceRowMapper {
+
+    /** Device columns in the order {@link #map} reads them. */
+    static final String COLUMNS = "id, name, type, status, ip_address, location, created_at, version";
+
+    /** {@code SELECT <COLUMNS> FROM devices}; append WHERE/ORDER BY as needed. */
+    static final String SELECT = "SELECT " + COLUMNS + " FROM devices";
+
+    private static final int ID         = 1;
+    private static final int NAME       = 2;
+    private static final int TYPE       = 3;
+    private static final int STATUS     = 4;
+    private static final int IP_ADDRESS = 5;
+    private static final int LOCATION   = 6;
+    private static final int CREATED_AT = 7;
+    private static final int VERSION    = 8;
+
+    // values() clones on every call; these are read-only copies.
+    private static final DeviceType[]   TYPES    = DeviceType.values();
+    private static final DeviceStatus[] STATUSES = DeviceStatus.values();
+
+    private DeviceRowMapper() {}
+
+    /** Maps the current row of {@code rs}, which must start with {@link #COLUMNS}. */
+    static Device map(ResultSet rs) throws SQLException {
+        Device device = new Device(
+                rs.getObject(ID, UUID.class),
+                rs.getString(NAME),
+                decode(TYPES, rs.getString(TYPE)),
+                decode(STATUSES, rs.getString(STATUS)),
+                rs.getString(IP_ADDRESS),
+                rs.getString(LOCATION),
+                rs.getObject(CREATED_AT, LocalDateTime.class)
+        );
+        device.setVersion(rs.getInt(VERSION));
+        return device;
+    }
+
+    /** Maps all remaining rows of {@code rs}. */
+    static List<Device> collect(ResultSet rs) throws SQLException {
+        List<Device> list = new ArrayList<>();
+        while (rs.next()) {
+            list.add(map(rs));
+        }
+        return list;
+    }
+
+    /**
+     * Linear scan over the few constants: {@code equals} rejects on length
+     * first, which beats hashing the fresh String the driver hands out per row.
+     */
+    private static <E extends Enum<E>> E decode(E[] constants, String value) throws SQLException {
+        for (E constant : constants) {
+            if (constant.name().equals(value)) {
+                return constant;
+            }
+        }
+        throw new SQLException("Unknown " + constants[0].getDeclaringClass().getSimpleName()
+                + " in database: '" + value + "'");
+    }
+}
@@ -0,0 +1,415 @@
+package com.mj.portfolio.dao;
+
+import com.mj.portfolio.model.Device;
+import com.mj.portfolio.model.DeviceStatus;
+import com.mj.portfolio.model.DeviceType;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A copy of the whole inventory in a compact binary file, for starting a
+ * client without reading every row over JDBC, plus the
+ * {@link DeviceDAO#changeWatermark() watermark} it was read at, so that
+ * {@link #withChanges} can bring it up to date with only what changed since.
+ *
+ * <pre>
+ *   file     := header row[count] tables
+ *   header   := "DSNP" format:int16 flags:int16 watermark:int64 taken_at:int64
+ *               count:int32 tables_offset:int64
+ *   row      := id:uuid type:int8 status:int8 location:int32 version:int32
+ *               created_at:int64 name:string ip_address:ascii
+ *   tables   := types:names statuses:names locations:int32 string*
+ *   names    := count:int8 string*
+ *   string   := length:int16 (-1 for null) utf8[length]
+ *   ascii    := length:int8 (-1 for null) us-ascii[length]
+ * </pre>
+ * Numbers are big-endian; a uuid is its two longs. {@code taken_at} is in
+ * milliseconds and {@code created_at} in microseconds since the epoch (UTC),
+ * {@code Long.MIN_VALUE} for none. Type and status are ordinals into the
+ * name tables and location an index into the location table (-1 for none),
+ * so each distinct location is stored and decoded once, and the
+ * devices share one String per location. Because the tables hold names, a
+ * file still reads correctly after the enums are reordered.
+ *
+ * <p>{@link #write} streams the rows, so the inventory is never held in
+ * memory while saving; the tables follow the rows, and their offset and
+ * the row count are filled into the header last. The file is written next
+ * to its destination and renamed over it, so readers never see half a
+ * snapshot. {@link #read} maps the file and decodes it in one pass.</p>
+ */
+public final class DeviceSnapshot {
+
+    /** Format version written by this class; {@link #read} rejects others. */
+    public static final int FORMAT = 1;
+
+    private static final Logger LOG = Logger.getLogger(DeviceSnapshot.class.getName());
+
+    private static final int MAGIC  = 0x44534E50;   // "DSNP"
+    private static final int HEADER = 4 + 2 + 2 + 8 + 8 + 4 + 8;
+
+    private final long         watermark;
+    private final Instant      takenAt;
+    private final List<Device> devices;
+
+    /**
+     * @param watermark what {@link DeviceDAO#changeWatermark()} returned before
+     *                  {@code devices} were read
+     * @param takenAt   when they were read
+     */
+    public DeviceSnapshot(long watermark, Instant takenAt, List<Device> devices) {
+        this.watermark = watermark;
+        this.takenAt   = takenAt;
+        this.devices   = devices;
+    }
+
+    /** Watermark to pass to {@link DeviceDAO#changesSince} to refresh this snapshot. */
+    public long watermark() {
+        return watermark;
+    }
+
+    /** When the devices were read from the DAO. */
+    public Instant takenAt() {
+        return takenAt;
+    }
+
+    /** The devices, ordered by name and id like {@link DeviceDAO#findAll()}. Not copied. */
+    public List<Device> devices() {
+        return devices;
+    }
+
+    /**
+     * This snapshot with {@code delta} applied: deleted devices removed,
+     * changed devices added or replaced, and {@code delta}'s watermark.
+     */
+    public DeviceSnapshot withChanges(DeviceDelta delta) {
+        if (delta.full()) {
+            List<Device> all = new ArrayList<>(delta.changed());
+            all.sort(PageCursor.ORDER);
+            return new DeviceSnapshot(delta.watermark(), Instant.now(), all);
+        }
+        Map<UUID, Device> byId = new LinkedHashMap<>(devices.size() * 4 / 3 + 1);
+        for (Device device : devices) {
+            byId.put(device.getId(), device);
+        }
+        delta.deleted().forEach(byId::remove);
+        delta.changed().forEach(device -> byId.put(device.getId(), device));
+        List<Device> all = new ArrayList<>(byId.values());
+        all.sort(PageCursor.ORDER);   // nearly sorted already: one linear pass
+        return new DeviceSnapshot(delta.watermark(), Instant.now(), all);
+    }
+
+    /**
+     * Reads every device from {@code dao}, after its watermark. Holds the
+     * whole inventory; to save it to a file, {@link #write} the stream
+     * instead.
+     */
+    public static DeviceSnapshot take(DeviceDAO dao) {
+        long    watermark = dao.changeWatermark();
+        Instant takenAt   = Instant.now();
+        try (Stream<Device> devices = dao.streamAll()) {
+            return new DeviceSnapshot(watermark, takenAt, devices.collect(Collectors.toCollection(ArrayList::new)));
+        }
+    }
+
+    /**
+     * The inventory for a warm start: the snapshot in {@code file} with the
+     * changes since it was taken, or all of {@code dao} if there is no
+     * usable file. Saves the result back to {@code file}, so the next start
+     * has less to catch up on. A file that cannot be read or written is
+     * logged and otherwise ignored.
+     */
+    public static DeviceSnapshot warmStart(Path file, DeviceDAO dao) {
+        DeviceSnapshot snapshot = null;
+        if (Files.exists(file)) {
+            try {
+                DeviceSnapshot stored = read(file);
+                snapshot = stored.withChanges(dao.changesSince(stored.watermark()));
+            } catch (IOException e) {
+                LOG.log(Level.WARNING, "Ignoring device snapshot " + file + ": " + e.getMessage());
+            }
+        }
+        if (snapshot == null) {
+            snapshot = take(dao);
+        }
+        try {
+            snapshot.save(file);
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Cannot save device snapshot " + file + ": " + e.getMessage());
+        }
+        return snapshot;
+    }
+
+    /** Writes this snapshot to {@code file}; see {@link #write(Path, long, Instant, Iterator)}. */
+    public void save(Path file) throws IOException {
+        write(file, watermark, takenAt, devices.iterator());
+    }
+
+    // ── Encoding ─────────────────────────────────────────────────────────────
+
+    /**
+     * Writes {@code devices} as a snapshot taken at {@code takenAt} with
+     * {@code watermark}, replacing {@code file} atomically once complete.
+     * The devices are consumed one at a time and need to be in
+     * {@link DeviceDAO#findAll()} order only for {@link #devices()} to be.
+     *
+     * @return the number of devices written
+     */
+    public static long write(Path file, long watermark, Instant takenAt, Iterator<Device> devices)
+            throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            Map<String, Integer> locationIndex = new HashMap<>();
+            List<String>         locations     = new ArrayList<>();
+            int  count = 0;
+            long tablesOffset;
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    Files.newOutputStream(temp), 1 << 16))) {
+                out.write(new byte[HEADER]);   // filled in below
+                while (devices.hasNext()) {
+                    Device device = devices.next();
+                    out.writeLong(device.getId().getMostSignificantBits());
+                    out.writeLong(device.getId().getLeastSignificantBits());
+                    out.writeByte(device.getType().ordinal());
+                    out.writeByte(device.getStatus().ordinal());
+                    String location = device.getLocation();
+                    out.writeInt(location == null ? -1 : locationIndex.computeIfAbsent(location, l -> {
+                        locations.add(l);
+                        return locations.size() - 1;
+                    }));
+                    out.writeInt(device.getVersion());
+                    out.writeLong(device.getCreatedAt() == null
+                            ? Long.MIN_VALUE : DeviceLog.toMicros(device.getCreatedAt()));
+                    writeString(out, device.getName());
+                    writeAscii(out, device.getIpAddress());
+                    count++;
+                }
+                tablesOffset = out.size();
+                writeNames(out, DeviceType.values());
+                writeNames(out, DeviceStatus.values());
+                out.writeInt(locations.size());
+                for (String location : locations) {
+                    writeString(out, location);
+                }
+                if (out.size() == Integer.MAX_VALUE) {
+                    throw new IOException("Snapshot of " + count + " devices is larger than 2 GiB");
+                }
+            }
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER)
+                    .putInt(MAGIC).putShort((short) FORMAT).putShort((short) 0)
+                    .putLong(watermark).putLong(takenAt.toEpochMilli())
+                    .putInt(count).putLong(tablesOffset)
+                    .flip();
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                while (header.hasRemaining()) {
+                    channel.write(header, header.position());
+                }
+                channel.force(true);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return count;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    // ── Decoding ─────────────────────────────────────────────────────────────
+
+    /**
+     * Reads a snapshot written by {@link #write} through a read-only memory
+     * mapping of the file.
+     *
+     * @throws IOException if the file cannot be read, is not a snapshot, was
+     *                     written in another format version, or is truncated
+     */
+    public static DeviceSnapshot read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException(file + " is larger than 2 GiB; it cannot be mapped");
+            }
+            if (size < HEADER) {
+                throw new IOException(file + " is not a device snapshot");
+            }
+            MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            try {
+                return decode(file, map);
+            } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+                throw new IOException(file + " is truncated or corrupt", e);
+            }
+        }
+    }
+
+    private static DeviceSnapshot decode(Path file, ByteBuffer in) throws IOException {
+        if (in.getInt() != MAGIC) {
+            throw new IOException(file + " is not a device snapshot");
+        }
+        int format = in.getShort();
+        if (format != FORMAT) {
+            throw new IOException(file + " is in snapshot format " + format
+                    + ", this version reads format " + FORMAT + "; save it again");
+        }
+        in.getShort();   // flags, none defined
+        long    watermark    = in.getLong();
+        Instant takenAt      = Instant.ofEpochMilli(in.getLong());
+        int     count        = in.getInt();
+        long    tablesOffset = in.getLong();
+        if (count < 0 || tablesOffset < HEADER || tablesOffset > in.limit()) {
+            throw new IOException(file + " is truncated or corrupt");
+        }
+
+        ByteBuffer     tables    = in.duplicate().position((int) tablesOffset);
+        DeviceType[]   types     = readNames(tables, DeviceType.values(), DeviceType::valueOf, file);
+        DeviceStatus[] statuses  = readNames(tables, DeviceStatus.values(), DeviceStatus::valueOf, file);
+        String[]       locations = new String[tables.getInt()];
+        byte[]         scratch   = new byte[Short.MAX_VALUE];
+        for (int i = 0; i < locations.length; i++) {
+            locations[i] = readString(tables, scratch);
+        }
+
+        RowDecoder   rows    = new RowDecoder(in, types, statuses, locations);
+        List<Device> devices = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            devices.add(rows.next());
+        }
+        if (in.position() != tablesOffset) {
+            throw new IOException(file + " is truncated or corrupt");
+        }
+        return new DeviceSnapshot(watermark, takenAt, devices);
+    }
+
+    /**
+     * Decodes one row per call. A method of its own so the JIT compiles it
+     * early in the first load instead of replacing a long-running loop.
+     */
+    private static final class RowDecoder {
+        private final ByteBuffer     in;
+        private final DeviceType[]   types;
+        private final DeviceStatus[] statuses;
+        private final String[]       locations;
+        private final byte[]         scratch = new byte[Short.MAX_VALUE];
+
+        // Rows saved by one import share a timestamp, and so do their LocalDateTimes.
+        private long          lastMicros = Long.MIN_VALUE;
+        private LocalDateTime lastTime;
+
+        RowDecoder(ByteBuffer in, DeviceType[] types, DeviceStatus[] statuses, String[] locations) {
+            this.in        = in;
+            this.types     = types;
+            this.statuses  = statuses;
+            this.locations = locations;
+        }
+
+        Device next() {
+            UUID         id       = new UUID(in.getLong(), in.getLong());
+            DeviceType   type     = types[in.get()];
+            DeviceStatus status   = statuses[in.get()];
+            int          location = in.getInt();
+            int          version  = in.getInt();
+            long         micros   = in.getLong();
+            String       name     = readString(in, scratch);
+            String       ip       = null;
+            int          ipLength = in.get();
+            if (ipLength >= 0) {
+                in.get(scratch, 0, ipLength);
+                ip = new String(scratch, 0, ipLength, StandardCharsets.ISO_8859_1);
+            }
+            if (micros != lastMicros) {
+                lastMicros = micros;
+                lastTime   = micros == Long.MIN_VALUE ? null : DeviceLog.fromMicros(micros);
+            }
+            Device device = new Device(id, name, type, status, ip,
+                    location < 0 ? null : locations[location], lastTime);
+            device.setVersion(version);
+            return device;
+        }
+    }
+
+    // ── Helpers ──────────────────────────────────────────────────────────────
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        if (s == null) {
+            out.writeShort(-1);
+            return;
+        }
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > Short.MAX_VALUE) {
+            throw new IOException("Value too long for a snapshot: " + bytes.length + " bytes");
+        }
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    /** IP addresses are ASCII and at most {@value FileDeviceDAO#IP_MAX} characters. */
+    private static void writeAscii(DataOutputStream out, String s) throws IOException {
+        if (s == null) {
+            out.writeByte(-1);
+            return;
+        }
+        if (s.length() > Byte.MAX_VALUE) {
+            throw new IOException("IP address too long for a snapshot: " + s);
+        }
+        out.writeByte(s.length());
+        out.writeBytes(s);
+    }
+
+    private static String readString(ByteBuffer in, byte[] scratch) {
+        int length = in.getShort();
+        if (length < 0) {
+            return null;
+        }
+        in.get(scratch, 0, length);
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private static void writeNames(DataOutputStream out, Enum<?>[] constants) throws IOException {
+        out.writeByte(constants.length);
+        for (Enum<?> constant : constants) {
+            writeString(out, constant.name());
+        }
+    }
+
+    /** The constants in the order the file numbers them, looked up by name. */
+    private static <E extends Enum<E>> E[] readNames(ByteBuffer in, E[] current,
+                                                     Function<String, E> valueOf,
+                                                     Path file) throws IOException {
+        int count = in.get();
+        E[] byOrdinal = Arrays.copyOf(current, count);
+        for (int i = 0; i < count; i++) {
+            String name = readString(in, new byte[Short.MAX_VALUE]);
+            try {
+                byOrdinal[i] = valueOf.apply(name);
+            } catch (IllegalArgumentException e) {
+                throw new IOException(file + " uses " + current[0].getDeclaringClass().getSimpleName()
+                        + " " + name + ", which this version does not know; save it again");
+            }
+        }
+        return byOrdinal;
+    }
+}
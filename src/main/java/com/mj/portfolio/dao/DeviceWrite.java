@@ -0,0 +1,86 @@
+package com.mj.portfolio.dao;
+
+import com.mj.portfolio.model.Device;
+
+import java.util.UUID;
+
+/**
+ * One insert, update, patch or delete in a group of writes submitted to
+ * {@link DeviceDAO#applyWrites}.
+ *
+ * <p>Each write knows how to apply itself through the single-row DAO
+ * methods ({@link #applyTo}), which is what the default
+ * {@code applyWrites} does; the PostgreSQL implementation instead batches
+ * consecutive writes of the same kind.</p>
+ */
+public sealed interface DeviceWrite {
+
+    /** Applies this write on its own through the single-row DAO methods. */
+    Outcome applyTo(DeviceDAO dao);
+
+    /** Inserts {@code device}; on success it has id and createdAt populated. */
+    record Insert(Device device) implements DeviceWrite {
+        @Override
+        public Outcome applyTo(DeviceDAO dao) {
+            return Outcome.applied(dao.save(device));
+        }
+    }
+
+    /** Replaces all mutable fields of the device with {@code device.getId()}. */
+    record Update(Device device) implements DeviceWrite {
+        @Override
+        public Outcome applyTo(DeviceDAO dao) {
+            return Outcome.applied(dao.update(device));
+        }
+    }
+
+    /** Changes only the fields set in {@code patch}; see {@link DeviceDAO#patch}. */
+    record Patch(UUID id, DevicePatch patch) implements DeviceWrite {
+        @Override
+        public Outcome applyTo(DeviceDAO dao) {
+            return dao.patch(id, patch)
+                    .map(Outcome::applied)
+                    .orElseGet(() -> Outcome.failed("No device found with id: " + id));
+        }
+    }
+
+    /**
+     * Deletes the device with {@code id}, only at {@code expectedVersion}
+     * unless that is {@code null}; a missing id is not an error.
+     */
+    record Delete(UUID id, Integer expectedVersion) implements DeviceWrite {
+
+        public Delete(UUID id) {
+            this(id, null);
+        }
+
+        @Override
+        public Outcome applyTo(DeviceDAO dao) {
+            boolean deleted = expectedVersion == null ? dao.delete(id) : dao.delete(id, expectedVersion);
+            return deleted ? Outcome.applied(null) : Outcome.NOT_FOUND;
+        }
+    }
+
+    /**
+     * Result of one write.
+     *
+     * @param applied whether a row was inserted, updated or deleted
+     * @param device  the written device for inserts, updates and patches, else {@code null};
+     *                also {@code null} for a patch accepted without knowing the
+     *                device (see {@link JournalingDeviceDAO})
+     * @param error   why the write was rejected, or {@code null}; a delete of a
+     *                missing id is neither applied nor an error
+     */
+    record Outcome(boolean applied, Device device, String error) {
+
+        public static final Outcome NOT_FOUND = new Outcome(false, null, null);
+
+        public static Outcome applied(Device device) {
+            return new Outcome(true, device, null);
+        }
+
+        public static Outcome failed(String error) {
+            return new Outcome(false, null, error);
+        }
+    }
+}
@@ -0,0 +1,444 @@
+package com.mj.portfolio.dao;
+
+import com.mj.portfolio.exception.DAOException;
+import com.mj.portfolio.exception.StaleDeviceException;
+import com.mj.portfolio.model.Device;
+import com.mj.portfolio.model.DeviceStatus;
+import com.mj.portfolio.model.DeviceType;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Embedded {@link DeviceDAO} that keeps the inventory in a local file instead
+ * of PostgreSQL — for edge sites without a route to the central database,
+ * and for laptops where JDBC and a pool are more than the job needs.
+ *
+ * <p>Every write appends a record to an append-only {@link DeviceLog}; an
+ * in-memory hash index maps each live device id to its latest record. Point
+ * lookups are one index probe and one read from the memory-mapped file;
+ * queries scan the file sequentially and decode only the live records.
+ * Superseded records are garbage until the file is compacted, which happens
+ * automatically once they make up more than half of it (and at least
+ * {@value #COMPACT_MIN_GARBAGE} bytes), or on {@link #compact()}.</p>
+ *
+ * <p>Opening the file replays it to rebuild the index and drops a torn
+ * record left by a crash. With {@code sync} every write is forced to disk
+ * before it returns — a batch ({@link #saveAll}, {@link #updateStatus}) with
+ * a single {@code fsync}; without it a crash can lose the last writes, but
+ * never corrupt the file.</p>
+ *
+ * <p>Column limits are those of {@code db/schema.sql}, so a file can be
+ * loaded into PostgreSQL unchanged. Thread-safe: reads share a lock, writes
+ * take it exclusively. Only one process can open a file at a time.</p>
+ */
+public class FileDeviceDAO implements DeviceDAO, AutoCloseable {
+
+    static final int NAME_MAX     = 100;
+    static final int IP_MAX       = 45;
+    static final int LOCATION_MAX = 100;
+
+    private static final Logger LOG = Logger.getLogger(FileDeviceDAO.class.getName());
+
+    private static final long COMPACT_MIN_GARBAGE = 1 << 20;
+
+    private final Path                        path;
+    private final DeviceLog                   log;
+    private final Map<UUID, DeviceLog.Slot>   index = new HashMap<>();
+    private final ReadWriteLock               lock  = new ReentrantReadWriteLock();
+    private long                              garbage;   // bytes of superseded and delete records
+
+    /**
+     * Opens the device file at {@code path}, creating it if necessary.
+     *
+     * @param sync {@code true} to force every write to disk before returning
+     * @throws DAOException if the file cannot be opened or is locked by another process
+     */
+    public FileDeviceDAO(Path path, boolean sync) {
+        this.path = path;
+        try {
+            this.log = DeviceLog.open(path, sync, this::replay);
+        } catch (IOException e) {
+            throw new DAOException("Cannot open device file " + path + ": " + e.getMessage(), e);
+        }
+    }
+
+    // ── Queries ──────────────────────────────────────────────────────────────
+
+    @Override
+    public List<Device> findAll() {
+        return scan(d -> true);
+    }
+
+    @Override
+    public Optional<Device> findById(UUID id) {
+        lock.readLock().lock();
+        try {
+            DeviceLog.Slot slot = index.get(id);
+            return slot == null ? Optional.empty() : Optional.of(log.readDevice(slot));
+        } catch (IOException e) {
+            throw new DAOException("Failed to read device: " + id, e);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Device> findByType(DeviceType type) {
+        return scan(d -> d.getType() == type);
+    }
+
+    @Override
+    public List<Device> findByStatus(DeviceStatus status) {
+        return scan(d -> d.getStatus() == status);
+    }
+
+    @Override
+    public List<Device> findByTypeAndStatus(DeviceType type, DeviceStatus status) {
+        return scan(d -> d.getType() == type && d.getStatus() == status);
+    }
+
+    @Override
+    public List<Device> search(String keyword) {
+        return scan(DeviceFilter.search(keyword)::matches);
+    }
+
+    // ── Writes ───────────────────────────────────────────────────────────────
+
+    @Override
+    public Device save(Device device) {
+        validate(device);
+        boolean generated = false;
+        lock.writeLock().lock();
+        try {
+            generated = assignIdentity(device, Set.of());
+            append(new DeviceLog.Batch().put(device));
+            return device;
+        } catch (IOException e) {
+            if (generated) {
+                device.setId(null);
+            }
+            throw new DAOException("Failed to save device: " + device.getName(), e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Appends every valid device in one write; invalid ones are reported as failures. */
+    @Override
+    public BatchResult saveAll(Collection<Device> devices) {
+        BatchResult       result    = new BatchResult();
+        List<Device>      valid     = new ArrayList<>(devices.size());
+        List<Device>      generated = new ArrayList<>();
+        Set<UUID>         ids       = new HashSet<>();
+        DeviceLog.Batch   batch     = new DeviceLog.Batch();
+        lock.writeLock().lock();
+        try {
+            int index = 0;
+            for (Device device : devices) {
+                try {
+                    validate(device);
+                    if (assignIdentity(device, ids)) {
+                        generated.add(device);
+                    }
+                    ids.add(device.getId());
+                    batch.put(device);
+                    valid.add(device);
+                } catch (DAOException e) {
+                    result.recordFailure(index, device, e.getMessage());
+                }
+                index++;
+            }
+            if (!batch.isEmpty()) {
+                append(batch);
+            }
+        } catch (IOException e) {
+            generated.forEach(d -> d.setId(null));
+            throw new DAOException("Failed to save " + valid.size() + " device(s)", e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        valid.forEach(result::recordSaved);
+        return result;
+    }
+
+    @Override
+    public Device update(Device device) {
+        validate(device);
+        lock.writeLock().lock();
+        try {
+            Device stored = stored(device.getId())
+                    .orElseThrow(() -> new DAOException("No device found with id: " + device.getId()));
+            if (stored.getVersion() != device.getVersion()) {
+                throw new StaleDeviceException(device.getId(), device.getVersion(), stored.getVersion());
+            }
+            Device next = new Device(device);
+            next.setCreatedAt(stored.getCreatedAt());
+            next.setVersion(stored.getVersion() + 1);
+            append(new DeviceLog.Batch().put(next));
+            device.setVersion(next.getVersion());
+            return device;
+        } catch (IOException e) {
+            throw new DAOException("Failed to update device: " + device.getId(), e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Reads, checks and rewrites the device under the write lock, so no other write can interleave. */
+    @Override
+    public Optional<Device> patch(UUID id, DevicePatch patch) {
+        lock.writeLock().lock();
+        try {
+            Optional<Device> stored = stored(id);
+            if (stored.isEmpty()) {
+                return stored;
+            }
+            Device device = stored.get();
+            Integer expected = patch.getExpectedVersion();
+            if (expected != null && expected != device.getVersion()) {
+                throw new StaleDeviceException(id, expected, device.getVersion());
+            }
+            if (patch.isEmpty()) {
+                return stored;
+            }
+            patch.applyTo(device);
+            validate(device);
+            device.setVersion(device.getVersion() + 1);
+            append(new DeviceLog.Batch().put(device));
+            return Optional.of(new Device(device));
+        } catch (IOException e) {
+            throw new DAOException("Failed to patch device: " + id, e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Appends all changed devices in one write. */
+    @Override
+    public int updateStatus(Collection<UUID> ids, DeviceStatus status) {
+        lock.writeLock().lock();
+        try {
+            DeviceLog.Batch batch = new DeviceLog.Batch();
+            for (UUID id : new LinkedHashSet<>(ids)) {
+                Optional<Device> device = stored(id);
+                if (device.isPresent() && device.get().getStatus() != status) {
+                    device.get().setStatus(status);
+                    device.get().setVersion(device.get().getVersion() + 1);
+                    batch.put(device.get());
+                }
+            }
+            if (!batch.isEmpty()) {
+                append(batch);
+            }
+            return batch.entries().size();
+        } catch (IOException e) {
+            throw new DAOException("Failed to update device status", e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean delete(UUID id) {
+        lock.writeLock().lock();
+        try {
+            if (!index.containsKey(id)) {
+                return false;
+            }
+            append(new DeviceLog.Batch().delete(id));
+            return true;
+        } catch (IOException e) {
+            throw new DAOException("Failed to delete device: " + id, e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean delete(UUID id, int expectedVersion) {
+        lock.writeLock().lock();
+        try {
+            Optional<Device> stored = stored(id);
+            if (stored.isEmpty()) {
+                return false;
+            }
+            if (stored.get().getVersion() != expectedVersion) {
+                throw new StaleDeviceException(id, expectedVersion, stored.get().getVersion());
+            }
+            append(new DeviceLog.Batch().delete(id));
+            return true;
+        } catch (IOException e) {
+            throw new DAOException("Failed to delete device: " + id, e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ── File maintenance ─────────────────────────────────────────────────────
+
+    /** Rewrites the file without superseded records, shrinking it to the live devices. */
+    public void compact() {
+        lock.writeLock().lock();
+        try {
+            log.compact(index);
+            garbage = 0;
+        } catch (IOException e) {
+            throw new DAOException("Failed to compact device file " + path, e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Current size of the file in bytes. */
+    public long getFileSize() {
+        lock.readLock().lock();
+        try {
+            return log.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Bytes taken by superseded and delete records, reclaimed by {@link #compact()}. */
+    public long getGarbageBytes() {
+        lock.readLock().lock();
+        try {
+            return garbage;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        lock.writeLock().lock();
+        try {
+            log.close();
+        } catch (IOException e) {
+            throw new DAOException("Failed to close device file " + path, e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ── Private helpers ──────────────────────────────────────────────────────
+
+    /** Rebuilds the index from the records found when opening the file. */
+    private void replay(long offset, int size, byte op, UUID id, ByteBuffer body) {
+        index(op, id, new DeviceLog.Slot(offset, size));
+    }
+
+    /** Appends {@code batch} and points the index at its records; caller holds the write lock. */
+    private void append(DeviceLog.Batch batch) throws IOException {
+        long start = log.append(batch);
+        for (DeviceLog.Batch.Entry entry : batch.entries()) {
+            index(entry.op(), entry.id(), new DeviceLog.Slot(start + entry.offset(), entry.size()));
+        }
+        if (garbage > COMPACT_MIN_GARBAGE && garbage > log.size() / 2) {
+            try {
+                log.compact(index);
+                garbage = 0;
+            } catch (IOException e) {
+                // the write itself succeeded; the next one tries again
+                LOG.log(Level.WARNING, "Compaction of " + path + " failed", e);
+            }
+        }
+    }
+
+    private void index(byte op, UUID id, DeviceLog.Slot slot) {
+        DeviceLog.Slot previous = op == DeviceLog.PUT ? index.put(id, slot) : index.remove(id);
+        if (previous != null) {
+            garbage += previous.size();
+        }
+        if (op == DeviceLog.DELETE) {
+            garbage += slot.size();
+        }
+    }
+
+    /** The stored device, or empty; caller holds a lock. */
+    private Optional<Device> stored(UUID id) throws IOException {
+        DeviceLog.Slot slot = index.get(id);
+        return slot == null ? Optional.empty() : Optional.of(log.readDevice(slot));
+    }
+
+    /** Live devices matching {@code filter}, in one sequential pass over the file, ordered by name. */
+    private List<Device> scan(Predicate<Device> filter) {
+        List<Device> found = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            log.scan((offset, size, op, id, body) -> {
+                if (op == DeviceLog.PUT) {
+                    DeviceLog.Slot slot = index.get(id);
+                    if (slot != null && slot.offset() == offset) {
+                        Device device = DeviceLog.decodeDevice(id, body);
+                        if (filter.test(device)) {
+                            found.add(device);
+                        }
+                    }
+                }
+            });
+        } catch (IOException e) {
+            throw new DAOException("Failed to read device file " + path, e);
+        } finally {
+            lock.readLock().unlock();
+        }
+        found.sort(PageCursor.ORDER);
+        return found;
+    }
+
+    /**
+     * Gives a new device its creation time (at database precision), initial
+     * version and, unless it already has one, its id; caller holds the write
+     * lock. A preset id must not be in the file or in {@code pending}, as the
+     * primary key would reject it.
+     *
+     * @return whether the id was generated here
+     */
+    private boolean assignIdentity(Device device, Set<UUID> pending) {
+        boolean generated = device.getId() == null;
+        if (generated) {
+            device.setId(UUID.randomUUID());
+        } else if (index.containsKey(device.getId()) || pending.contains(device.getId())) {
+            throw new DAOException("A device with id " + device.getId() + " already exists");
+        }
+        device.setCreatedAt(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
+        device.setVersion(0);
+        return generated;
+    }
+
+    /** Enforces the constraints the {@code devices} table would. */
+    private static void validate(Device device) {
+        if (device.getName() == null || device.getType() == null || device.getStatus() == null) {
+            throw new DAOException("Device name, type and status are required");
+        }
+        checkLength("name", device.getName(), NAME_MAX);
+        checkLength("ip_address", device.getIpAddress(), IP_MAX);
+        checkLength("location", device.getLocation(), LOCATION_MAX);
+    }
+
+    private static void checkLength(String column, String value, int max) {
+        if (value != null && value.length() > max) {
+            throw new DAOException("Value too long for " + column + " (" + value.length()
+                    + " characters, at most " + max + ")");
+        }
+    }
+}
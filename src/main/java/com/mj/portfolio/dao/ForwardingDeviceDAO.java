@@ -0,0 +1,164 @@
+package com.mj.portfolio.dao;
+
+import com.mj.portfolio.model.Device;
+import com.mj.portfolio.model.DeviceStatus;
+import com.mj.portfolio.model.DeviceType;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Base class for {@link DeviceDAO} decorators: every method forwards to the
+ * wrapped DAO, so a decorator only overrides what it adds behaviour to.
+ *
+ * <p>All interface methods — including the ones with default
+ * implementations — are forwarded explicitly. Otherwise a decorator would
+ * silently fall back to the slow portable default instead of the wrapped
+ * DAO's optimised version (e.g. {@code COPY} for {@link #bulkLoad}).</p>
+ */
+public abstract class ForwardingDeviceDAO implements DeviceDAO {
+
+    protected final DeviceDAO delegate;
+
+    protected ForwardingDeviceDAO(DeviceDAO delegate) {
+        this.delegate = delegate;
+    }
+
+    // ── Queries ──────────────────────────────────────────────────────────────
+
+    @Override
+    public List<Device> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public Stream<Device> streamAll() {
+        return delegate.streamAll();
+    }
+
+    @Override
+    public Stream<Device> streamByNaturalKey() {
+        return delegate.streamByNaturalKey();
+    }
+
+    @Override
+    public long changeWatermark() {
+        return delegate.changeWatermark();
+    }
+
+    @Override
+    public DeviceDelta changesSince(long watermark) {
+        return delegate.changesSince(watermark);
+    }
+
+    @Override
+    public Page<Device> findPage(DeviceFilter filter, String pageToken, int pageSize) {
+        return delegate.findPage(filter, pageToken, pageSize);
+    }
+
+    @Override
+    public Optional<Device> findById(UUID id) {
+        return delegate.findById(id);
+    }
+
+    @Override
+    public List<Device> findByType(DeviceType type) {
+        return delegate.findByType(type);
+    }
+
+    @Override
+    public List<Device> findByStatus(DeviceStatus status) {
+        return delegate.findByStatus(status);
+    }
+
+    @Override
+    public List<Device> findByTypeAndStatus(DeviceType type, DeviceStatus status) {
+        return delegate.findByTypeAndStatus(type, status);
+    }
+
+    @Override
+    public List<Device> findBySubnet(String cidr) {
+        return delegate.findBySubnet(cidr);
+    }
+
+    @Override
+    public List<IpConflict> findIpConflicts() {
+        return delegate.findIpConflicts();
+    }
+
+    @Override
+    public List<Device> search(String keyword) {
+        return delegate.search(keyword);
+    }
+
+    @Override
+    public List<Device> search(SearchQuery query, int limit) {
+        return delegate.search(query, limit);
+    }
+
+    // ── Mutations ────────────────────────────────────────────────────────────
+
+    @Override
+    public Device save(Device device) {
+        return delegate.save(device);
+    }
+
+    @Override
+    public BatchResult saveAll(Collection<Device> devices) {
+        return delegate.saveAll(devices);
+    }
+
+    @Override
+    public long bulkLoad(Iterator<Device> devices) {
+        return delegate.bulkLoad(devices);
+    }
+
+    @Override
+    public List<DeviceWrite.Outcome> applyWrites(List<DeviceWrite> writes) {
+        return delegate.applyWrites(writes);
+    }
+
+    @Override
+    public List<DeviceWrite.Outcome> applyJournal(UUID journalId, long firstSeq, List<DeviceWrite> writes) {
+        return delegate.applyJournal(journalId, firstSeq, writes);
+    }
+
+    @Override
+    public Device update(Device device) {
+        return delegate.update(device);
+    }
+
+    @Override
+    public DeviceCounts countBy(GroupingKey... keys) {
+        return delegate.countBy(keys);
+    }
+
+    @Override
+    public Optional<Device> patch(UUID id, DevicePatch patch) {
+        return delegate.patch(id, patch);
+    }
+
+    @Override
+    public int updateStatus(Collection<UUID> ids, DeviceStatus status) {
+        return delegate.updateStatus(ids, status);
+    }
+
+    @Override
+    public int updateStatusWhere(DeviceFilter filter, DeviceStatus status) {
+        return delegate.updateStatusWhere(filter, status);
+    }
+
+    @Override
+    public boolean delete(UUID id) {
+        return delegate.delete(id);
+    }
+
+    @Override
+    public boolean delete(UUID id, int expectedVersion) {
+        return delegate.delete(id, expectedVersion);
+    }
+}
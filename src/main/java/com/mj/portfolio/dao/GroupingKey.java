@@ -0,0 +1,61 @@
+package com.mj.portfolio.dao;
+
+import com.mj.portfolio.model.Device;
+import com.mj.portfolio.model.DeviceStatus;
+import com.mj.portfolio.model.DeviceType;
+
+/**
+ * A device attribute that {@link DeviceDAO#countBy} can group by.
+ *
+ * <p>Group values are plain strings as stored in the database: the enum
+ * constant name for type and status (use {@link #label} for display) and
+ * the location text, {@code null} for devices without one.</p>
+ */
+public enum GroupingKey {
+
+    TYPE("type"),
+    STATUS("status"),
+    LOCATION("location");
+
+    private final String column;
+
+    GroupingKey(String column) {
+        this.column = column;
+    }
+
+    /** Column name in the {@code devices} table. */
+    String column() {
+        return column;
+    }
+
+    /** This attribute of {@code device}, in the form used as group value. */
+    public String valueOf(Device device) {
+        return switch (this) {
+            case TYPE     -> device.getType().name();
+            case STATUS   -> device.getStatus().name();
+            case LOCATION -> device.getLocation();
+        };
+    }
+
+    /** Human-readable form of a group value, e.g. "Network Switch" for {@code NETWORK_SWITCH}. */
+    public String label(String value) {
+        if (value == null) {
+            return "—";
+        }
+        return switch (this) {
+            case TYPE     -> DeviceType.valueOf(value).getDisplayName();
+            case STATUS   -> DeviceStatus.valueOf(value).getDisplayName();
+            case LOCATION -> value;
+        };
+    }
+
+    /** Case-insensitive lookup by name, e.g. {@code "location"}. */
+    public static GroupingKey fromInput(String input) {
+        for (GroupingKey key : values()) {
+            if (key.name().equalsIgnoreCase(input.trim())) {
+                return key;
+            }
+        }
+        throw new IllegalArgumentException("Cannot group by '" + input + "' (use type, status or location).");
+    }
+}
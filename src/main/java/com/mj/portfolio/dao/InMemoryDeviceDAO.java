@@ -0,0 +1,620 @@
+package com.mj.portfolio.dao;
+
+import com.mj.portfolio.model.Device;
+import com.mj.portfolio.model.DeviceStatus;
+import com.mj.portfolio.model.DeviceType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * {@link DeviceDAO} that answers every read from an in-memory snapshot of
+ * the inventory and writes through to a backing DAO.
+ *
+ * <p>The snapshot is an array of devices sorted by {@code (name, id)} plus
+ * one {@link BitSet} per {@link DeviceType} and per {@link DeviceStatus}
+ * (bit <i>i</i> set = row <i>i</i> has that type/status) and a bitset of
+ * live rows. A filter such as "all ACTIVE servers" is then a single AND of
+ * two bitsets — a few thousand word operations for a million devices — and
+ * iterating the result bits yields the rows already in name order.</p>
+ *
+ * <p>Writes go to the backing DAO first and are then patched into the
+ * snapshot incrementally:
+ * <ul>
+ *   <li>inserts are appended and their bits set;</li>
+ *   <li>deletes only clear bits, leaving the row as a tombstone;</li>
+ *   <li>updates rewrite the row in place and move its bits.</li>
+ * </ul>
+ * Appends and renames can break the name order; results are then sorted on
+ * the way out, and the array is compacted and re-sorted once enough
+ * tombstones or out-of-order rows accumulate (and before paging, which
+ * relies on binary search).</p>
+ *
+ * <p>The snapshot only sees writes made through this instance. Call
+ * {@link #refresh()} to reload changes made by other processes.
+ * All returned devices are copies.</p>
+ */
+public class InMemoryDeviceDAO implements DeviceDAO {
+
+    private static final DeviceType[]   TYPES    = DeviceType.values();
+    private static final DeviceStatus[] STATUSES = DeviceStatus.values();
+
+    private final DeviceDAO     backend;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // ── Snapshot state (guarded by lock) ─────────────────────────────────────
+    private Device[] rows = new Device[0];
+    private int      size;                 // used slots, including tombstones
+    private int      tombstones;
+    private boolean  sorted = true;        // rows[0, size) in PageCursor.ORDER
+    private final BitSet             live     = new BitSet();
+    private final BitSet[]           byType   = newBitSets(TYPES.length);
+    private final BitSet[]           byStatus = newBitSets(STATUSES.length);
+    private final Map<UUID, Integer> slotById = new HashMap<>();
+
+    /** Loads the initial snapshot from {@code backend}. */
+    public InMemoryDeviceDAO(DeviceDAO backend) {
+        this.backend = backend;
+        refresh();
+    }
+
+    /**
+     * Starts from {@code devices} instead of reading them from
+     * {@code backend}, e.g. from a {@link DeviceSnapshot} file brought up to
+     * date with {@link DeviceDAO#changesSince}.
+     */
+    public InMemoryDeviceDAO(DeviceDAO backend, Collection<Device> devices) {
+        this.backend = backend;
+        lock.writeLock().lock();
+        try {
+            rebuild(new ArrayList<>(devices));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Reloads the whole snapshot from the backing DAO. */
+    public void refresh() {
+        List<Device> all;
+        try (Stream<Device> devices = backend.streamAll()) {
+            all = devices.collect(Collectors.toCollection(ArrayList::new));
+        }
+        lock.writeLock().lock();
+        try {
+            rebuild(all);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Applies a change committed by any process, e.g. from a
+     * {@link DeviceChangeListener}, so the snapshot follows writes made
+     * elsewhere. Inserts and updates re-read just that device, unless the
+     * snapshot already holds its version (the echo of a write made through
+     * this DAO); deletes need no read; {@code RELOAD} reloads everything.
+     * Safe to call from the listener thread.
+     */
+    public void onChange(DeviceChange change) {
+        switch (change.op()) {
+            case RELOAD -> refresh();
+            case DELETE -> {
+                lock.writeLock().lock();
+                try {
+                    remove(change.id());
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+            default -> {
+                if (holds(change.id(), change.version())) {
+                    return;
+                }
+                Optional<Device> current = backend.findById(change.id());
+                lock.writeLock().lock();
+                try {
+                    if (current.isEmpty()) {
+                        remove(change.id());   // deleted again since
+                    } else if (!holds(change.id(), current.get().getVersion())) {
+                        put(current.get());
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+        }
+    }
+
+    /** Number of devices currently in the snapshot. */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return live.cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ── Queries ──────────────────────────────────────────────────────────────
+
+    @Override
+    public List<Device> findAll() {
+        return select(null, null);
+    }
+
+    @Override
+    public Optional<Device> findById(UUID id) {
+        lock.readLock().lock();
+        try {
+            Integer slot = slotById.get(id);
+            return slot == null ? Optional.empty() : Optional.of(new Device(rows[slot]));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Device> findByType(DeviceType type) {
+        return select(type, null);
+    }
+
+    @Override
+    public List<Device> findByStatus(DeviceStatus status) {
+        return select(null, status);
+    }
+
+    @Override
+    public List<Device> findByTypeAndStatus(DeviceType type, DeviceStatus status) {
+        return select(type, status);
+    }
+
+    @Override
+    public List<Device> findBySubnet(String cidr) {
+        return DeviceAddresses.inSubnet(scan(null, null).stream().map(Device::new), cidr);
+    }
+
+    @Override
+    public List<IpConflict> findIpConflicts() {
+        return DeviceAddresses.conflicts(scan(null, null).stream().map(Device::new));
+    }
+
+    @Override
+    public List<Device> search(String keyword) {
+        DeviceFilter filter = DeviceFilter.search(keyword);
+        return scan(null, null).stream().filter(filter::matches).map(Device::new).toList();
+    }
+
+    /**
+     * Type and status counts are the cardinalities of the index bitsets, so
+     * only a location count has to visit rows.
+     */
+    @Override
+    public DeviceCounts countBy(GroupingKey... keys) {
+        Map<GroupingKey, Map<String, Long>> groups = DeviceCounts.emptyGroups(keys);
+        lock.readLock().lock();
+        try {
+            groups.forEach((key, counts) -> {
+                switch (key) {
+                    case TYPE     -> countBits(byType, TYPES, counts);
+                    case STATUS   -> countBits(byStatus, STATUSES, counts);
+                    case LOCATION -> {
+                        for (int i = live.nextSetBit(0); i >= 0; i = live.nextSetBit(i + 1)) {
+                            counts.merge(rows[i].getLocation(), 1L, Long::sum);
+                        }
+                    }
+                }
+            });
+            return new DeviceCounts(live.cardinality(), groups);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Device> search(SearchQuery query, int limit) {
+        return scan(query.getType(), query.getStatus()).stream()
+                .filter(query::matches)
+                .sorted(Comparator.comparingDouble(query::score).reversed()
+                        .thenComparing(PageCursor.ORDER))
+                .limit(limit)
+                .map(Device::new)
+                .toList();
+    }
+
+    /**
+     * Seeks to the cursor with a binary search over the sorted rows and walks
+     * from there, testing the type/status bits and the keyword per row.
+     */
+    @Override
+    public Page<Device> findPage(DeviceFilter filter, String pageToken, int pageSize) {
+        PageCursor.checkPageSize(pageSize);
+        PageCursor cursor  = PageCursor.decode(pageToken);
+        boolean    forward = cursor == null || cursor.forward();
+        readLockSorted();
+        try {
+            BitSet mask = mask(filter.getType(), filter.getStatus());
+            List<Device> fetched = new ArrayList<>(pageSize + 1);
+            int i = cursor == null ? (forward ? 0 : size - 1) : seek(cursor);
+            while (i >= 0 && i < size && fetched.size() <= pageSize) {
+                if (mask.get(i) && filter.matches(rows[i])) {
+                    fetched.add(new Device(rows[i]));
+                }
+                i += forward ? 1 : -1;
+            }
+            return PageCursor.toPage(fetched, cursor, pageSize);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ── Write-through mutations ──────────────────────────────────────────────
+
+    @Override
+    public Device save(Device device) {
+        Device saved = backend.save(device);
+        lock.writeLock().lock();
+        try {
+            put(new Device(saved));
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return saved;
+    }
+
+    @Override
+    public BatchResult saveAll(Collection<Device> devices) {
+        BatchResult result = backend.saveAll(devices);
+        lock.writeLock().lock();
+        try {
+            result.getSaved().forEach(d -> put(new Device(d)));
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return result;
+    }
+
+    /** Loaded rows get their ids in the database only, so the snapshot is reloaded. */
+    @Override
+    public long bulkLoad(Iterator<Device> devices) {
+        long loaded = backend.bulkLoad(devices);
+        refresh();
+        return loaded;
+    }
+
+    @Override
+    public List<DeviceWrite.Outcome> applyWrites(List<DeviceWrite> writes) {
+        List<DeviceWrite.Outcome> outcomes = backend.applyWrites(writes);
+        lock.writeLock().lock();
+        try {
+            for (int i = 0; i < writes.size(); i++) {
+                DeviceWrite.Outcome outcome = outcomes.get(i);
+                if (writes.get(i) instanceof DeviceWrite.Delete delete) {
+                    if (outcome.error() == null) {
+                        remove(delete.id());
+                    }
+                } else if (outcome.device() != null) {
+                    put(new Device(outcome.device()));
+                } else if (outcome.applied() && writes.get(i) instanceof DeviceWrite.Patch patch) {
+                    patchRow(patch);   // accepted without reporting the device, e.g. journaled offline
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return outcomes;
+    }
+
+    /** Skipped entries carry no device, so the snapshot is reloaded instead of patched. */
+    @Override
+    public List<DeviceWrite.Outcome> applyJournal(UUID journalId, long firstSeq, List<DeviceWrite> writes) {
+        List<DeviceWrite.Outcome> outcomes = backend.applyJournal(journalId, firstSeq, writes);
+        refresh();
+        return outcomes;
+    }
+
+    @Override
+    public Device update(Device device) {
+        Device updated = backend.update(device);
+        lock.writeLock().lock();
+        try {
+            put(new Device(updated));
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return updated;
+    }
+
+    @Override
+    public Optional<Device> patch(UUID id, DevicePatch patch) {
+        Optional<Device> patched = backend.patch(id, patch);
+        lock.writeLock().lock();
+        try {
+            patched.ifPresentOrElse(d -> put(new Device(d)), () -> remove(id));
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return patched;
+    }
+
+    @Override
+    public int updateStatus(Collection<UUID> ids, DeviceStatus status) {
+        int changed = backend.updateStatus(ids, status);
+        lock.writeLock().lock();
+        try {
+            for (UUID id : ids) {
+                setStatus(slotById.get(id), status);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return changed;
+    }
+
+    /** Applies the filter to the snapshot too; {@link DeviceFilter#matches} mirrors the SQL. */
+    @Override
+    public int updateStatusWhere(DeviceFilter filter, DeviceStatus status) {
+        int changed = backend.updateStatusWhere(filter, status);
+        lock.writeLock().lock();
+        try {
+            BitSet mask = mask(filter.getType(), filter.getStatus());
+            for (int i = mask.nextSetBit(0); i >= 0; i = mask.nextSetBit(i + 1)) {
+                if (filter.matches(rows[i])) {
+                    setStatus(i, status);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return changed;
+    }
+
+    @Override
+    public boolean delete(UUID id) {
+        boolean deleted = backend.delete(id);
+        lock.writeLock().lock();
+        try {
+            remove(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return deleted;
+    }
+
+    @Override
+    public boolean delete(UUID id, int expectedVersion) {
+        boolean deleted = backend.delete(id, expectedVersion);
+        lock.writeLock().lock();
+        try {
+            remove(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return deleted;
+    }
+
+    // ── Snapshot maintenance (callers hold the write lock) ───────────────────
+
+    private void rebuild(List<Device> devices) {
+        devices.sort(PageCursor.ORDER);
+        rows       = devices.toArray(new Device[0]);
+        size       = rows.length;
+        tombstones = 0;
+        sorted     = true;
+        live.clear();
+        Arrays.stream(byType).forEach(BitSet::clear);
+        Arrays.stream(byStatus).forEach(BitSet::clear);
+        slotById.clear();
+        for (int i = 0; i < size; i++) {
+            index(i, rows[i]);
+        }
+    }
+
+    /** Inserts or replaces a device. */
+    private void put(Device device) {
+        Integer slot = slotById.get(device.getId());
+        if (slot != null) {
+            Device old = rows[slot];
+            byType[old.getType().ordinal()].clear(slot);
+            byStatus[old.getStatus().ordinal()].clear(slot);
+            if (!old.getName().equals(device.getName())) {
+                sorted = false;
+            }
+            rows[slot] = device;
+            index(slot, device);
+            return;
+        }
+
+        if (size == rows.length) {
+            rows = Arrays.copyOf(rows, Math.max(16, size * 2));
+        }
+        if (size > 0 && PageCursor.ORDER.compare(rows[size - 1], device) > 0) {
+            sorted = false;
+        }
+        rows[size] = device;
+        index(size, device);
+        size++;
+    }
+
+    private void remove(UUID id) {
+        Integer slot = slotById.remove(id);
+        if (slot == null) {
+            return;
+        }
+        Device old = rows[slot];
+        live.clear(slot);
+        byType[old.getType().ordinal()].clear(slot);
+        byStatus[old.getStatus().ordinal()].clear(slot);
+        tombstones++;
+        if (tombstones > 1_024 && tombstones > size / 4) {
+            compact();
+        }
+    }
+
+    private void setStatus(Integer slot, DeviceStatus status) {
+        if (slot != null && rows[slot].getStatus() != status) {
+            Device changed = new Device(rows[slot]);
+            changed.setStatus(status);
+            changed.setVersion(changed.getVersion() + 1);
+            put(changed);
+        }
+    }
+
+    private void patchRow(DeviceWrite.Patch patch) {
+        Integer slot = slotById.get(patch.id());
+        if (slot != null && !patch.patch().isEmpty()) {
+            Device changed = patch.patch().applyTo(new Device(rows[slot]));
+            changed.setVersion(changed.getVersion() + 1);
+            put(changed);
+        }
+    }
+
+    private void index(int slot, Device device) {
+        live.set(slot);
+        byType[device.getType().ordinal()].set(slot);
+        byStatus[device.getStatus().ordinal()].set(slot);
+        slotById.put(device.getId(), slot);
+    }
+
+    /** Drops tombstones and restores name order. */
+    private void compact() {
+        List<Device> alive = new ArrayList<>(live.cardinality());
+        for (int i = live.nextSetBit(0); i >= 0; i = live.nextSetBit(i + 1)) {
+            alive.add(rows[i]);
+        }
+        rebuild(alive);
+    }
+
+    /**
+     * Takes the read lock with the rows in name order, re-sorting them first
+     * if needed; the write lock is downgraded rather than released, so no
+     * write can unsort them before the caller reads. The caller unlocks.
+     */
+    private void readLockSorted() {
+        lock.readLock().lock();
+        if (sorted) {
+            return;
+        }
+        lock.readLock().unlock();
+        lock.writeLock().lock();
+        try {
+            if (!sorted) {
+                compact();
+            }
+            lock.readLock().lock();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ── Query helpers (callers hold the read lock unless noted) ──────────────
+
+    /** Whether the snapshot has device {@code id} at {@code version} or later; takes the read lock. */
+    private boolean holds(UUID id, int version) {
+        lock.readLock().lock();
+        try {
+            Integer slot = slotById.get(id);
+            return slot != null && rows[slot].getVersion() >= version;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static void countBits(BitSet[] index, Enum<?>[] constants, Map<String, Long> counts) {
+        for (Enum<?> constant : constants) {
+            int count = index[constant.ordinal()].cardinality();
+            if (count > 0) {
+                counts.put(constant.name(), (long) count);
+            }
+        }
+    }
+
+    /** Copies of all rows matching the type/status bits, in name order. Takes the lock. */
+    private List<Device> select(DeviceType type, DeviceStatus status) {
+        List<Device> result;
+        lock.readLock().lock();
+        try {
+            BitSet mask = mask(type, status);
+            result = new ArrayList<>(mask.cardinality());
+            for (int i = mask.nextSetBit(0); i >= 0; i = mask.nextSetBit(i + 1)) {
+                result.add(new Device(rows[i]));
+            }
+            if (sorted) {
+                return result;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        result.sort(PageCursor.ORDER);
+        return result;
+    }
+
+    /** Like {@link #select} but without copying; only for read-only filtering. Takes the lock. */
+    private List<Device> scan(DeviceType type, DeviceStatus status) {
+        lock.readLock().lock();
+        try {
+            BitSet mask = mask(type, status);
+            List<Device> result = new ArrayList<>(mask.cardinality());
+            for (int i = mask.nextSetBit(0); i >= 0; i = mask.nextSetBit(i + 1)) {
+                result.add(rows[i]);
+            }
+            if (!sorted) {
+                result.sort(PageCursor.ORDER);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Bits of the live rows matching the optional type and status. */
+    private BitSet mask(DeviceType type, DeviceStatus status) {
+        BitSet mask = (BitSet) (type != null ? byType[type.ordinal()] : live).clone();
+        if (status != null) {
+            mask.and(byStatus[status.ordinal()]);
+        }
+        return mask;
+    }
+
+    /**
+     * First slot past the cursor in its direction: the lower bound of rows
+     * greater than the key when moving forward, the last row smaller than it
+     * when moving backward. Tombstones keep their position, so the array
+     * stays searchable.
+     */
+    private int seek(PageCursor cursor) {
+        Device key = cursor.probe();
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            int cmp = PageCursor.ORDER.compare(rows[mid], key);
+            if (cmp < 0 || (cmp == 0 && cursor.forward())) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return cursor.forward() ? lo : lo - 1;
+    }
+
+    private static BitSet[] newBitSets(int n) {
+        BitSet[] sets = new BitSet[n];
+        for (int i = 0; i < n; i++) {
+            sets[i] = new BitSet();
+        }
+        return sets;
+    }
+}
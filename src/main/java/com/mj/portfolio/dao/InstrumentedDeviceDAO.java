@@ -0,0 +1,221 @@
+package com.mj.portfolio.dao;
+
+import com.mj.portfolio.metrics.MethodTimer;
+import com.mj.portfolio.model.Device;
+import com.mj.portfolio.model.DeviceStatus;
+import com.mj.portfolio.model.DeviceType;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Decorator that times every {@link DeviceDAO} call: count, errors and a
+ * latency histogram (p50/p95/p99/max) per method, see {@link #getStats()}.
+ *
+ * <p>Cheap enough to leave on: a call costs two {@link System#nanoTime()}
+ * reads and a lock-free histogram update, under 100 ns uncontended
+ * ({@code MethodTimerBenchmark}) against database round trips of hundreds
+ * of microseconds. Wrapped directly around
+ * the storage DAO it shows where time goes in the database (or file),
+ * below any cache or journal.</p>
+ *
+ * <p>{@link #streamAll} and {@link #streamByNaturalKey} are timed from the
+ * call until the stream is closed, since the rows are only fetched as it is
+ * consumed.</p>
+ */
+public class InstrumentedDeviceDAO extends ForwardingDeviceDAO {
+
+    private final List<MethodTimer> timers = new ArrayList<>();
+
+    private final MethodTimer findAll             = timer("findAll");
+    private final MethodTimer streamAll           = timer("streamAll");
+    private final MethodTimer streamByNaturalKey  = timer("streamByNaturalKey");
+    private final MethodTimer changeWatermark     = timer("changeWatermark");
+    private final MethodTimer changesSince        = timer("changesSince");
+    private final MethodTimer findPage            = timer("findPage");
+    private final MethodTimer findById            = timer("findById");
+    private final MethodTimer findByType          = timer("findByType");
+    private final MethodTimer findByStatus        = timer("findByStatus");
+    private final MethodTimer findByTypeAndStatus = timer("findByTypeAndStatus");
+    private final MethodTimer findBySubnet        = timer("findBySubnet");
+    private final MethodTimer findIpConflicts     = timer("findIpConflicts");
+    private final MethodTimer search              = timer("search");
+    private final MethodTimer searchQuery         = timer("search(query)");
+    private final MethodTimer countBy             = timer("countBy");
+    private final MethodTimer save                = timer("save");
+    private final MethodTimer saveAll             = timer("saveAll");
+    private final MethodTimer bulkLoad            = timer("bulkLoad");
+    private final MethodTimer applyWrites         = timer("applyWrites");
+    private final MethodTimer applyJournal        = timer("applyJournal");
+    private final MethodTimer update              = timer("update");
+    private final MethodTimer patch               = timer("patch");
+    private final MethodTimer updateStatus        = timer("updateStatus");
+    private final MethodTimer updateStatusWhere   = timer("updateStatusWhere");
+    private final MethodTimer delete              = timer("delete");
+    private final MethodTimer deleteVersioned     = timer("delete(version)");
+
+    public InstrumentedDeviceDAO(DeviceDAO delegate) {
+        super(delegate);
+    }
+
+    /** Statistics of every method, in declaration order, including ones never called. */
+    public List<MethodTimer.Stats> getStats() {
+        return timers.stream().map(MethodTimer::stats).toList();
+    }
+
+    // ── Queries ──────────────────────────────────────────────────────────────
+
+    @Override
+    public List<Device> findAll() {
+        return findAll.time(delegate::findAll);
+    }
+
+    @Override
+    public Stream<Device> streamAll() {
+        return timeStream(streamAll, delegate::streamAll);
+    }
+
+    @Override
+    public Stream<Device> streamByNaturalKey() {
+        return timeStream(streamByNaturalKey, delegate::streamByNaturalKey);
+    }
+
+    @Override
+    public long changeWatermark() {
+        return changeWatermark.time(() -> delegate.changeWatermark());
+    }
+
+    @Override
+    public DeviceDelta changesSince(long watermark) {
+        return changesSince.time(() -> delegate.changesSince(watermark));
+    }
+
+    @Override
+    public Page<Device> findPage(DeviceFilter filter, String pageToken, int pageSize) {
+        return findPage.time(() -> delegate.findPage(filter, pageToken, pageSize));
+    }
+
+    @Override
+    public Optional<Device> findById(UUID id) {
+        return findById.time(() -> delegate.findById(id));
+    }
+
+    @Override
+    public List<Device> findByType(DeviceType type) {
+        return findByType.time(() -> delegate.findByType(type));
+    }
+
+    @Override
+    public List<Device> findByStatus(DeviceStatus status) {
+        return findByStatus.time(() -> delegate.findByStatus(status));
+    }
+
+    @Override
+    public List<Device> findByTypeAndStatus(DeviceType type, DeviceStatus status) {
+        return findByTypeAndStatus.time(() -> delegate.findByTypeAndStatus(type, status));
+    }
+
+    @Override
+    public List<Device> findBySubnet(String cidr) {
+        return findBySubnet.time(() -> delegate.findBySubnet(cidr));
+    }
+
+    @Override
+    public List<IpConflict> findIpConflicts() {
+        return findIpConflicts.time(() -> delegate.findIpConflicts());
+    }
+
+    @Override
+    public List<Device> search(String keyword) {
+        return search.time(() -> delegate.search(keyword));
+    }
+
+    @Override
+    public List<Device> search(SearchQuery query, int limit) {
+        return searchQuery.time(() -> delegate.search(query, limit));
+    }
+
+    @Override
+    public DeviceCounts countBy(GroupingKey... keys) {
+        return countBy.time(() -> delegate.countBy(keys));
+    }
+
+    // ── Mutations ────────────────────────────────────────────────────────────
+
+    @Override
+    public Device save(Device device) {
+        return save.time(() -> delegate.save(device));
+    }
+
+    @Override
+    public BatchResult saveAll(Collection<Device> devices) {
+        return saveAll.time(() -> delegate.saveAll(devices));
+    }
+
+    @Override
+    public long bulkLoad(Iterator<Device> devices) {
+        return bulkLoad.time(() -> delegate.bulkLoad(devices));
+    }
+
+    @Override
+    public List<DeviceWrite.Outcome> applyWrites(List<DeviceWrite> writes) {
+        return applyWrites.time(() -> delegate.applyWrites(writes));
+    }
+
+    @Override
+    public List<DeviceWrite.Outcome> applyJournal(UUID journalId, long firstSeq, List<DeviceWrite> writes) {
+        return applyJournal.time(() -> delegate.applyJournal(journalId, firstSeq, writes));
+    }
+
+    @Override
+    public Device update(Device device) {
+        return update.time(() -> delegate.update(device));
+    }
+
+    @Override
+    public Optional<Device> patch(UUID id, DevicePatch patch) {
+        return this.patch.time(() -> delegate.patch(id, patch));
+    }
+
+    @Override
+    public int updateStatus(Collection<UUID> ids, DeviceStatus status) {
+        return updateStatus.time(() -> delegate.updateStatus(ids, status));
+    }
+
+    @Override
+    public int updateStatusWhere(DeviceFilter filter, DeviceStatus status) {
+        return updateStatusWhere.time(() -> delegate.updateStatusWhere(filter, status));
+    }
+
+    @Override
+    public boolean delete(UUID id) {
+        return delete.time(() -> delegate.delete(id));
+    }
+
+    @Override
+    public boolean delete(UUID id, int expectedVersion) {
+        return deleteVersioned.time(() -> delegate.delete(id, expectedVersion));
+    }
+
+    private static Stream<Device> timeStream(MethodTimer timer, Supplier<Stream<Device>> open) {
+        long start = System.nanoTime();
+        try {
+            return open.get().onClose(() -> timer.record(System.nanoTime() - start, false));
+        } catch (RuntimeException e) {
+            timer.record(System.nanoTime() - start, true);
+            throw e;
+        }
+    }
+
+    private MethodTimer timer(String name) {
+        MethodTimer timer = new MethodTimer(name);
+        timers.add(timer);
+        return timer;
+    }
+}
@@ -0,0 +1,18 @@
+package com.mj.portfolio.dao;
+
+import com.mj.portfolio.model.Device;
+
+import java.util.List;
+
+/**
+ * Two or more devices recorded with the same IP address.
+ *
+ * @param ipAddress the shared address, in canonical form
+ * @param devices   the devices using it, ordered by name
+ */
+public record IpConflict(String ipAddress, List<Device> devices) {
+
+    public IpConflict {
+        devices = List.copyOf(devices);
+    }
+}
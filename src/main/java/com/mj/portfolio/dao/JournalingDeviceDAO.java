@@ -0,0 +1,838 @@
+package com.mj.portfolio.dao;
+
+import com.mj.portfolio.exception.DAOException;
+import com.mj.portfolio.exception.StaleDeviceException;
+import com.mj.portfolio.model.Device;
+import com.mj.portfolio.model.DeviceStatus;
+import com.mj.portfolio.model.DeviceType;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * Decorator that makes writes durable locally first and applies them to
+ * the wrapped DAO in the background, so they succeed (and return at disk
+ * speed) while the database is slow or unreachable.
+ *
+ * <p>Inserts, updates, patches and deletes — singly or through
+ * {@link #applyWrites} — are appended to a {@link WriteJournal} file,
+ * forced to disk and acknowledged. A daemon thread replays the journal
+ * every {@code intervalMillis}, or as soon as {@code batchSize} entries
+ * are pending, through {@link DeviceDAO#applyJournal}: one transaction per
+ * batch that also records how far the journal has been applied, so a batch
+ * that is retried after a timeout or crash is never applied twice. While
+ * the database is unreachable, retries back off exponentially up to a
+ * minute.</p>
+ *
+ * <p>Consistency for the caller:
+ * <ul>
+ *   <li>{@link #findById} sees the caller's own pending writes (an overlay
+ *       kept until they are synced);</li>
+ *   <li>list, search and count queries first try to sync unless the
+ *       background syncer is already retrying a failed one, and otherwise
+ *       show the last synced state;</li>
+ *   <li>bulk status changes and {@link #bulkLoad} bypass the journal: they
+ *       sync it first and fail if that is not possible, so they can never
+ *       overtake earlier writes.</li>
+ * </ul>
+ * Version checks run against the overlay where it knows the device, and
+ * otherwise against the database, looked up before any lock is taken; a
+ * write that still turns out stale (or otherwise fails) when replayed is a
+ * {@link Conflict}: it is dropped, logged and appended to
+ * {@code <journal>.conflicts}. Inserts get their id here, when journaled;
+ * {@code created_at} is the database's, i.e. set at sync time.</p>
+ *
+ * <p>Once a lookup or sync has failed, the database counts as unreachable
+ * until the retry backoff expires. Meanwhile patches and deletes of devices
+ * the overlay does not know are journaled without a version check, and
+ * patches submitted through {@link #applyWrites} report no device since its
+ * state is unknown. The single-row {@link #findById} and {@link #patch},
+ * which must return the device, fail at once for such devices instead of
+ * waiting for a connection timeout — so the interactive update and delete
+ * prompts, which read the device first, only work offline for devices with
+ * pending writes.</p>
+ */
+public class JournalingDeviceDAO extends ForwardingDeviceDAO implements AutoCloseable {
+
+    /** A journaled write the database rejected when it was replayed. */
+    public record Conflict(LocalDateTime at, long seq, DeviceWrite write, String reason) {}
+
+    /** A device as changed by pending writes, or {@code null} if deleted, up to entry {@code seq}. */
+    private record Pending(long seq, Device device) {}
+
+    private static final Logger LOG = Logger.getLogger(JournalingDeviceDAO.class.getName());
+
+    private static final long MAX_BACKOFF_MILLIS = 60_000;
+
+    /** Default for how long {@link #close} waits for the last sync. */
+    public static final long DEFAULT_CLOSE_TIMEOUT_MILLIS = 5_000;
+
+    private final WriteJournal         journal;
+    private final Path                 conflictLog;
+    private final int                  batchSize;
+    private final long                 intervalMillis;
+    private final long                 closeTimeoutMillis;
+    private final Map<UUID, Pending>   overlay   = new HashMap<>();     // guarded by this
+    private final Map<UUID, Long>      blind     = new HashMap<>();     // patched unseen, up to seq; guarded by this
+    private final List<Conflict>       conflicts = new ArrayList<>();   // guarded by this
+    private final Object               syncLock  = new Object();
+    private final Object               signal    = new Object();
+    private final Thread               syncer;
+
+    private volatile boolean       closed;
+    private volatile boolean       wakeUp;
+    private volatile LocalDateTime lastSync;
+    private volatile String        lastError;
+    private volatile long          backoffMillis;
+    private volatile long          retryAt;
+
+    /**
+     * Opens (or creates) the journal at {@code path} and, if
+     * {@code intervalMillis > 0}, starts the background syncer; writes left
+     * pending by an earlier run are synced with the rest.
+     *
+     * @param batchSize      entries per transaction, and the backlog that
+     *                       wakes the syncer early
+     * @param intervalMillis pause between syncs; {@code 0} syncs only on
+     *                       demand ({@link #syncNow})
+     * @throws DAOException if the journal cannot be opened
+     */
+    public JournalingDeviceDAO(DeviceDAO delegate, Path path, int batchSize, long intervalMillis) {
+        this(delegate, path, batchSize, intervalMillis, DEFAULT_CLOSE_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * Like {@link #JournalingDeviceDAO(DeviceDAO, Path, int, long)}, with
+     * {@code closeTimeoutMillis} bounding how long {@link #close} waits for
+     * the syncer and the last sync.
+     */
+    public JournalingDeviceDAO(DeviceDAO delegate, Path path, int batchSize, long intervalMillis,
+                               long closeTimeoutMillis) {
+        super(delegate);
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Journal batch size must be at least 1, got " + batchSize);
+        }
+        try {
+            this.journal = WriteJournal.open(path);
+        } catch (IOException e) {
+            throw new DAOException("Cannot open write journal " + path, e);
+        }
+        this.conflictLog    = path.resolveSibling(path.getFileName() + ".conflicts");
+        this.batchSize      = batchSize;
+        this.intervalMillis = intervalMillis;
+        this.closeTimeoutMillis = closeTimeoutMillis;
+        this.retryAt        = System.nanoTime();
+        for (WriteJournal.Entry entry : journal.peek(Integer.MAX_VALUE)) {
+            restore(entry);
+        }
+
+        if (intervalMillis > 0) {
+            syncer = new Thread(this::runSyncer, "device-journal-sync");
+            syncer.setDaemon(true);
+            syncer.start();
+        } else {
+            syncer = null;
+        }
+    }
+
+    // ── Status ───────────────────────────────────────────────────────────────
+
+    /** Journaled writes not yet applied to the database. */
+    public int getPendingCount() {
+        return journal.pending();
+    }
+
+    /** When the journal was last fully synced, or {@code null} if not yet in this run. */
+    public LocalDateTime getLastSync() {
+        return lastSync;
+    }
+
+    /** Why the last sync (or a lookup since) failed, or {@code null} if it succeeded. */
+    public String getLastError() {
+        return lastError;
+    }
+
+    /** Conflicts found in this run; earlier ones are in {@link #getConflictLog()}. */
+    public synchronized List<Conflict> getConflicts() {
+        return List.copyOf(conflicts);
+    }
+
+    /** The file every conflict is appended to, one tab-separated line each. */
+    public Path getConflictLog() {
+        return conflictLog;
+    }
+
+    public UUID getJournalId() {
+        return journal.id();
+    }
+
+    // ── Reads ────────────────────────────────────────────────────────────────
+
+    /**
+     * The device as pending writes left it, else as the wrapped DAO returns
+     * it once patches journaled without it are synced.
+     *
+     * @throws DAOException at once if the database is known to be unreachable
+     */
+    @Override
+    public Optional<Device> findById(UUID id) {
+        synchronized (this) {
+            Pending pending = overlay.get(id);
+            if (pending != null) {
+                return Optional.ofNullable(pending.device()).map(Device::new);
+            }
+        }
+        catchUpWith(id);
+        try {
+            return delegate.findById(id);
+        } catch (DAOException e) {
+            failed(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public List<Device> findAll() {
+        catchUp();
+        return delegate.findAll();
+    }
+
+    @Override
+    public Stream<Device> streamAll() {
+        catchUp();
+        return delegate.streamAll();
+    }
+
+    @Override
+    public Stream<Device> streamByNaturalKey() {
+        catchUp();
+        return delegate.streamByNaturalKey();
+    }
+
+    @Override
+    public long changeWatermark() {
+        catchUp();
+        return delegate.changeWatermark();
+    }
+
+    @Override
+    public DeviceDelta changesSince(long watermark) {
+        catchUp();
+        return delegate.changesSince(watermark);
+    }
+
+    @Override
+    public Page<Device> findPage(DeviceFilter filter, String pageToken, int pageSize) {
+        catchUp();
+        return delegate.findPage(filter, pageToken, pageSize);
+    }
+
+    @Override
+    public List<Device> findByType(DeviceType type) {
+        catchUp();
+        return delegate.findByType(type);
+    }
+
+    @Override
+    public List<Device> findByStatus(DeviceStatus status) {
+        catchUp();
+        return delegate.findByStatus(status);
+    }
+
+    @Override
+    public List<Device> findByTypeAndStatus(DeviceType type, DeviceStatus status) {
+        catchUp();
+        return delegate.findByTypeAndStatus(type, status);
+    }
+
+    @Override
+    public List<Device> findBySubnet(String cidr) {
+        catchUp();
+        return delegate.findBySubnet(cidr);
+    }
+
+    @Override
+    public List<IpConflict> findIpConflicts() {
+        catchUp();
+        return delegate.findIpConflicts();
+    }
+
+    @Override
+    public List<Device> search(String keyword) {
+        catchUp();
+        return delegate.search(keyword);
+    }
+
+    @Override
+    public List<Device> search(SearchQuery query, int limit) {
+        catchUp();
+        return delegate.search(query, limit);
+    }
+
+    @Override
+    public DeviceCounts countBy(GroupingKey... keys) {
+        catchUp();
+        return delegate.countBy(keys);
+    }
+
+    // ── Journaled writes ─────────────────────────────────────────────────────
+
+    @Override
+    public Device save(Device device) {
+        submit(new DeviceWrite.Insert(device), true);
+        return device;
+    }
+
+    /** Journals every device in one append; all of them count as saved. */
+    @Override
+    public BatchResult saveAll(Collection<Device> devices) {
+        List<DeviceWrite> writes = new ArrayList<>(devices.size());
+        for (Device device : devices) {
+            writes.add(new DeviceWrite.Insert(device));
+        }
+        List<DeviceWrite.Outcome> outcomes = applyWrites(writes);
+        BatchResult result = new BatchResult();
+        int index = 0;
+        for (Device device : devices) {
+            DeviceWrite.Outcome outcome = outcomes.get(index);
+            if (outcome.applied()) {
+                result.recordSaved(device);
+            } else {
+                result.recordFailure(index, device, outcome.error());
+            }
+            index++;
+        }
+        return result;
+    }
+
+    /**
+     * Journals the accepted writes in one append. A write the overlay
+     * already knows to be stale or missing fails here; everything else is
+     * reported as applied, and failures found at sync time become
+     * {@link Conflict}s.
+     */
+    @Override
+    public List<DeviceWrite.Outcome> applyWrites(List<DeviceWrite> writes) {
+        Map<UUID, Optional<Device>> stored = lookUp(writes);
+        synchronized (this) {
+            Staging staging = new Staging();
+            List<DeviceWrite.Outcome> outcomes = new ArrayList<>(writes.size());
+            for (DeviceWrite write : writes) {
+                try {
+                    outcomes.add(stage(write, staging, stored, true));
+                } catch (DAOException e) {
+                    outcomes.add(DeviceWrite.Outcome.failed(e.getMessage()));
+                }
+            }
+            commit(staging);
+            return outcomes;
+        }
+    }
+
+    @Override
+    public Device update(Device device) {
+        submit(new DeviceWrite.Update(device), true);
+        return device;
+    }
+
+    /**
+     * Patches the device as pending writes left it, or as the wrapped DAO
+     * returns it, so this one needs the database unless the device was
+     * written recently.
+     *
+     * @throws DAOException at once if it does and the database is known to be unreachable
+     */
+    @Override
+    public Optional<Device> patch(UUID id, DevicePatch patch) {
+        catchUpWith(id);
+        DeviceWrite.Outcome outcome = submit(new DeviceWrite.Patch(id, patch), false);
+        return outcome.applied() ? Optional.of(outcome.device()) : Optional.empty();
+    }
+
+    @Override
+    public boolean delete(UUID id) {
+        return submit(new DeviceWrite.Delete(id), true).applied();
+    }
+
+    @Override
+    public boolean delete(UUID id, int expectedVersion) {
+        return submit(new DeviceWrite.Delete(id, expectedVersion), true).applied();
+    }
+
+    // ── Direct writes ────────────────────────────────────────────────────────
+
+    @Override
+    public long bulkLoad(Iterator<Device> devices) {
+        flush();
+        return delegate.bulkLoad(devices);
+    }
+
+    @Override
+    public int updateStatus(Collection<UUID> ids, DeviceStatus status) {
+        flush();
+        return delegate.updateStatus(ids, status);
+    }
+
+    @Override
+    public int updateStatusWhere(DeviceFilter filter, DeviceStatus status) {
+        flush();
+        return delegate.updateStatusWhere(filter, status);
+    }
+
+    // ── Syncing ──────────────────────────────────────────────────────────────
+
+    /**
+     * Replays every pending entry now, {@code batchSize} per transaction,
+     * regardless of any backoff.
+     *
+     * @return number of entries synced, conflicts included
+     * @throws DAOException if the wrapped DAO or the journal fails; entries
+     *                      synced before that stay synced
+     */
+    public int syncNow() {
+        synchronized (syncLock) {
+            int synced = 0;
+            try {
+                List<WriteJournal.Entry> entries;
+                while (!(entries = journal.peek(batchSize)).isEmpty()) {
+                    List<DeviceWrite> writes = new ArrayList<>(entries.size());
+                    for (WriteJournal.Entry entry : entries) {
+                        writes.add(entry.write());
+                    }
+                    List<DeviceWrite.Outcome> outcomes =
+                            delegate.applyJournal(journal.id(), entries.get(0).seq(), writes);
+                    acknowledge(entries, outcomes);
+                    synced += entries.size();
+                }
+            } catch (DAOException e) {
+                failed(e);
+                throw e;
+            } catch (IOException e) {
+                DAOException failure = new DAOException("Failed to update write journal", e);
+                failed(failure);
+                throw failure;
+            }
+            lastSync      = LocalDateTime.now();
+            lastError     = null;
+            backoffMillis = 0;
+            return synced;
+        }
+    }
+
+    /**
+     * Stops the syncer, makes a last attempt to sync and closes the journal.
+     * The last sync is skipped if the previous attempt (or a lookup since)
+     * failed, and close gives up once {@code closeTimeoutMillis} have passed,
+     * so an unreachable database does not hold up exit for a connection
+     * timeout; writes not synced stay in the journal for the next run.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(closeTimeoutMillis);
+        if (syncer != null) {
+            wake();
+            if (!finishedBy(syncer, deadline)) {
+                LOG.warning("Write journal still syncing after " + closeTimeoutMillis + " ms; "
+                        + journal.pending() + " write(s) stay in the journal");
+                return;   // the syncer still uses the journal; exit releases it
+            }
+        }
+        if (journal.pending() > 0 && lastError != null) {
+            LOG.warning(journal.pending() + " journaled write(s) stay in the journal, the database is unreachable: "
+                    + lastError);
+        } else if (journal.pending() > 0) {
+            Thread finalSync = new Thread(() -> {
+                try {
+                    syncNow();
+                } catch (DAOException e) {
+                    LOG.warning(journal.pending() + " journaled write(s) could not be synced and stay in the journal: "
+                            + e.getMessage());
+                }
+            }, "device-journal-close");
+            finalSync.setDaemon(true);
+            finalSync.start();
+            if (!finishedBy(finalSync, deadline)) {
+                LOG.warning("Last journal sync still running after " + closeTimeoutMillis + " ms; "
+                        + journal.pending() + " write(s) stay in the journal");
+                return;
+            }
+        }
+        try {
+            journal.close();
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Failed to close write journal", e);
+        }
+    }
+
+    // ── Private helpers ──────────────────────────────────────────────────────
+
+    /** Writes accepted but not yet journaled, and what they do to the overlay. */
+    private static final class Staging {
+        final List<DeviceWrite>            writes  = new ArrayList<>();
+        final Map<UUID, Optional<Device>>  devices = new LinkedHashMap<>();
+        final List<UUID>                   blind   = new ArrayList<>();
+    }
+
+    private DeviceWrite.Outcome submit(DeviceWrite write, boolean allowBlind) {
+        Map<UUID, Optional<Device>> stored = lookUp(List.of(write));
+        synchronized (this) {
+            Staging staging = new Staging();
+            DeviceWrite.Outcome outcome = stage(write, staging, stored, allowBlind);
+            commit(staging);
+            return outcome;
+        }
+    }
+
+    /**
+     * Reads the devices that patches and deletes in {@code writes} refer to
+     * and the overlay does not hold, without holding the lock: a lookup can
+     * take as long as a connection timeout. Stops at the first failure, or
+     * at once if the database is known to be unreachable.
+     *
+     * @return the devices found, by id; ids that could not be looked up are absent
+     */
+    private Map<UUID, Optional<Device>> lookUp(List<DeviceWrite> writes) {
+        Map<UUID, Optional<Device>> stored = new HashMap<>();
+        for (DeviceWrite write : writes) {
+            UUID id = write instanceof DeviceWrite.Patch patch ? patch.id()
+                    : write instanceof DeviceWrite.Delete delete ? delete.id()
+                    : null;
+            if (id == null || stored.containsKey(id) || isTracked(id)) {
+                continue;
+            }
+            if (offline()) {
+                break;
+            }
+            try {
+                stored.put(id, delegate.findById(id));
+            } catch (DAOException e) {
+                failed(e);
+                break;
+            }
+        }
+        return stored;
+    }
+
+    private synchronized boolean isTracked(UUID id) {
+        return overlay.containsKey(id) || blind.containsKey(id);
+    }
+
+    /**
+     * Checks {@code write} against what is known of its device and stages
+     * it. A patch or delete of a device that is neither in the overlay nor
+     * in {@code stored} is staged without a version check if
+     * {@code allowBlind}, leaving the check to the replay.
+     *
+     * @return the outcome the caller sees; a patch staged that way reports no device
+     * @throws StaleDeviceException if the device is known to be at another version
+     * @throws DAOException         if the device is unknown and {@code allowBlind} is not set
+     */
+    private DeviceWrite.Outcome stage(DeviceWrite write, Staging staging,
+                                      Map<UUID, Optional<Device>> stored, boolean allowBlind) {
+        if (write instanceof DeviceWrite.Insert insert) {
+            Device device = insert.device();
+            if (device.getId() == null) {
+                device.setId(UUID.randomUUID());
+            }
+            device.setCreatedAt(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
+            device.setVersion(0);
+            staging.writes.add(new DeviceWrite.Insert(new Device(device)));
+            staging.devices.put(device.getId(), Optional.of(new Device(device)));
+            return DeviceWrite.Outcome.applied(device);
+        }
+
+        if (write instanceof DeviceWrite.Update update) {
+            Device device = update.device();
+            Optional<Device> known = known(device.getId(), staging);
+            if (known != null) {
+                Device current = known.orElseThrow(
+                        () -> new DAOException("No device found with id: " + device.getId()));
+                checkVersion(current, device.getVersion());
+            }
+            staging.writes.add(new DeviceWrite.Update(new Device(device)));
+            device.setVersion(device.getVersion() + 1);
+            Device after = new Device(device);
+            if (known != null) {
+                after.setCreatedAt(known.get().getCreatedAt());
+            }
+            staging.devices.put(device.getId(), Optional.of(after));
+            return DeviceWrite.Outcome.applied(device);
+        }
+
+        if (write instanceof DeviceWrite.Patch patch) {
+            Optional<Device> current = current(patch.id(), staging, stored);
+            if (current == null) {
+                if (!allowBlind) {
+                    throw unreachable(patch.id());
+                }
+                staging.writes.add(patch);
+                staging.blind.add(patch.id());
+                return DeviceWrite.Outcome.applied(null);
+            }
+            if (current.isEmpty()) {
+                return DeviceWrite.Outcome.failed("No device found with id: " + patch.id());
+            }
+            checkVersion(current.get(), patch.patch().getExpectedVersion());
+            if (patch.patch().isEmpty()) {
+                return DeviceWrite.Outcome.applied(new Device(current.get()));
+            }
+            Device after = patch.patch().applyTo(new Device(current.get()));
+            after.setVersion(after.getVersion() + 1);
+            staging.writes.add(patch);
+            staging.devices.put(patch.id(), Optional.of(new Device(after)));
+            return DeviceWrite.Outcome.applied(after);
+        }
+
+        DeviceWrite.Delete delete = (DeviceWrite.Delete) write;
+        Optional<Device> current = current(delete.id(), staging, stored);
+        if (current != null) {
+            if (current.isEmpty()) {
+                return DeviceWrite.Outcome.NOT_FOUND;
+            }
+            checkVersion(current.get(), delete.expectedVersion());
+        }
+        staging.writes.add(delete);
+        staging.devices.put(delete.id(), Optional.empty());
+        return DeviceWrite.Outcome.applied(null);
+    }
+
+    /** Appends the staged writes and publishes them to the overlay. */
+    private void commit(Staging staging) {
+        if (staging.writes.isEmpty()) {
+            return;
+        }
+        long first;
+        try {
+            first = journal.append(staging.writes);
+        } catch (IOException e) {
+            throw new DAOException("Failed to write to the write journal", e);
+        }
+        long last = first + staging.writes.size() - 1;
+        staging.devices.forEach((id, device) -> overlay.put(id, new Pending(last, device.orElse(null))));
+        for (UUID id : staging.blind) {
+            if (!staging.devices.containsKey(id)) {
+                blind.put(id, last);
+            }
+        }
+        if (journal.pending() >= batchSize) {
+            wake();
+        }
+    }
+
+    /**
+     * The device as staged or pending writes left it: empty if they deleted
+     * it, {@code null} if they have not touched it.
+     */
+    private Optional<Device> known(UUID id, Staging staging) {
+        Optional<Device> staged = staging.devices.get(id);
+        if (staged != null) {
+            return staged;
+        }
+        Pending pending = overlay.get(id);
+        return pending == null ? null : Optional.ofNullable(pending.device());
+    }
+
+    /**
+     * The device as staged or pending writes left it, else as looked up in
+     * the database; {@code null} if neither is known, including when
+     * patches journaled without it make the database's copy out of date.
+     */
+    private Optional<Device> current(UUID id, Staging staging, Map<UUID, Optional<Device>> stored) {
+        Optional<Device> known = known(id, staging);
+        if (known != null || staging.blind.contains(id) || blind.containsKey(id)) {
+            return known;
+        }
+        return stored.get(id);
+    }
+
+    /**
+     * Rebuilds the overlay for an entry left pending by an earlier run. A
+     * patch of a device the overlay does not hold is left to the database,
+     * as if it had been journaled while the database was unreachable.
+     */
+    private void restore(WriteJournal.Entry entry) {
+        DeviceWrite write = entry.write();
+        if (write instanceof DeviceWrite.Insert insert) {
+            overlay.put(insert.device().getId(), new Pending(entry.seq(), insert.device()));
+        } else if (write instanceof DeviceWrite.Update update) {
+            Device after = new Device(update.device());
+            after.setVersion(after.getVersion() + 1);
+            overlay.put(after.getId(), new Pending(entry.seq(), after));
+        } else if (write instanceof DeviceWrite.Patch patch) {
+            Pending pending = overlay.get(patch.id());
+            if (patch.patch().isEmpty()) {
+                return;   // journaled by an earlier version; changes nothing
+            }
+            if (pending != null && pending.device() != null) {
+                Device after = patch.patch().applyTo(new Device(pending.device()));
+                after.setVersion(after.getVersion() + 1);
+                overlay.put(after.getId(), new Pending(entry.seq(), after));
+            } else if (pending == null) {
+                blind.put(patch.id(), entry.seq());
+            }
+        } else if (write instanceof DeviceWrite.Delete delete) {
+            overlay.put(delete.id(), new Pending(entry.seq(), null));
+        }
+    }
+
+    private synchronized void acknowledge(List<WriteJournal.Entry> entries, List<DeviceWrite.Outcome> outcomes)
+            throws IOException {
+        for (int i = 0; i < entries.size(); i++) {
+            String error = outcomes.get(i).error();
+            if (error != null) {
+                conflict(new Conflict(LocalDateTime.now(), entries.get(i).seq(), entries.get(i).write(), error));
+            }
+        }
+        long last = entries.get(entries.size() - 1).seq();
+        journal.acknowledge(last);
+        overlay.values().removeIf(pending -> pending.seq() <= last);
+        blind.values().removeIf(seq -> seq <= last);
+    }
+
+    private void conflict(Conflict conflict) {
+        conflicts.add(conflict);
+        LOG.warning("Journaled write #" + conflict.seq() + " was rejected by the database: " + conflict.reason()
+                + " (" + conflict.write() + ")");
+        String line = conflict.at() + "\t" + conflict.seq() + "\t" + conflict.write() + "\t" + conflict.reason()
+                + System.lineSeparator();
+        try {
+            Files.writeString(conflictLog, line, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Failed to record conflict in " + conflictLog, e);
+        }
+    }
+
+    /**
+     * Syncs before a query unless the last attempt failed: the background
+     * syncer retries that, and a query waiting for it would pay a
+     * connection timeout before its own. Without a syncer, retries once the
+     * backoff expires. Never throws.
+     */
+    private void catchUp() {
+        if (journal.pending() == 0 || System.nanoTime() - retryAt < 0 || (syncer != null && lastError != null)) {
+            return;
+        }
+        try {
+            syncNow();
+        } catch (DAOException e) {
+            // recorded in lastError; the query shows the last synced state
+        }
+    }
+
+    /**
+     * Unless the overlay holds {@code id}: fails fast if the database is
+     * unreachable, and syncs first if patches of the device were journaled
+     * without knowing it.
+     */
+    private void catchUpWith(UUID id) {
+        boolean patchedBlind;
+        synchronized (this) {
+            if (overlay.containsKey(id)) {
+                return;
+            }
+            patchedBlind = blind.containsKey(id);
+        }
+        if (offline()) {
+            throw unreachable(id);
+        }
+        if (patchedBlind) {
+            syncNow();
+        }
+    }
+
+    /** Syncs everything before a write that bypasses the journal. */
+    private void flush() {
+        if (journal.pending() > 0) {
+            syncNow();
+        }
+    }
+
+    /** Whether a lookup or sync failed and its retry backoff has not expired yet. */
+    private boolean offline() {
+        return lastError != null && System.nanoTime() - retryAt < 0;
+    }
+
+    private DAOException unreachable(UUID id) {
+        return new DAOException("Device " + id + " is not known offline and the database is unreachable ("
+                + lastError + "); it can be read and patched once the journal syncs again");
+    }
+
+    private void failed(DAOException e) {
+        boolean first = lastError == null;
+        lastError     = e.getMessage();
+        backoffMillis = Math.min(MAX_BACKOFF_MILLIS, Math.max(1_000, backoffMillis * 2));
+        retryAt       = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(backoffMillis);
+        LOG.log(first ? Level.WARNING : Level.FINE, "Cannot sync write journal (" + journal.pending()
+                + " pending), retrying in " + backoffMillis + " ms: " + e.getMessage());
+    }
+
+    /** Waits for {@code thread} to end until {@code deadline} ({@link System#nanoTime}). */
+    private static boolean finishedBy(Thread thread, long deadline) {
+        try {
+            thread.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return !thread.isAlive();
+    }
+
+    private void wake() {
+        synchronized (signal) {
+            wakeUp = true;
+            signal.notifyAll();
+        }
+    }
+
+    private void runSyncer() {
+        while (!closed) {
+            synchronized (signal) {
+                long backoff = TimeUnit.NANOSECONDS.toMillis(retryAt - System.nanoTime());
+                try {
+                    if (!wakeUp && !closed) {
+                        signal.wait(Math.max(intervalMillis, backoff));
+                    }
+                } catch (InterruptedException e) {
+                    return;
+                }
+                wakeUp = false;
+            }
+            if (closed || journal.pending() == 0 || System.nanoTime() - retryAt < 0) {
+                continue;
+            }
+            try {
+                syncNow();
+            } catch (DAOException e) {
+                // recorded in lastError; retried after the backoff
+            }
+        }
+    }
+
+    private static void checkVersion(Device device, Integer expectedVersion) {
+        if (expectedVersion != null && device.getVersion() != expectedVersion) {
+            throw new StaleDeviceException(device.getId(), expectedVersion, device.getVersion());
+        }
+    }
+}
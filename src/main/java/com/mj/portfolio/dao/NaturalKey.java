@@ -0,0 +1,57 @@
+package com.mj.portfolio.dao;
+
+import com.mj.portfolio.model.Device;
+
+import java.util.Comparator;
+
+/**
+ * The key that identifies a device outside the database, where ids are
+ * unknown: its name and IP address. {@link DeviceDAO#streamByNaturalKey()}
+ * returns devices in {@link #ORDER}, so a file sorted the same way can be
+ * merged against the inventory in one pass.
+ *
+ * <p>Both fields compare as plain text by code point, which is the order
+ * of PostgreSQL's {@code COLLATE "C"} and of {@code LC_ALL=C sort}; a
+ * missing IP address sorts first, like an empty field. The order therefore
+ * does not depend on the database's or the machine's locale.</p>
+ */
+public final class NaturalKey {
+
+    /** Name, then IP address, as described above. Equal keys are not ordered. */
+    public static final Comparator<Device> KEY = NaturalKey::compare;
+
+    /** {@link #KEY}, then id: the exact order of {@link DeviceDAO#streamByNaturalKey()}. */
+    public static final Comparator<Device> ORDER = KEY.thenComparing(Device::getId,
+            Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private NaturalKey() {}
+
+    private static int compare(Device a, Device b) {
+        int byName = compareCodePoints(a.getName(), b.getName());
+        return byName != 0 ? byName : compareCodePoints(orEmpty(a.getIpAddress()), orEmpty(b.getIpAddress()));
+    }
+
+    /**
+     * Compares by Unicode code point, which is also UTF-8 byte order;
+     * {@link String#compareTo} compares UTF-16 units and differs from it
+     * for characters outside the Basic Multilingual Plane.
+     */
+    static int compareCodePoints(String a, String b) {
+        int n = Math.min(a.length(), b.length());
+        for (int i = 0; i < n; i++) {
+            char x = a.charAt(i);
+            char y = b.charAt(i);
+            if (x != y) {
+                if (Character.isSurrogate(x) || Character.isSurrogate(y)) {
+                    return Integer.compare(a.codePointAt(i), b.codePointAt(i));
+                }
+                return Character.compare(x, y);
+            }
+        }
+        return Integer.compare(a.length(), b.length());
+    }
+
+    private static String orEmpty(String s) {
+        return s == null ? "" : s;
+    }
+}
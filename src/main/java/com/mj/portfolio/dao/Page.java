@@ -0,0 +1,25 @@
+package com.mj.portfolio.dao;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated query.
+ *
+ * <p>The tokens are opaque strings; pass {@code nextToken} or
+ * {@code previousToken} back to the same query to move forward or backward.
+ * A {@code null} token means there is no page in that direction.</p>
+ */
+public record Page<T>(List<T> items, String nextToken, String previousToken) {
+
+    public Page {
+        items = List.copyOf(items);
+    }
+
+    public boolean hasNext() {
+        return nextToken != null;
+    }
+
+    public boolean hasPrevious() {
+        return previousToken != null;
+    }
+}
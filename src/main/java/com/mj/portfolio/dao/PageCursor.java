@@ -0,0 +1,103 @@
+package com.mj.portfolio.dao;
+
+import com.mj.portfolio.model.Device;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Decoded form of a {@link Page} token: a seek position on the
+ * {@code (name, id)} sort key plus the direction to read in.
+ *
+ * <p>Tokens are Base64url so they can be passed around safely, but they are
+ * not a security boundary — a forged token only moves the seek position.</p>
+ */
+record PageCursor(boolean forward, String name, UUID id) {
+
+    /** Java-side ordering matching {@code ORDER BY name, id}. */
+    static final Comparator<Device> ORDER =
+            Comparator.comparing(Device::getName).thenComparing(Device::getId);
+
+    /** Cursor that continues after {@code last}. */
+    static String after(Device last) {
+        return new PageCursor(true, last.getName(), last.getId()).encode();
+    }
+
+    /** Cursor that continues before {@code first}. */
+    static String before(Device first) {
+        return new PageCursor(false, first.getName(), first.getId()).encode();
+    }
+
+    /** Decodes {@code token}, or returns {@code null} (first page) if it is null. */
+    static PageCursor decode(String token) {
+        if (token == null) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            // Layout: <direction>|<uuid>|<name>; the name goes last as it may contain '|'
+            char direction = raw.charAt(0);
+            if ((direction != 'n' && direction != 'p') || raw.charAt(1) != '|' || raw.charAt(38) != '|') {
+                throw new IllegalArgumentException();
+            }
+            return new PageCursor(direction == 'n', raw.substring(39), UUID.fromString(raw.substring(2, 38)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid page token.");
+        }
+    }
+
+    String encode() {
+        String raw = (forward ? "n|" : "p|") + id + "|" + name;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** Whether {@code d} lies on the far side of this cursor in its direction. */
+    boolean admits(Device d) {
+        int cmp = ORDER.compare(d, probe());
+        return forward ? cmp > 0 : cmp < 0;
+    }
+
+    /** A Device carrying just the sort key, for comparisons with {@link #ORDER}. */
+    Device probe() {
+        return new Device(id, name, null, null, null, null, null);
+    }
+
+    /**
+     * Turns the rows of a seek query into a {@link Page}.
+     *
+     * @param fetched  up to {@code pageSize + 1} rows in read order (descending
+     *                 when paging backward); the extra row only signals that
+     *                 another page exists in that direction
+     * @param cursor   the decoded request token, {@code null} for the first page
+     */
+    static Page<Device> toPage(List<Device> fetched, PageCursor cursor, int pageSize) {
+        boolean forward = cursor == null || cursor.forward();
+        boolean more    = fetched.size() > pageSize;
+        List<Device> items = new ArrayList<>(more ? fetched.subList(0, pageSize) : fetched);
+        if (!forward) {
+            Collections.reverse(items);
+        }
+        if (items.isEmpty()) {
+            return new Page<>(items, null, null);
+        }
+
+        Device first = items.get(0);
+        Device last  = items.get(items.size() - 1);
+        // Coming back from a later page guarantees a next page, and vice versa
+        String next = forward ? (more ? after(last) : null)             : after(last);
+        String prev = forward ? (cursor != null ? before(first) : null) : (more ? before(first) : null);
+        return new Page<>(items, next, prev);
+    }
+
+    static void checkPageSize(int pageSize) {
+        if (pageSize < 1 || pageSize > 10_000) {
+            throw new IllegalArgumentException("Page size must be between 1 and 10000: " + pageSize);
+        }
+    }
+}
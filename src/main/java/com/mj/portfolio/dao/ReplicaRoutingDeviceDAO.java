@@ -0,0 +1,317 @@
+package com.mj.portfolio.dao;
+
+import com.mj.portfolio.exception.DAOException;
+import com.mj.portfolio.model.Device;
+import com.mj.portfolio.model.DeviceStatus;
+import com.mj.portfolio.model.DeviceType;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * Sends reads to read replicas and everything else to the primary (the
+ * wrapped DAO), so reporting scans such as {@code export} and
+ * {@code summary} do not compete with writes for the primary.
+ *
+ * <p>Routed to a replica: {@code findAll}, {@code streamAll},
+ * {@code findPage}, the {@code findBy*} list lookups, {@code findIpConflicts},
+ * both {@code search}es and {@code countBy}. {@code findById} stays on the
+ * primary, like the change feed: it is the read a versioned update or delete
+ * (or the write journal's version check) is based on, and a lagging replica
+ * would turn those into spurious conflicts. The replica is picked per call, either
+ * {@link Selection#ROUND_ROBIN round robin} or the one with the
+ * {@link Selection#LEAST_PENDING fewest calls in flight} from this process
+ * (a stream counts until it is closed). A replica that fails is skipped for
+ * that call and the read is retried on the primary.</p>
+ *
+ * <p>Replication is asynchronous, so a replica may not have this session's
+ * latest writes yet. To keep reads consistent with them, every read within
+ * {@code stickyMillis} of the last write (or of a change notification fed
+ * to {@link #onChange}, which the cache or snapshot is about to re-read) goes
+ * to the primary; so does every read while a write is still running.</p>
+ */
+public class ReplicaRoutingDeviceDAO extends ForwardingDeviceDAO {
+
+    private static final Logger LOG = Logger.getLogger(ReplicaRoutingDeviceDAO.class.getName());
+
+    /** How a replica is picked for a read. */
+    public enum Selection {
+        ROUND_ROBIN, LEAST_PENDING;
+
+        /** Parses {@code round-robin} or {@code least-pending}, case-insensitively. */
+        public static Selection fromInput(String input) {
+            for (Selection selection : values()) {
+                if (selection.name().replace('_', '-').equalsIgnoreCase(input.trim())) {
+                    return selection;
+                }
+            }
+            throw new IllegalArgumentException(
+                    "Replica selection must be round-robin or least-pending, got '" + input + "'");
+        }
+    }
+
+    private final List<? extends DeviceDAO> replicas;
+    private final Selection                 selection;
+    private final long                      stickyNanos;
+
+    private final AtomicIntegerArray pending;   // calls in flight per replica
+    private final AtomicInteger      next         = new AtomicInteger();
+    private final AtomicInteger      writing      = new AtomicInteger();
+    private final LongAdder          replicaReads = new LongAdder();
+    private final LongAdder          primaryReads = new LongAdder();
+    private final LongAdder          fallbacks    = new LongAdder();
+
+    private volatile boolean wrote;
+    private volatile long    lastWrite;
+
+    /**
+     * @param primary      receives all writes, and reads that must see them
+     * @param replicas     read replicas; with none, everything goes to the primary
+     * @param stickyMillis how long after a write reads stay on the primary
+     */
+    public ReplicaRoutingDeviceDAO(DeviceDAO primary, List<? extends DeviceDAO> replicas,
+                                   Selection selection, long stickyMillis) {
+        super(primary);
+        if (stickyMillis < 0) {
+            throw new IllegalArgumentException("Replica stickiness must not be negative: " + stickyMillis);
+        }
+        this.replicas    = List.copyOf(replicas);
+        this.selection   = selection;
+        this.stickyNanos = TimeUnit.MILLISECONDS.toNanos(stickyMillis);
+        this.pending     = new AtomicIntegerArray(replicas.size());
+    }
+
+    /**
+     * Keeps reads on the primary for a while after another client's change,
+     * so whatever re-reads the changed device sees it. Call this before the
+     * cache or snapshot handles the change.
+     */
+    public void onChange(DeviceChange change) {
+        markWrite();
+    }
+
+    /** Reads answered by a replica so far. */
+    public long getReplicaReads() {
+        return replicaReads.sum();
+    }
+
+    /** Reads answered by the primary so far, including fallbacks. */
+    public long getPrimaryReads() {
+        return primaryReads.sum();
+    }
+
+    /** Reads a replica failed and the primary answered instead. */
+    public long getFallbacks() {
+        return fallbacks.sum();
+    }
+
+    // ── Routed queries ───────────────────────────────────────────────────────
+
+    @Override
+    public List<Device> findAll() {
+        return read(DeviceDAO::findAll);
+    }
+
+    /** The replica is busy with the stream, and counts as such, until it is closed. */
+    @Override
+    public Stream<Device> streamAll() {
+        int replica = pick();
+        if (replica < 0) {
+            primaryReads.increment();
+            return delegate.streamAll();
+        }
+        pending.incrementAndGet(replica);
+        try {
+            Stream<Device> stream = replicas.get(replica).streamAll();
+            replicaReads.increment();
+            return stream.onClose(() -> pending.decrementAndGet(replica));
+        } catch (DAOException e) {
+            pending.decrementAndGet(replica);
+            return fallBack(replica, e, DeviceDAO::streamAll);
+        }
+    }
+
+    @Override
+    public Page<Device> findPage(DeviceFilter filter, String pageToken, int pageSize) {
+        return read(dao -> dao.findPage(filter, pageToken, pageSize));
+    }
+
+    @Override
+    public List<Device> findByType(DeviceType type) {
+        return read(dao -> dao.findByType(type));
+    }
+
+    @Override
+    public List<Device> findByStatus(DeviceStatus status) {
+        return read(dao -> dao.findByStatus(status));
+    }
+
+    @Override
+    public List<Device> findByTypeAndStatus(DeviceType type, DeviceStatus status) {
+        return read(dao -> dao.findByTypeAndStatus(type, status));
+    }
+
+    @Override
+    public List<Device> findBySubnet(String cidr) {
+        return read(dao -> dao.findBySubnet(cidr));
+    }
+
+    @Override
+    public List<IpConflict> findIpConflicts() {
+        return read(DeviceDAO::findIpConflicts);
+    }
+
+    @Override
+    public List<Device> search(String keyword) {
+        return read(dao -> dao.search(keyword));
+    }
+
+    @Override
+    public List<Device> search(SearchQuery query, int limit) {
+        return read(dao -> dao.search(query, limit));
+    }
+
+    @Override
+    public DeviceCounts countBy(GroupingKey... keys) {
+        return read(dao -> dao.countBy(keys));
+    }
+
+    // ── Reads and writes (primary) ───────────────────────────────────────────
+
+    /** Always the primary: callers base versioned writes on what it returns. */
+    @Override
+    public Optional<Device> findById(UUID id) {
+        primaryReads.increment();
+        return delegate.findById(id);
+    }
+
+    @Override
+    public Device save(Device device) {
+        return write(() -> delegate.save(device));
+    }
+
+    @Override
+    public BatchResult saveAll(Collection<Device> devices) {
+        return write(() -> delegate.saveAll(devices));
+    }
+
+    @Override
+    public long bulkLoad(Iterator<Device> devices) {
+        return write(() -> delegate.bulkLoad(devices));
+    }
+
+    @Override
+    public List<DeviceWrite.Outcome> applyWrites(List<DeviceWrite> writes) {
+        return write(() -> delegate.applyWrites(writes));
+    }
+
+    @Override
+    public List<DeviceWrite.Outcome> applyJournal(UUID journalId, long firstSeq, List<DeviceWrite> writes) {
+        return write(() -> delegate.applyJournal(journalId, firstSeq, writes));
+    }
+
+    @Override
+    public Device update(Device device) {
+        return write(() -> delegate.update(device));
+    }
+
+    @Override
+    public Optional<Device> patch(UUID id, DevicePatch patch) {
+        return write(() -> delegate.patch(id, patch));
+    }
+
+    @Override
+    public int updateStatus(Collection<UUID> ids, DeviceStatus status) {
+        return write(() -> delegate.updateStatus(ids, status));
+    }
+
+    @Override
+    public int updateStatusWhere(DeviceFilter filter, DeviceStatus status) {
+        return write(() -> delegate.updateStatusWhere(filter, status));
+    }
+
+    @Override
+    public boolean delete(UUID id) {
+        return write(() -> delegate.delete(id));
+    }
+
+    @Override
+    public boolean delete(UUID id, int expectedVersion) {
+        return write(() -> delegate.delete(id, expectedVersion));
+    }
+
+    // ── Routing ──────────────────────────────────────────────────────────────
+
+    private <T> T read(Function<DeviceDAO, T> call) {
+        int replica = pick();
+        if (replica < 0) {
+            primaryReads.increment();
+            return call.apply(delegate);
+        }
+        pending.incrementAndGet(replica);
+        try {
+            T result = call.apply(replicas.get(replica));
+            replicaReads.increment();
+            return result;
+        } catch (DAOException e) {
+            return fallBack(replica, e, call);
+        } finally {
+            pending.decrementAndGet(replica);
+        }
+    }
+
+    private <T> T fallBack(int replica, DAOException e, Function<DeviceDAO, T> call) {
+        fallbacks.increment();
+        LOG.log(Level.WARNING, "Read replica " + (replica + 1) + " failed, reading from the primary", e);
+        primaryReads.increment();
+        return call.apply(delegate);
+    }
+
+    /** The replica for the next read, or -1 if it must go to the primary. */
+    private int pick() {
+        if (replicas.isEmpty() || writing.get() > 0
+                || wrote && System.nanoTime() - lastWrite < stickyNanos) {
+            return -1;
+        }
+        if (selection == Selection.ROUND_ROBIN) {
+            return Math.floorMod(next.getAndIncrement(), replicas.size());
+        }
+        // Least pending; ties rotate so idle replicas share the load.
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+        int best  = start;
+        for (int i = 1; i < replicas.size(); i++) {
+            int candidate = (start + i) % replicas.size();
+            if (pending.get(candidate) < pending.get(best)) {
+                best = candidate;
+            }
+        }
+        return best;
+    }
+
+    private <T> T write(Supplier<T> call) {
+        writing.incrementAndGet();
+        try {
+            return call.get();
+        } finally {
+            markWrite();
+            writing.decrementAndGet();
+        }
+    }
+
+    private void markWrite() {
+        lastWrite = System.nanoTime();
+        wrote     = true;
+    }
+}
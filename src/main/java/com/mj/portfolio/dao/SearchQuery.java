@@ -0,0 +1,166 @@
+package com.mj.portfolio.dao;
+
+import com.mj.portfolio.model.Device;
+import com.mj.portfolio.model.DeviceStatus;
+import com.mj.portfolio.model.DeviceType;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Parsed search expression for {@link DeviceDAO#search(SearchQuery, int)}.
+ *
+ * <p>Syntax: free text is matched as one phrase against name, IP address and
+ * location; {@code field:value} terms narrow the match to a single column.
+ * Values containing spaces can be quoted. All terms must match.
+ * <pre>
+ *   core router                     phrase in any field
+ *   name:core location:"rack 4"     both fields must contain their value
+ *   ip:10.0.0 type:server status:active
+ * </pre>
+ * {@code type:} and {@code status:} are exact filters resolved with
+ * {@link DeviceType#fromInput} / {@link DeviceStatus#fromInput}.</p>
+ */
+public final class SearchQuery {
+
+    /** Column a term is matched against; {@link #ANY} means name, IP or location. */
+    public enum Field { ANY, NAME, IP, LOCATION }
+
+    /** A substring to look for in one field (or any). */
+    public record Term(Field field, String text) {}
+
+    private static final Set<String> FIELD_KEYS =
+            Set.of("name", "ip", "ip_address", "location", "loc", "type", "status");
+
+    private final List<Term>   terms;
+    private final DeviceType   type;
+    private final DeviceStatus status;
+
+    private SearchQuery(List<Term> terms, DeviceType type, DeviceStatus status) {
+        this.terms  = Collections.unmodifiableList(terms);
+        this.type   = type;
+        this.status = status;
+    }
+
+    /**
+     * Parses a user-entered query.
+     *
+     * @throws IllegalArgumentException if the query is empty, names an unknown
+     *                                  field or an invalid type/status
+     */
+    public static SearchQuery parse(String input) {
+        if (input == null || input.isBlank()) {
+            throw new IllegalArgumentException("Search keyword must not be empty.");
+        }
+
+        List<Term>    terms  = new ArrayList<>();
+        StringBuilder phrase = new StringBuilder();
+        DeviceType    type   = null;
+        DeviceStatus  status = null;
+
+        for (String token : tokenize(input)) {
+            int colon = token.indexOf(':');
+            String key = colon > 0 ? token.substring(0, colon).toLowerCase() : "";
+            String value = colon > 0 ? unquote(token.substring(colon + 1)) : null;
+
+            if (value != null && value.isEmpty() && FIELD_KEYS.contains(key)) {
+                throw new IllegalArgumentException("Missing value after '" + key + ":'.");
+            }
+            switch (key) {
+                case "name"             -> terms.add(new Term(Field.NAME, value));
+                case "ip", "ip_address" -> terms.add(new Term(Field.IP, value));
+                case "location", "loc"  -> terms.add(new Term(Field.LOCATION, value));
+                case "type"             -> type = DeviceType.fromInput(value);
+                case "status"           -> status = DeviceStatus.fromInput(value);
+                default -> {
+                    if (phrase.length() > 0) phrase.append(' ');
+                    phrase.append(unquote(token));
+                }
+            }
+        }
+        if (phrase.length() > 0) {
+            terms.add(0, new Term(Field.ANY, phrase.toString()));
+        }
+        terms.removeIf(t -> t.text().isBlank());
+        if (terms.isEmpty() && type == null && status == null) {
+            throw new IllegalArgumentException("Search keyword must not be empty.");
+        }
+        return new SearchQuery(terms, type, status);
+    }
+
+    public List<Term>   getTerms()  { return terms; }
+    public DeviceType   getType()   { return type; }
+    public DeviceStatus getStatus() { return status; }
+
+    /** In-memory equivalent of the SQL predicate, used by non-SQL implementations. */
+    public boolean matches(Device d) {
+        if (type != null && d.getType() != type) return false;
+        if (status != null && d.getStatus() != status) return false;
+        return terms.stream().allMatch(t -> score(t, d) > 0);
+    }
+
+    /**
+     * Rough in-memory relevance: per term 1.0 for an exact (case-insensitive)
+     * match, 0.75 for a prefix, 0.5 for any other substring; summed over terms.
+     */
+    public double score(Device d) {
+        return terms.stream().mapToDouble(t -> score(t, d)).sum();
+    }
+
+    // ── Helpers ──────────────────────────────────────────────────────────────
+
+    private static double score(Term term, Device d) {
+        return switch (term.field()) {
+            case NAME     -> score(d.getName(), term.text());
+            case IP       -> score(d.getIpAddress(), term.text());
+            case LOCATION -> score(d.getLocation(), term.text());
+            case ANY      -> Math.max(score(d.getName(), term.text()),
+                             Math.max(score(d.getIpAddress(), term.text()),
+                                      score(d.getLocation(), term.text())));
+        };
+    }
+
+    private static double score(String value, String text) {
+        if (value == null) return 0;
+        String v = value.toLowerCase();
+        String t = text.toLowerCase();
+        if (v.equals(t)) return 1.0;
+        if (v.startsWith(t)) return 0.75;
+        return v.contains(t) ? 0.5 : 0;
+    }
+
+    /** Splits on whitespace, keeping double-quoted sections together. */
+    private static List<String> tokenize(String input) {
+        List<String>  tokens  = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (char c : input.trim().toCharArray()) {
+            if (c == '"') {
+                quoted = !quoted;
+                current.append(c);
+            } else if (Character.isWhitespace(c) && !quoted) {
+                if (current.length() > 0) {
+                    tokens.add(current.toString());
+                    current.setLength(0);
+                }
+            } else {
+                current.append(c);
+            }
+        }
+        if (current.length() > 0) {
+            tokens.add(current.toString());
+        }
+        return tokens;
+    }
+
+    private static String unquote(String s) {
+        return s.replace("\"", "").trim();
+    }
+
+    @Override
+    public String toString() {
+        return "SearchQuery{terms=" + terms + ", type=" + type + ", status=" + status + "}";
+    }
+}
@@ -0,0 +1,447 @@
+package com.mj.portfolio.dao;
+
+import com.mj.portfolio.model.Device;
+import com.mj.portfolio.model.DeviceStatus;
+import com.mj.portfolio.model.DeviceType;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * The durable queue behind {@link JournalingDeviceDAO}: writes that have
+ * been accepted but not yet applied to the database, in the order they
+ * were made.
+ *
+ * <pre>
+ *   file    := "DEVJRNL1" journal_id:uuid first_seq:int64 record*
+ *   record  := length:int32 crc32:int32 body[length]
+ *   body    := seq:int64 op:int8 id:uuid payload
+ *   payload := INSERT device | UPDATE device
+ *            | PATCH expected_version:int32 name type status ip_address location
+ *            | DELETE expected_version:int32
+ * </pre>
+ * {@code device} is encoded as in {@link DeviceLog} (for an update its
+ * version is the one the update expects); {@code expected_version} is
+ * {@code Integer.MIN_VALUE} for none. Sequence numbers are consecutive and
+ * never reused within a journal, so {@code (journal_id, seq)} names a write
+ * for good — that is what makes replaying it idempotent.
+ *
+ * <p>{@code first_seq} is the first entry not yet acknowledged; records
+ * before it are dead and skipped on {@link #open}. Acknowledging rewrites
+ * just that field. Once nothing is pending the file is cut back to its
+ * header; while entries are still pending behind more than
+ * {@value #REWRITE_THRESHOLD} bytes of dead records, the pending ones are
+ * copied to a new file that is renamed over the old one.</p>
+ *
+ * <p>Every append is forced to disk before it returns. As in
+ * {@link DeviceLog}, recovery stops at the first record that is incomplete
+ * or fails its checksum and truncates the rest. Thread-safe.</p>
+ */
+final class WriteJournal implements Closeable {
+
+    static final byte INSERT = 1;
+    static final byte UPDATE = 2;
+    static final byte PATCH  = 3;
+    static final byte DELETE = 4;
+
+    /** A pending write and its sequence number. */
+    record Entry(long seq, DeviceWrite write) {}
+
+    private static final Logger LOG = Logger.getLogger(WriteJournal.class.getName());
+
+    private static final byte[] MAGIC             = "DEVJRNL1".getBytes(StandardCharsets.US_ASCII);
+    private static final int    FIRST_SEQ_OFFSET  = MAGIC.length + 16;
+    private static final int    HEADER            = FIRST_SEQ_OFFSET + 8;
+    private static final int    RECORD_HEADER     = 8;
+    private static final int    MIN_BODY          = 8 + 1 + 16;
+    private static final int    NO_VERSION        = Integer.MIN_VALUE;
+    private static final int    REWRITE_THRESHOLD = 1 << 20;
+
+    /** A pending entry and the file offset of its record. */
+    private record Stored(Entry entry, long offset) {}
+
+    private final Path               path;
+    private final ArrayDeque<Stored> pending = new ArrayDeque<>();
+
+    private FileChannel channel;
+    private UUID        id;
+    private long        firstSeq;
+    private long        nextSeq;
+    private long        end;
+
+    private WriteJournal(Path path) {
+        this.path = path;
+    }
+
+    /**
+     * Opens (or creates, with a new random id) the journal at {@code path}
+     * and reloads its pending entries.
+     *
+     * @throws IOException if the file cannot be opened, is locked by another
+     *                     process or is not a write journal
+     */
+    static WriteJournal open(Path path) throws IOException {
+        Files.deleteIfExists(rewritePath(path));   // left over from an interrupted rewrite
+        WriteJournal journal = new WriteJournal(path);
+        journal.channel = openLocked(path);
+        try {
+            journal.recover();
+        } catch (IOException | RuntimeException e) {
+            journal.close();
+            throw e;
+        }
+        return journal;
+    }
+
+    /** Identifies this journal to {@link DeviceDAO#applyJournal}. */
+    synchronized UUID id() {
+        return id;
+    }
+
+    synchronized int pending() {
+        return pending.size();
+    }
+
+    /**
+     * Appends {@code writes} as consecutive entries with a single write and
+     * {@code fsync}, and returns the sequence number of the first. If the
+     * write fails, the file is cut back to where it was and nothing is added.
+     */
+    synchronized long append(List<DeviceWrite> writes) throws IOException {
+        ByteArrayOutputStream bytes   = new ByteArrayOutputStream();
+        List<Stored>          entries = new ArrayList<>(writes.size());
+        CRC32                 crc     = new CRC32();
+        long seq = nextSeq;
+        for (DeviceWrite write : writes) {
+            ByteBuffer record = encode(seq, write);
+            crc.reset();
+            crc.update(record.array(), RECORD_HEADER, record.capacity() - RECORD_HEADER);
+            record.putInt(4, (int) crc.getValue());
+            entries.add(new Stored(new Entry(seq++, write), end + bytes.size()));
+            bytes.writeBytes(record.array());
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+        long start = end;
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer, start + buffer.position());
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            try {
+                channel.truncate(start);
+            } catch (IOException ignored) {
+                // recovery cuts the partial record off on the next open
+            }
+            throw e;
+        }
+        end += buffer.limit();
+        pending.addAll(entries);
+        long first = nextSeq;
+        nextSeq = seq;
+        return first;
+    }
+
+    /** Up to {@code max} of the oldest pending entries, in order. */
+    synchronized List<Entry> peek(int max) {
+        List<Entry> entries = new ArrayList<>(Math.min(max, pending.size()));
+        for (Stored stored : pending) {
+            if (entries.size() == max) {
+                break;
+            }
+            entries.add(stored.entry());
+        }
+        return entries;
+    }
+
+    /** Marks every entry up to and including {@code throughSeq} as applied. */
+    synchronized void acknowledge(long throughSeq) throws IOException {
+        if (throughSeq < firstSeq) {
+            return;
+        }
+        while (!pending.isEmpty() && pending.peekFirst().entry().seq() <= throughSeq) {
+            pending.removeFirst();
+        }
+        firstSeq = throughSeq + 1;
+
+        if (pending.isEmpty()) {
+            writeFirstSeq();
+            channel.truncate(HEADER);
+            channel.force(false);
+            end = HEADER;
+        } else if (pending.peekFirst().offset() - HEADER > REWRITE_THRESHOLD) {
+            rewrite();
+        } else {
+            writeFirstSeq();
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel != null && channel.isOpen()) {
+            channel.close();   // releases the file lock
+        }
+    }
+
+    // ── Records ──────────────────────────────────────────────────────────────
+
+    private static ByteBuffer encode(long seq, DeviceWrite write) {
+        byte    op;
+        UUID    id;
+        Device  device = null;
+        int     payload;
+        if (write instanceof DeviceWrite.Insert insert) {
+            op = INSERT;
+            device = insert.device();
+            id = device.getId();
+            payload = DeviceLog.encodedSize(device);
+        } else if (write instanceof DeviceWrite.Update update) {
+            op = UPDATE;
+            device = update.device();
+            id = device.getId();
+            payload = DeviceLog.encodedSize(device);
+        } else if (write instanceof DeviceWrite.Patch patch) {
+            op = PATCH;
+            id = patch.id();
+            DevicePatch p = patch.patch();
+            payload = 4 + DeviceLog.stringSize(p.getName()) + DeviceLog.stringSize(name(p.getType()))
+                    + DeviceLog.stringSize(name(p.getStatus())) + DeviceLog.stringSize(p.getIpAddress())
+                    + DeviceLog.stringSize(p.getLocation());
+        } else {
+            op = DELETE;
+            id = ((DeviceWrite.Delete) write).id();
+            payload = 4;
+        }
+        if (id == null) {
+            throw new IllegalArgumentException("Journaled writes need the device id up front");
+        }
+
+        int length = MIN_BODY + payload;
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER + length)
+                .putInt(length)
+                .putInt(0)   // CRC, filled in by append()
+                .putLong(seq)
+                .put(op)
+                .putLong(id.getMostSignificantBits())
+                .putLong(id.getLeastSignificantBits());
+        if (device != null) {
+            DeviceLog.encodeDevice(record, device);
+        } else if (write instanceof DeviceWrite.Patch patch) {
+            DevicePatch p = patch.patch();
+            record.putInt(version(p.getExpectedVersion()));
+            DeviceLog.putString(record, p.getName());
+            DeviceLog.putString(record, name(p.getType()));
+            DeviceLog.putString(record, name(p.getStatus()));
+            DeviceLog.putString(record, p.getIpAddress());
+            DeviceLog.putString(record, p.getLocation());
+        } else {
+            record.putInt(version(((DeviceWrite.Delete) write).expectedVersion()));
+        }
+        return record;
+    }
+
+    private static DeviceWrite decode(byte op, UUID id, ByteBuffer body) {
+        switch (op) {
+            case INSERT:
+                return new DeviceWrite.Insert(DeviceLog.decodeDevice(id, body));
+            case UPDATE:
+                return new DeviceWrite.Update(DeviceLog.decodeDevice(id, body));
+            case PATCH: {
+                int expected = body.getInt();
+                String name   = DeviceLog.getString(body);
+                String type   = DeviceLog.getString(body);
+                String status = DeviceLog.getString(body);
+                DevicePatch patch = DevicePatch.empty()
+                        .withName(name)
+                        .withType(type == null ? null : DeviceType.valueOf(type))
+                        .withStatus(status == null ? null : DeviceStatus.valueOf(status))
+                        .withIpAddress(DeviceLog.getString(body))
+                        .withLocation(DeviceLog.getString(body));
+                return new DeviceWrite.Patch(id, expected == NO_VERSION ? patch : patch.expectingVersion(expected));
+            }
+            case DELETE: {
+                int expected = body.getInt();
+                return new DeviceWrite.Delete(id, expected == NO_VERSION ? null : expected);
+            }
+            default:
+                throw new IllegalArgumentException("Unknown journal record type " + op);
+        }
+    }
+
+    // ── Private helpers ──────────────────────────────────────────────────────
+
+    private void recover() throws IOException {
+        long fileSize = channel.size();
+        if (fileSize == 0) {
+            id = UUID.randomUUID();
+            ByteBuffer header = ByteBuffer.allocate(HEADER)
+                    .put(MAGIC)
+                    .putLong(id.getMostSignificantBits())
+                    .putLong(id.getLeastSignificantBits())
+                    .putLong(0);
+            channel.write(header.flip(), 0);
+            channel.force(true);
+            end = HEADER;
+            return;
+        }
+        if (fileSize > Integer.MAX_VALUE) {
+            throw new IOException(path + " is larger than 2 GiB; it cannot be mapped");
+        }
+
+        ByteBuffer file  = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+        byte[]     magic = new byte[MAGIC.length];
+        if (fileSize >= HEADER) {
+            file.get(magic);
+        }
+        if (!Arrays.equals(magic, MAGIC)) {
+            throw new IOException(path + " is not a write journal");
+        }
+        id       = new UUID(file.getLong(), file.getLong());
+        firstSeq = file.getLong();
+        nextSeq  = firstSeq;
+
+        CRC32 crc = new CRC32();
+        long valid = HEADER;
+        while (file.remaining() >= RECORD_HEADER) {
+            int length   = file.getInt(file.position());
+            int checksum = file.getInt(file.position() + 4);
+            if (length < MIN_BODY || length > file.remaining() - RECORD_HEADER) {
+                break;
+            }
+            ByteBuffer body = file.slice(file.position() + RECORD_HEADER, length);
+            crc.reset();
+            crc.update(body.duplicate());
+            if ((int) crc.getValue() != checksum) {
+                break;
+            }
+            long seq = body.getLong();
+            byte op  = body.get();
+            UUID id  = new UUID(body.getLong(), body.getLong());
+            if (seq >= firstSeq) {
+                if (seq != nextSeq) {
+                    break;
+                }
+                DeviceWrite write;
+                try {
+                    write = decode(op, id, body);
+                } catch (RuntimeException e) {
+                    break;
+                }
+                pending.add(new Stored(new Entry(seq, write), valid));
+                nextSeq++;
+            }
+            valid += RECORD_HEADER + length;
+            file.position((int) valid);
+        }
+
+        if (valid < fileSize) {
+            LOG.warning(path + ": discarding " + (fileSize - valid) + " byte(s) after offset " + valid
+                    + " (incomplete or corrupt record, e.g. from a crash during a write)");
+            channel.truncate(valid);
+            channel.force(true);
+        }
+        end = valid;
+    }
+
+    private void writeFirstSeq() throws IOException {
+        ByteBuffer field = ByteBuffer.allocate(8).putLong(0, firstSeq);
+        while (field.hasRemaining()) {
+            channel.write(field, FIRST_SEQ_OFFSET + field.position());
+        }
+        channel.force(false);
+    }
+
+    /** Copies the header and the pending records to a new file and renames it over this one. */
+    private void rewrite() throws IOException {
+        long from  = pending.peekFirst().offset();
+        long shift = from - HEADER;
+        Path temp  = rewritePath(path);
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER)
+                    .put(MAGIC)
+                    .putLong(id.getMostSignificantBits())
+                    .putLong(id.getLeastSignificantBits())
+                    .putLong(firstSeq)
+                    .flip();
+            while (header.hasRemaining()) {
+                out.write(header);
+            }
+            long copied = 0;
+            while (copied < end - from) {
+                copied += channel.transferTo(from + copied, end - from - copied, out);
+            }
+            out.force(true);
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+
+        channel.close();
+        Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        syncDirectory(path);
+        channel = openLocked(path);
+        end -= shift;
+        List<Stored> moved = new ArrayList<>(pending.size());
+        for (Stored stored : pending) {
+            moved.add(new Stored(stored.entry(), stored.offset() - shift));
+        }
+        pending.clear();
+        pending.addAll(moved);
+    }
+
+    private static FileChannel openLocked(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        FileLock lock;
+        try {
+            lock = channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            lock = null;   // held by this JVM already
+        }
+        if (lock == null) {
+            channel.close();
+            throw new IOException(path + " is in use by another process");
+        }
+        return channel;
+    }
+
+    /** Makes the rename durable; not supported (nor needed) on every platform. */
+    private static void syncDirectory(Path path) {
+        try (FileChannel directory = FileChannel.open(path.toAbsolutePath().getParent(), StandardOpenOption.READ)) {
+            directory.force(true);
+        } catch (IOException ignored) {
+            // e.g. Windows, where directories cannot be opened as channels
+        }
+    }
+
+    private static Path rewritePath(Path path) {
+        return path.resolveSibling(path.getFileName() + ".rewrite");
+    }
+
+    private static int version(Integer expected) {
+        return expected == null ? NO_VERSION : expected;
+    }
+
+    private static String name(Enum<?> value) {
+        return value == null ? null : value.name();
+    }
+}
@@ -1,5 +1,6 @@
 package com.mj.portfolio.db;
 
+import com.mj.portfolio.metrics.PoolMetrics;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
 
@@ -8,6 +9,15 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 
 /**
@@ -28,10 +38,26 @@ import java.util.Properties;
  * query is expensive (TLS handshake, authentication round-trip, etc.).
  * A pool keeps a fixed number of connections alive and hands them out to
  * callers — typically 10-20× faster than opening-and-closing each time.</p>
+ *
+ * <p>That only pays off for a long-running session. A one-shot command runs
+ * a query or two and exits, so {@link #getLazyDataSource(boolean)} can hand
+ * out a single reused connection instead, and in either case nothing is
+ * opened until the first query.</p>
+ *
+ * <p>Read replicas listed in {@code db.replica.urls} get a pool (or single
+ * connection) each, created the same lazy way; see
+ * {@link #getLazyReplicaDataSources(boolean)}.</p>
  */
 public class DatabaseConfig {
 
-    private static HikariDataSource dataSource;
+    private static HikariDataSource           dataSource;
+    private static SingleConnectionDataSource singleConnection;
+    private static Properties                 properties;
+
+    private static final Map<String, HikariDataSource>           replicaPools       = new HashMap<>();
+    private static final Map<String, SingleConnectionDataSource> replicaConnections = new HashMap<>();
+
+    private static final PoolMetrics poolMetrics = new PoolMetrics();
 
     private DatabaseConfig() {}
 
@@ -46,32 +72,208 @@ public class DatabaseConfig {
         return dataSource;
     }
 
-    /** Closes the connection pool. Call once on application shutdown. */
+    /**
+     * Returns a {@link DataSource} that connects only when the first
+     * connection is requested.
+     *
+     * @param singleConnection {@code true} for one-shot commands: one physical
+     *                         connection, reused and closed by {@link #close()};
+     *                         {@code false} for the shared pool of {@link #getDataSource()}
+     */
+    public static DataSource getLazyDataSource(boolean singleConnection) {
+        return singleConnection
+                ? new LazyDataSource("single connection", DatabaseConfig::getSingleConnectionDataSource)
+                : new LazyDataSource("pool", DatabaseConfig::getDataSource);
+    }
+
+    /**
+     * One lazily connecting {@link DataSource} per read replica, in the order
+     * of {@link #getReplicaUrls()}; empty without replicas. Replicas use the
+     * primary's pool size and, unless {@code db.replica.username} and
+     * {@code db.replica.password} are set, its credentials.
+     *
+     * @param singleConnection as for {@link #getLazyDataSource(boolean)}
+     */
+    public static List<DataSource> getLazyReplicaDataSources(boolean singleConnection) {
+        List<String>     urls    = getReplicaUrls();
+        List<DataSource> sources = new ArrayList<>(urls.size());
+        for (int i = 0; i < urls.size(); i++) {
+            String url    = urls.get(i);
+            int    number = i + 1;
+            sources.add(singleConnection
+                    ? new LazyDataSource("replica " + number + " single connection",
+                            () -> getReplicaConnection(url))
+                    : new LazyDataSource("replica " + number + " pool", () -> getReplicaPool(url, number)));
+        }
+        return sources;
+    }
+
+    /**
+     * JDBC URLs of the read replicas ({@code db.replica.urls}, comma-separated);
+     * empty if there are none, and every read goes to {@code db.url}.
+     */
+    public static List<String> getReplicaUrls() {
+        return Arrays.stream(getProperty("db.replica.urls", "").split(","))
+                .map(String::trim)
+                .filter(url -> !url.isEmpty())
+                .toList();
+    }
+
+    /**
+     * Opens a new connection outside the pool, for a caller that keeps it for
+     * the whole session (e.g. a {@code LISTEN}er) and would otherwise pin a
+     * pooled connection forever. The caller closes it.
+     */
+    public static Connection openConnection() throws SQLException {
+        Properties props;
+        synchronized (DatabaseConfig.class) {
+            props = properties();
+        }
+        return DriverManager.getConnection(props.getProperty("db.url"),
+                props.getProperty("db.username"), props.getProperty("db.password"));
+    }
+
+    /**
+     * Returns a setting from {@code db.properties}, or {@code defaultValue}
+     * if the key is absent. Used for options outside the pool itself
+     * (batch sizes, feature switches, …).
+     */
+    public static synchronized String getProperty(String key, String defaultValue) {
+        return properties().getProperty(key, defaultValue);
+    }
+
+    /** Integer variant of {@link #getProperty(String, String)}. */
+    public static int getIntProperty(String key, int defaultValue) {
+        String value = getProperty(key, null);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(
+                    "db.properties: '" + key + "' must be an integer, got '" + value + "'");
+        }
+    }
+
+    /**
+     * Maximum number of pooled connections ({@code db.pool.size}, default 10);
+     * also the natural bound for concurrent calls into the DAO.
+     */
+    public static int getPoolSize() {
+        return getIntProperty("db.pool.size", 10);
+    }
+
+    /**
+     * Where devices are stored ({@code db.backend}): {@code "postgres"} (the
+     * default) for the database configured here, or {@code "file"} for a
+     * local file at {@link #getFilePath()} that needs no database at all.
+     */
+    public static String getBackend() {
+        String backend = getProperty("db.backend", "postgres").trim().toLowerCase();
+        if (!backend.equals("postgres") && !backend.equals("file")) {
+            throw new IllegalArgumentException(
+                    "db.properties: 'db.backend' must be postgres or file, got '" + backend + "'");
+        }
+        return backend;
+    }
+
+    /** Device file of the {@code file} backend ({@code db.file.path}, default {@code devices.db}). */
+    public static Path getFilePath() {
+        return Path.of(getProperty("db.file.path", "devices.db").trim());
+    }
+
+    /**
+     * Metrics of the shared pool, collected through Hikari's metrics hook;
+     * {@link PoolMetrics#snapshot()} is {@code null} until the pool exists.
+     */
+    public static PoolMetrics getPoolMetrics() {
+        return poolMetrics;
+    }
+
+    /** Closes the connection pools (or single connections). Call once on application shutdown. */
     public static synchronized void close() {
         if (dataSource != null && !dataSource.isClosed()) {
             dataSource.close();
         }
+        if (singleConnection != null) {
+            singleConnection.close();
+            singleConnection = null;
+        }
+        replicaPools.values().forEach(HikariDataSource::close);
+        replicaPools.clear();
+        replicaConnections.values().forEach(SingleConnectionDataSource::close);
+        replicaConnections.clear();
     }
 
     // ── Private helpers ──────────────────────────────────────────────────────
 
+    private static synchronized DataSource getSingleConnectionDataSource() {
+        if (singleConnection == null) {
+            Properties props = properties();
+            singleConnection = new SingleConnectionDataSource(props.getProperty("db.url"),
+                    props.getProperty("db.username"), props.getProperty("db.password"));
+        }
+        return singleConnection;
+    }
+
+    private static synchronized DataSource getReplicaPool(String url, int number) {
+        HikariDataSource pool = replicaPools.get(url);
+        if (pool == null || pool.isClosed()) {
+            Properties props = properties();
+            HikariConfig cfg = poolConfig(url, replicaUsername(props), replicaPassword(props));
+            cfg.setPoolName("DeviceInventoryReplica-" + number);
+            pool = new HikariDataSource(cfg);
+            replicaPools.put(url, pool);
+        }
+        return pool;
+    }
+
+    private static synchronized DataSource getReplicaConnection(String url) {
+        Properties props = properties();
+        return replicaConnections.computeIfAbsent(url, u ->
+                new SingleConnectionDataSource(u, replicaUsername(props), replicaPassword(props)));
+    }
+
+    private static String replicaUsername(Properties props) {
+        return props.getProperty("db.replica.username", props.getProperty("db.username"));
+    }
+
+    private static String replicaPassword(Properties props) {
+        return props.getProperty("db.replica.password", props.getProperty("db.password"));
+    }
+
     private static HikariDataSource createPool() {
-        Properties props = loadProperties();
+        Properties props = properties();
+
+        HikariConfig cfg = poolConfig(props.getProperty("db.url"),
+                props.getProperty("db.username"), props.getProperty("db.password"));
+        cfg.setPoolName("DeviceInventoryPool");
+        cfg.setMetricsTrackerFactory(poolMetrics);
+
+        return new HikariDataSource(cfg);
+    }
 
+    /** Settings shared by the primary and replica pools. */
+    private static HikariConfig poolConfig(String url, String username, String password) {
         HikariConfig cfg = new HikariConfig();
-        cfg.setJdbcUrl(props.getProperty("db.url"));
-        cfg.setUsername(props.getProperty("db.username"));
-        cfg.setPassword(props.getProperty("db.password"));
-        cfg.setMaximumPoolSize(Integer.parseInt(
-                props.getProperty("db.pool.size", "10")));
+        cfg.setJdbcUrl(url);
+        cfg.setUsername(username);
+        cfg.setPassword(password);
+        cfg.setMaximumPoolSize(getPoolSize());
 
-        cfg.setPoolName("DeviceInventoryPool");
         cfg.setConnectionTestQuery("SELECT 1");
         cfg.setConnectionTimeout(30_000);   // 30 s to get a connection from pool
         cfg.setIdleTimeout(600_000);        // 10 min before idle connection is closed
         cfg.setMaxLifetime(1_800_000);      // 30 min max lifetime per connection
+        return cfg;
+    }
 
-        return new HikariDataSource(cfg);
+    private static Properties properties() {
+        if (properties == null) {
+            properties = loadProperties();
+        }
+        return properties;
     }
 
     private static Properties loadProperties() {
@@ -0,0 +1,104 @@
+package com.mj.portfolio.db;
+
+import com.mj.portfolio.jfr.ConnectionBorrowEvent;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+/**
+ * {@link DataSource} that creates the real one on the first
+ * {@link #getConnection()} call.
+ *
+ * <p>Building the DAO chain is then free: no pool threads, no driver
+ * loading and no test query until a command actually touches the database,
+ * so the interactive banner and {@code help} appear immediately.</p>
+ *
+ * <p>Every application borrow passes through here, so this is also where
+ * {@link ConnectionBorrowEvent}s are emitted.</p>
+ */
+final class LazyDataSource implements DataSource {
+
+    private final String                         name;
+    private final Supplier<? extends DataSource> factory;
+    private volatile DataSource target;
+
+    /**
+     * @param name    what the target is, for {@link ConnectionBorrowEvent}s
+     *                ({@code "pool"}, {@code "single connection"})
+     */
+    LazyDataSource(String name, Supplier<? extends DataSource> factory) {
+        this.name    = name;
+        this.factory = factory;
+    }
+
+    private DataSource target() {
+        DataSource ds = target;
+        if (ds == null) {
+            synchronized (this) {
+                ds = target;
+                if (ds == null) {
+                    ds = target = factory.get();
+                }
+            }
+        }
+        return ds;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        ConnectionBorrowEvent event = ConnectionBorrowEvent.begin(name, target == null);
+        boolean succeeded = false;
+        try {
+            Connection conn = target().getConnection();
+            succeeded = true;
+            return conn;
+        } finally {
+            event.finish(succeeded);
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return target().getConnection(username, password);
+    }
+
+    @Override
+    public PrintWriter getLogWriter() throws SQLException {
+        return target().getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) throws SQLException {
+        target().setLogWriter(out);
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) throws SQLException {
+        target().setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() throws SQLException {
+        return target().getLoginTimeout();
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        return target().getParentLogger();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        return iface.isInstance(this) ? iface.cast(this) : target().unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || target().isWrapperFor(iface);
+    }
+}
@@ -0,0 +1,171 @@
+package com.mj.portfolio.db;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.logging.Logger;
+
+/**
+ * {@link DataSource} for one-shot commands: one physical connection, opened
+ * on first use and reused for every DAO call until {@link #close()}.
+ *
+ * <p>A command such as {@code get <id>} runs one query and exits, so a pool
+ * only adds start-up cost — loading HikariCP, starting its housekeeping
+ * thread and running a test query. Here the connection is opened straight
+ * through {@link DriverManager}.</p>
+ *
+ * <p>Callers still {@code close()} what they get; that merely hands the
+ * connection back, after rolling back anything uncommitted and restoring
+ * autocommit, like a pool would. Should a second connection be requested
+ * while the shared one is out (e.g. writes while a cursor streams on the
+ * first), a spare is opened and likewise kept for the next such request;
+ * beyond that, extra connections are opened and really closed afterwards,
+ * so nested use never blocks.</p>
+ */
+final class SingleConnectionDataSource implements DataSource {
+
+    private final String url;
+    private final String username;
+    private final String password;
+
+    private Connection physical;
+    private boolean    inUse;
+    private Connection spare;
+    private boolean    spareInUse;
+
+    SingleConnectionDataSource(String url, String username, String password) {
+        this.url      = url;
+        this.username = username;
+        this.password = password;
+    }
+
+    @Override
+    public synchronized Connection getConnection() throws SQLException {
+        if (!inUse) {
+            if (physical == null || physical.isClosed()) {
+                physical = DriverManager.getConnection(url, username, password);
+            }
+            inUse = true;
+            return handle(physical);
+        }
+        if (!spareInUse) {
+            if (spare == null || spare.isClosed()) {
+                spare = DriverManager.getConnection(url, username, password);
+            }
+            spareInUse = true;
+            return handle(spare);
+        }
+        return DriverManager.getConnection(url, username, password);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return DriverManager.getConnection(url, username, password);
+    }
+
+    /** Closes the physical connection and the spare. */
+    synchronized void close() {
+        for (Connection conn : new Connection[] { physical, spare }) {
+            if (conn != null) {
+                try {
+                    conn.close();
+                } catch (SQLException ignored) {
+                    // shutting down anyway
+                }
+            }
+        }
+        physical = null;
+        spare    = null;
+    }
+
+    private synchronized void release(Connection conn) throws SQLException {
+        try {
+            if (!conn.getAutoCommit()) {
+                conn.rollback();
+                conn.setAutoCommit(true);
+            }
+        } finally {
+            if (conn == physical) {
+                inUse = false;
+            } else {
+                spareInUse = false;
+            }
+        }
+    }
+
+    /** A view of {@code conn} whose close() returns it instead of closing it. */
+    private Connection handle(Connection conn) {
+        boolean[] closed = { false };
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[] { Connection.class },
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "close":
+                            if (!closed[0]) {
+                                closed[0] = true;
+                                release(conn);
+                            }
+                            return null;
+                        case "isClosed":
+                            return closed[0] || conn.isClosed();
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        default:
+                            if (closed[0]) {
+                                throw new SQLException("Connection has been closed.");
+                            }
+                            try {
+                                return method.invoke(conn, args);
+                            } catch (InvocationTargetException e) {
+                                throw e.getCause();
+                            }
+                    }
+                });
+    }
+
+    @Override
+    public PrintWriter getLogWriter() {
+        return DriverManager.getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) {
+        DriverManager.setLogWriter(out);
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) {
+        DriverManager.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() {
+        return DriverManager.getLoginTimeout();
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        throw new SQLException("Not a wrapper for " + iface.getName());
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) {
+        return iface.isInstance(this);
+    }
+}
@@ -0,0 +1,30 @@
+package com.mj.portfolio.exception;
+
+import java.util.UUID;
+
+/**
+ * Thrown when a write names the device version it was based on and the row
+ * has been changed since (optimistic concurrency).
+ *
+ * <p>No lock is held between reading a device and writing it back; instead
+ * the write only applies if the version still matches. The caller should
+ * reload the device and decide again rather than retry blindly.</p>
+ */
+public class StaleDeviceException extends DAOException {
+
+    private final UUID id;
+    private final int  expectedVersion;
+    private final int  actualVersion;
+
+    public StaleDeviceException(UUID id, int expectedVersion, int actualVersion) {
+        super("Device " + id + " was changed by someone else (version " + expectedVersion
+                + " is now " + actualVersion + "); reload it and try again.");
+        this.id              = id;
+        this.expectedVersion = expectedVersion;
+        this.actualVersion   = actualVersion;
+    }
+
+    public UUID getId()              { return id; }
+    public int  getExpectedVersion() { return expectedVersion; }
+    public int  getActualVersion()   { return actualVersion; }
+}
@@ -0,0 +1,162 @@
+package com.mj.portfolio.io;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Streaming reader for CSV (RFC 4180) and TSV files.
+ *
+ * <p>Records are parsed one at a time straight from the underlying
+ * {@link Reader}, so memory use depends on the longest record, never on the
+ * file size. CSV fields may be quoted with {@code "} (a doubled {@code ""}
+ * inside a quoted field is a literal quote, and quoted fields may span
+ * lines). TSV fields are taken verbatim up to the next tab.</p>
+ *
+ * <p>Implements {@link Iterator} so it can be handed to code that consumes
+ * rows lazily; I/O errors surface as {@link UncheckedIOException}.</p>
+ */
+public class DelimitedReader implements Iterator<String[]>, Closeable {
+
+    private final BufferedReader in;
+    private final Format         format;
+
+    private String[] next;
+    private boolean  eof;
+    private long     line = 1;          // line the next character belongs to
+    private long     recordLine;        // first line of the record last returned
+
+    public DelimitedReader(Reader in, Format format) {
+        this.in     = in instanceof BufferedReader b ? b : new BufferedReader(in, 64 * 1024);
+        this.format = format;
+    }
+
+    /** 1-based line number on which the most recently returned record started. */
+    public long getRecordLine() {
+        return recordLine;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null && !eof) {
+            try {
+                next = readRecord();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return next != null;
+    }
+
+    @Override
+    public String[] next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        String[] record = next;
+        next = null;
+        return record;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    // ── Parsing ──────────────────────────────────────────────────────────────
+
+    private String[] readRecord() throws IOException {
+        // Skip blank lines between records
+        int c = in.read();
+        while (c == '\n' || c == '\r') {
+            if (c == '\n') line++;
+            c = in.read();
+        }
+        if (c == -1) {
+            eof = true;
+            return null;
+        }
+        recordLine = line;
+
+        List<String>  fields = new ArrayList<>(8);
+        StringBuilder field  = new StringBuilder(32);
+        boolean quoted = false;
+
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    throw new IOException("Unterminated quoted field starting on line " + recordLine);
+                }
+                if (c == '"') {
+                    int peek = in.read();
+                    if (peek == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        c = peek;
+                        continue;
+                    }
+                } else {
+                    if (c == '\n') line++;
+                    field.append((char) c);
+                }
+            } else if (c == format.delimiter) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n' || c == '\r' || c == -1) {
+                if (c == '\r') {
+                    in.mark(1);
+                    if (in.read() != '\n') in.reset();
+                }
+                if (c != -1) line++;
+                fields.add(field.toString());
+                return fields.toArray(new String[0]);
+            } else if (c == '"' && format.quoting && field.length() == 0) {
+                quoted = true;
+            } else {
+                field.append((char) c);
+            }
+            c = in.read();
+        }
+    }
+
+    /** Supported file dialects. */
+    public enum Format {
+        CSV(',', true),
+        TSV('\t', false);
+
+        private final char    delimiter;
+        private final boolean quoting;
+
+        Format(char delimiter, boolean quoting) {
+            this.delimiter = delimiter;
+            this.quoting   = quoting;
+        }
+
+        public char getDelimiter() {
+            return delimiter;
+        }
+
+        /** Picks TSV for {@code .tsv}/{@code .tab} files and CSV for everything else. */
+        public static Format forFileName(String fileName) {
+            String lower = fileName.toLowerCase();
+            return lower.endsWith(".tsv") || lower.endsWith(".tab") ? TSV : CSV;
+        }
+
+        /** Case-insensitive lookup by name ("csv", "tsv"). */
+        public static Format fromInput(String input) {
+            for (Format f : values()) {
+                if (f.name().equalsIgnoreCase(input.trim())) {
+                    return f;
+                }
+            }
+            throw new IllegalArgumentException("Unknown file format: '" + input + "'");
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.mj.portfolio.io;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes CSV or TSV records, the counterpart of {@link DelimitedReader}.
+ *
+ * <p>CSV fields are quoted only when they contain a delimiter, quote or line
+ * break. TSV has no quoting, so tabs and line breaks inside a field are
+ * replaced by spaces. {@code null} is written as an empty field.</p>
+ */
+public class DelimitedWriter implements Closeable, Flushable {
+
+    private final Writer                 out;
+    private final DelimitedReader.Format format;
+
+    public DelimitedWriter(Writer out, DelimitedReader.Format format) {
+        this.out    = out;
+        this.format = format;
+    }
+
+    public void writeRecord(String... fields) throws IOException {
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) {
+                out.write(format.getDelimiter());
+            }
+            writeField(fields[i]);
+        }
+        out.write('\n');
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private void writeField(String value) throws IOException {
+        if (value == null || value.isEmpty()) {
+            return;
+        }
+        if (format == DelimitedReader.Format.TSV) {
+            out.write(value.replace('\t', ' ').replace('\n', ' ').replace('\r', ' '));
+            return;
+        }
+        boolean needsQuotes = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!needsQuotes) {
+            out.write(value);
+            return;
+        }
+        out.write('"');
+        out.write(value.replace("\"", "\"\""));
+        out.write('"');
+    }
+}
@@ -0,0 +1,110 @@
+package com.mj.portfolio.io;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Tiny streaming writer for flat JSON objects, one per line (JSON Lines).
+ *
+ * <p>The CLI only ever emits flat records — devices, command results — so a
+ * full JSON library would be overkill. Values are written straight to the
+ * underlying {@link Writer} without building intermediate strings.</p>
+ *
+ * <pre>
+ *   json.beginObject().field("id", id).field("name", name).endObject();
+ * </pre>
+ */
+public class JsonWriter {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final Writer out;
+    private boolean firstField;
+
+    public JsonWriter(Writer out) {
+        this.out = out;
+    }
+
+    public JsonWriter beginObject() throws IOException {
+        out.write('{');
+        firstField = true;
+        return this;
+    }
+
+    /** Closes the current object and terminates the line. */
+    public JsonWriter endObject() throws IOException {
+        out.write("}\n");
+        return this;
+    }
+
+    /** Writes a string field; {@code null} becomes JSON {@code null}. */
+    public JsonWriter field(String name, Object value) throws IOException {
+        name(name);
+        if (value == null) {
+            out.write("null");
+        } else {
+            string(value.toString());
+        }
+        return this;
+    }
+
+    public JsonWriter field(String name, long value) throws IOException {
+        name(name);
+        out.write(Long.toString(value));
+        return this;
+    }
+
+    public JsonWriter field(String name, double value) throws IOException {
+        name(name);
+        out.write(Double.isFinite(value) ? Double.toString(value) : "null");
+        return this;
+    }
+
+    public JsonWriter field(String name, boolean value) throws IOException {
+        name(name);
+        out.write(value ? "true" : "false");
+        return this;
+    }
+
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    // ── Helpers ──────────────────────────────────────────────────────────────
+
+    private void name(String name) throws IOException {
+        if (!firstField) {
+            out.write(',');
+        }
+        firstField = false;
+        string(name);
+        out.write(':');
+    }
+
+    private void string(String s) throws IOException {
+        out.write('"');
+        int start = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c >= 0x20 && c != '"' && c != '\\') {
+                continue;
+            }
+            out.write(s, start, i - start);
+            switch (c) {
+                case '"'  -> out.write("\\\"");
+                case '\\' -> out.write("\\\\");
+                case '\n' -> out.write("\\n");
+                case '\r' -> out.write("\\r");
+                case '\t' -> out.write("\\t");
+                default -> {
+                    out.write("\\u00");
+                    out.write(HEX[c >> 4]);
+                    out.write(HEX[c & 0xF]);
+                }
+            }
+            start = i + 1;
+        }
+        out.write(s, start, s.length() - start);
+        out.write('"');
+    }
+}
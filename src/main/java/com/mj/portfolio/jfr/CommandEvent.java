@@ -0,0 +1,63 @@
+package com.mj.portfolio.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for one CLI command, or one action picked from the interactive
+ * menu. The {@link QueryEvent}s and {@link ConnectionBorrowEvent}s it caused
+ * fall inside its time span on the same thread, so a recording shows which
+ * queries each command ran.
+ *
+ * <p>Disabled by default, like {@link QueryEvent}.</p>
+ */
+@Name("com.mj.portfolio.Command")
+@Label("CLI Command")
+@Category("Device Inventory")
+@Enabled(false)
+@StackTrace(false)
+public final class CommandEvent extends Event {
+
+    @Label("Command")
+    private String command;
+
+    @Label("Arguments")
+    private String arguments;
+
+    @Label("Exit Code")
+    @Description("0 success, 1 failure, 2 invalid usage; -1 if the command threw")
+    private int exitCode = -1;
+
+    private transient Object args;
+
+    private CommandEvent() {}
+
+    /** Starts timing {@code command}; {@code args} are only rendered if the event is committed. */
+    public static CommandEvent begin(String command, Object args) {
+        CommandEvent event = new CommandEvent();
+        event.command = command;
+        event.args    = args;
+        event.begin();
+        return event;
+    }
+
+    /** Records the exit code; returns it for use in a return statement. */
+    public int exitCode(int code) {
+        exitCode = code;
+        return code;
+    }
+
+    /** Ends the command and commits the event if it is enabled and over its threshold. */
+    public void finish() {
+        end();
+        if (shouldCommit()) {
+            arguments = Parameters.summarize(args);
+            commit();
+        }
+    }
+}
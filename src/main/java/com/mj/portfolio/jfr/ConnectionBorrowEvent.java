@@ -0,0 +1,54 @@
+package com.mj.portfolio.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for one {@code getConnection()} on the application's data
+ * source: the wait for a pooled connection, or for the single connection of
+ * a one-shot command. The first borrow also pays for creating the pool or
+ * opening the connection, which {@code initialized} tells apart.
+ *
+ * <p>Disabled by default, like {@link QueryEvent}.</p>
+ */
+@Name("com.mj.portfolio.ConnectionBorrow")
+@Label("Connection Borrow")
+@Description("Time spent obtaining a database connection")
+@Category({"Device Inventory", "Database"})
+@Enabled(false)
+@StackTrace(false)
+public final class ConnectionBorrowEvent extends Event {
+
+    @Label("Source")
+    @Description("pool or single connection")
+    private String source;
+
+    @Label("Initialized")
+    @Description("Whether this borrow created the pool or opened the single connection")
+    private boolean initialized;
+
+    @Label("Succeeded")
+    private boolean succeeded;
+
+    private ConnectionBorrowEvent() {}
+
+    /** Starts timing a borrow from {@code source}. */
+    public static ConnectionBorrowEvent begin(String source, boolean initialized) {
+        ConnectionBorrowEvent event = new ConnectionBorrowEvent();
+        event.source      = source;
+        event.initialized = initialized;
+        event.begin();
+        return event;
+    }
+
+    /** Ends the borrow and commits the event if it is enabled. */
+    public void finish(boolean succeeded) {
+        this.succeeded = succeeded;
+        commit();
+    }
+}
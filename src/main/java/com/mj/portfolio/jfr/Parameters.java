@@ -0,0 +1,47 @@
+package com.mj.portfolio.jfr;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/** Renders bind parameters or command arguments for an event, bounded in length. */
+final class Parameters {
+
+    /** Longest summary recorded; a bulk update can bind thousands of ids. */
+    static final int MAX_LENGTH = 200;
+
+    /** Room kept for the {@code "… 12345 values]"} suffix of a cut list. */
+    private static final int SUFFIX_LENGTH = 24;
+
+    private Parameters() {}
+
+    /**
+     * {@code value} as text: arrays and collections as {@code [a, b, …]} with
+     * the total count once they no longer fit, anything else via toString.
+     * {@code null} stays {@code null} (shown as N/A).
+     */
+    static String summarize(Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (!(value instanceof Object[]) && !(value instanceof Collection)) {
+            return truncate(String.valueOf(value));
+        }
+        Collection<?> items = value instanceof Object[] array ? Arrays.asList(array) : (Collection<?>) value;
+        StringBuilder text = new StringBuilder("[");
+        for (Object item : items) {
+            if (text.length() > 1) {
+                text.append(", ");
+            }
+            if (text.length() >= MAX_LENGTH - SUFFIX_LENGTH) {
+                text.append("… ").append(items.size()).append(" values");
+                break;
+            }
+            text.append(item);
+        }
+        return truncate(text.append(']').toString());
+    }
+
+    private static String truncate(String text) {
+        return text.length() <= MAX_LENGTH ? text : text.substring(0, MAX_LENGTH - 1) + "…";
+    }
+}
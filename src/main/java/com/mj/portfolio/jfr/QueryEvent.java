@@ -0,0 +1,94 @@
+package com.mj.portfolio.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.util.Collection;
+
+/**
+ * JFR event for one {@code DeviceDAOImpl} call: the SQL it ran, its bound
+ * parameters and the rows it returned or changed, timed from borrowing the
+ * connection to handing it back.
+ *
+ * <pre>
+ *   QueryEvent event = QueryEvent.begin("findByType", sql);
+ *   try (...) {
+ *       return event.rows(DeviceRowMapper.collect(rs));
+ *   } finally {
+ *       event.finish(type);
+ *   }
+ * </pre>
+ *
+ * <p>Disabled unless a recording enables it (see {@code jfr/device-inventory.jfc}).
+ * While disabled, {@code begin} and {@code finish} reduce to a check the
+ * JIT folds away, and the parameter summary is never rendered.</p>
+ */
+@Name("com.mj.portfolio.DeviceQuery")
+@Label("Device Query")
+@Description("One DeviceDAOImpl call against PostgreSQL")
+@Category({"Device Inventory", "Database"})
+@Enabled(false)
+@StackTrace(false)
+public final class QueryEvent extends Event {
+
+    @Label("Method")
+    private String method;
+
+    @Label("SQL")
+    @Description("Statement text with ? placeholders; the main statement of multi-statement calls")
+    private String sql;
+
+    @Label("Parameters")
+    private String parameters;
+
+    @Label("Rows")
+    @Description("Rows returned or affected; -1 if the call failed")
+    private long rows = -1;
+
+    private QueryEvent() {}
+
+    /** Starts timing a call of {@code method} running {@code sql}. */
+    public static QueryEvent begin(String method, String sql) {
+        QueryEvent event = new QueryEvent();
+        event.method = method;
+        event.sql    = sql;
+        event.begin();
+        return event;
+    }
+
+    /** Records the row count; returns {@code count} for use in a return statement. */
+    public long rows(long count) {
+        rows = count;
+        return count;
+    }
+
+    /** Records the row count; returns {@code count} for use in a return statement. */
+    public int rows(int count) {
+        rows = count;
+        return count;
+    }
+
+    /** Records {@code result.size()} as the row count and returns {@code result}. */
+    public <T extends Collection<?>> T rows(T result) {
+        rows = result.size();
+        return result;
+    }
+
+    /**
+     * Ends the call and commits the event if it is enabled and over its
+     * threshold. {@code parameters} (a value, array or collection, or
+     * {@code null}) is only rendered then.
+     */
+    public void finish(Object parameters) {
+        end();
+        if (shouldCommit()) {
+            this.parameters = Parameters.summarize(parameters);
+            commit();
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.mj.portfolio.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with log-linear buckets, in the style of
+ * HdrHistogram: every power-of-two range of nanoseconds is split into
+ * {@value #SUB_BUCKETS} equal buckets, so any recorded value is known to
+ * within about 3% while the whole range from 1 ns to centuries takes under
+ * 2,000 counters (15 KB).
+ *
+ * <p>{@link #record} is one array increment, one {@link LongAdder} add and
+ * (rarely) a compare-and-set on the maximum — no locks and no allocation,
+ * so many threads can record into one histogram at once. A
+ * {@link #snapshot} reads the counters one by one while recording goes on,
+ * so it can be off by the few values recorded meanwhile.</p>
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BITS    = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int BUCKETS     = index(Long.MAX_VALUE) + 1;
+
+    /**
+     * Summary of the values recorded so far, all in nanoseconds. Percentiles
+     * are the upper bound of the bucket holding that rank, capped at the
+     * maximum, so they never understate.
+     */
+    public record Snapshot(long count, long mean, long p50, long p95, long p99, long max) {
+
+        public static final Snapshot EMPTY = new Snapshot(0, 0, 0, 0, 0, 0);
+    }
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder       sum    = new LongAdder();
+    private final AtomicLong      max    = new AtomicLong();
+
+    /** Records one value; negative values count as zero. */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(index(value));
+        sum.add(value);
+        long current = max.get();
+        while (value > current && !max.compareAndSet(current, value)) {
+            current = max.get();
+        }
+    }
+
+    public Snapshot snapshot() {
+        long[] copy  = new long[BUCKETS];
+        long   count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = counts.get(i);
+            count += copy[i];
+        }
+        if (count == 0) {
+            return Snapshot.EMPTY;
+        }
+        long highest = max.get();
+        return new Snapshot(count, sum.sum() / count,
+                valueAt(copy, count, 0.50, highest),
+                valueAt(copy, count, 0.95, highest),
+                valueAt(copy, count, 0.99, highest),
+                highest);
+    }
+
+    /** Values below {@code 2 * SUB_BUCKETS} have a bucket each; above, the top {@code SUB_BITS + 1} bits pick it. */
+    static int index(long value) {
+        if (value < 2 * SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+        return (shift << SUB_BITS) + (int) (value >>> shift);
+    }
+
+    /** The largest value that falls into bucket {@code index}. */
+    static long highestValue(int index) {
+        if (index < 2 * SUB_BUCKETS) {
+            return index;
+        }
+        int  shift = (index >> SUB_BITS) - 1;
+        long sub   = (index & (SUB_BUCKETS - 1)) + SUB_BUCKETS;
+        return ((sub + 1) << shift) - 1;
+    }
+
+    private static long valueAt(long[] counts, long total, double quantile, long highest) {
+        long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(highestValue(i), highest);
+            }
+        }
+        return highest;
+    }
+}
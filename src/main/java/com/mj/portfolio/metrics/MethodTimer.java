@@ -0,0 +1,56 @@
+package com.mj.portfolio.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Call count, error count and latency of one operation, e.g. one DAO method.
+ * Thread-safe and lock-free; see {@link LatencyHistogram}.
+ */
+public final class MethodTimer {
+
+    /** What a timer has recorded so far; failed calls are timed too. */
+    public record Stats(String name, long errors, LatencyHistogram.Snapshot latency) {
+
+        public long calls() {
+            return latency.count();
+        }
+    }
+
+    private final String           name;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder        errors  = new LongAdder();
+
+    public MethodTimer(String name) {
+        this.name = name;
+    }
+
+    /** Runs {@code call} and records how long it took, and whether it threw. */
+    public <T> T time(Supplier<T> call) {
+        long start = System.nanoTime();
+        try {
+            return call.get();
+        } catch (RuntimeException | Error e) {
+            errors.increment();
+            throw e;
+        } finally {
+            latency.record(System.nanoTime() - start);
+        }
+    }
+
+    /** Records a call timed by the caller, e.g. one that ends when a stream is closed. */
+    public void record(long nanos, boolean failed) {
+        if (failed) {
+            errors.increment();
+        }
+        latency.record(nanos);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Stats stats() {
+        return new Stats(name, errors.sum(), latency.snapshot());
+    }
+}
@@ -0,0 +1,61 @@
+package com.mj.portfolio.metrics;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Appends a {@link MetricsReport} to a file at a fixed interval, and once
+ * more on {@link #close}, from a single daemon thread. The figures are
+ * cumulative since startup, so the last report in the file is the whole
+ * story so far; the {@code stats} command prints it.
+ */
+public final class MetricsDumper implements AutoCloseable {
+
+    private static final Logger LOG = Logger.getLogger(MetricsDumper.class.getName());
+
+    private final Path                      file;
+    private final Supplier<MetricsReport>   reports;
+    private final ScheduledExecutorService  scheduler;
+
+    public MetricsDumper(Path file, long intervalSeconds, Supplier<MetricsReport> reports) {
+        if (intervalSeconds < 1) {
+            throw new IllegalArgumentException("Metrics dump interval must be at least 1 s, got " + intervalSeconds);
+        }
+        this.file      = file;
+        this.reports   = reports;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "metrics-dump");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(this::dump, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    /** Appends one report now. */
+    public synchronized void dump() {
+        try (PrintStream out = new PrintStream(Files.newOutputStream(file,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND), false, StandardCharsets.UTF_8)) {
+            reports.get().print(out);
+            out.println();
+        } catch (IOException | RuntimeException e) {
+            LOG.log(Level.WARNING, "Failed to write metrics to " + file, e);
+        }
+    }
+
+    /** Stops the schedule and writes a final report. */
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+        dump();
+    }
+}
@@ -0,0 +1,63 @@
+package com.mj.portfolio.metrics;
+
+import java.io.PrintStream;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Everything measured in this process at one point in time: DAO method
+ * latencies and, when a pool is in use, connection pool metrics. Rendered
+ * by the {@code stats} command and the periodic metrics dump.
+ *
+ * @param since   when measuring started
+ * @param at      when the report was taken
+ * @param methods per-method statistics; methods never called are skipped when printing
+ * @param pool    pool metrics, or {@code null} without a pool (e.g. one-shot commands)
+ */
+public record MetricsReport(LocalDateTime since, LocalDateTime at, List<MethodTimer.Stats> methods,
+                            PoolMetrics.Snapshot pool) {
+
+    /** First line of every report, which is how the {@code stats} command finds the last one in a dump. */
+    public static final String HEADER = "── Metrics at ";
+
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    public void print(PrintStream out) {
+        out.printf("%s%s (since %s)%n", HEADER, at.format(TIME), since.format(TIME));
+        List<MethodTimer.Stats> called = methods.stream().filter(m -> m.calls() > 0).toList();
+        if (called.isEmpty()) {
+            out.println("  No DAO calls yet.");
+        } else {
+            out.printf("  %-22s %10s %7s %10s %10s %10s %10s %10s%n",
+                    "DAO method", "calls", "errors", "mean", "p50", "p95", "p99", "max");
+            for (MethodTimer.Stats m : called) {
+                LatencyHistogram.Snapshot l = m.latency();
+                out.printf("  %-22s %,10d %,7d %10s %10s %10s %10s %10s%n", m.name(), m.calls(), m.errors(),
+                        duration(l.mean()), duration(l.p50()), duration(l.p95()), duration(l.p99()),
+                        duration(l.max()));
+            }
+        }
+        if (pool != null) {
+            LatencyHistogram.Snapshot a = pool.acquire();
+            out.printf("  Pool %s: %d active, %d idle, %d waiting (max %d) · getConnection p50 %s, p99 %s, "
+                            + "max %s · %,d timeout(s)%n",
+                    pool.pool(), pool.active(), pool.idle(), pool.pending(), pool.max(),
+                    duration(a.p50()), duration(a.p99()), duration(a.max()), pool.timeouts());
+        }
+    }
+
+    /** {@code nanos} in the largest unit that keeps it at least 1, e.g. {@code 412 µs}. */
+    static String duration(long nanos) {
+        if (nanos < 1_000) {
+            return nanos + " ns";
+        }
+        if (nanos < 1_000_000) {
+            return String.format("%.1f µs", nanos / 1e3);
+        }
+        if (nanos < 1_000_000_000) {
+            return String.format("%.2f ms", nanos / 1e6);
+        }
+        return String.format("%.2f s", nanos / 1e9);
+    }
+}
@@ -0,0 +1,64 @@
+package com.mj.portfolio.metrics;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Connection pool metrics collected through HikariCP's own hook
+ * ({@code HikariConfig.setMetricsTrackerFactory}): the pool's gauges plus a
+ * histogram of how long {@code getConnection()} waited.
+ *
+ * <p>Hikari calls the tracker on every borrow, from the borrowing thread,
+ * so recording is the same lock-free histogram update as for DAO calls.
+ * The gauges come from Hikari's {@link PoolStats}, which refreshes them at
+ * most once a second.</p>
+ */
+public final class PoolMetrics implements MetricsTrackerFactory {
+
+    /**
+     * @param active   connections lent out
+     * @param idle     connections waiting in the pool
+     * @param pending  threads waiting for a connection
+     * @param max      configured maximum pool size
+     * @param acquire  time spent in {@code getConnection()}
+     * @param timeouts borrows that gave up after the connection timeout
+     */
+    public record Snapshot(String pool, int active, int idle, int pending, int max,
+                           LatencyHistogram.Snapshot acquire, long timeouts) {}
+
+    private final LatencyHistogram acquire  = new LatencyHistogram();
+    private final LongAdder        timeouts = new LongAdder();
+
+    private volatile String    poolName;
+    private volatile PoolStats poolStats;
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        this.poolName  = poolName;
+        this.poolStats = poolStats;
+        return new IMetricsTracker() {
+            @Override
+            public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                acquire.record(elapsedAcquiredNanos);
+            }
+
+            @Override
+            public void recordConnectionTimeout() {
+                timeouts.increment();
+            }
+        };
+    }
+
+    /** The pool's current state, or {@code null} if no pool has been created. */
+    public Snapshot snapshot() {
+        PoolStats stats = poolStats;
+        if (stats == null) {
+            return null;
+        }
+        return new Snapshot(poolName, stats.getActiveConnections(), stats.getIdleConnections(),
+                stats.getPendingThreads(), stats.getMaxConnections(), acquire.snapshot(), timeouts.sum());
+    }
+}
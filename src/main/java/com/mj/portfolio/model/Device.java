@@ -23,6 +23,7 @@ public class Device {
     private String        ipAddress;
     private String        location;
     private LocalDateTime createdAt;
+    private int           version;
 
     public Device() {}
 
@@ -48,6 +49,13 @@ public class Device {
         this.createdAt = createdAt;
     }
 
+    /** Copy constructor — used wherever a Device must not be shared (e.g. caches). */
+    public Device(Device other) {
+        this(other.id, other.name, other.type, other.status,
+                other.ipAddress, other.location, other.createdAt);
+        this.version = other.version;
+    }
+
     // ── Getters ─────────────────────────────────────────────────────────────
 
     public UUID          getId()        { return id; }
@@ -58,6 +66,12 @@ public class Device {
     public String        getLocation()  { return location; }
     public LocalDateTime getCreatedAt() { return createdAt; }
 
+    /**
+     * Row version for optimistic concurrency: 0 when inserted, incremented by
+     * every update. A write that names a version fails if the row has moved on.
+     */
+    public int           getVersion()   { return version; }
+
     // ── Setters ─────────────────────────────────────────────────────────────
 
     public void setId(UUID id)                { this.id = id; }
@@ -67,6 +81,7 @@ public class Device {
     public void setIpAddress(String ipAddress){ this.ipAddress = ipAddress; }
     public void setLocation(String location)  { this.location = location; }
     public void setCreatedAt(LocalDateTime t) { this.createdAt = t; }
+    public void setVersion(int version)       { this.version = version; }
 
     // ── Utility ─────────────────────────────────────────────────────────────
 
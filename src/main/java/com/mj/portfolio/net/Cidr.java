@@ -0,0 +1,76 @@
+package com.mj.portfolio.net;
+
+/**
+ * An IP network in CIDR notation, e.g. {@code 10.0.0.0/16} or
+ * {@code 2001:db8::/32}.
+ *
+ * <p>Parsing normalises: host bits are cleared ({@code 10.0.7.1/16} becomes
+ * {@code 10.0.0.0/16}) and a bare address is the network of just that host
+ * ({@code /32} or {@code /128}). {@link #toString()} is then valid input for
+ * PostgreSQL's {@code cidr} type.</p>
+ */
+public final class Cidr {
+
+    private final IpAddress network;
+    private final int       prefixLength;
+
+    Cidr(IpAddress network, int prefixLength) {
+        this.network      = network;
+        this.prefixLength = prefixLength;
+    }
+
+    /**
+     * Parses {@code address/prefix} or a bare address.
+     *
+     * @throws IllegalArgumentException if the address or prefix length is invalid
+     */
+    public static Cidr parse(String text) {
+        if (text == null || text.isBlank()) {
+            throw new IllegalArgumentException("Subnet must not be empty.");
+        }
+        String trimmed = text.trim();
+        int slash = trimmed.indexOf('/');
+        IpAddress address = IpAddress.tryParse(slash < 0 ? trimmed : trimmed.substring(0, slash));
+        if (address == null) {
+            throw new IllegalArgumentException("'" + text + "' is not a valid subnet, e.g. 10.0.0.0/16.");
+        }
+        int prefix = address.bitLength();
+        if (slash >= 0) {
+            String digits = trimmed.substring(slash + 1);
+            prefix = digits.matches("[0-9]{1,3}") ? Integer.parseInt(digits) : -1;
+            if (prefix < 0 || prefix > address.bitLength()) {
+                throw new IllegalArgumentException("Prefix length of '" + text + "' must be between 0 and "
+                        + address.bitLength() + ".");
+            }
+        }
+        return new Cidr(address.mask(prefix), prefix);
+    }
+
+    public IpAddress network() {
+        return network;
+    }
+
+    public int prefixLength() {
+        return prefixLength;
+    }
+
+    /** Whether {@code address} lies in this network; never for the other IP family. */
+    public boolean contains(IpAddress address) {
+        return address.isIpv4() == network.isIpv4() && address.mask(prefixLength).equals(network);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Cidr other && prefixLength == other.prefixLength && network.equals(other.network);
+    }
+
+    @Override
+    public int hashCode() {
+        return network.hashCode() * 31 + prefixLength;
+    }
+
+    @Override
+    public String toString() {
+        return network + "/" + prefixLength;
+    }
+}
@@ -0,0 +1,254 @@
+package com.mj.portfolio.net;
+
+import java.util.Arrays;
+
+/**
+ * An IPv4 or IPv6 host address, parsed from text without any name lookup.
+ *
+ * <p>{@link #toString()} is the canonical form, the same text PostgreSQL's
+ * {@code inet} type prints: dotted decimal for IPv4, and for IPv6 lower-case
+ * hex with the longest run of two or more zero groups shortened to
+ * {@code ::} (RFC 5952), IPv4-mapped addresses as {@code ::ffff:1.2.3.4}.
+ * Normalising input to this form means every backend stores, compares and
+ * prints an address the same way.</p>
+ *
+ * <p>Ordered like {@code inet}: all IPv4 addresses before IPv6, then
+ * numerically.</p>
+ */
+public final class IpAddress implements Comparable<IpAddress> {
+
+    private final byte[] bytes;   // 4 or 16, network order
+
+    private IpAddress(byte[] bytes) {
+        this.bytes = bytes;
+    }
+
+    /**
+     * Parses an IPv4 ({@code 10.0.0.1}) or IPv6 ({@code 2001:db8::1},
+     * {@code ::ffff:10.0.0.1}) address; surrounding whitespace is ignored.
+     *
+     * @throws IllegalArgumentException if {@code text} is not an address
+     *         (host names, prefixes such as {@code /24} and zone ids included)
+     */
+    public static IpAddress parse(String text) {
+        IpAddress address = text == null ? null : tryParse(text.trim());
+        if (address == null) {
+            throw new IllegalArgumentException("'" + text + "' is not a valid IP address.");
+        }
+        return address;
+    }
+
+    /** Like {@link #parse}, but returns {@code null} instead of throwing, e.g. for data stored before validation. */
+    public static IpAddress tryParse(String text) {
+        if (text == null) {
+            return null;
+        }
+        byte[] bytes = text.indexOf(':') >= 0 ? parseIpv6(text) : parseIpv4(text);
+        return bytes == null ? null : new IpAddress(bytes);
+    }
+
+    public boolean isIpv4() {
+        return bytes.length == 4;
+    }
+
+    /** 32 or 128. */
+    public int bitLength() {
+        return bytes.length * 8;
+    }
+
+    /** The address with all but the first {@code prefixLength} bits cleared. */
+    IpAddress mask(int prefixLength) {
+        if (prefixLength == bitLength()) {
+            return this;
+        }
+        byte[] masked = bytes.clone();
+        for (int bit = prefixLength; bit < masked.length * 8; bit++) {
+            masked[bit / 8] &= (byte) ~(0x80 >>> (bit % 8));
+        }
+        return new IpAddress(masked);
+    }
+
+    /** Bit {@code index} counted from the most significant, 0 or 1. */
+    int bit(int index) {
+        return bytes[index >>> 3] >>> (7 - (index & 7)) & 1;
+    }
+
+    /** How many leading bits this address shares with {@code other} of the same family. */
+    int commonPrefixLength(IpAddress other) {
+        for (int i = 0; i < bytes.length; i++) {
+            int diff = (bytes[i] ^ other.bytes[i]) & 0xff;
+            if (diff != 0) {
+                return i * 8 + Integer.numberOfLeadingZeros(diff) - 24;
+            }
+        }
+        return bitLength();
+    }
+
+    @Override
+    public int compareTo(IpAddress other) {
+        int byFamily = Integer.compare(bytes.length, other.bytes.length);
+        return byFamily != 0 ? byFamily : Arrays.compareUnsigned(bytes, other.bytes);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof IpAddress other && Arrays.equals(bytes, other.bytes);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(bytes);
+    }
+
+    @Override
+    public String toString() {
+        if (isIpv4()) {
+            return ipv4(bytes, 0);
+        }
+        int[] groups = new int[8];
+        for (int i = 0; i < 8; i++) {
+            groups[i] = (bytes[2 * i] & 0xff) << 8 | bytes[2 * i + 1] & 0xff;
+        }
+        // Longest run of zero groups, the first one on a tie; single zeros stay.
+        int runStart = -1;
+        int runLength = 0;
+        for (int i = 0; i < 8; ) {
+            int j = i;
+            while (j < 8 && groups[j] == 0) {
+                j++;
+            }
+            if (j - i > runLength) {
+                runStart  = i;
+                runLength = j - i;
+            }
+            i = j == i ? i + 1 : j;
+        }
+        if (runLength < 2) {
+            runStart = -1;
+        }
+        // IPv4-compatible (::a.b.c.d) and IPv4-mapped (::ffff:a.b.c.d) print the IPv4 part dotted.
+        boolean embedded = runStart == 0 && (runLength == 6 || runLength == 5 && groups[5] == 0xffff);
+
+        StringBuilder text = new StringBuilder();
+        int end = embedded ? 6 : 8;
+        for (int i = 0; i < end; i++) {
+            if (i == runStart) {
+                text.append("::");
+                i += runLength - 1;
+                continue;
+            }
+            if (text.length() > 0 && text.charAt(text.length() - 1) != ':') {
+                text.append(':');
+            }
+            text.append(Integer.toHexString(groups[i]));
+        }
+        if (embedded) {
+            if (text.charAt(text.length() - 1) != ':') {
+                text.append(':');
+            }
+            text.append(ipv4(bytes, 12));
+        }
+        return text.toString();
+    }
+
+    // ── Parsing ──────────────────────────────────────────────────────────────
+
+    /** Four decimal octets; leading zeros are read as decimal, as PostgreSQL does. */
+    private static byte[] parseIpv4(String text) {
+        String[] parts = text.split("\\.", -1);
+        if (parts.length != 4) {
+            return null;
+        }
+        byte[] bytes = new byte[4];
+        for (int i = 0; i < 4; i++) {
+            int value = decimal(parts[i]);
+            if (value < 0) {
+                return null;
+            }
+            bytes[i] = (byte) value;
+        }
+        return bytes;
+    }
+
+    private static int decimal(String part) {
+        if (part.isEmpty() || part.length() > 3) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = 0; i < part.length(); i++) {
+            char c = part.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value <= 255 ? value : -1;
+    }
+
+    private static byte[] parseIpv6(String text) {
+        int gap = text.indexOf("::");
+        if (gap >= 0 && text.indexOf("::", gap + 1) >= 0) {
+            return null;
+        }
+        String head = gap >= 0 ? text.substring(0, gap) : text;
+        String tail = gap >= 0 ? text.substring(gap + 2) : "";
+
+        byte[] front = new byte[16];
+        int frontLength = head.isEmpty() ? 0 : groups(head, front, gap < 0);
+        byte[] back = new byte[16];
+        int backLength = tail.isEmpty() ? 0 : groups(tail, back, true);
+        if (frontLength < 0 || backLength < 0) {
+            return null;
+        }
+        if (gap < 0 ? frontLength != 16 : frontLength + backLength > 14) {
+            return null;
+        }
+        byte[] bytes = new byte[16];
+        System.arraycopy(front, 0, bytes, 0, frontLength);
+        System.arraycopy(back, 0, bytes, 16 - backLength, backLength);
+        return bytes;
+    }
+
+    /**
+     * Parses colon-separated hex groups into {@code out}, the last one
+     * optionally dotted IPv4 if {@code last}; returns the bytes written, or -1.
+     */
+    private static int groups(String text, byte[] out, boolean last) {
+        String[] parts = text.split(":", -1);
+        int n = 0;
+        for (int i = 0; i < parts.length; i++) {
+            String part = parts[i];
+            if (last && i == parts.length - 1 && part.indexOf('.') >= 0) {
+                byte[] ipv4 = parseIpv4(part);
+                if (ipv4 == null || n + 4 > 16) {
+                    return -1;
+                }
+                System.arraycopy(ipv4, 0, out, n, 4);
+                return n + 4;
+            }
+            if (part.isEmpty() || part.length() > 4 || n + 2 > 16) {
+                return -1;
+            }
+            int value = 0;
+            for (int k = 0; k < part.length(); k++) {
+                char c = part.charAt(k);
+                int digit = c >= '0' && c <= '9' ? c - '0'
+                          : c >= 'a' && c <= 'f' ? c - 'a' + 10
+                          : c >= 'A' && c <= 'F' ? c - 'A' + 10
+                          : -1;
+                if (digit < 0) {
+                    return -1;
+                }
+                value = value << 4 | digit;
+            }
+            out[n++] = (byte) (value >>> 8);
+            out[n++] = (byte) value;
+        }
+        return n;
+    }
+
+    private static String ipv4(byte[] bytes, int offset) {
+        return (bytes[offset] & 0xff) + "." + (bytes[offset + 1] & 0xff) + "."
+                + (bytes[offset + 2] & 0xff) + "." + (bytes[offset + 3] & 0xff);
+    }
+}
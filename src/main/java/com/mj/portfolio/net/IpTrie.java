@@ -0,0 +1,251 @@
+package com.mj.portfolio.net;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Map from IP prefixes ({@link Cidr}) and single addresses (a {@code /32} or
+ * {@code /128} prefix) to values: a binary radix trie with path compression,
+ * one per IP family.
+ *
+ * <p>Each node tests one bit of the address and only exists where stored
+ * prefixes branch, so the trie holds at most two nodes per entry and a
+ * lookup visits at most one node per address bit (32 for IPv4, 128 for
+ * IPv6) however many entries there are — a duplicate check against a whole
+ * inventory costs the same as against ten devices. Besides exact lookups it
+ * answers the two routing-table questions:
+ * <ul>
+ *   <li>{@link #longestMatch}: the most specific stored prefix containing an
+ *       address, e.g. which of 10.0.0.0/8 and 10.1.0.0/16 a host is in;</li>
+ *   <li>{@link #forEachIn}: every entry within a network, in address order,
+ *       by walking only the subtree under it.</li>
+ * </ul></p>
+ *
+ * <p>Not thread-safe.</p>
+ */
+public final class IpTrie<V> {
+
+    private static final class Node<V> {
+        final IpAddress key;      // masked to prefixLength
+        final int       prefixLength;
+        Node<V>         zero;     // next bit (at prefixLength) 0
+        Node<V>         one;
+        V               value;    // null: a branching node only
+
+        Node(IpAddress key, int prefixLength, V value) {
+            this.key          = key;
+            this.prefixLength = prefixLength;
+            this.value        = value;
+        }
+
+        Node<V> child(int bit) {
+            return bit == 0 ? zero : one;
+        }
+
+        void setChild(int bit, Node<V> node) {
+            if (bit == 0) {
+                zero = node;
+            } else {
+                one = node;
+            }
+        }
+
+        /** Whether {@code address} starts with this node's prefix. */
+        boolean covers(IpAddress address) {
+            return address.commonPrefixLength(key) >= prefixLength;
+        }
+    }
+
+    private Node<V> ipv4;
+    private Node<V> ipv6;
+    private int     size;
+
+    /** Number of stored prefixes and addresses. */
+    public int size() {
+        return size;
+    }
+
+    /** Stores {@code value} for a single address; returns the value it replaced, or {@code null}. */
+    public V put(IpAddress address, V value) {
+        return put(address, address.bitLength(), value);
+    }
+
+    /** Stores {@code value} for a network; returns the value it replaced, or {@code null}. */
+    public V put(Cidr prefix, V value) {
+        return put(prefix.network(), prefix.prefixLength(), value);
+    }
+
+    /** The value stored for exactly this address, or {@code null}. */
+    public V get(IpAddress address) {
+        Node<V> node = find(address, address.bitLength());
+        return node == null ? null : node.value;
+    }
+
+    /** The value stored for exactly this network, or {@code null}. */
+    public V get(Cidr prefix) {
+        Node<V> node = find(prefix.network(), prefix.prefixLength());
+        return node == null ? null : node.value;
+    }
+
+    /** Like {@link Map#computeIfAbsent}, for a single address. */
+    public V computeIfAbsent(IpAddress address, Function<IpAddress, V> create) {
+        V value = get(address);
+        if (value == null) {
+            value = create.apply(address);
+            put(address, value);
+        }
+        return value;
+    }
+
+    /**
+     * The most specific stored prefix that contains {@code address}, with its
+     * value, or {@code null} if none does.
+     */
+    public Map.Entry<Cidr, V> longestMatch(IpAddress address) {
+        Node<V> best = null;
+        Node<V> node = root(address);
+        while (node != null && node.covers(address)) {
+            if (node.value != null) {
+                best = node;
+            }
+            if (node.prefixLength == address.bitLength()) {
+                break;
+            }
+            node = node.child(address.bit(node.prefixLength));
+        }
+        return best == null ? null : Map.entry(new Cidr(best.key, best.prefixLength), best.value);
+    }
+
+    /**
+     * Calls {@code action} for every stored prefix within {@code network}
+     * (itself included) in address order, a network before the entries inside it.
+     */
+    public void forEachIn(Cidr network, BiConsumer<Cidr, V> action) {
+        IpAddress address = network.network();
+        Node<V> node = root(address);
+        // Descend to the first node at or below the network's prefix length.
+        while (node != null && node.prefixLength < network.prefixLength()) {
+            if (!node.covers(address)) {
+                return;
+            }
+            node = node.child(address.bit(node.prefixLength));
+        }
+        if (node != null && node.key.commonPrefixLength(address) >= network.prefixLength()) {
+            walk(node, action);
+        }
+    }
+
+    /** The values within {@code network}, in address order. */
+    public List<V> valuesIn(Cidr network) {
+        List<V> values = new ArrayList<>();
+        forEachIn(network, (prefix, value) -> values.add(value));
+        return values;
+    }
+
+    /** Calls {@code action} for every entry, IPv4 before IPv6, each in address order. */
+    public void forEach(BiConsumer<Cidr, V> action) {
+        walk(ipv4, action);
+        walk(ipv6, action);
+    }
+
+    // ── Internals ────────────────────────────────────────────────────────────
+
+    private Node<V> root(IpAddress address) {
+        return address.isIpv4() ? ipv4 : ipv6;
+    }
+
+    private void setRoot(IpAddress address, Node<V> node) {
+        if (address.isIpv4()) {
+            ipv4 = node;
+        } else {
+            ipv6 = node;
+        }
+    }
+
+    private Node<V> find(IpAddress address, int prefixLength) {
+        Node<V> node = root(address);
+        while (node != null && node.prefixLength <= prefixLength && node.covers(address)) {
+            if (node.prefixLength == prefixLength) {
+                return node;
+            }
+            node = node.child(address.bit(node.prefixLength));
+        }
+        return null;
+    }
+
+    private V put(IpAddress address, int prefixLength, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("IpTrie values must not be null");
+        }
+        IpAddress key = address.mask(prefixLength);
+        Node<V> parent = null;
+        Node<V> node   = root(key);
+        while (node != null) {
+            int common = Math.min(Math.min(prefixLength, node.prefixLength), key.commonPrefixLength(node.key));
+            if (common == node.prefixLength) {
+                if (common == prefixLength) {
+                    V previous = node.value;
+                    node.value = value;
+                    if (previous == null) {
+                        size++;
+                    }
+                    return previous;
+                }
+                parent = node;
+                node   = node.child(key.bit(common));
+                continue;
+            }
+            // The new prefix and this node part ways at bit 'common' (or the new
+            // prefix ends there): a node for that prefix goes in between.
+            Node<V> between;
+            if (common == prefixLength) {
+                between = new Node<>(key, prefixLength, value);
+            } else {
+                between = new Node<>(key.mask(common), common, null);
+                between.setChild(key.bit(common), new Node<>(key, prefixLength, value));
+            }
+            between.setChild(node.key.bit(common), node);
+            link(parent, key, between);
+            size++;
+            return null;
+        }
+        link(parent, key, new Node<>(key, prefixLength, value));
+        size++;
+        return null;
+    }
+
+    private void link(Node<V> parent, IpAddress key, Node<V> node) {
+        if (parent == null) {
+            setRoot(key, node);
+        } else {
+            parent.setChild(key.bit(parent.prefixLength), node);
+        }
+    }
+
+    /** Pre-order: a node, then its 0 subtree, then its 1 subtree, which is address order. */
+    private static <V> void walk(Node<V> root, BiConsumer<Cidr, V> action) {
+        if (root == null) {
+            return;
+        }
+        // Explicit stack: an IPv6 trie can be 128 levels deep.
+        Deque<Node<V>> stack = new ArrayDeque<>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            Node<V> node = stack.pop();
+            if (node.value != null) {
+                action.accept(new Cidr(node.key, node.prefixLength), node.value);
+            }
+            if (node.one != null) {
+                stack.push(node.one);
+            }
+            if (node.zero != null) {
+                stack.push(node.zero);
+            }
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.mj.portfolio.service;
+
+import com.mj.portfolio.dao.BoundedExecutor;
+import com.mj.portfolio.dao.DeviceFilter;
+import com.mj.portfolio.dao.DevicePatch;
+import com.mj.portfolio.dao.DeviceWrite;
+import com.mj.portfolio.dao.Page;
+import com.mj.portfolio.model.Device;
+import com.mj.portfolio.model.DeviceStatus;
+import com.mj.portfolio.model.DeviceType;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * {@link DeviceService} for callers that must not block, such as a collector
+ * issuing thousands of lookups at once.
+ *
+ * <p>Each method runs the corresponding {@code DeviceService} method —
+ * validation included — on a {@link BoundedExecutor}, so concurrency is
+ * capped by the connection pool rather than by the caller's thread count.
+ * Validation failures complete the future exceptionally with the same
+ * {@link IllegalArgumentException} the blocking method throws.</p>
+ */
+public class AsyncDeviceService {
+
+    private final DeviceService   service;
+    private final BoundedExecutor executor;
+
+    public AsyncDeviceService(DeviceService service, BoundedExecutor executor) {
+        this.service  = service;
+        this.executor = executor;
+    }
+
+    // ── Read operations ──────────────────────────────────────────────────────
+
+    public CompletableFuture<Optional<Device>> findById(String rawId) {
+        return executor.submit(() -> service.findById(rawId));
+    }
+
+    public CompletableFuture<Page<Device>> findPage(DeviceFilter filter, String pageToken, int pageSize) {
+        return executor.submit(() -> service.findPage(filter, pageToken, pageSize));
+    }
+
+    public CompletableFuture<List<Device>> filterByType(DeviceType type) {
+        return executor.submit(() -> service.filterByType(type));
+    }
+
+    public CompletableFuture<List<Device>> filterByStatus(DeviceStatus status) {
+        return executor.submit(() -> service.filterByStatus(status));
+    }
+
+    /** Ranked search; see {@link DeviceService#search(String, int)}. */
+    public CompletableFuture<List<Device>> search(String query, int limit) {
+        return executor.submit(() -> service.search(query, limit));
+    }
+
+    // ── Write operations ─────────────────────────────────────────────────────
+
+    public CompletableFuture<Device> addDevice(String name, DeviceType type, DeviceStatus status,
+                                               String ipAddress, String location) {
+        return executor.submit(() -> service.addDevice(name, type, status, ipAddress, location));
+    }
+
+    /** See {@link DeviceService#updateDevice(String, DevicePatch)}; build the patch with {@link DeviceService#newPatch}. */
+    public CompletableFuture<Device> updateDevice(String rawId, DevicePatch patch) {
+        return executor.submit(() -> service.updateDevice(rawId, patch));
+    }
+
+    public CompletableFuture<Boolean> removeDevice(String rawId) {
+        return executor.submit(() -> service.removeDevice(rawId));
+    }
+
+    public CompletableFuture<Integer> changeStatus(Collection<String> rawIds, DeviceStatus status) {
+        return executor.submit(() -> service.changeStatus(rawIds, status));
+    }
+
+    public CompletableFuture<List<DeviceWrite.Outcome>> applyWrites(List<DeviceWrite> writes) {
+        return executor.submit(() -> service.applyWrites(writes));
+    }
+}
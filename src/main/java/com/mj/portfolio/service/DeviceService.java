@@ -1,13 +1,37 @@
 package com.mj.portfolio.service;
 
+import com.mj.portfolio.dao.BatchResult;
+import com.mj.portfolio.dao.DeviceCounts;
 import com.mj.portfolio.dao.DeviceDAO;
+import com.mj.portfolio.dao.DeviceDelta;
+import com.mj.portfolio.dao.DeviceFilter;
+import com.mj.portfolio.dao.DevicePatch;
+import com.mj.portfolio.dao.DeviceSnapshot;
+import com.mj.portfolio.dao.DeviceWrite;
+import com.mj.portfolio.dao.GroupingKey;
+import com.mj.portfolio.dao.IpConflict;
+import com.mj.portfolio.dao.Page;
+import com.mj.portfolio.dao.SearchQuery;
 import com.mj.portfolio.model.Device;
 import com.mj.portfolio.model.DeviceStatus;
 import com.mj.portfolio.model.DeviceType;
+import com.mj.portfolio.net.Cidr;
+import com.mj.portfolio.net.IpAddress;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Business logic layer for device management.
@@ -24,16 +48,47 @@ public class DeviceService {
 
     private final DeviceDAO deviceDAO;
 
+    private final List<Consumer<Device>> validators = new CopyOnWriteArrayList<>();
+
     public DeviceService(DeviceDAO deviceDAO) {
         this.deviceDAO = deviceDAO;
     }
 
+    /**
+     * Adds a check run on every new device (added, batch-added, imported or
+     * prepared for a script) after the built-in field rules, on the trimmed
+     * and normalised device. It rejects a device by throwing
+     * {@link IllegalArgumentException}, which is reported like any other
+     * validation error, e.g. as an import reject.
+     */
+    public void addValidator(Consumer<Device> validator) {
+        validators.add(validator);
+    }
+
     // ── Read operations ──────────────────────────────────────────────────────
 
     public List<Device> getAllDevices() {
         return deviceDAO.findAll();
     }
 
+    /**
+     * Streams every device ordered by name without loading them all into
+     * memory. The stream must be closed by the caller.
+     */
+    public Stream<Device> streamAllDevices() {
+        return deviceDAO.streamAll();
+    }
+
+    /**
+     * Returns one page of devices matching {@code filter}.
+     *
+     * @param pageToken {@code null} for the first page, otherwise
+     *                  {@link Page#nextToken()} or {@link Page#previousToken()}
+     */
+    public Page<Device> findPage(DeviceFilter filter, String pageToken, int pageSize) {
+        return deviceDAO.findPage(filter, pageToken, pageSize);
+    }
+
     public Optional<Device> findById(String rawId) {
         UUID id = parseUUID(rawId);
         return deviceDAO.findById(id);
@@ -54,6 +109,71 @@ public class DeviceService {
         return deviceDAO.search(keyword.trim());
     }
 
+    /**
+     * Ranked search supporting field-scoped terms such as
+     * {@code name:core location:"rack 4"} (see {@link SearchQuery}).
+     *
+     * @param limit maximum number of results, best matches first
+     */
+    public List<Device> search(String query, int limit) {
+        return deviceDAO.search(SearchQuery.parse(query), limit);
+    }
+
+    /**
+     * Device counts in total and per value of each key; all keys (type,
+     * status, location) if none are given. Computed by the DAO, not by
+     * loading the devices.
+     */
+    public DeviceCounts summarize(GroupingKey... keys) {
+        return deviceDAO.countBy(keys.length == 0 ? GroupingKey.values() : keys);
+    }
+
+    /**
+     * Devices whose IP address lies in {@code subnet}, e.g. {@code 10.0.0.0/16}
+     * or {@code 2001:db8::/32}; a bare address finds the devices using it.
+     * Host bits are ignored, so {@code 10.0.7.1/16} means {@code 10.0.0.0/16}.
+     *
+     * @throws IllegalArgumentException if {@code subnet} is not valid CIDR notation
+     */
+    public List<Device> findBySubnet(String subnet) {
+        return deviceDAO.findBySubnet(Cidr.parse(subnet).toString());
+    }
+
+    /** Every IP address recorded for more than one device, ordered by address. */
+    public List<IpConflict> findIpConflicts() {
+        return deviceDAO.findIpConflicts();
+    }
+
+    /**
+     * Loads every device's IP address into an {@link IpAddressAudit} with
+     * one streamed scan, for checking many devices without a query each.
+     */
+    public IpAddressAudit auditIpAddresses() {
+        try (Stream<Device> devices = deviceDAO.streamAll()) {
+            return new IpAddressAudit(devices);
+        }
+    }
+
+    /**
+     * Streams every device into a {@link DeviceSnapshot} file, reading the
+     * change watermark first so that {@link #changesSince} can bring the
+     * snapshot up to date later.
+     *
+     * @return the number of devices written
+     */
+    public long saveSnapshot(Path file) throws IOException {
+        long    watermark = deviceDAO.changeWatermark();
+        Instant takenAt   = Instant.now();
+        try (Stream<Device> devices = deviceDAO.streamAll()) {
+            return DeviceSnapshot.write(file, watermark, takenAt, devices.iterator());
+        }
+    }
+
+    /** What changed since {@code snapshot} was taken; apply it with {@link DeviceSnapshot#withChanges}. */
+    public DeviceDelta changesSince(DeviceSnapshot snapshot) {
+        return deviceDAO.changesSince(snapshot.watermark());
+    }
+
     // ── Write operations ─────────────────────────────────────────────────────
 
     /**
@@ -62,43 +182,156 @@ public class DeviceService {
      * @param name      required, 1-100 characters
      * @param type      required
      * @param status    required
-     * @param ipAddress optional (null or empty means "none recorded")
+     * @param ipAddress optional IPv4 or IPv6 address (null or empty means
+     *                  "none recorded"), stored in canonical form
      * @param location  optional
      * @return the saved device with id and createdAt populated
      */
     public Device addDevice(String name, DeviceType type, DeviceStatus status,
                             String ipAddress, String location) {
-        validateName(name);
+        return deviceDAO.save(newDevice(name, type, status, ipAddress, location));
+    }
 
-        Device device = new Device(
-                name.trim(),
-                type,
-                status,
-                nullIfBlank(ipAddress),
-                nullIfBlank(location)
-        );
-        return deviceDAO.save(device);
+    /**
+     * Validates and persists many devices in one bulk write.
+     *
+     * <p>Every draft goes through the same checks as {@link #addDevice};
+     * drafts that fail validation are reported alongside any rows the
+     * database rejects, and neither stops the remaining rows from being saved.
+     * Failure indexes refer to positions in {@code drafts}.</p>
+     *
+     * @param drafts devices without id/createdAt
+     * @return saved devices plus per-row failures
+     */
+    public BatchResult addDevices(Collection<Device> drafts) {
+        BatchResult   result     = new BatchResult();
+        List<Device>  valid      = new ArrayList<>(drafts.size());
+        List<Integer> inputIndex = new ArrayList<>(drafts.size());
+
+        int index = 0;
+        for (Device draft : drafts) {
+            try {
+                valid.add(newDevice(draft.getName(), draft.getType(), draft.getStatus(),
+                        draft.getIpAddress(), draft.getLocation()));
+                inputIndex.add(index);
+            } catch (IllegalArgumentException e) {
+                result.recordFailure(index, draft, e.getMessage());
+            }
+            index++;
+        }
+
+        if (!valid.isEmpty()) {
+            result.merge(deviceDAO.saveAll(valid), inputIndex);
+        }
+        return result;
+    }
+
+    /**
+     * Validates raw rows (e.g. from a CSV file) and bulk-loads the valid ones.
+     *
+     * <p>Rows are consumed lazily: each one is validated as the DAO pulls it,
+     * so arbitrarily large inputs are processed in constant memory. Invalid
+     * rows are handed to {@code onReject} together with the reason and are
+     * skipped.</p>
+     *
+     * @param rows     raw field arrays, see {@link #parseDevice(String[])}
+     * @param onReject receives each rejected row and its validation message
+     * @return number of devices inserted
+     */
+    public long importDevices(Iterator<String[]> rows, BiConsumer<String[], String> onReject) {
+        Iterator<Device> valid = new Iterator<>() {
+            private Device next;
+
+            @Override
+            public boolean hasNext() {
+                while (next == null && rows.hasNext()) {
+                    String[] fields = rows.next();
+                    try {
+                        next = parseDevice(fields);
+                    } catch (IllegalArgumentException e) {
+                        onReject.accept(fields, e.getMessage());
+                    }
+                }
+                return next != null;
+            }
+
+            @Override
+            public Device next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Device d = next;
+                next = null;
+                return d;
+            }
+        };
+        return deviceDAO.bulkLoad(valid);
+    }
+
+    /**
+     * Builds a validated device from raw text fields in the order
+     * {@code name, type, status, ip_address, location}.
+     *
+     * <p>Applies exactly the rules of {@link #addDevice}; type and status are
+     * resolved with {@link DeviceType#fromInput} and {@link DeviceStatus#fromInput},
+     * so blanks fall back to OTHER and ACTIVE. Missing trailing fields are
+     * treated as blank.</p>
+     *
+     * @throws IllegalArgumentException if any field is invalid
+     */
+    public Device parseDevice(String[] fields) {
+        return newDevice(
+                field(fields, 0),
+                DeviceType.fromInput(field(fields, 1)),
+                DeviceStatus.fromInput(field(fields, 2)),
+                field(fields, 3),
+                field(fields, 4));
     }
 
     /**
-     * Updates an existing device. Pass {@code null} for any field to leave it unchanged.
+     * Updates an existing device. Pass {@code null} for any field to leave it
+     * unchanged; a blank IP address or location clears it.
      *
      * @param rawId UUID of the device to update
+     * @return the device as stored after the update
      */
     public Device updateDevice(String rawId, String name, DeviceType type,
                                DeviceStatus status, String ipAddress, String location) {
-        UUID id = parseUUID(rawId);
-        Device existing = deviceDAO.findById(id)
-                .orElseThrow(() -> new IllegalArgumentException(
-                        "No device found with ID: " + rawId));
+        return updateDevice(rawId, newPatch(name, type, status, ipAddress, location));
+    }
 
-        if (name     != null && !name.isBlank())     existing.setName(name.trim());
-        if (type     != null)                         existing.setType(type);
-        if (status   != null)                         existing.setStatus(status);
-        if (ipAddress != null)                        existing.setIpAddress(nullIfBlank(ipAddress));
-        if (location != null)                         existing.setLocation(nullIfBlank(location));
+    /**
+     * Applies a patch from {@link #newPatch} in a single statement, without
+     * reading the device first. Add {@link DevicePatch#expectingVersion} to
+     * reject the update if the device changed since it was shown to the user.
+     *
+     * @return the device as stored after the update
+     * @throws com.mj.portfolio.exception.StaleDeviceException if the expected version is out of date
+     */
+    public Device updateDevice(String rawId, DevicePatch patch) {
+        return deviceDAO.patch(parseUUID(rawId), patch)
+                .orElseThrow(() -> new IllegalArgumentException("No device found with ID: " + rawId));
+    }
 
-        return deviceDAO.update(existing);
+    /**
+     * Validates the changes of an update and returns them as a patch, with
+     * the same rules as {@link #updateDevice(String, String, DeviceType, DeviceStatus, String, String)}.
+     */
+    public DevicePatch newPatch(String name, DeviceType type, DeviceStatus status,
+                                String ipAddress, String location) {
+        DevicePatch patch = DevicePatch.empty().withType(type).withStatus(status);
+        if (name != null && !name.isBlank()) {
+            validateName(name);
+            patch = patch.withName(name.trim());
+        }
+        if (ipAddress != null) {
+            patch = patch.withIpAddress(ipAddress.isBlank() ? "" : normalizeIpAddress(ipAddress));
+        }
+        if (location != null) {
+            validateLength(location, 100, "Location");
+            patch = patch.withLocation(location.trim());
+        }
+        return patch;
     }
 
     /**
@@ -111,8 +344,123 @@ public class DeviceService {
         return deviceDAO.delete(id);
     }
 
+    /**
+     * Deletes a device only if it is still at {@code expectedVersion}, e.g.
+     * the version of the device the user confirmed deleting.
+     *
+     * @return {@code true} if deleted, {@code false} if not found
+     * @throws com.mj.portfolio.exception.StaleDeviceException if the device changed since
+     */
+    public boolean removeDevice(String rawId, int expectedVersion) {
+        return deviceDAO.delete(parseUUID(rawId), expectedVersion);
+    }
+
+    /**
+     * Sets the status of many devices with one statement.
+     *
+     * @param rawIds device UUIDs as text; all are validated before anything is written
+     * @return number of devices whose status actually changed
+     */
+    public int changeStatus(Collection<String> rawIds, DeviceStatus status) {
+        requireStatus(status);
+        List<UUID> ids = new ArrayList<>(rawIds.size());
+        for (String rawId : rawIds) {
+            ids.add(parseUUID(rawId));
+        }
+        return deviceDAO.updateStatus(ids, status);
+    }
+
+    /**
+     * Sets the status of every device matching {@code filter} with one statement.
+     *
+     * @return number of devices whose status actually changed
+     */
+    public int changeStatusWhere(DeviceFilter filter, DeviceStatus status) {
+        requireStatus(status);
+        return deviceDAO.updateStatusWhere(filter, status);
+    }
+
+    // ── Grouped writes ───────────────────────────────────────────────────────
+
+    /**
+     * Validates a new device given as raw fields (see {@link #parseDevice})
+     * and returns the insert to pass to {@link #applyWrites}.
+     */
+    public DeviceWrite.Insert prepareAdd(String[] fields) {
+        return new DeviceWrite.Insert(parseDevice(fields));
+    }
+
+    /**
+     * Validates the same changes as {@link #updateDevice} and returns them as
+     * a patch to pass to {@link #applyWrites}; nothing is read up front.
+     */
+    public DeviceWrite.Patch prepareUpdate(String rawId, String name, DeviceType type,
+                                           DeviceStatus status, String ipAddress, String location) {
+        return new DeviceWrite.Patch(parseUUID(rawId), newPatch(name, type, status, ipAddress, location));
+    }
+
+    /** Returns the delete of the device with UUID {@code rawId} to pass to {@link #applyWrites}. */
+    public DeviceWrite.Delete prepareRemove(String rawId) {
+        return new DeviceWrite.Delete(parseUUID(rawId));
+    }
+
+    /**
+     * Applies prepared writes as one unit of work; see {@link DeviceDAO#applyWrites}.
+     *
+     * @return one outcome per write, in input order
+     */
+    public List<DeviceWrite.Outcome> applyWrites(List<DeviceWrite> writes) {
+        return writes.isEmpty() ? List.of() : deviceDAO.applyWrites(writes);
+    }
+
+    /**
+     * Inserts, patches and deletes devices until the inventory matches
+     * {@code rows}, a full export sorted by name and IP address; see
+     * {@link Reconciliation}. With {@code apply} false nothing is written and
+     * the listener only sees the planned writes.
+     *
+     * @param rows      raw field arrays, see {@link #parseDevice(String[])}
+     * @param batchSize writes per transaction
+     * @return the counts of the run
+     * @throws IllegalArgumentException if the rows are out of order
+     */
+    public Reconciliation reconcile(Iterator<String[]> rows, int batchSize, boolean apply,
+                                    Reconciliation.Listener listener) {
+        Reconciliation reconciliation = new Reconciliation(deviceDAO, this, batchSize, apply, listener);
+        reconciliation.run(rows);
+        return reconciliation;
+    }
+
     // ── Helpers ──────────────────────────────────────────────────────────────
 
+    /** Validates the fields of a new device, returns it trimmed and normalised if it also passes the added validators. */
+    private Device newDevice(String name, DeviceType type, DeviceStatus status,
+                             String ipAddress, String location) {
+        validateName(name);
+        if (type == null) {
+            throw new IllegalArgumentException("Device type is required.");
+        }
+        requireStatus(status);
+        validateLength(location, 100, "Location");
+        Device device = new Device(
+                name.trim(),
+                type,
+                status,
+                ipAddress == null || ipAddress.isBlank() ? null : normalizeIpAddress(ipAddress),
+                nullIfBlank(location)
+        );
+        for (Consumer<Device> validator : validators) {
+            validator.accept(device);
+        }
+        return device;
+    }
+
+    private void requireStatus(DeviceStatus status) {
+        if (status == null) {
+            throw new IllegalArgumentException("Device status is required.");
+        }
+    }
+
     private void validateName(String name) {
         if (name == null || name.isBlank()) {
             throw new IllegalArgumentException("Device name is required.");
@@ -122,6 +470,27 @@ public class DeviceService {
         }
     }
 
+    private void validateLength(String value, int max, String label) {
+        if (value != null && value.trim().length() > max) {
+            throw new IllegalArgumentException(
+                    label + " must be " + max + " characters or fewer.");
+        }
+    }
+
+    /**
+     * The canonical text of an address ({@code 010.0.0.1} becomes
+     * {@code 10.0.0.1}, {@code 2001:DB8:0:0::1} becomes {@code 2001:db8::1}),
+     * so the same address is never stored, compared or reported as a
+     * conflict under two spellings.
+     */
+    private String normalizeIpAddress(String ipAddress) {
+        return IpAddress.parse(ipAddress).toString();
+    }
+
+    private String field(String[] fields, int index) {
+        return index < fields.length ? fields[index] : null;
+    }
+
     private UUID parseUUID(String raw) {
         if (raw == null || raw.isBlank()) {
             throw new IllegalArgumentException("ID must not be empty.");
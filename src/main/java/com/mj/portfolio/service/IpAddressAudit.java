@@ -0,0 +1,140 @@
+package com.mj.portfolio.service;
+
+import com.mj.portfolio.dao.IpConflict;
+import com.mj.portfolio.model.Device;
+import com.mj.portfolio.net.Cidr;
+import com.mj.portfolio.net.IpAddress;
+import com.mj.portfolio.net.IpTrie;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * The IP addresses in use, held in an {@link IpTrie} so that checking a
+ * device against the whole inventory is a walk of at most 32 (IPv4) or 128
+ * (IPv6) nodes instead of a query per device. Built by
+ * {@link DeviceService#auditIpAddresses()} from one streamed scan.
+ *
+ * <p>For bulk onboarding, {@link #validator()} rejects each incoming device
+ * whose address is already used, by the inventory or by an earlier device
+ * of the same batch, and otherwise records it so later devices are checked
+ * against it too. Register it with {@link DeviceService#addValidator}.</p>
+ *
+ * <p>A snapshot: changes made after the scan are only seen if they pass
+ * through {@link #claim}. Not thread-safe.</p>
+ */
+public final class IpAddressAudit {
+
+    private final IpTrie<List<Device>> inUse = new IpTrie<>();
+    private long devices;
+    private long unparsable;
+
+    IpAddressAudit(Stream<Device> inventory) {
+        inventory.forEach(this::claim);
+    }
+
+    /**
+     * Records that {@code device} uses its address and returns the devices
+     * that already did (empty if none, or if it has no valid address).
+     */
+    public List<Device> claim(Device device) {
+        if (device.getIpAddress() == null) {
+            return List.of();
+        }
+        IpAddress address = IpAddress.tryParse(device.getIpAddress());
+        if (address == null) {
+            unparsable++;
+            return List.of();
+        }
+        devices++;
+        List<Device> users = inUse.computeIfAbsent(address, a -> new ArrayList<>(1));
+        List<Device> previous = users.isEmpty() ? List.of() : List.copyOf(users);
+        users.add(device);
+        return previous;
+    }
+
+    /** The devices using {@code ipAddress}, empty if none. */
+    public List<Device> usersOf(String ipAddress) {
+        List<Device> users = inUse.get(IpAddress.parse(ipAddress));
+        return users == null ? List.of() : List.copyOf(users);
+    }
+
+    /**
+     * A check for {@link DeviceService#addValidator}: throws
+     * {@link IllegalArgumentException} naming the current user if a new
+     * device's address is taken, otherwise claims the address for it.
+     */
+    public Consumer<Device> validator() {
+        return device -> {
+            IpAddress address = device.getIpAddress() == null ? null : IpAddress.tryParse(device.getIpAddress());
+            List<Device> users = address == null ? null : inUse.get(address);
+            if (users != null) {
+                Device user = users.get(0);
+                throw new IllegalArgumentException("IP address " + address + " is already used by '"
+                        + user.getName() + "'" + (user.getId() == null ? " earlier in this batch." : "."));
+            }
+            claim(device);
+        };
+    }
+
+    /** Devices with an address in {@code subnet}, ordered by address. */
+    public List<Device> inSubnet(String subnet) {
+        List<Device> found = new ArrayList<>();
+        inUse.forEachIn(Cidr.parse(subnet), (address, users) -> found.addAll(users));
+        return found;
+    }
+
+    /** Every address used by more than one device, ordered by address. */
+    public List<IpConflict> conflicts() {
+        List<IpConflict> conflicts = new ArrayList<>();
+        inUse.forEach((address, users) -> {
+            if (users.size() > 1) {
+                conflicts.add(new IpConflict(address.network().toString(), users));
+            }
+        });
+        return conflicts;
+    }
+
+    /**
+     * Device counts per subnet, each device counted once under the most
+     * specific of {@code subnets} that contains its address (longest-prefix
+     * match, as a router would). Devices in none are counted under
+     * {@code null}, last.
+     *
+     * @throws IllegalArgumentException if a subnet is not valid CIDR notation
+     */
+    public Map<String, Long> countBySubnet(List<String> subnets) {
+        IpTrie<String> networks = new IpTrie<>();
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (String subnet : subnets) {
+            Cidr cidr = Cidr.parse(subnet);
+            networks.put(cidr, cidr.toString());
+            counts.put(cidr.toString(), 0L);
+        }
+        counts.put(null, 0L);
+        inUse.forEach((address, users) -> {
+            Map.Entry<Cidr, String> match = networks.longestMatch(address.network());
+            counts.merge(match == null ? null : match.getValue(), (long) users.size(), Long::sum);
+        });
+        return counts;
+    }
+
+    /** Distinct addresses in use. */
+    public int addresses() {
+        return inUse.size();
+    }
+
+    /** Devices with a valid address. */
+    public long devices() {
+        return devices;
+    }
+
+    /** Devices whose stored address does not parse, e.g. written before addresses were validated. */
+    public long unparsable() {
+        return unparsable;
+    }
+}
@@ -0,0 +1,282 @@
+package com.mj.portfolio.service;
+
+import com.mj.portfolio.dao.DeviceDAO;
+import com.mj.portfolio.dao.DevicePatch;
+import com.mj.portfolio.dao.DeviceWrite;
+import com.mj.portfolio.dao.NaturalKey;
+import com.mj.portfolio.model.Device;
+import com.mj.portfolio.model.DeviceStatus;
+import com.mj.portfolio.model.DeviceType;
+import com.mj.portfolio.net.IpAddress;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Makes the inventory match a full export of devices, such as a discovery
+ * scan, with one sort-merge pass. Run by {@link DeviceService#reconcile}.
+ *
+ * <p>Devices are matched by {@link NaturalKey natural key} (name and IP
+ * address). The input must already be in {@link NaturalKey#KEY} order; it is
+ * merged against {@link DeviceDAO#streamByNaturalKey()}, which streams the
+ * inventory in the same order from a server-side cursor. Each step compares
+ * the two current heads:</p>
+ * <ul>
+ *   <li>input first: no such device, so it is <b>inserted</b>;</li>
+ *   <li>stored device first: it is not in the input, so it is <b>deleted</b>;</li>
+ *   <li>same key: type, status and location are <b>patched</b> where they
+ *       differ, else the device is unchanged.</li>
+ * </ul>
+ * Repeated keys pair up in order, so three input rows against two stored
+ * devices with the same name and address keep both and insert one.
+ *
+ * <p>Writes are collected into batches of {@code batchSize}, each applied
+ * with {@link DeviceDAO#applyWrites} (one transaction) when applying, or only
+ * reported to the {@link Listener} for a dry run. Only the two heads and one
+ * batch are held at a time, so memory does not grow with the inventory or
+ * the input. Patches and deletes expect the version that was read, so a
+ * device changed by someone else during the run is reported as failed
+ * rather than overwritten.</p>
+ *
+ * <p>A row that fails validation is reported and never inserted, and a
+ * stored device with the same name and address is left as it is, so a typo
+ * in the input cannot delete it.</p>
+ */
+public final class Reconciliation {
+
+    /** Receives the progress of a run; every method does nothing by default. */
+    public interface Listener {
+
+        /** {@code fields} failed validation and were skipped. */
+        default void rejected(String[] fields, String reason) {}
+
+        /**
+         * A write was planned; {@code stored} is the device it patches or
+         * deletes, {@code null} for an insert. Called before it is applied.
+         */
+        default void planned(DeviceWrite write, Device stored) {}
+
+        /** A write was rejected by the database, e.g. because the device changed since it was read. */
+        default void failed(DeviceWrite write, String error) {}
+    }
+
+    private final DeviceDAO deviceDAO;
+    private final DeviceService service;
+    private final int batchSize;
+    private final boolean apply;
+    private final Listener listener;
+
+    private final List<DeviceWrite> batch;
+    private final List<Device> batchStored;
+
+    private long inserts;
+    private long updates;
+    private long deletes;
+    private long unchanged;
+    private long kept;
+    private long rejected;
+    private long applied;
+    private long failed;
+
+    Reconciliation(DeviceDAO deviceDAO, DeviceService service, int batchSize, boolean apply, Listener listener) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be at least 1.");
+        }
+        this.deviceDAO = deviceDAO;
+        this.service   = service;
+        this.batchSize = batchSize;
+        this.apply     = apply;
+        this.listener  = listener;
+        this.batch       = new ArrayList<>(batchSize);
+        this.batchStored = new ArrayList<>(batchSize);
+    }
+
+    /**
+     * Merges {@code rows} (raw fields, see {@link DeviceService#parseDevice})
+     * against the inventory.
+     *
+     * @throws IllegalArgumentException if the input is not in natural key
+     *         order; batches before it have already been applied
+     */
+    void run(Iterator<String[]> rows) {
+        try (Stream<Device> inventory = deviceDAO.streamByNaturalKey()) {
+            Iterator<Device> stored = inventory.iterator();
+            Row in = nextRow(rows, null);
+            Device db = stored.hasNext() ? stored.next() : null;
+
+            while (in != null || db != null) {
+                int cmp = in == null ? 1 : db == null ? -1 : NaturalKey.KEY.compare(in.device, db);
+                if (cmp < 0) {
+                    if (!in.rejected) {
+                        inserts++;
+                        plan(new DeviceWrite.Insert(in.device), null);
+                    }
+                    in = nextRow(rows, in);
+                } else if (cmp > 0) {
+                    deletes++;
+                    plan(new DeviceWrite.Delete(db.getId(), db.getVersion()), db);
+                    db = stored.hasNext() ? stored.next() : null;
+                } else {
+                    if (in.rejected) {
+                        kept++;
+                    } else {
+                        DevicePatch patch = changes(in.device, db);
+                        if (patch == null) {
+                            unchanged++;
+                        } else {
+                            updates++;
+                            plan(new DeviceWrite.Patch(db.getId(), patch), db);
+                        }
+                    }
+                    in = nextRow(rows, in);
+                    db = stored.hasNext() ? stored.next() : null;
+                }
+            }
+            flush();
+        }
+    }
+
+    /** The next input row, validated, or {@code null} at the end; checks it does not sort before {@code previous}. */
+    private Row nextRow(Iterator<String[]> rows, Row previous) {
+        while (rows.hasNext()) {
+            String[] fields = rows.next();
+            Row row;
+            try {
+                row = new Row(service.parseDevice(fields), false);
+            } catch (IllegalArgumentException e) {
+                rejected++;
+                listener.rejected(fields, e.getMessage());
+                row = keyOf(fields);
+                if (row == null) {
+                    continue;   // no name: cannot match anything
+                }
+            }
+            if (previous != null && NaturalKey.KEY.compare(row.device, previous.device) < 0) {
+                throw new IllegalArgumentException("Input is not sorted by name and IP address: '"
+                        + describe(row.device) + "' comes after '" + describe(previous.device) + "'.");
+            }
+            return row;
+        }
+        return null;
+    }
+
+    /** The name and address of a row that failed validation, as close to what it would have stored as possible. */
+    private static Row keyOf(String[] fields) {
+        String name = fields.length > 0 && fields[0] != null ? fields[0].trim() : "";
+        if (name.isEmpty()) {
+            return null;
+        }
+        String ip = fields.length > 3 && fields[3] != null && !fields[3].isBlank() ? fields[3].trim() : null;
+        IpAddress address = ip == null ? null : IpAddress.tryParse(ip);
+        return new Row(new Device(name, DeviceType.OTHER, DeviceStatus.ACTIVE,
+                address == null ? ip : address.toString(), null), true);
+    }
+
+    /** What must change for {@code stored} to match {@code wanted}, or {@code null} if nothing. */
+    private static DevicePatch changes(Device wanted, Device stored) {
+        if (wanted.getType() == stored.getType()
+                && wanted.getStatus() == stored.getStatus()
+                && Objects.equals(wanted.getLocation(), stored.getLocation())) {
+            return null;
+        }
+        DevicePatch patch = DevicePatch.empty();
+        if (wanted.getType() != stored.getType()) {
+            patch = patch.withType(wanted.getType());
+        }
+        if (wanted.getStatus() != stored.getStatus()) {
+            patch = patch.withStatus(wanted.getStatus());
+        }
+        if (!Objects.equals(wanted.getLocation(), stored.getLocation())) {
+            patch = patch.withLocation(wanted.getLocation() == null ? "" : wanted.getLocation());
+        }
+        return patch.expectingVersion(stored.getVersion());
+    }
+
+    private void plan(DeviceWrite write, Device stored) {
+        listener.planned(write, stored);
+        if (!apply) {
+            return;
+        }
+        batch.add(write);
+        batchStored.add(stored);
+        if (batch.size() >= batchSize) {
+            flush();
+        }
+    }
+
+    private void flush() {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<DeviceWrite.Outcome> outcomes = deviceDAO.applyWrites(batch);
+        for (int i = 0; i < outcomes.size(); i++) {
+            DeviceWrite.Outcome outcome = outcomes.get(i);
+            if (outcome.applied()) {
+                applied++;
+            } else {
+                failed++;
+                listener.failed(batch.get(i), outcome.error() != null ? outcome.error()
+                        : "'" + batchStored.get(i).getName() + "' was already deleted.");
+            }
+        }
+        batch.clear();
+        batchStored.clear();
+    }
+
+    private static String describe(Device device) {
+        return device.getIpAddress() == null ? device.getName() : device.getName() + " " + device.getIpAddress();
+    }
+
+    /** A validated input device, or only the key of a rejected row. */
+    private record Row(Device device, boolean rejected) {}
+
+    // ── Results ──────────────────────────────────────────────────────────────
+
+    /** Whether writes were applied, as opposed to only planned. */
+    public boolean applied() {
+        return apply;
+    }
+
+    /** Input devices not in the inventory. */
+    public long inserts() {
+        return inserts;
+    }
+
+    /** Devices in both whose type, status or location differ. */
+    public long updates() {
+        return updates;
+    }
+
+    /** Devices not in the input. */
+    public long deletes() {
+        return deletes;
+    }
+
+    /** Devices in both that already match. */
+    public long unchanged() {
+        return unchanged;
+    }
+
+    /** Devices left as they are because their input row was rejected. */
+    public long kept() {
+        return kept;
+    }
+
+    /** Input rows that failed validation. */
+    public long rejected() {
+        return rejected;
+    }
+
+    /** Planned writes that changed a row; always 0 for a dry run. */
+    public long writesApplied() {
+        return applied;
+    }
+
+    /** Planned writes that the database rejected or that found their device gone. */
+    public long writesFailed() {
+        return failed;
+    }
+}
@@ -0,0 +1,73 @@
+package com.mj.portfolio.cli;
+
+import com.mj.portfolio.dao.StubDeviceDAO;
+import com.mj.portfolio.service.DeviceService;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link ScriptCommand}: argument splitting and the JSON Lines
+ * produced by a script, run against a {@link StubDeviceDAO}.
+ */
+public class ScriptCommandTest {
+
+    private StubDeviceDAO dao;
+    private StringWriter  out;
+    private ScriptCommand command;
+
+    @Before
+    public void setUp() {
+        dao     = new StubDeviceDAO();
+        out     = new StringWriter();
+        command = new ScriptCommand(new DeviceService(dao), out);
+    }
+
+    @Test
+    public void testTokenizeHonoursQuotes() {
+        assertArrayEquals(new String[] { "add", "--name", "web 01", "--location", "Rack \"4\"", "x" },
+                ScriptCommand.tokenize("add --name 'web 01'  --location \"Rack \\\"4\\\"\" x"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTokenizeRejectsUnterminatedQuote() {
+        ScriptCommand.tokenize("add --name \"web");
+    }
+
+    @Test
+    public void testScriptReportsEveryLineInOrder() throws IOException {
+        Path script = Files.createTempFile("devices", ".script");
+        try {
+            Files.writeString(script, String.join("\n",
+                    "# seed",
+                    "add --name web-01 --type server",
+                    "add --name ''",
+                    "frobnicate",
+                    "add --name web-02 --type server --status maintenance",
+                    "list --type server"));
+
+            int exit = command.runScript(CommandArgs.parse(new String[] { script.toString() }, 0));
+
+            List<String> lines = out.toString().lines().toList();
+            assertEquals("Two lines failed", 1, exit);
+            assertEquals(7, lines.size());
+            assertTrue(lines.get(0), lines.get(0).startsWith("{\"line\":2,\"op\":\"add\",\"ok\":true,\"id\":"));
+            assertTrue(lines.get(1), lines.get(1).startsWith("{\"line\":3,\"op\":\"add\",\"ok\":false,\"error\":"));
+            assertTrue(lines.get(2), lines.get(2).contains("Unknown command 'frobnicate'"));
+            assertTrue(lines.get(3), lines.get(3).contains("\"status\":\"MAINTENANCE\""));
+            assertTrue(lines.get(4), lines.get(4).contains("\"name\":\"web-01\""));
+            assertTrue(lines.get(5), lines.get(5).contains("\"name\":\"web-02\""));
+            assertEquals("{\"line\":6,\"op\":\"list\",\"ok\":true,\"count\":2}", lines.get(6));
+            assertEquals(2, dao.findAll().size());
+        } finally {
+            Files.delete(script);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.mj.portfolio.dao;
+
+import com.mj.portfolio.exception.DAOException;
+import com.mj.portfolio.model.Device;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link AsyncDeviceDAO} and {@link BoundedExecutor}.
+ */
+public class AsyncDeviceDAOTest {
+
+    /** Slow findById that records how many calls overlap. */
+    private static final class SlowDAO extends StubDeviceDAO {
+        final AtomicInteger inFlight    = new AtomicInteger();
+        final AtomicInteger maxInFlight = new AtomicInteger();
+
+        @Override
+        public Optional<Device> findById(UUID id) {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(2);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                inFlight.decrementAndGet();
+            }
+            return Optional.empty();
+        }
+    }
+
+    @Test
+    public void concurrentCalls_shouldNeverExceedTheBound() {
+        SlowDAO dao = new SlowDAO();
+        try (BoundedExecutor executor = new BoundedExecutor(4)) {
+            AsyncDeviceDAO async = new AsyncDeviceDAO(dao, executor);
+            List<CompletableFuture<Optional<Device>>> lookups = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                lookups.add(async.findById(UUID.randomUUID()));
+            }
+            CompletableFuture.allOf(lookups.toArray(new CompletableFuture[0])).join();
+
+            assertTrue(lookups.stream().allMatch(f -> f.join().isEmpty()));
+            assertTrue("At most 4 calls may run at once, saw " + dao.maxInFlight.get(),
+                    dao.maxInFlight.get() <= 4);
+            assertEquals(0, dao.inFlight.get());
+        }
+    }
+
+    @Test
+    public void failures_shouldCompleteTheFutureExceptionally() {
+        DeviceDAO broken = new StubDeviceDAO() {
+            @Override
+            public List<Device> findAll() {
+                throw new DAOException("connection refused");
+            }
+        };
+        try (BoundedExecutor executor = new BoundedExecutor(1)) {
+            CompletableFuture<List<Device>> all = new AsyncDeviceDAO(broken, executor).findAll();
+            try {
+                all.join();
+                fail("The DAO's exception must surface through the future");
+            } catch (CompletionException e) {
+                assertTrue(e.getCause() instanceof DAOException);
+            }
+        }
+    }
+}
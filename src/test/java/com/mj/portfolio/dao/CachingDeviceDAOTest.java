@@ -0,0 +1,114 @@
+package com.mj.portfolio.dao;
+
+import com.mj.portfolio.model.Device;
+import com.mj.portfolio.model.DeviceStatus;
+import com.mj.portfolio.model.DeviceType;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link CachingDeviceDAO}, backed by a {@link StubDeviceDAO}
+ * that counts how often it is actually queried. No database required.
+ */
+public class CachingDeviceDAOTest {
+
+    private StubDeviceDAO    backend;
+    private CachingDeviceDAO cache;
+
+    @Before
+    public void setUp() {
+        backend = new StubDeviceDAO();
+        cache   = new CachingDeviceDAO(backend, 2, 0);
+    }
+
+    @Test
+    public void testFindByIdIsServedFromCacheAfterFirstLoad() {
+        Device saved = cache.save(new Device("Cached", DeviceType.SERVER, DeviceStatus.ACTIVE, null, null));
+
+        cache.findById(saved.getId());
+        cache.findById(saved.getId());
+
+        assertEquals(1, backend.reads);
+        assertEquals(1, cache.getIdStats().hits());
+        assertEquals(1, cache.getIdStats().misses());
+    }
+
+    @Test
+    public void testReturnedDevicesAreCopies() {
+        Device saved = cache.save(new Device("Original", DeviceType.SERVER, DeviceStatus.ACTIVE, null, null));
+
+        cache.findById(saved.getId()).orElseThrow().setName("Mutated by caller");
+
+        assertEquals("Original", cache.findById(saved.getId()).orElseThrow().getName());
+    }
+
+    @Test
+    public void testUpdateInvalidatesIdAndOldAndNewLists() {
+        Device saved = cache.save(new Device("Moving", DeviceType.SERVER, DeviceStatus.ACTIVE, null, null));
+        Device loaded = cache.findById(saved.getId()).orElseThrow();
+        assertEquals(1, cache.findByStatus(DeviceStatus.ACTIVE).size());
+        assertEquals(0, cache.findByStatus(DeviceStatus.MAINTENANCE).size());
+
+        loaded.setStatus(DeviceStatus.MAINTENANCE);
+        cache.update(loaded);
+
+        assertEquals(DeviceStatus.MAINTENANCE, cache.findById(saved.getId()).orElseThrow().getStatus());
+        assertEquals(0, cache.findByStatus(DeviceStatus.ACTIVE).size());
+        assertEquals(1, cache.findByStatus(DeviceStatus.MAINTENANCE).size());
+    }
+
+    @Test
+    public void testDeleteInvalidatesEntry() {
+        Device saved = cache.save(new Device("Doomed", DeviceType.LAPTOP, DeviceStatus.ACTIVE, null, null));
+        cache.findById(saved.getId());
+        cache.findByType(DeviceType.LAPTOP);
+
+        cache.delete(saved.getId());
+
+        assertFalse(cache.findById(saved.getId()).isPresent());
+        assertTrue(cache.findByType(DeviceType.LAPTOP).isEmpty());
+    }
+
+    @Test
+    public void testRemoteChangeInvalidatesEntryAndLists() {
+        Device saved = cache.save(new Device("Shared", DeviceType.ROUTER, DeviceStatus.ACTIVE, null, null));
+        cache.findById(saved.getId());
+        cache.findByType(DeviceType.ROUTER);
+
+        saved.setName("Renamed elsewhere");
+        backend.update(saved);                       // behind the cache's back
+        cache.onChange(new DeviceChange(DeviceChange.Op.UPDATE, saved.getId(), 1));
+
+        assertEquals("Renamed elsewhere", cache.findById(saved.getId()).orElseThrow().getName());
+        assertEquals("Renamed elsewhere", cache.findByType(DeviceType.ROUTER).get(0).getName());
+
+        backend.delete(saved.getId());
+        cache.onChange(DeviceChange.RELOAD);
+
+        assertFalse(cache.findById(saved.getId()).isPresent());
+        assertTrue(cache.findByType(DeviceType.ROUTER).isEmpty());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEntryIsEvicted() {
+        UUID a = cache.save(new Device("A", DeviceType.OTHER, DeviceStatus.ACTIVE, null, null)).getId();
+        UUID b = cache.save(new Device("B", DeviceType.OTHER, DeviceStatus.ACTIVE, null, null)).getId();
+        UUID c = cache.save(new Device("C", DeviceType.OTHER, DeviceStatus.ACTIVE, null, null)).getId();
+
+        cache.findById(a);
+        cache.findById(b);
+        cache.findById(a);      // a is now more recently used than b
+        cache.findById(c);      // capacity 2 → evicts b
+
+        assertEquals(1, cache.getIdStats().evictions());
+        int readsBefore = backend.reads;
+        cache.findById(a);
+        assertEquals("a should still be cached", readsBefore, backend.reads);
+        cache.findById(b);
+        assertEquals("b should have been evicted", readsBefore + 1, backend.reads);
+    }
+}
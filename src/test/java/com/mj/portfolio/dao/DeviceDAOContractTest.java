@@ -0,0 +1,437 @@
+package com.mj.portfolio.dao;
+
+import com.mj.portfolio.exception.StaleDeviceException;
+import com.mj.portfolio.model.Device;
+import com.mj.portfolio.model.DeviceStatus;
+import com.mj.portfolio.model.DeviceType;
+import org.junit.*;
+import org.junit.runners.MethodSorters;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+/**
+ * Behaviour every {@link DeviceDAO} implementation must share. Subclasses set
+ * {@link #dao} in a {@code @BeforeClass} method; the tests are skipped if
+ * they leave it {@code null} (e.g. the database is unreachable).
+ *
+ * <p>Tests are ordered alphabetically to guarantee CRUD sequence:
+ * {@code t1_save} → {@code t2_findAll} → {@code t3_findById} → ... → {@code t7_delete}
+ * </p>
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public abstract class DeviceDAOContractTest {
+
+    protected static DeviceDAO dao;
+    protected static UUID      testId;   // shared across tests
+
+    @Before
+    public void assumeDaoAvailable() {
+        Assume.assumeNotNull("DAO must be initialised", dao);
+    }
+
+    // ── Test methods (alphabetical = execution order) ─────────────────────────
+
+    @Test
+    public void t1_save_shouldCreateDeviceAndPopulateIdAndCreatedAt() {
+        Device device = new Device("Test Laptop", DeviceType.LAPTOP, DeviceStatus.ACTIVE,
+                "192.168.99.99", "Test Room");
+
+        Device saved = dao.save(device);
+
+        assertNotNull("Saved device must have an ID",         saved.getId());
+        assertNotNull("Saved device must have a createdAt",   saved.getCreatedAt());
+        assertEquals("Name should match",   "Test Laptop",    saved.getName());
+        assertEquals("Type should match",   DeviceType.LAPTOP, saved.getType());
+        assertEquals("Status should match", DeviceStatus.ACTIVE, saved.getStatus());
+
+        testId = saved.getId(); // make available to subsequent tests
+    }
+
+    @Test
+    public void t2_findAll_shouldReturnNonEmptyList() {
+        Assume.assumeNotNull(testId);
+        List<Device> devices = dao.findAll();
+        assertFalse("findAll() must return at least the test device", devices.isEmpty());
+    }
+
+    @Test
+    public void t3_findById_shouldReturnCorrectDevice() {
+        Assume.assumeNotNull(testId);
+        Optional<Device> result = dao.findById(testId);
+
+        assertTrue("Device should be found by id", result.isPresent());
+        assertEquals("Test Laptop", result.get().getName());
+    }
+
+    @Test
+    public void t4_findById_unknownId_shouldReturnEmpty() {
+        Optional<Device> result = dao.findById(UUID.randomUUID());
+        assertFalse("Random UUID should not match any device", result.isPresent());
+    }
+
+    @Test
+    public void t5_search_shouldMatchByName() {
+        Assume.assumeNotNull(testId);
+        List<Device> results = dao.search("Test Lap");
+        assertTrue("search('Test Lap') should find the test device",
+                results.stream().anyMatch(d -> d.getId().equals(testId)));
+    }
+
+    @Test
+    public void t6_update_shouldPersistChanges() {
+        Assume.assumeNotNull(testId);
+        Device device = dao.findById(testId).orElseThrow();
+        device.setStatus(DeviceStatus.MAINTENANCE);
+        device.setLocation("Maintenance Bay");
+
+        dao.update(device);
+
+        Device reloaded = dao.findById(testId).orElseThrow();
+        assertEquals(DeviceStatus.MAINTENANCE, reloaded.getStatus());
+        assertEquals("Maintenance Bay",        reloaded.getLocation());
+    }
+
+    @Test
+    public void t7_delete_shouldRemoveDevice() {
+        Assume.assumeNotNull(testId);
+        boolean deleted = dao.delete(testId);
+        assertTrue("delete() should return true for existing id", deleted);
+
+        Optional<Device> gone = dao.findById(testId);
+        assertFalse("Deleted device should not be found", gone.isPresent());
+    }
+
+    @Test
+    public void t8_filterByType_shouldReturnMatchingDevices() {
+        // Seeds and then cleans up a SERVER device for this test
+        Device server = dao.save(new Device("Temp Server", DeviceType.SERVER,
+                DeviceStatus.ACTIVE, null, null));
+        try {
+            List<Device> servers = dao.findByType(DeviceType.SERVER);
+            assertTrue(servers.stream().anyMatch(d -> d.getId().equals(server.getId())));
+        } finally {
+            dao.delete(server.getId());
+        }
+    }
+
+    @Test
+    public void t9_filterByStatus_shouldReturnMatchingDevices() {
+        Device inactive = dao.save(new Device("Temp Inactive", DeviceType.OTHER,
+                DeviceStatus.INACTIVE, null, null));
+        try {
+            List<Device> results = dao.findByStatus(DeviceStatus.INACTIVE);
+            assertTrue(results.stream().anyMatch(d -> d.getId().equals(inactive.getId())));
+        } finally {
+            dao.delete(inactive.getId());
+        }
+    }
+
+    @Test
+    public void t10_saveAll_shouldPopulateIdsAndReportBadRows() {
+        List<Device> batch = new ArrayList<>();
+        batch.add(new Device("Bulk Device 1", DeviceType.SERVER, DeviceStatus.ACTIVE, null, "Rack 1"));
+        batch.add(new Device("x".repeat(101), DeviceType.SERVER, DeviceStatus.ACTIVE, null, null));
+        batch.add(new Device("Bulk Device 2", DeviceType.LAPTOP, DeviceStatus.INACTIVE, null, null));
+
+        BatchResult result = dao.saveAll(batch);
+        try {
+            assertEquals("Two rows should be saved", 2, result.getSavedCount());
+            assertEquals("The over-long name should be rejected", 1, result.getFailures().size());
+            assertEquals(1, result.getFailures().get(0).index());
+            for (Device saved : result.getSaved()) {
+                assertNotNull(saved.getId());
+                assertNotNull(saved.getCreatedAt());
+                assertTrue(dao.findById(saved.getId()).isPresent());
+            }
+            assertNull("Rejected row must not keep a generated id", batch.get(1).getId());
+        } finally {
+            result.getSaved().forEach(d -> dao.delete(d.getId()));
+        }
+    }
+
+    @Test
+    public void t11_streamAll_shouldMatchFindAll() {
+        Device device = dao.save(new Device("Stream Device", DeviceType.ROUTER,
+                DeviceStatus.ACTIVE, null, null));
+        try (Stream<Device> stream = dao.streamAll()) {
+            assertTrue(stream.anyMatch(d -> d.getId().equals(device.getId())));
+        } finally {
+            dao.delete(device.getId());
+        }
+    }
+
+    @Test
+    public void t12_findPage_shouldSeekForwardAndBackward() {
+        List<Device> seeded = new ArrayList<>();
+        for (int i = 1; i <= 5; i++) {
+            seeded.add(dao.save(new Device("Keyset Page " + i, DeviceType.OTHER,
+                    DeviceStatus.ACTIVE, null, null)));
+        }
+        try {
+            DeviceFilter filter = DeviceFilter.search("Keyset Page");
+
+            Page<Device> first = dao.findPage(filter, null, 2);
+            assertEquals(List.of("Keyset Page 1", "Keyset Page 2"), names(first));
+            assertTrue(first.hasNext());
+            assertFalse(first.hasPrevious());
+
+            Page<Device> second = dao.findPage(filter, first.nextToken(), 2);
+            assertEquals(List.of("Keyset Page 3", "Keyset Page 4"), names(second));
+
+            Page<Device> third = dao.findPage(filter, second.nextToken(), 2);
+            assertEquals(List.of("Keyset Page 5"), names(third));
+            assertFalse(third.hasNext());
+
+            Page<Device> back = dao.findPage(filter, third.previousToken(), 2);
+            assertEquals(names(second), names(back));
+            assertTrue(back.hasPrevious());
+        } finally {
+            seeded.forEach(d -> dao.delete(d.getId()));
+        }
+    }
+
+    @Test
+    public void t13_rankedSearch_shouldRespectScopeAndLimit() {
+        Device a = dao.save(new Device("Trigram Alpha", DeviceType.SERVER, DeviceStatus.ACTIVE,
+                null, "Rack 4"));
+        Device b = dao.save(new Device("Trigram Beta", DeviceType.SERVER, DeviceStatus.ACTIVE,
+                null, "Backrack Storage"));
+        try {
+            List<Device> scoped = dao.search(SearchQuery.parse("name:trigram location:\"rack 4\""), 10);
+            assertEquals(List.of(a.getId()), scoped.stream().map(Device::getId).toList());
+
+            List<Device> limited = dao.search(SearchQuery.parse("trigram"), 1);
+            assertEquals(1, limited.size());
+        } finally {
+            dao.delete(a.getId());
+            dao.delete(b.getId());
+        }
+    }
+
+    @Test
+    public void t14_applyWrites_shouldBatchRunsAndIsolateFailures() {
+        Device keep = dao.save(new Device("Group Keep", DeviceType.SERVER, DeviceStatus.ACTIVE, null, null));
+        Device gone = dao.save(new Device("Group Gone", DeviceType.SERVER, DeviceStatus.ACTIVE, null, null));
+        Device fresh = new Device("Group Fresh", DeviceType.ROUTER, DeviceStatus.ACTIVE, null, null);
+        keep.setStatus(DeviceStatus.MAINTENANCE);
+        Device missing = new Device(UUID.randomUUID(), "Group Missing", DeviceType.OTHER,
+                DeviceStatus.ACTIVE, null, null, null);
+
+        List<DeviceWrite.Outcome> outcomes = dao.applyWrites(List.of(
+                new DeviceWrite.Insert(fresh),
+                new DeviceWrite.Insert(new Device("x".repeat(101), DeviceType.OTHER, DeviceStatus.ACTIVE, null, null)),
+                new DeviceWrite.Update(keep),
+                new DeviceWrite.Update(missing),
+                new DeviceWrite.Delete(gone.getId()),
+                new DeviceWrite.Delete(gone.getId())));
+        try {
+            assertTrue(outcomes.get(0).applied());
+            assertNotNull(fresh.getCreatedAt());
+            assertNotNull("Over-long name must be rejected", outcomes.get(1).error());
+            assertTrue(outcomes.get(2).applied());
+            assertNotNull("Update of a missing id must fail", outcomes.get(3).error());
+            assertTrue(outcomes.get(4).applied());
+            assertSame(DeviceWrite.Outcome.NOT_FOUND, outcomes.get(5));
+
+            assertEquals(DeviceStatus.MAINTENANCE, dao.findById(keep.getId()).orElseThrow().getStatus());
+            assertTrue(dao.findById(fresh.getId()).isPresent());
+            assertFalse(dao.findById(gone.getId()).isPresent());
+        } finally {
+            dao.delete(keep.getId());
+            if (fresh.getId() != null) {
+                dao.delete(fresh.getId());
+            }
+        }
+    }
+
+    @Test
+    public void t15_updateStatus_shouldChangeByIdsAndFilterInOneStatement() {
+        Device a = dao.save(new Device("Bulk Status A", DeviceType.SERVER, DeviceStatus.ACTIVE, null, "Rack 77"));
+        Device b = dao.save(new Device("Bulk Status B", DeviceType.SERVER, DeviceStatus.ACTIVE, null, "Rack 77"));
+        Device c = dao.save(new Device("Bulk Status C", DeviceType.LAPTOP, DeviceStatus.ACTIVE, null, "Rack 77"));
+        try {
+            assertEquals(2, dao.updateStatus(List.of(a.getId(), b.getId(), UUID.randomUUID()),
+                    DeviceStatus.MAINTENANCE));
+            assertEquals("Unchanged rows are not counted", 0,
+                    dao.updateStatus(List.of(a.getId()), DeviceStatus.MAINTENANCE));
+
+            DeviceFilter rack = DeviceFilter.search("Rack 77");
+            assertEquals(3, dao.updateStatusWhere(rack, DeviceStatus.INACTIVE));
+            assertEquals(1, dao.updateStatusWhere(rack.withType(DeviceType.LAPTOP), DeviceStatus.ACTIVE));
+            assertEquals(DeviceStatus.INACTIVE, dao.findById(b.getId()).orElseThrow().getStatus());
+            assertEquals(DeviceStatus.ACTIVE, dao.findById(c.getId()).orElseThrow().getStatus());
+        } finally {
+            List.of(a, b, c).forEach(d -> dao.delete(d.getId()));
+        }
+    }
+
+    @Test
+    public void t16_patch_shouldUpdateInOneStatementAndRejectStaleVersions() {
+        Device device = dao.save(new Device("Patch Target", DeviceType.ROUTER, DeviceStatus.ACTIVE,
+                "10.9.9.9", "Rack 9"));
+        try {
+            assertEquals(0, device.getVersion());
+
+            Device patched = dao.patch(device.getId(), DevicePatch.empty()
+                    .withStatus(DeviceStatus.MAINTENANCE)
+                    .withLocation("")).orElseThrow();
+            assertEquals("Unpatched fields are kept", "Patch Target", patched.getName());
+            assertEquals("10.9.9.9", patched.getIpAddress());
+            assertEquals(DeviceStatus.MAINTENANCE, patched.getStatus());
+            assertNull("\"\" clears the field", patched.getLocation());
+            assertEquals(1, patched.getVersion());
+
+            Device unchanged = dao.patch(device.getId(), DevicePatch.empty().expectingVersion(1)).orElseThrow();
+            assertEquals("An empty patch bumps no version", 1, unchanged.getVersion());
+            assertEquals(DeviceStatus.MAINTENANCE, unchanged.getStatus());
+
+            try {
+                dao.patch(device.getId(), DevicePatch.empty().withName("Lost").expectingVersion(0));
+                fail("A patch based on version 0 must be rejected");
+            } catch (StaleDeviceException e) {
+                assertEquals(1, e.getActualVersion());
+            }
+            try {
+                dao.update(device);   // still at version 0
+                fail("A full update of a stale copy must be rejected");
+            } catch (StaleDeviceException expected) {
+                // the row keeps the patched values
+            }
+            try {
+                dao.delete(device.getId(), 0);
+                fail("A delete of a stale version must be rejected");
+            } catch (StaleDeviceException expected) {
+                // still there
+            }
+            assertEquals("Patch Target", dao.findById(device.getId()).orElseThrow().getName());
+
+            Device current = dao.findById(device.getId()).orElseThrow();
+            current.setName("Patch Target 2");
+            assertEquals(2, dao.update(current).getVersion());
+            assertFalse(dao.patch(UUID.randomUUID(), DevicePatch.empty().withName("x")).isPresent());
+            assertTrue(dao.delete(device.getId(), 2));
+        } finally {
+            dao.delete(device.getId());
+        }
+    }
+
+    @Test
+    public void t17_countBy_shouldMatchCountingOnTheClient() {
+        Device device = dao.save(new Device("Count Probe", DeviceType.PRINTER, DeviceStatus.INACTIVE, null, null));
+        try {
+            DeviceCounts counts = dao.countBy(GroupingKey.TYPE, GroupingKey.LOCATION, GroupingKey.TYPE);
+            List<Device> all = dao.findAll();
+
+            assertEquals(all.size(), counts.getTotal());
+            assertEquals(Set.of(GroupingKey.TYPE, GroupingKey.LOCATION), counts.getKeys());
+            assertEquals(Long.valueOf(all.stream().filter(d -> d.getType() == DeviceType.PRINTER).count()),
+                    counts.get(GroupingKey.TYPE).get("PRINTER"));
+            assertEquals("Devices without a location are counted under null",
+                    Long.valueOf(all.stream().filter(d -> d.getLocation() == null).count()),
+                    counts.get(GroupingKey.LOCATION).get(null));
+            assertTrue(counts.get(GroupingKey.STATUS).isEmpty());
+            assertEquals(all.size(), dao.countBy().getTotal());
+        } finally {
+            dao.delete(device.getId());
+        }
+    }
+
+    @Test
+    public void t20_findBySubnet_andIpConflicts_shouldCompareAddressesNumerically() {
+        Device low    = dao.save(new Device("Subnet Low", DeviceType.SERVER, DeviceStatus.ACTIVE, "198.51.100.9", null));
+        Device high   = dao.save(new Device("Subnet High", DeviceType.SERVER, DeviceStatus.ACTIVE, "198.51.100.10", null));
+        Device twin   = dao.save(new Device("Subnet Twin", DeviceType.ROUTER, DeviceStatus.ACTIVE, "198.51.100.10", null));
+        Device beside = dao.save(new Device("Subnet Beside", DeviceType.SERVER, DeviceStatus.ACTIVE, "198.51.101.1", null));
+        Device v6     = dao.save(new Device("Subnet V6", DeviceType.SERVER, DeviceStatus.ACTIVE, "2001:db8::10", null));
+        try {
+            assertEquals("Ordered by address, then name",
+                    List.of("Subnet Low", "Subnet High", "Subnet Twin"),
+                    dao.findBySubnet("198.51.100.0/24").stream().map(Device::getName).toList());
+            assertEquals(4, dao.findBySubnet("198.51.100.0/23").size());
+            assertEquals(List.of("Subnet V6"),
+                    dao.findBySubnet("2001:db8::/32").stream().map(Device::getName).toList());
+
+            IpConflict conflict = dao.findIpConflicts().stream()
+                    .filter(c -> c.ipAddress().equals("198.51.100.10"))
+                    .findFirst().orElseThrow();
+            assertEquals(List.of("Subnet High", "Subnet Twin"),
+                    conflict.devices().stream().map(Device::getName).toList());
+            assertTrue(dao.findIpConflicts().stream().noneMatch(c -> c.ipAddress().equals("198.51.100.9")));
+        } finally {
+            List.of(low, high, twin, beside, v6).forEach(d -> dao.delete(d.getId()));
+        }
+    }
+
+    @Test
+    public void t21_streamByNaturalKey_shouldOrderNameThenAddressByCodePoint() {
+        List<Device> saved = new ArrayList<>();
+        for (String[] d : new String[][] {
+                { "Natural a", "10.0.0.9" }, { "Natural a", "10.0.0.10" }, { "Natural a", null },
+                { "Natural B", null }, { "Natural \u00e9", null }, { "Natural \uff5a", null },
+                { "Natural \ud83d\ude00", null } }) {
+            saved.add(dao.save(new Device(d[0], DeviceType.OTHER, DeviceStatus.ACTIVE, d[1], null)));
+        }
+        try (Stream<Device> stream = dao.streamByNaturalKey()) {
+            // Byte order whatever the locale: upper case first, "10" before "9",
+            // and characters outside the BMP after every BMP character.
+            assertEquals(List.of("Natural B", "Natural a null", "Natural a 10.0.0.10", "Natural a 10.0.0.9",
+                            "Natural \u00e9", "Natural \uff5a", "Natural \ud83d\ude00"),
+                    stream.filter(d -> d.getName().startsWith("Natural "))
+                            .map(d -> d.getName().equals("Natural a") ? d.getName() + " " + d.getIpAddress() : d.getName())
+                            .toList());
+        } finally {
+            saved.forEach(d -> dao.delete(d.getId()));
+        }
+    }
+
+    @Test
+    public void t22_changesSince_shouldReportSavesAndDeletesAfterTheWatermark() {
+        long watermark = dao.changeWatermark();
+        Device saved = dao.save(new Device("Delta Probe", DeviceType.OTHER, DeviceStatus.ACTIVE, null, null));
+        boolean deleted = false;
+        try {
+            DeviceDelta delta = dao.changesSince(watermark);
+            assertTrue(delta.changed().stream().anyMatch(d -> d.getId().equals(saved.getId())));
+
+            deleted = dao.delete(saved.getId());
+            DeviceDelta next = dao.changesSince(delta.watermark());
+            assertTrue(next.changed().stream().noneMatch(d -> d.getId().equals(saved.getId())));
+            assertTrue("Tracked deltas must report the delete", next.full() || next.deleted().contains(saved.getId()));
+        } finally {
+            if (!deleted) {
+                dao.delete(saved.getId());
+            }
+        }
+    }
+
+    @Test
+    public void t23_save_shouldKeepAPresetId() {
+        Device single = new Device("Preset Id Probe", DeviceType.OTHER, DeviceStatus.ACTIVE, null, null);
+        Device batched = new Device("Preset Id Batch", DeviceType.OTHER, DeviceStatus.ACTIVE, null, null);
+        UUID singleId  = UUID.randomUUID();
+        UUID batchedId = UUID.randomUUID();
+        single.setId(singleId);
+        batched.setId(batchedId);
+        try {
+            assertEquals(singleId, dao.save(single).getId());
+            assertEquals(1, dao.saveAll(List.of(batched)).getSavedCount());
+
+            assertEquals("Preset Id Probe", dao.findById(singleId).orElseThrow().getName());
+            assertEquals("Preset Id Batch", dao.findById(batchedId).orElseThrow().getName());
+        } finally {
+            dao.delete(singleId);
+            dao.delete(batchedId);
+        }
+    }
+
+    private static List<String> names(Page<Device> page) {
+        return page.items().stream().map(Device::getName).toList();
+    }
+}
@@ -4,35 +4,40 @@ import com.mj.portfolio.db.DatabaseConfig;
 import com.mj.portfolio.model.Device;
 import com.mj.portfolio.model.DeviceStatus;
 import com.mj.portfolio.model.DeviceType;
-import org.junit.*;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
 import org.junit.runners.MethodSorters;
 
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.List;
-import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.*;
 
 /**
- * Integration tests for {@link DeviceDAOImpl}.
+ * Integration tests for {@link DeviceDAOImpl}: the {@link DeviceDAOContractTest
+ * contract} plus PostgreSQL-only features.
  *
  * <p><b>Requires a running PostgreSQL database.</b>
  * Place {@code db.properties} in the project root (or on the classpath)
  * before running these tests. They will be skipped automatically if the
  * database cannot be reached.</p>
- *
- * <p>Tests are ordered alphabetically to guarantee CRUD sequence:
- * {@code t1_save} → {@code t2_findAll} → {@code t3_findById} → ... → {@code t7_delete}
- * </p>
  */
 @FixMethodOrder(MethodSorters.NAME_ASCENDING)
-public class DeviceDAOTest {
-
-    private static DeviceDAO dao;
-    private static UUID      testId;   // shared across tests
+public class DeviceDAOTest extends DeviceDAOContractTest {
 
     @BeforeClass
     public static void setUpClass() {
+        dao    = null;
+        testId = null;
         try {
             dao = new DeviceDAOImpl(DatabaseConfig.getDataSource());
         } catch (Exception e) {
@@ -46,105 +51,72 @@ public class DeviceDAOTest {
         DatabaseConfig.close();
     }
 
-    @Before
-    public void assumeDbAvailable() {
-        Assume.assumeNotNull("DAO must be initialised (DB reachable)", dao);
-    }
-
-    // ── Test methods (alphabetical = execution order) ─────────────────────────
-
-    @Test
-    public void t1_save_shouldCreateDeviceAndPopulateIdAndCreatedAt() {
-        Device device = new Device("Test Laptop", DeviceType.LAPTOP, DeviceStatus.ACTIVE,
-                "192.168.99.99", "Test Room");
-
-        Device saved = dao.save(device);
-
-        assertNotNull("Saved device must have an ID",         saved.getId());
-        assertNotNull("Saved device must have a createdAt",   saved.getCreatedAt());
-        assertEquals("Name should match",   "Test Laptop",    saved.getName());
-        assertEquals("Type should match",   DeviceType.LAPTOP, saved.getType());
-        assertEquals("Status should match", DeviceStatus.ACTIVE, saved.getStatus());
-
-        testId = saved.getId(); // make available to subsequent tests
-    }
-
-    @Test
-    public void t2_findAll_shouldReturnNonEmptyList() {
-        Assume.assumeNotNull(testId);
-        List<Device> devices = dao.findAll();
-        assertFalse("findAll() must return at least the test device", devices.isEmpty());
-    }
-
-    @Test
-    public void t3_findById_shouldReturnCorrectDevice() {
-        Assume.assumeNotNull(testId);
-        Optional<Device> result = dao.findById(testId);
-
-        assertTrue("Device should be found by id", result.isPresent());
-        assertEquals("Test Laptop", result.get().getName());
-    }
-
     @Test
-    public void t4_findById_unknownId_shouldReturnEmpty() {
-        Optional<Device> result = dao.findById(UUID.randomUUID());
-        assertFalse("Random UUID should not match any device", result.isPresent());
-    }
-
-    @Test
-    public void t5_search_shouldMatchByName() {
-        Assume.assumeNotNull(testId);
-        List<Device> results = dao.search("Test Lap");
-        assertTrue("search('Test Lap') should find the test device",
-                results.stream().anyMatch(d -> d.getId().equals(testId)));
-    }
-
-    @Test
-    public void t6_update_shouldPersistChanges() {
-        Assume.assumeNotNull(testId);
-        Device device = dao.findById(testId).orElseThrow();
-        device.setStatus(DeviceStatus.MAINTENANCE);
-        device.setLocation("Maintenance Bay");
-
-        dao.update(device);
-
-        Device reloaded = dao.findById(testId).orElseThrow();
-        assertEquals(DeviceStatus.MAINTENANCE, reloaded.getStatus());
-        assertEquals("Maintenance Bay",        reloaded.getLocation());
-    }
-
-    @Test
-    public void t7_delete_shouldRemoveDevice() {
-        Assume.assumeNotNull(testId);
-        boolean deleted = dao.delete(testId);
-        assertTrue("delete() should return true for existing id", deleted);
-
-        Optional<Device> gone = dao.findById(testId);
-        assertFalse("Deleted device should not be found", gone.isPresent());
+    public void t18_changeListener_shouldHearCommittedWrites() throws Exception {
+        BlockingQueue<DeviceChange> changes = new LinkedBlockingQueue<>();
+        try (DeviceChangeListener listener = new DeviceChangeListener(DatabaseConfig::openConnection)
+                .onChange(changes::add)
+                .start()) {
+            Device device = dao.save(new Device("Notify Probe", DeviceType.ROUTER, DeviceStatus.ACTIVE, null, null));
+            try {
+                dao.updateStatus(Set.of(device.getId()), DeviceStatus.MAINTENANCE);
+
+                assertEquals(new DeviceChange(DeviceChange.Op.INSERT, device.getId(), 0), next(changes));
+                assertEquals(new DeviceChange(DeviceChange.Op.UPDATE, device.getId(), 1), next(changes));
+            } finally {
+                dao.delete(device.getId());
+            }
+            assertEquals(new DeviceChange(DeviceChange.Op.DELETE, device.getId(), 1), next(changes));
+        }
     }
 
     @Test
-    public void t8_filterByType_shouldReturnMatchingDevices() {
-        // Seeds and then cleans up a SERVER device for this test
-        Device server = dao.save(new Device("Temp Server", DeviceType.SERVER,
-                DeviceStatus.ACTIVE, null, null));
+    public void t19_applyJournal_shouldApplyEachEntryOnce() {
+        UUID journalId = UUID.randomUUID();
+        Device device = new Device("Journal Probe", DeviceType.SERVER, DeviceStatus.ACTIVE, null, null);
+        device.setId(UUID.randomUUID());
+        List<DeviceWrite> writes = List.of(
+                new DeviceWrite.Insert(device),
+                new DeviceWrite.Patch(device.getId(), DevicePatch.empty().withLocation("Rack J")),
+                new DeviceWrite.Delete(device.getId(), 0));   // stale: the patch moved it to version 1
         try {
-            List<Device> servers = dao.findByType(DeviceType.SERVER);
-            assertTrue(servers.stream().anyMatch(d -> d.getId().equals(server.getId())));
+            List<DeviceWrite.Outcome> first = dao.applyJournal(journalId, 0, writes);
+            assertTrue(first.get(0).applied());
+            assertEquals(1, first.get(1).device().getVersion());
+            assertNotNull(first.get(2).error());
+
+            List<DeviceWrite.Outcome> replay = dao.applyJournal(journalId, 0, writes);
+            assertTrue(replay.get(0).applied());
+            assertTrue(replay.get(1).applied());
+            assertEquals("The stale delete is still reported on retry", first.get(2).error(), replay.get(2).error());
+            Device stored = dao.findById(device.getId()).orElseThrow();
+            assertEquals(1, stored.getVersion());
+            assertEquals("Rack J", stored.getLocation());
         } finally {
-            dao.delete(server.getId());
+            dao.delete(device.getId());
         }
     }
 
     @Test
-    public void t9_filterByStatus_shouldReturnMatchingDevices() {
-        Device inactive = dao.save(new Device("Temp Inactive", DeviceType.OTHER,
-                DeviceStatus.INACTIVE, null, null));
-        try {
-            List<Device> results = dao.findByStatus(DeviceStatus.INACTIVE);
-            assertTrue(results.stream().anyMatch(d -> d.getId().equals(inactive.getId())));
-        } finally {
-            dao.delete(inactive.getId());
+    public void t24_changesSince_shouldBeFullOnceTombstonesArePruned() throws SQLException {
+        Device device = dao.save(new Device("Pruned Probe", DeviceType.OTHER, DeviceStatus.ACTIVE, null, null));
+        long watermark = dao.changeWatermark();
+        dao.delete(device.getId());
+        assertTrue(dao.changesSince(watermark).deleted().contains(device.getId()));
+
+        try (Connection conn = DatabaseConfig.getDataSource().getConnection();
+             Statement st = conn.createStatement()) {
+            st.execute("SELECT prune_device_tombstones('0 seconds')");
         }
+
+        assertTrue("Deletes before the horizon are gone, so the delta must be full",
+                dao.changesSince(watermark).full());
+    }
+
+    /** Next delivered change, waiting up to 5 s. */
+    private static DeviceChange next(BlockingQueue<DeviceChange> changes) throws InterruptedException {
+        DeviceChange change = changes.poll(5, TimeUnit.SECONDS);
+        assertNotNull("No notification within 5 s", change);
+        return change;
     }
 }
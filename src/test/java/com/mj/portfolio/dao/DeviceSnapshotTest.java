@@ -0,0 +1,117 @@
+package com.mj.portfolio.dao;
+
+import com.mj.portfolio.model.Device;
+import com.mj.portfolio.model.DeviceStatus;
+import com.mj.portfolio.model.DeviceType;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+/** Unit tests for the {@link DeviceSnapshot} file format. No database required. */
+public class DeviceSnapshotTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testRoundTripKeepsEveryField() throws IOException {
+        Device full = device("Core Router ✓", DeviceType.ROUTER, DeviceStatus.MAINTENANCE, "2001:db8::1", "Rack 4");
+        full.setVersion(7);
+        Device bare = device("Spare", DeviceType.OTHER, DeviceStatus.ACTIVE, null, null);
+        bare.setCreatedAt(null);
+        Device sameRack = device("Switch", DeviceType.NETWORK_SWITCH, DeviceStatus.INACTIVE, "10.0.0.2", "Rack 4");
+        Path file = folder.getRoot().toPath().resolve("devices.snap");
+
+        assertEquals(3, DeviceSnapshot.write(file, 42, Instant.ofEpochMilli(1_700_000_000_123L),
+                List.of(full, bare, sameRack).iterator()));
+        DeviceSnapshot read = DeviceSnapshot.read(file);
+
+        assertEquals(42, read.watermark());
+        assertEquals(Instant.ofEpochMilli(1_700_000_000_123L), read.takenAt());
+        assertEquals(3, read.devices().size());
+        assertSameDevice(full, read.devices().get(0));
+        assertSameDevice(bare, read.devices().get(1));
+        assertSameDevice(sameRack, read.devices().get(2));
+        assertSame("Locations are decoded once and shared",
+                read.devices().get(0).getLocation(), read.devices().get(2).getLocation());
+        assertFalse(Files.exists(file.resolveSibling("devices.snap.tmp")));
+    }
+
+    @Test
+    public void testWithChangesAppliesDeletesThenChanges() {
+        Device a = device("a", DeviceType.SERVER, DeviceStatus.ACTIVE, null, null);
+        Device b = device("b", DeviceType.SERVER, DeviceStatus.ACTIVE, null, null);
+        Device c = device("c", DeviceType.SERVER, DeviceStatus.ACTIVE, null, null);
+        DeviceSnapshot snapshot = new DeviceSnapshot(1, Instant.now(), new ArrayList<>(List.of(a, b, c)));
+
+        Device renamed = new Device(a);
+        renamed.setName("d");
+        Device added = device("0 new", DeviceType.LAPTOP, DeviceStatus.ACTIVE, null, null);
+        DeviceSnapshot next = snapshot.withChanges(
+                new DeviceDelta(5, false, List.of(renamed, added), List.of(b.getId(), UUID.randomUUID())));
+
+        assertEquals(5, next.watermark());
+        assertEquals(List.of("0 new", "c", "d"), next.devices().stream().map(Device::getName).toList());
+
+        DeviceSnapshot reloaded = snapshot.withChanges(new DeviceDelta(6, true, List.of(b), List.of()));
+        assertEquals(List.of(b.getId()), reloaded.devices().stream().map(Device::getId).toList());
+    }
+
+    @Test
+    public void testRejectsOtherFilesVersionsAndTruncation() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("devices.snap");
+        DeviceSnapshot.write(file, 1, Instant.now(),
+                List.of(device("a", DeviceType.SERVER, DeviceStatus.ACTIVE, "10.0.0.1", "HQ")).iterator());
+        byte[] bytes = Files.readAllBytes(file);
+
+        Path other = folder.newFile("other").toPath();
+        Files.writeString(other, "name,type,status,ip_address,location\n");
+        assertUnreadable(other, "is not a device snapshot");
+
+        byte[] newer = bytes.clone();
+        ByteBuffer.wrap(newer).putShort(4, (short) (DeviceSnapshot.FORMAT + 1));
+        Files.write(other, newer);
+        assertUnreadable(other, "save it again");
+
+        Files.write(other, Arrays.copyOf(bytes, bytes.length - 3));
+        assertUnreadable(other, "truncated or corrupt");
+    }
+
+    private static Device device(String name, DeviceType type, DeviceStatus status, String ip, String location) {
+        return new Device(UUID.randomUUID(), name, type, status, ip, location,
+                LocalDateTime.of(2026, 3, 1, 12, 30, 15, 123_456_000));
+    }
+
+    private static void assertSameDevice(Device expected, Device actual) {
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getName(), actual.getName());
+        assertEquals(expected.getType(), actual.getType());
+        assertEquals(expected.getStatus(), actual.getStatus());
+        assertEquals(expected.getIpAddress(), actual.getIpAddress());
+        assertEquals(expected.getLocation(), actual.getLocation());
+        assertEquals(expected.getCreatedAt(), actual.getCreatedAt());
+        assertEquals(expected.getVersion(), actual.getVersion());
+    }
+
+    private static void assertUnreadable(Path file, String reason) {
+        try {
+            DeviceSnapshot.read(file);
+            fail("Expected IOException for " + file);
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains(reason));
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.mj.portfolio.dao;
+
+import com.mj.portfolio.exception.DAOException;
+import com.mj.portfolio.model.Device;
+import com.mj.portfolio.model.DeviceStatus;
+import com.mj.portfolio.model.DeviceType;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.FixMethodOrder;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runners.MethodSorters;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+/**
+ * {@link FileDeviceDAO}: the {@link DeviceDAOContractTest contract} on a
+ * temporary file, plus persistence, crash recovery and compaction.
+ * No database required.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class FileDeviceDAOTest extends DeviceDAOContractTest {
+
+    private static Path contractFile;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @BeforeClass
+    public static void setUpClass() throws IOException {
+        contractFile = Files.createTempFile("devices", ".db");
+        Files.delete(contractFile);
+        dao    = new FileDeviceDAO(contractFile, false);
+        testId = null;
+    }
+
+    @AfterClass
+    public static void tearDownClass() throws IOException {
+        ((FileDeviceDAO) dao).close();
+        dao = null;
+        Files.deleteIfExists(contractFile);
+    }
+
+    @Test
+    public void testDevicesSurviveReopening() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("devices.db");
+        Device kept;
+        UUID   deleted;
+        try (FileDeviceDAO store = new FileDeviceDAO(file, true)) {
+            kept = store.save(new Device("Kept", DeviceType.SERVER, DeviceStatus.ACTIVE, "10.0.0.1", "Rack 1"));
+            deleted = store.save(new Device("Deleted", DeviceType.LAPTOP, DeviceStatus.ACTIVE, null, null)).getId();
+            kept.setLocation("Rack 2");
+            store.update(kept);
+            store.delete(deleted);
+        }
+
+        try (FileDeviceDAO store = new FileDeviceDAO(file, true)) {
+            Device reloaded = store.findById(kept.getId()).orElseThrow();
+            assertEquals("Rack 2", reloaded.getLocation());
+            assertEquals(1, reloaded.getVersion());
+            assertEquals(kept.getCreatedAt(), reloaded.getCreatedAt());
+            assertFalse(store.findById(deleted).isPresent());
+            assertEquals(1, store.findAll().size());
+        }
+    }
+
+    @Test
+    public void testTornLastRecordIsDiscarded() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("torn.db");
+        List<UUID> ids = saveThree(file);
+        long intact;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            intact = channel.size();
+            channel.truncate(intact - 5);   // a crash in the middle of the last append
+        }
+
+        try (FileDeviceDAO store = new FileDeviceDAO(file, true)) {
+            assertTrue(store.findById(ids.get(1)).isPresent());
+            assertFalse(store.findById(ids.get(2)).isPresent());
+            Device again = store.save(new Device("After recovery", DeviceType.OTHER, DeviceStatus.ACTIVE, null, null));
+            assertTrue(store.findById(again.getId()).isPresent());
+        }
+        try (FileDeviceDAO store = new FileDeviceDAO(file, true)) {
+            assertEquals(3, store.findAll().size());
+        }
+    }
+
+    @Test
+    public void testRecordFailingItsChecksumEndsRecovery() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("corrupt.db");
+        List<UUID> ids = saveThree(file);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] {'#'}), channel.size() - 3);
+        }
+
+        try (FileDeviceDAO store = new FileDeviceDAO(file, true)) {
+            assertEquals(2, store.findAll().size());
+            assertFalse(store.findById(ids.get(2)).isPresent());
+        }
+    }
+
+    @Test
+    public void testCompactionKeepsLiveDevicesAndShrinksFile() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("compact.db");
+        try (FileDeviceDAO store = new FileDeviceDAO(file, false)) {
+            List<Device> devices = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                devices.add(new Device("Device " + i, DeviceType.SERVER, DeviceStatus.ACTIVE, null, null));
+            }
+            store.saveAll(devices);
+            for (int i = 0; i < 200; i += 2) {
+                store.delete(devices.get(i).getId());
+            }
+            Device renamed = devices.get(1);
+            renamed.setName("Renamed");
+            store.update(renamed);
+            long before = store.getFileSize();
+
+            store.compact();
+
+            assertTrue(store.getFileSize() < before / 2);
+            assertEquals(0, store.getGarbageBytes());
+            assertEquals(100, store.findAll().size());
+            assertEquals("Renamed", store.findById(renamed.getId()).orElseThrow().getName());
+            store.save(new Device("After compaction", DeviceType.OTHER, DeviceStatus.ACTIVE, null, null));
+            try {
+                new FileDeviceDAO(file, false);
+                fail("The compacted file must stay locked");
+            } catch (DAOException expected) {
+                assertTrue(expected.getMessage().contains("in use"));
+            }
+        }
+        try (FileDeviceDAO store = new FileDeviceDAO(file, false)) {
+            assertEquals(101, store.findAll().size());
+            assertEquals(0, store.getGarbageBytes());
+        }
+    }
+
+    @Test
+    public void testSecondOpenOfTheSameFileIsRejected() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("locked.db");
+        try (FileDeviceDAO ignored = new FileDeviceDAO(file, false)) {
+            new FileDeviceDAO(file, false);
+            fail("A file can only be open once");
+        } catch (DAOException expected) {
+            assertTrue(expected.getMessage().contains("in use"));
+        }
+    }
+
+    @Test(expected = DAOException.class)
+    public void testFileThatIsNotADeviceLogIsRejected() throws IOException {
+        Path file = folder.newFile("notes.txt").toPath();
+        Files.writeString(file, "name,type\n");
+        new FileDeviceDAO(file, false);
+    }
+
+    private static List<UUID> saveThree(Path file) {
+        List<UUID> ids = new ArrayList<>();
+        try (FileDeviceDAO store = new FileDeviceDAO(file, true)) {
+            for (String name : List.of("one", "two", "three")) {
+                ids.add(store.save(new Device(name, DeviceType.OTHER, DeviceStatus.ACTIVE, null, null)).getId());
+            }
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,153 @@
+package com.mj.portfolio.dao;
+
+import com.mj.portfolio.model.Device;
+import com.mj.portfolio.model.DeviceStatus;
+import com.mj.portfolio.model.DeviceType;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link InMemoryDeviceDAO} over a {@link StubDeviceDAO}.
+ * No database required.
+ */
+public class InMemoryDeviceDAOTest {
+
+    private StubDeviceDAO     backend;
+    private InMemoryDeviceDAO memory;
+
+    @Before
+    public void setUp() {
+        backend = new StubDeviceDAO();
+        backend.save(new Device("delta",   DeviceType.SERVER, DeviceStatus.ACTIVE,      null, null));
+        backend.save(new Device("alpha",   DeviceType.SERVER, DeviceStatus.INACTIVE,    null, null));
+        backend.save(new Device("charlie", DeviceType.LAPTOP, DeviceStatus.ACTIVE,      null, null));
+        backend.save(new Device("bravo",   DeviceType.SERVER, DeviceStatus.ACTIVE,      null, null));
+        memory = new InMemoryDeviceDAO(backend);
+    }
+
+    @Test
+    public void testReadsAreServedFromSnapshot() {
+        int readsBefore = backend.reads;
+
+        assertEquals(List.of("alpha", "bravo", "charlie", "delta"), names(memory.findAll()));
+        assertEquals(List.of("bravo", "delta"),
+                names(memory.findByTypeAndStatus(DeviceType.SERVER, DeviceStatus.ACTIVE)));
+        assertEquals(List.of("charlie"), names(memory.findByType(DeviceType.LAPTOP)));
+
+        assertEquals(readsBefore, backend.reads);
+    }
+
+    @Test
+    public void testWritesArePatchedIntoIndexes() {
+        Device added = memory.save(new Device("aardvark", DeviceType.SERVER, DeviceStatus.ACTIVE, null, null));
+        Device bravo = memory.findByType(DeviceType.SERVER).get(2);
+        bravo.setStatus(DeviceStatus.MAINTENANCE);
+        memory.update(bravo);
+        memory.delete(memory.findByType(DeviceType.LAPTOP).get(0).getId());
+
+        assertEquals(List.of("aardvark", "delta"),
+                names(memory.findByTypeAndStatus(DeviceType.SERVER, DeviceStatus.ACTIVE)));
+        assertEquals(List.of("bravo"), names(memory.findByStatus(DeviceStatus.MAINTENANCE)));
+        assertTrue(memory.findByType(DeviceType.LAPTOP).isEmpty());
+        assertTrue(memory.findById(added.getId()).isPresent());
+        assertEquals(4, memory.size());
+        assertEquals(4, backend.findAll().size());
+    }
+
+    @Test
+    public void testPagingWalksBothDirectionsAfterOutOfOrderWrites() {
+        memory.save(new Device("echo", DeviceType.SERVER, DeviceStatus.ACTIVE, null, null));
+        memory.save(new Device("able", DeviceType.SERVER, DeviceStatus.ACTIVE, null, null));
+        DeviceFilter servers = DeviceFilter.byType(DeviceType.SERVER);
+
+        Page<Device> first  = memory.findPage(servers, null, 2);
+        Page<Device> second = memory.findPage(servers, first.nextToken(), 2);
+        Page<Device> third  = memory.findPage(servers, second.nextToken(), 2);
+        Page<Device> back   = memory.findPage(servers, third.previousToken(), 2);
+
+        assertEquals(List.of("able", "alpha"),  names(first.items()));
+        assertEquals(List.of("bravo", "delta"), names(second.items()));
+        assertEquals(List.of("echo"),           names(third.items()));
+        assertFalse(third.hasNext());
+        assertEquals(names(second.items()), names(back.items()));
+    }
+
+    @Test
+    public void testBulkStatusChangeIsPatchedIntoIndexes() {
+        int changed = memory.updateStatusWhere(DeviceFilter.byType(DeviceType.SERVER), DeviceStatus.MAINTENANCE);
+
+        assertEquals(3, changed);
+        assertEquals(List.of("alpha", "bravo", "delta"), names(memory.findByStatus(DeviceStatus.MAINTENANCE)));
+        assertEquals(List.of("charlie"), names(memory.findByStatus(DeviceStatus.ACTIVE)));
+        assertEquals(3, backend.findByStatus(DeviceStatus.MAINTENANCE).size());
+    }
+
+    @Test
+    public void testReturnedDevicesAreCopies() {
+        memory.findAll().get(0).setName("Mutated by caller");
+
+        assertEquals("alpha", memory.findAll().get(0).getName());
+    }
+
+    @Test
+    public void testSearchResultsAreCopies() {
+        memory.search("alpha").get(0).setType(DeviceType.LAPTOP);
+
+        Device alpha = memory.findByType(DeviceType.SERVER).get(0);
+        assertEquals("alpha", alpha.getName());
+        assertEquals(DeviceType.SERVER, alpha.getType());
+    }
+
+    @Test
+    public void testCountsMatchTheBackend() {
+        memory.delete(memory.findByType(DeviceType.LAPTOP).get(0).getId());
+        memory.save(new Device("echo", DeviceType.ROUTER, DeviceStatus.ACTIVE, null, "Rack 1"));
+        int readsBefore = backend.reads;
+
+        DeviceCounts counts = memory.countBy(GroupingKey.values());
+        assertEquals(readsBefore, backend.reads);
+        assertEquals(4, counts.getTotal());
+        assertEquals(Map.of("SERVER", 3L, "ROUTER", 1L), counts.get(GroupingKey.TYPE));
+        assertEquals(List.of("SERVER", "ROUTER"), List.copyOf(counts.get(GroupingKey.TYPE).keySet()));
+
+        DeviceCounts expected = backend.countBy(GroupingKey.values());   // default, streams every device
+        for (GroupingKey key : GroupingKey.values()) {
+            assertEquals(expected.get(key), counts.get(key));
+        }
+    }
+
+    @Test
+    public void testRemoteChangesAreAppliedToSnapshot() {
+        Device charlie = backend.findByType(DeviceType.LAPTOP).get(0);
+        charlie.setStatus(DeviceStatus.MAINTENANCE);
+        charlie.setVersion(1);
+        backend.update(charlie);                     // behind the snapshot's back
+        Device echo = backend.save(new Device("echo", DeviceType.ROUTER, DeviceStatus.ACTIVE, null, null));
+        UUID alpha = memory.findAll().get(0).getId();
+        backend.delete(alpha);
+
+        memory.onChange(new DeviceChange(DeviceChange.Op.UPDATE, charlie.getId(), 1));
+        memory.onChange(new DeviceChange(DeviceChange.Op.INSERT, echo.getId(), 0));
+        memory.onChange(new DeviceChange(DeviceChange.Op.DELETE, alpha, 0));
+
+        assertEquals(List.of("bravo", "charlie", "delta", "echo"), names(memory.findAll()));
+        assertEquals(List.of("charlie"), names(memory.findByStatus(DeviceStatus.MAINTENANCE)));
+
+        int readsBefore = backend.reads;
+        memory.onChange(new DeviceChange(DeviceChange.Op.UPDATE, charlie.getId(), 1));
+        assertEquals("An already applied version is not re-read", readsBefore, backend.reads);
+    }
+
+    private static List<String> names(List<Device> devices) {
+        List<String> names = new ArrayList<>();
+        devices.forEach(d -> names.add(d.getName()));
+        return names;
+    }
+}
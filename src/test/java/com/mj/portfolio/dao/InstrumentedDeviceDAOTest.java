@@ -0,0 +1,58 @@
+package com.mj.portfolio.dao;
+
+import com.mj.portfolio.exception.DAOException;
+import com.mj.portfolio.metrics.MethodTimer;
+import com.mj.portfolio.model.Device;
+import com.mj.portfolio.model.DeviceStatus;
+import com.mj.portfolio.model.DeviceType;
+import org.junit.Test;
+
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+/** Unit tests for {@link InstrumentedDeviceDAO} over a {@link StubDeviceDAO}. No database required. */
+public class InstrumentedDeviceDAOTest {
+
+    @Test
+    public void testCountsCallsAndErrorsPerMethod() {
+        InstrumentedDeviceDAO dao = new InstrumentedDeviceDAO(new StubDeviceDAO() {
+            @Override
+            public Device update(Device device) {
+                throw new DAOException("No device found with id: " + device.getId());
+            }
+        });
+        Device saved = dao.save(new Device("Timed", DeviceType.SERVER, DeviceStatus.ACTIVE, null, null));
+        dao.findById(saved.getId());
+        dao.findById(UUID.randomUUID());
+        try {
+            dao.update(saved);
+            fail("The stub rejects updates");
+        } catch (DAOException expected) {
+            // counted below
+        }
+
+        assertEquals(2, stats(dao, "findById").calls());
+        assertEquals(0, stats(dao, "findById").errors());
+        assertEquals(1, stats(dao, "update").calls());
+        assertEquals(1, stats(dao, "update").errors());
+        assertEquals(0, stats(dao, "delete").calls());
+        assertTrue(stats(dao, "save").latency().max() > 0);
+    }
+
+    @Test
+    public void testStreamIsTimedUntilClosed() {
+        InstrumentedDeviceDAO dao = new InstrumentedDeviceDAO(new StubDeviceDAO());
+        dao.save(new Device("Streamed", DeviceType.SERVER, DeviceStatus.ACTIVE, null, null));
+
+        try (var devices = dao.streamAll()) {
+            assertEquals(0, stats(dao, "streamAll").calls());
+            assertEquals(1, devices.count());
+        }
+        assertEquals(1, stats(dao, "streamAll").calls());
+    }
+
+    private static MethodTimer.Stats stats(InstrumentedDeviceDAO dao, String method) {
+        return dao.getStats().stream().filter(s -> s.name().equals(method)).findFirst().orElseThrow();
+    }
+}
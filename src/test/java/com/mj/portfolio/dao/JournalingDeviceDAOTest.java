@@ -0,0 +1,280 @@
+package com.mj.portfolio.dao;
+
+import com.mj.portfolio.exception.DAOException;
+import com.mj.portfolio.model.Device;
+import com.mj.portfolio.model.DeviceStatus;
+import com.mj.portfolio.model.DeviceType;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link JournalingDeviceDAO} over a {@link StubDeviceDAO}
+ * that can be switched offline, with the background syncer disabled so
+ * tests decide when to sync. No database required.
+ */
+public class JournalingDeviceDAOTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private OfflineStub         backend;
+    private Path                file;
+    private JournalingDeviceDAO dao;
+
+    /** Fails every call while {@code offline} is set, like an unreachable database. */
+    private static class OfflineStub extends StubDeviceDAO {
+        boolean offline;
+        int     failedCalls;
+
+        private void connect() {
+            if (offline) {
+                failedCalls++;
+                throw new DAOException("Connection refused");
+            }
+        }
+
+        @Override
+        public List<Device> findAll() {
+            connect();
+            return super.findAll();
+        }
+
+        @Override
+        public Optional<Device> findById(UUID id) {
+            connect();
+            return super.findById(id);
+        }
+
+        @Override
+        public Device save(Device device) {
+            connect();
+            return super.save(device);
+        }
+
+        @Override
+        public Device update(Device device) {
+            connect();
+            return super.update(device);
+        }
+
+        @Override
+        public boolean delete(UUID id) {
+            connect();
+            return super.delete(id);
+        }
+
+        @Override
+        public List<DeviceWrite.Outcome> applyJournal(UUID journalId, long firstSeq, List<DeviceWrite> writes) {
+            connect();
+            return super.applyJournal(journalId, firstSeq, writes);
+        }
+    }
+
+    @Before
+    public void setUp() {
+        backend = new OfflineStub();
+        file    = folder.getRoot().toPath().resolve("devices.journal");
+        dao     = new JournalingDeviceDAO(backend, file, 100, 0);
+    }
+
+    @After
+    public void tearDown() {
+        backend.offline = false;
+        dao.close();
+    }
+
+    @Test
+    public void testWritesReachTheDelegateOnlyWhenSynced() {
+        Device saved = dao.save(new Device("Journaled", DeviceType.SERVER, DeviceStatus.ACTIVE, null, null));
+        saved.setLocation("Rack 7");
+        dao.update(saved);
+
+        assertFalse(backend.findById(saved.getId()).isPresent());
+        Device pending = dao.findById(saved.getId()).orElseThrow();
+        assertEquals("Rack 7", pending.getLocation());
+        assertEquals(1, pending.getVersion());
+        assertEquals(2, dao.getPendingCount());
+
+        assertEquals(2, dao.syncNow());
+
+        assertEquals(0, dao.getPendingCount());
+        assertEquals("Rack 7", backend.findById(saved.getId()).orElseThrow().getLocation());
+        assertTrue(dao.getConflicts().isEmpty());
+    }
+
+    @Test
+    public void testPendingWritesSurviveReopening() {
+        backend.offline = true;
+        Device kept    = dao.save(new Device("Kept", DeviceType.ROUTER, DeviceStatus.ACTIVE, "10.0.0.1", null));
+        Device dropped = dao.save(new Device("Dropped", DeviceType.LAPTOP, DeviceStatus.ACTIVE, null, null));
+        assertTrue(dao.delete(dropped.getId()));
+        dao.close();   // the final sync fails; the writes stay in the journal
+
+        dao = new JournalingDeviceDAO(backend, file, 100, 0);
+        assertEquals(3, dao.getPendingCount());
+        assertEquals("Kept", dao.findById(kept.getId()).orElseThrow().getName());
+        assertFalse(dao.findById(dropped.getId()).isPresent());
+
+        backend.offline = false;
+        dao.syncNow();
+        assertTrue(backend.findById(kept.getId()).isPresent());
+        assertFalse(backend.findById(dropped.getId()).isPresent());
+    }
+
+    @Test
+    public void testStalePatchBecomesAConflict() {
+        Device device = backend.save(new Device("Shared", DeviceType.SERVER, DeviceStatus.ACTIVE, null, null));
+        dao.patch(device.getId(), DevicePatch.empty().withLocation("Rack 1").expectingVersion(0));
+
+        Device changedElsewhere = backend.findById(device.getId()).orElseThrow();
+        changedElsewhere.setVersion(1);
+        backend.update(changedElsewhere);
+        dao.syncNow();
+
+        assertEquals(1, dao.getConflicts().size());
+        assertTrue(dao.getConflicts().get(0).write() instanceof DeviceWrite.Patch);
+        assertNull(backend.findById(device.getId()).orElseThrow().getLocation());
+        assertTrue(Files.exists(dao.getConflictLog()));
+    }
+
+    @Test
+    public void testListQueriesSyncFirst() {
+        dao.save(new Device("Listed", DeviceType.PRINTER, DeviceStatus.ACTIVE, null, null));
+
+        assertEquals(1, dao.findByType(DeviceType.PRINTER).size());
+        assertEquals(0, dao.getPendingCount());
+    }
+
+    @Test
+    public void testBulkStatusChangeCannotOvertakePendingWrites() {
+        backend.offline = true;
+        Device saved = dao.save(new Device("Queued", DeviceType.SERVER, DeviceStatus.ACTIVE, null, null));
+
+        try {
+            dao.updateStatus(List.of(saved.getId()), DeviceStatus.MAINTENANCE);
+            fail("A bulk change must wait for the journal");
+        } catch (DAOException expected) {
+            assertEquals(1, dao.getPendingCount());
+            assertNotNull(dao.getLastError());
+        }
+    }
+
+    @Test
+    public void testOfflinePatchIsJournaledAndAcknowledged() {
+        Device device = backend.save(new Device("Remote", DeviceType.SERVER, DeviceStatus.ACTIVE, null, null));
+        backend.offline = true;
+
+        List<DeviceWrite.Outcome> outcomes = dao.applyWrites(List.of(new DeviceWrite.Patch(device.getId(),
+                DevicePatch.empty().withLocation("Rack 9").expectingVersion(0))));
+
+        assertTrue(outcomes.get(0).applied());
+        assertNull("The device is unknown offline", outcomes.get(0).device());
+        assertEquals(1, dao.getPendingCount());
+
+        backend.offline = false;
+        dao.syncNow();
+        assertTrue(dao.getConflicts().isEmpty());
+        assertEquals("Rack 9", dao.findById(device.getId()).orElseThrow().getLocation());
+    }
+
+    @Test
+    public void testOfflineVersionedDeleteIsJournaledAndAcknowledged() {
+        Device device = backend.save(new Device("Retired", DeviceType.LAPTOP, DeviceStatus.INACTIVE, null, null));
+        backend.offline = true;
+
+        assertTrue(dao.delete(device.getId(), 0));
+        assertFalse(dao.findById(device.getId()).isPresent());
+        assertEquals(1, dao.getPendingCount());
+
+        backend.offline = false;
+        dao.syncNow();
+        assertTrue(dao.getConflicts().isEmpty());
+        assertFalse(backend.findById(device.getId()).isPresent());
+    }
+
+    @Test
+    public void testOfflineLookupsFailFastOnceTheDatabaseIsKnownDown() {
+        Device device = backend.save(new Device("Unseen", DeviceType.ROUTER, DeviceStatus.ACTIVE, null, null));
+        Device other  = backend.save(new Device("Other", DeviceType.ROUTER, DeviceStatus.ACTIVE, null, null));
+        backend.offline = true;
+
+        assertTrue(dao.delete(device.getId()));   // the lookup fails; the delete is journaled anyway
+        int failedCalls = backend.failedCalls;
+
+        dao.applyWrites(List.of(new DeviceWrite.Patch(other.getId(), DevicePatch.empty().withName("Renamed"))));
+        try {
+            dao.findById(other.getId());
+            fail("A device the journal does not know cannot be read offline");
+        } catch (DAOException expected) {
+            assertEquals("No call waited for the database", failedCalls, backend.failedCalls);
+        }
+        try {
+            dao.patch(other.getId(), DevicePatch.empty().withName("Again"));
+            fail("A single-row patch must return the device, which is unknown offline");
+        } catch (DAOException expected) {
+            assertEquals(2, dao.getPendingCount());
+        }
+    }
+
+    @Test
+    public void testCloseSkipsTheLastSyncOnceTheDatabaseIsKnownDown() {
+        backend.offline = true;
+        dao.save(new Device("Unsynced", DeviceType.SERVER, DeviceStatus.ACTIVE, null, null));
+        try {
+            dao.syncNow();
+            fail("The database is offline");
+        } catch (DAOException expected) {
+            // the next attempt is in backoff
+        }
+        int failedCalls = backend.failedCalls;
+
+        long started = System.nanoTime();
+        dao.close();
+        assertTrue("close returned promptly", System.nanoTime() - started < TimeUnit.SECONDS.toNanos(1));
+        assertEquals("No last sync was attempted", failedCalls, backend.failedCalls);
+
+        dao = new JournalingDeviceDAO(backend, file, 100, 0);
+        assertEquals(1, dao.getPendingCount());
+    }
+
+    @Test
+    public void testCloseGivesUpOnALastSyncThatHangs() throws Exception {
+        CountDownLatch reachable = new CountDownLatch(1);
+        StubDeviceDAO hanging = new StubDeviceDAO() {
+            @Override
+            public List<DeviceWrite.Outcome> applyJournal(UUID journalId, long firstSeq, List<DeviceWrite> writes) {
+                try {
+                    reachable.await();   // like waiting for a connection timeout
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                throw new DAOException("Connection timed out");
+            }
+        };
+        JournalingDeviceDAO hangingDao = new JournalingDeviceDAO(hanging,
+                folder.getRoot().toPath().resolve("hanging.journal"), 100, 0, 100);
+        try {
+            hangingDao.save(new Device("Unsynced", DeviceType.SERVER, DeviceStatus.ACTIVE, null, null));
+
+            long started = System.nanoTime();
+            hangingDao.close();
+            assertTrue("close returned promptly", System.nanoTime() - started < TimeUnit.SECONDS.toNanos(2));
+            assertEquals(1, hangingDao.getPendingCount());
+        } finally {
+            reachable.countDown();
+        }
+    }
+}
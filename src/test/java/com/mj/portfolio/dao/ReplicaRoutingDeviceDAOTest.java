@@ -0,0 +1,113 @@
+package com.mj.portfolio.dao;
+
+import com.mj.portfolio.exception.DAOException;
+import com.mj.portfolio.model.Device;
+import com.mj.portfolio.model.DeviceStatus;
+import com.mj.portfolio.model.DeviceType;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+/** Unit tests for {@link ReplicaRoutingDeviceDAO} over {@link StubDeviceDAO}s. No database required. */
+public class ReplicaRoutingDeviceDAOTest {
+
+    private final StubDeviceDAO primary = new StubDeviceDAO();
+    private final StubDeviceDAO first   = new StubDeviceDAO();
+    private final StubDeviceDAO second  = new StubDeviceDAO();
+
+    @Test
+    public void testRoundRobinSpreadsReadsAndWritesGoToPrimary() {
+        ReplicaRoutingDeviceDAO dao = router(ReplicaRoutingDeviceDAO.Selection.ROUND_ROBIN, 0);
+        for (int i = 0; i < 4; i++) {
+            dao.findAll();
+        }
+        dao.findByType(DeviceType.SERVER);
+        dao.search("rack");
+
+        assertEquals(0, primary.reads);
+        assertEquals(3, first.reads);
+        assertEquals(3, second.reads);
+
+        dao.save(device("Written"));
+        assertEquals(1, primary.findAll().size());
+        assertTrue(first.findAll().isEmpty());
+    }
+
+    @Test
+    public void testReadsAfterOwnWriteStayOnPrimary() throws InterruptedException {
+        ReplicaRoutingDeviceDAO dao = router(ReplicaRoutingDeviceDAO.Selection.ROUND_ROBIN, 200);
+        Device saved = dao.save(device("Fresh"));
+
+        assertEquals("not replicated yet, but the primary has it", List.of(saved.getId()),
+                dao.findAll().stream().map(Device::getId).toList());
+        assertEquals(1, dao.getPrimaryReads());
+
+        Thread.sleep(250);
+        dao.findAll();
+        assertEquals(1, dao.getReplicaReads());
+    }
+
+    @Test
+    public void testFindByIdReadsThePrimaryWhileReplicasLag() {
+        ReplicaRoutingDeviceDAO dao = router(ReplicaRoutingDeviceDAO.Selection.ROUND_ROBIN, 0);
+        Device device = primary.save(device("Moved"));
+        first.save(new Device(device));
+        second.save(new Device(device));
+        device.setLocation("Rack 2");
+        device.setVersion(1);
+        primary.update(device);   // not replicated yet
+
+        for (int i = 0; i < 2; i++) {
+            Device read = dao.findById(device.getId()).orElseThrow();
+            assertEquals(1, read.getVersion());
+            assertEquals("Rack 2", read.getLocation());
+        }
+        assertEquals(0, first.reads + second.reads);
+        assertEquals(2, dao.getPrimaryReads());
+    }
+
+    @Test
+    public void testLeastPendingAvoidsReplicaBusyWithStream() {
+        ReplicaRoutingDeviceDAO dao = router(ReplicaRoutingDeviceDAO.Selection.LEAST_PENDING, 0);
+        try (Stream<Device> open = dao.streamAll()) {
+            int busy = first.reads + second.reads;   // the stub reads on open
+            assertEquals(1, busy);
+            StubDeviceDAO idle = first.reads == 0 ? first : second;
+            dao.findAll();
+            dao.findAll();
+            assertEquals(2, idle.reads);
+        }
+        dao.findAll();
+        dao.findAll();
+        assertEquals(5, first.reads + second.reads);
+        assertTrue(first.reads >= 2 && second.reads >= 2);
+    }
+
+    @Test
+    public void testFailedReplicaFallsBackToPrimary() {
+        StubDeviceDAO broken = new StubDeviceDAO() {
+            @Override
+            public List<Device> findAll() {
+                throw new DAOException("Connection refused");
+            }
+        };
+        ReplicaRoutingDeviceDAO dao = new ReplicaRoutingDeviceDAO(primary, List.of(broken),
+                ReplicaRoutingDeviceDAO.Selection.ROUND_ROBIN, 0);
+        primary.save(device("Only on primary"));
+
+        assertEquals(1, dao.findAll().size());
+        assertEquals(1, dao.getFallbacks());
+        assertEquals(1, dao.getPrimaryReads());
+    }
+
+    private ReplicaRoutingDeviceDAO router(ReplicaRoutingDeviceDAO.Selection selection, long stickyMillis) {
+        return new ReplicaRoutingDeviceDAO(primary, List.of(first, second), selection, stickyMillis);
+    }
+
+    private static Device device(String name) {
+        return new Device(name, DeviceType.SERVER, DeviceStatus.ACTIVE, null, null);
+    }
+}
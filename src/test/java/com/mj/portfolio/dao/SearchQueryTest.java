@@ -0,0 +1,59 @@
+package com.mj.portfolio.dao;
+
+import com.mj.portfolio.model.Device;
+import com.mj.portfolio.model.DeviceStatus;
+import com.mj.portfolio.model.DeviceType;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link SearchQuery} parsing and in-memory matching.
+ * No database required.
+ */
+public class SearchQueryTest {
+
+    @Test
+    public void testFreeTextBecomesSinglePhrase() {
+        SearchQuery q = SearchQuery.parse("  Test   Lap ");
+        assertEquals(List.of(new SearchQuery.Term(SearchQuery.Field.ANY, "Test Lap")), q.getTerms());
+    }
+
+    @Test
+    public void testScopedTermsAndQuotedValues() {
+        SearchQuery q = SearchQuery.parse("core name:router location:\"rack 4\" type:server status:active");
+
+        assertEquals(List.of(
+                new SearchQuery.Term(SearchQuery.Field.ANY, "core"),
+                new SearchQuery.Term(SearchQuery.Field.NAME, "router"),
+                new SearchQuery.Term(SearchQuery.Field.LOCATION, "rack 4")), q.getTerms());
+        assertEquals(DeviceType.SERVER, q.getType());
+        assertEquals(DeviceStatus.ACTIVE, q.getStatus());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testEmptyQueryRejected() {
+        SearchQuery.parse("   ");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testScopedTermWithoutValueRejected() {
+        SearchQuery.parse("name:");
+    }
+
+    @Test
+    public void testMatchesAndScore() {
+        Device rack = new Device("Core Router", DeviceType.ROUTER, DeviceStatus.ACTIVE, "10.0.0.1", "Rack 4");
+        Device other = new Device("Backrack Storage", DeviceType.SERVER, DeviceStatus.ACTIVE, null, "Basement");
+
+        SearchQuery q = SearchQuery.parse("rack");
+        assertTrue(q.matches(rack));
+        assertTrue(q.matches(other));
+        assertTrue("Prefix match should outrank inner substring", q.score(rack) > q.score(other));
+
+        assertFalse(SearchQuery.parse("location:rack").matches(other));
+        assertFalse(SearchQuery.parse("rack type:server").matches(rack));
+    }
+}
@@ -0,0 +1,74 @@
+package com.mj.portfolio.dao;
+
+import com.mj.portfolio.model.Device;
+import com.mj.portfolio.model.DeviceStatus;
+import com.mj.portfolio.model.DeviceType;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Map-backed {@link DeviceDAO} for unit-testing decorators and commands without a
+ * database. Counts read calls so tests can tell cache hits from misses.
+ */
+public class StubDeviceDAO implements DeviceDAO {
+
+    private final Map<UUID, Device> rows = new LinkedHashMap<>();
+    public int reads;
+
+    @Override
+    public List<Device> findAll() {
+        reads++;
+        return rows.values().stream()
+                .sorted(PageCursor.ORDER)
+                .map(Device::new)
+                .toList();
+    }
+
+    @Override
+    public Optional<Device> findById(UUID id) {
+        reads++;
+        return Optional.ofNullable(rows.get(id)).map(Device::new);
+    }
+
+    @Override
+    public List<Device> findByType(DeviceType type) {
+        return new ArrayList<>(findAll().stream().filter(d -> d.getType() == type).toList());
+    }
+
+    @Override
+    public List<Device> findByStatus(DeviceStatus status) {
+        return new ArrayList<>(findAll().stream().filter(d -> d.getStatus() == status).toList());
+    }
+
+    @Override
+    public List<Device> search(String keyword) {
+        return findAll().stream().filter(DeviceFilter.search(keyword)::matches).toList();
+    }
+
+    @Override
+    public Device save(Device device) {
+        if (device.getId() == null) {
+            device.setId(UUID.randomUUID());
+        }
+        device.setCreatedAt(LocalDateTime.now());
+        rows.put(device.getId(), new Device(device));
+        return device;
+    }
+
+    @Override
+    public Device update(Device device) {
+        rows.put(device.getId(), new Device(device));
+        return device;
+    }
+
+    @Override
+    public boolean delete(UUID id) {
+        return rows.remove(id) != null;
+    }
+}
@@ -0,0 +1,57 @@
+package com.mj.portfolio.io;
+
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link DelimitedReader} and {@link DelimitedWriter}.
+ * No database required.
+ */
+public class DelimitedReaderTest {
+
+    @Test
+    public void testCsvQuotedFieldsAndEmbeddedNewlines() {
+        String csv = "a,\"b, c\",\"say \"\"hi\"\"\"\r\n\"multi\nline\",,x\n";
+        DelimitedReader reader = new DelimitedReader(new StringReader(csv), DelimitedReader.Format.CSV);
+
+        assertArrayEquals(new String[] {"a", "b, c", "say \"hi\""}, reader.next());
+        assertEquals(1, reader.getRecordLine());
+        assertArrayEquals(new String[] {"multi\nline", "", "x"}, reader.next());
+        assertEquals(2, reader.getRecordLine());
+        assertFalse(reader.hasNext());
+    }
+
+    @Test
+    public void testTsvDoesNotInterpretQuotes() {
+        DelimitedReader reader = new DelimitedReader(
+                new StringReader("\"a\"\tb,c\n\nlast\tline"), DelimitedReader.Format.TSV);
+
+        assertArrayEquals(new String[] {"\"a\"", "b,c"}, reader.next());
+        assertArrayEquals(new String[] {"last", "line"}, reader.next());
+        assertEquals("Blank line should be skipped but counted", 3, reader.getRecordLine());
+        assertFalse(reader.hasNext());
+    }
+
+    @Test
+    public void testWriterOutputRoundTrips() throws Exception {
+        StringWriter out = new StringWriter();
+        DelimitedWriter writer = new DelimitedWriter(out, DelimitedReader.Format.CSV);
+        writer.writeRecord("plain", "with,comma", "with \"quote\"", null);
+        writer.flush();
+
+        DelimitedReader reader = new DelimitedReader(
+                new StringReader(out.toString()), DelimitedReader.Format.CSV);
+        assertArrayEquals(new String[] {"plain", "with,comma", "with \"quote\"", ""}, reader.next());
+    }
+
+    @Test
+    public void testFormatForFileName() {
+        assertEquals(DelimitedReader.Format.TSV, DelimitedReader.Format.forFileName("dump.TSV"));
+        assertEquals(DelimitedReader.Format.CSV, DelimitedReader.Format.forFileName("dump.csv"));
+        assertEquals(DelimitedReader.Format.CSV, DelimitedReader.Format.forFileName("dump.txt"));
+    }
+}
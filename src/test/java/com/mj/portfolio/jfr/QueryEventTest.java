@@ -0,0 +1,106 @@
+package com.mj.portfolio.jfr;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.*;
+
+/** Unit tests for {@link QueryEvent} and the shipped JFR profile. */
+public class QueryEventTest {
+
+    @Test
+    public void testEventsAreDisabledByDefault() throws Exception {
+        List<RecordedEvent> events = record(new Recording(), () -> {
+            QueryEvent event = QueryEvent.begin("findAll", "SELECT 1");
+            event.rows(1);
+            event.finish(null);
+        });
+        assertTrue(events.isEmpty());
+    }
+
+    @Test
+    public void testProfileRecordsQueryFields() throws Exception {
+        UUID id = UUID.randomUUID();
+        List<RecordedEvent> events = record(profile(), () -> {
+            QueryEvent ok = QueryEvent.begin("findById", "SELECT * FROM devices WHERE id = ?");
+            ok.rows(1);
+            ok.finish(id);
+            QueryEvent failed = QueryEvent.begin("delete", "DELETE FROM devices WHERE id = ?");
+            failed.finish(id);
+        });
+
+        assertEquals(2, events.size());
+        RecordedEvent ok = events.get(0);
+        assertEquals("com.mj.portfolio.DeviceQuery", ok.getEventType().getName());
+        assertEquals("findById", ok.getString("method"));
+        assertEquals("SELECT * FROM devices WHERE id = ?", ok.getString("sql"));
+        assertEquals(id.toString(), ok.getString("parameters"));
+        assertEquals(1, ok.getLong("rows"));
+        assertEquals(-1, events.get(1).getLong("rows"));
+    }
+
+    @Test
+    public void testProfileRecordsBorrowsAndCommands() throws Exception {
+        List<RecordedEvent> events = record(profile(), () -> {
+            CommandEvent command = CommandEvent.begin("search", List.of("rack"));
+            ConnectionBorrowEvent.begin("pool", true).finish(true);
+            command.exitCode(0);
+            command.finish();
+        });
+
+        assertEquals(2, events.size());
+        RecordedEvent borrow = events.get(0);
+        assertEquals("pool", borrow.getString("source"));
+        assertTrue(borrow.getBoolean("initialized"));
+        assertTrue(borrow.getBoolean("succeeded"));
+        RecordedEvent command = events.get(1);
+        assertEquals("search", command.getString("command"));
+        assertEquals("[rack]", command.getString("arguments"));
+        assertEquals(0, command.getInt("exitCode"));
+    }
+
+    @Test
+    public void testLongParameterListsAreCut() {
+        List<Integer> ids = IntStream.range(0, 10_000).boxed().toList();
+        String summary = Parameters.summarize(ids);
+        assertTrue(summary.length() <= Parameters.MAX_LENGTH);
+        assertTrue(summary, summary.startsWith("[0, 1, 2"));
+        assertTrue(summary, summary.endsWith("… 10000 values]"));
+        assertNull(Parameters.summarize(null));
+    }
+
+    private static Recording profile() throws Exception {
+        return new Recording(Configuration.create(Path.of("jfr/device-inventory.jfc")));
+    }
+
+    /** Runs {@code body} under {@code recording} and returns this project's events, in commit order. */
+    private static List<RecordedEvent> record(Recording recording, Runnable body) throws Exception {
+        Path file = Files.createTempFile("events", ".jfr");
+        try (recording) {
+            recording.start();
+            body.run();
+            recording.stop();
+            recording.dump(file);
+            List<RecordedEvent> events = new ArrayList<>();
+            for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+                if (event.getEventType().getName().startsWith("com.mj.portfolio.")) {
+                    events.add(event);
+                }
+            }
+            events.sort((a, b) -> a.getEndTime().compareTo(b.getEndTime()));
+            return events;
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.mj.portfolio.metrics;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/** Unit tests for {@link LatencyHistogram}. */
+public class LatencyHistogramTest {
+
+    @Test
+    public void testBucketsAreContiguousAndOrdered() {
+        long previous = -1;
+        for (int i = 0; i < LatencyHistogram.index(Long.MAX_VALUE); i++) {
+            long highest = LatencyHistogram.highestValue(i);
+            assertTrue(highest > previous);
+            assertEquals(i, LatencyHistogram.index(highest));
+            assertEquals(i + 1, LatencyHistogram.index(highest + 1));
+            previous = highest;
+        }
+    }
+
+    @Test
+    public void testPercentilesAreWithinThreePercent() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long micros = 1; micros <= 10_000; micros++) {
+            histogram.record(micros * 1_000);
+        }
+
+        LatencyHistogram.Snapshot s = histogram.snapshot();
+        assertEquals(10_000, s.count());
+        assertEquals(10_000_000, s.max());
+        assertEquals(5_000_500, s.mean());
+        assertWithin(5_000_000, s.p50());
+        assertWithin(9_500_000, s.p95());
+        assertWithin(9_900_000, s.p99());
+    }
+
+    @Test
+    public void testConcurrentRecordingLosesNothing() throws InterruptedException {
+        LatencyHistogram histogram = new LatencyHistogram();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 100_000; i++) {
+                    histogram.record(i);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(400_000, histogram.snapshot().count());
+        assertEquals(99_999, histogram.snapshot().max());
+    }
+
+    @Test
+    public void testEmptyHistogram() {
+        assertSame(LatencyHistogram.Snapshot.EMPTY, new LatencyHistogram().snapshot());
+    }
+
+    private static void assertWithin(long expected, long actual) {
+        assertTrue("expected about " + expected + ", got " + actual,
+                actual >= expected && actual <= expected * 1.03);
+    }
+}
@@ -0,0 +1,66 @@
+package com.mj.portfolio.net;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/** Unit tests for {@link IpAddress} and {@link Cidr}. No database required. */
+public class IpAddressTest {
+
+    @Test
+    public void testCanonicalFormMatchesPostgresInet() {
+        assertEquals("10.0.0.1", IpAddress.parse(" 010.0.0.1 ").toString());
+        assertEquals("2001:db8::1:0:0:1", IpAddress.parse("2001:DB8:0:0:1:0:0:1").toString());
+        assertEquals("2001:db8:0:1:1:1:1:1", IpAddress.parse("2001:db8::1:1:1:1:1").toString());
+        assertEquals("::", IpAddress.parse("0:0:0:0:0:0:0:0").toString());
+        assertEquals("::1", IpAddress.parse("0::1").toString());
+        assertEquals("::ffff:1.2.3.4", IpAddress.parse("::ffff:0102:0304").toString());
+        assertEquals("::1.2.3.4", IpAddress.parse("::1.2.3.4").toString());
+        assertEquals(IpAddress.parse("1:2:3:4:5:6:7:8"), IpAddress.parse("1:2:3:4:5:6:0.7.0.8"));
+    }
+
+    @Test
+    public void testRejectsAnythingButAHostAddress() {
+        for (String text : new String[] {
+                "", "10.0.0", "10.0.0.256", "10.0.0.1.2", "10.0.0.1/24", "host.example",
+                "1::2::3", "1:2:3:4:5:6:7:8:9", "1:2:3:4:5:6:7::8", "12345::", "fe80::1%eth0",
+                "::1.2.3.4:5", "1.2.3.4::", "١٠.0.0.1" }) {
+            assertNull(text, IpAddress.tryParse(text));
+        }
+        try {
+            IpAddress.parse("nope");
+            fail("'nope' must not parse");
+        } catch (IllegalArgumentException e) {
+            assertEquals("'nope' is not a valid IP address.", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testOrdersNumericallyWithIpv4First() {
+        assertTrue(IpAddress.parse("10.0.0.9").compareTo(IpAddress.parse("10.0.0.10")) < 0);
+        assertTrue(IpAddress.parse("255.255.255.255").compareTo(IpAddress.parse("::")) < 0);
+        assertTrue(IpAddress.parse("8000::").compareTo(IpAddress.parse("7fff::")) > 0);
+    }
+
+    @Test
+    public void testCidrMasksHostBitsAndContainsOnlyItsFamily() {
+        Cidr subnet = Cidr.parse("10.1.7.9/16");
+        assertEquals("10.1.0.0/16", subnet.toString());
+        assertTrue(subnet.contains(IpAddress.parse("10.1.255.255")));
+        assertFalse(subnet.contains(IpAddress.parse("10.2.0.0")));
+        assertFalse(subnet.contains(IpAddress.parse("::ffff:10.1.0.1")));
+
+        assertEquals("10.0.0.1/32", Cidr.parse("10.0.0.1").toString());
+        assertEquals("2001:db8::/32", Cidr.parse("2001:db8:ff::/32").toString());
+        assertTrue(Cidr.parse("0.0.0.0/0").contains(IpAddress.parse("203.0.113.5")));
+
+        for (String text : new String[] { "10.0.0.0/33", "10.0.0.0/", "10.0.0.0/-1", "::/129", "10.0.0/8" }) {
+            try {
+                Cidr.parse(text);
+                fail(text + " must not parse");
+            } catch (IllegalArgumentException expected) {
+                // message names the input
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.mj.portfolio.net;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.Assert.*;
+
+/** Unit tests for {@link IpTrie}. No database required. */
+public class IpTrieTest {
+
+    @Test
+    public void testExactLookupsAcrossFamilies() {
+        IpTrie<String> trie = new IpTrie<>();
+        assertNull(trie.put(IpAddress.parse("10.0.0.1"), "a"));
+        assertNull(trie.put(IpAddress.parse("10.0.0.2"), "b"));
+        assertNull(trie.put(IpAddress.parse("::ffff:10.0.0.1"), "mapped"));
+        assertEquals("a", trie.put(IpAddress.parse("10.0.0.1"), "a2"));
+
+        assertEquals(3, trie.size());
+        assertEquals("a2", trie.get(IpAddress.parse("10.0.0.1")));
+        assertEquals("mapped", trie.get(IpAddress.parse("::ffff:a00:1")));
+        assertNull(trie.get(IpAddress.parse("10.0.0.3")));
+        assertNull("a network is not its first host", trie.get(Cidr.parse("10.0.0.0/24")));
+    }
+
+    @Test
+    public void testLongestMatchPicksTheMostSpecificNetwork() {
+        IpTrie<String> trie = new IpTrie<>();
+        trie.put(Cidr.parse("10.1.0.0/16"), "site");
+        trie.put(Cidr.parse("10.0.0.0/8"), "corp");       // inserted above an existing node
+        trie.put(Cidr.parse("10.1.4.0/24"), "rack 4");
+        trie.put(Cidr.parse("2001:db8::/32"), "v6");
+
+        assertEquals("rack 4", trie.longestMatch(IpAddress.parse("10.1.4.77")).getValue());
+        assertEquals("site", trie.longestMatch(IpAddress.parse("10.1.5.1")).getValue());
+        Map.Entry<Cidr, String> corp = trie.longestMatch(IpAddress.parse("10.200.0.1"));
+        assertEquals(Cidr.parse("10.0.0.0/8"), corp.getKey());
+        assertNull(trie.longestMatch(IpAddress.parse("192.168.0.1")));
+        assertEquals("v6", trie.longestMatch(IpAddress.parse("2001:db8:ffff::1")).getValue());
+        assertNull("no IPv4 prefix matches IPv6", trie.longestMatch(IpAddress.parse("::a01:401")));
+    }
+
+    @Test
+    public void testSubnetEnumerationInAddressOrder() {
+        IpTrie<String> trie = new IpTrie<>();
+        for (String address : List.of("10.0.0.10", "10.0.1.1", "10.0.0.9", "10.0.0.200", "11.0.0.1", "9.255.255.255")) {
+            trie.put(IpAddress.parse(address), address);
+        }
+        assertEquals(List.of("10.0.0.9", "10.0.0.10", "10.0.0.200"), trie.valuesIn(Cidr.parse("10.0.0.0/24")));
+        assertEquals(List.of("10.0.0.9", "10.0.0.10", "10.0.0.200", "10.0.1.1"), trie.valuesIn(Cidr.parse("10.0.0.0/8")));
+        assertEquals(List.of("10.0.0.10"), trie.valuesIn(Cidr.parse("10.0.0.10/32")));
+        assertTrue(trie.valuesIn(Cidr.parse("10.0.2.0/24")).isEmpty());
+        assertTrue(trie.valuesIn(Cidr.parse("::/0")).isEmpty());
+        assertEquals(6, trie.valuesIn(Cidr.parse("0.0.0.0/0")).size());
+    }
+
+    @Test
+    public void testMatchesASortedMapOnRandomAddresses() {
+        Random random = new Random(42);
+        IpTrie<Integer> trie = new IpTrie<>();
+        TreeMap<IpAddress, Integer> expected = new TreeMap<>();
+        for (int i = 0; i < 5_000; i++) {
+            // Few distinct high bytes, so addresses share long prefixes and collide.
+            String text = random.nextBoolean()
+                    ? "10." + random.nextInt(4) + "." + random.nextInt(8) + "." + random.nextInt(256)
+                    : "2001:db8::" + Integer.toHexString(random.nextInt(4)) + ":" + Integer.toHexString(random.nextInt(4096));
+            IpAddress address = IpAddress.parse(text);
+            assertEquals(expected.put(address, i), trie.put(address, i));
+        }
+        assertEquals(expected.size(), trie.size());
+
+        List<IpAddress> walked = new ArrayList<>();
+        trie.forEach((prefix, value) -> {
+            walked.add(prefix.network());
+            assertEquals(expected.get(prefix.network()), value);
+        });
+        assertEquals(new ArrayList<>(expected.keySet()), walked);
+
+        Cidr subnet = Cidr.parse("10.2.0.0/16");
+        assertEquals(new ArrayList<>(expected.subMap(IpAddress.parse("10.2.0.0"), true,
+                        IpAddress.parse("10.2.255.255"), true).values()),
+                trie.valuesIn(subnet));
+    }
+}
@@ -0,0 +1,63 @@
+package com.mj.portfolio.service;
+
+import com.mj.portfolio.dao.StubDeviceDAO;
+import com.mj.portfolio.model.Device;
+import com.mj.portfolio.model.DeviceStatus;
+import com.mj.portfolio.model.DeviceType;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/** Unit tests for {@link IpAddressAudit} and the validator hook of {@link DeviceService}, over a {@link StubDeviceDAO}. */
+public class IpAddressAuditTest {
+
+    private final StubDeviceDAO dao     = new StubDeviceDAO();
+    private final DeviceService service = new DeviceService(dao);
+
+    @Test
+    public void testImportRejectsAddressesUsedByInventoryOrEarlierRows() {
+        service.addDevice("Core Router", DeviceType.ROUTER, DeviceStatus.ACTIVE, "10.0.0.1", null);
+        service.addDevice("No Address", DeviceType.OTHER, DeviceStatus.ACTIVE, null, null);
+        service.addValidator(service.auditIpAddresses().validator());
+
+        List<String> rejects = new ArrayList<>();
+        long loaded = service.importDevices(List.of(
+                new String[] { "Spare Router", "router", "", "010.0.0.1" },
+                new String[] { "Web 1", "server", "", "10.0.0.2" },
+                new String[] { "Web 2", "server", "", "10.0.0.2" },
+                new String[] { "Web 3", "server", "", "" },
+                new String[] { "Web 4", "server", "", "" }).iterator(),
+                (fields, reason) -> rejects.add(fields[0] + ": " + reason));
+
+        assertEquals(3, loaded);
+        assertEquals(List.of(
+                "Spare Router: IP address 10.0.0.1 is already used by 'Core Router'.",
+                "Web 2: IP address 10.0.0.2 is already used by 'Web 1' earlier in this batch."), rejects);
+    }
+
+    @Test
+    public void testConflictsSubnetsAndCounts() {
+        for (String[] d : new String[][] {
+                { "A", "10.1.4.1" }, { "B", "10.1.4.1" }, { "C", "10.1.5.1" }, { "D", "10.2.0.1" }, { "E", "192.168.1.1" } }) {
+            dao.save(new Device(d[0], DeviceType.SERVER, DeviceStatus.ACTIVE, d[1], null));
+        }
+        IpAddressAudit audit = service.auditIpAddresses();
+
+        assertEquals(4, audit.addresses());
+        assertEquals(5, audit.devices());
+        assertEquals(1, audit.conflicts().size());
+        assertEquals("10.1.4.1", audit.conflicts().get(0).ipAddress());
+        assertEquals(List.of("A", "B", "C"),
+                audit.inSubnet("10.1.0.0/16").stream().map(Device::getName).sorted().toList());
+        assertEquals(2, audit.usersOf("10.1.4.1").size());
+
+        Map<String, Long> counts = audit.countBySubnet(List.of("10.0.0.0/8", "10.1.4.0/24"));
+        assertEquals(Long.valueOf(2), counts.get("10.0.0.0/8"));     // C and D
+        assertEquals(Long.valueOf(2), counts.get("10.1.4.0/24"));    // A and B
+        assertEquals(Long.valueOf(1), counts.get(null));             // E
+    }
+}
@@ -0,0 +1,98 @@
+package com.mj.portfolio.service;
+
+import com.mj.portfolio.dao.DeviceWrite;
+import com.mj.portfolio.dao.StubDeviceDAO;
+import com.mj.portfolio.model.Device;
+import com.mj.portfolio.model.DeviceStatus;
+import com.mj.portfolio.model.DeviceType;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/** Unit tests for {@link Reconciliation}, over a {@link StubDeviceDAO}. */
+public class ReconciliationTest {
+
+    private final StubDeviceDAO dao     = new StubDeviceDAO();
+    private final DeviceService service = new DeviceService(dao);
+
+    private final List<String> planned  = new ArrayList<>();
+    private final List<String> rejected = new ArrayList<>();
+
+    private final Reconciliation.Listener listener = new Reconciliation.Listener() {
+        @Override
+        public void rejected(String[] fields, String reason) {
+            rejected.add(fields[0]);
+        }
+
+        @Override
+        public void planned(DeviceWrite write, Device stored) {
+            planned.add(write.getClass().getSimpleName() + " "
+                    + (stored == null ? ((DeviceWrite.Insert) write).device().getName() : stored.getName()));
+        }
+    };
+
+    @Test
+    public void testDryRunPlansInsertsUpdatesAndDeletesWithoutWriting() {
+        add("Gateway", DeviceType.ROUTER, "10.0.0.1", "HQ");
+        add("Printer", DeviceType.PRINTER, "10.0.0.7", null);
+        add("Printer", DeviceType.PRINTER, "10.0.0.7", null);
+        add("Old Switch", DeviceType.NETWORK_SWITCH, null, null);
+
+        Reconciliation result = service.reconcile(List.of(
+                new String[] { "Gateway", "router", "active", "10.0.0.1", "HQ" },
+                new String[] { "New Server", "server", "", "10.0.0.20", "" },
+                new String[] { "Printer", "printer", "maintenance", "010.0.0.7", "" }).iterator(),
+                2, false, listener);
+
+        assertEquals(List.of("Insert New Server", "Delete Old Switch", "Patch Printer", "Delete Printer"), planned);
+        assertEquals(1, result.inserts());
+        assertEquals(1, result.updates());
+        assertEquals(2, result.deletes());
+        assertEquals(1, result.unchanged());
+        assertEquals(0, result.writesApplied());
+        assertEquals(4, dao.findAll().size());
+    }
+
+    @Test
+    public void testApplyMakesTheInventoryMatchAndSparesRejectedRows() {
+        add("Core Switch", DeviceType.NETWORK_SWITCH, "10.1.0.1", null);
+        add("Lab Router", DeviceType.ROUTER, "10.1.0.2", "Lab");
+        add("Retired", DeviceType.OTHER, null, null);
+
+        Reconciliation result = service.reconcile(List.of(
+                new String[] { "Core Switch", "network switch", "not-a-status", "10.1.0.1" },
+                new String[] { "Lab Router", "router", "inactive", "10.1.0.2", "" },
+                new String[] { "Web", "server", "", "10.1.0.3" }).iterator(),
+                1, true, listener);
+
+        assertEquals(List.of("Core Switch"), rejected);
+        assertEquals(1, result.kept());
+        assertEquals(3, result.writesApplied());
+        assertEquals(0, result.writesFailed());
+        assertEquals(List.of("Core Switch ACTIVE null", "Lab Router INACTIVE null", "Web ACTIVE null"),
+                dao.findAll().stream()
+                        .map(d -> d.getName() + " " + d.getStatus().name() + " " + d.getLocation())
+                        .sorted().toList());
+    }
+
+    @Test
+    public void testRejectsUnsortedInput() {
+        try {
+            service.reconcile(List.of(
+                    new String[] { "b", "", "", "10.0.0.9" },
+                    new String[] { "b", "", "", "10.0.0.10" }).iterator(),
+                    100, false, listener);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Input is not sorted by name and IP address: 'b 10.0.0.10' comes after 'b 10.0.0.9'.",
+                    e.getMessage());
+        }
+    }
+
+    private void add(String name, DeviceType type, String ip, String location) {
+        dao.save(new Device(name, type, DeviceStatus.ACTIVE, ip, location));
+    }
+}